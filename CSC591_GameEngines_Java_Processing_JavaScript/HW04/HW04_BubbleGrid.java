@@ -0,0 +1,470 @@
+/*************************************************************************************************************
+ * FILE:            HW04_BubbleGrid.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Index of the bubbles that have settled (shootee bubbles) in the Bubble Shooter game.
+ *                  Settled bubbles sit in rows below the status area, one bubble-width apart
+ *                      (see HW04_ObjectBubble.addNewRowOfBubblesAtTopOfWindow),
+ *                      so each one has a cell (column, row), and the grid keeps which bubble is in each cell.
+ *                      A shooter bubble that gets stuck is settled into the nearest free cell (see settle).
+ *                  Bubbles touch if their cells are next to each other (including diagonally).
+ *                  This lets popping work cell by cell instead of asking what each bubble is colliding with:
+ *                      - A cluster (every bubble of the same color connected to the ones hit) is found with a
+ *                        breadth-first search, so it costs as much as the cluster is big (see getCluster).
+ *                      - Bubbles left floating (not connected to the top row any more) are found with
+ *                        one sweep of the grid (see getFloating).
+ *                  The grid is rebuilt whenever every bubble moves down for a new row,
+ *                      and otherwise kept up to date as bubbles settle and pop.
+ *                  A cell whose bubble has since left the game or become a shooter again counts as empty.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_BubbleGrid {
+    
+    // Cells (row by row), and a stamp used so that a search visits each cell only once without clearing anything
+    private static HW04_ObjectBubble[] aoCells = null;
+    private static int[] anVisitStamps = null;
+    private static int nVisitStamp = 0;
+    private static int nColumns = 0;
+    private static int nRows = 0;
+    
+    // Cells waiting to be visited by a search
+    private static int[] anQueue = null;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        rebuild
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Forget every cell and index all settled bubbles again (after they have all moved)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void rebuild () {
+        try {
+            
+            // Declare variables
+            CopyOnWriteArrayList<HW04_ObjectBubble> aoBubbles;
+            int i;
+            
+            // Size the grid to the window (the first time)
+            if (aoCells == null) {
+                nColumns = HW04_Utility.getWindowSize() / HW04_ObjectBubble.getStaticRadius() + 1;
+                nRows = HW04_Utility.getWindowSize() / HW04_ObjectBubble.getStaticRadius() + 1;
+                aoCells = new HW04_ObjectBubble[nColumns * nRows];
+                anVisitStamps = new int[nColumns * nRows];
+                anQueue = new int[nColumns * nRows];
+            }
+            
+            // Start again
+            for (i = 0; i < aoCells.length; i++) {
+                aoCells[i] = null;
+            }
+            aoBubbles = HW04_ObjectBubble.getBubbleObjects();
+            for (i = 0; i < aoBubbles.size(); i++) {
+                if (aoBubbles.get(i).getShooterFlag() == false) {
+                    add(aoBubbles.get(i));
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        add
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Index a settled bubble, in the cell nearest to where it is
+     *                      (a bubble outside the grid is not indexed)
+     *
+     * ARGUMENTS:       oBubble -   The bubble
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void add (HW04_ObjectBubble oBubble) {
+        
+        // Declare variables
+        int nCell;
+        
+        if (aoCells == null) {
+            rebuild();
+        }
+        nCell = getCell(getColumn(oBubble.getPositionX()), getRow(oBubble.getPositionY()));
+        if (nCell >= 0) {
+            aoCells[nCell] = oBubble;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        remove
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Stop indexing a bubble (it has popped)
+     *
+     * ARGUMENTS:       oBubble -   The bubble
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void remove (HW04_ObjectBubble oBubble) {
+        
+        // Declare variables
+        int nCell;
+        
+        if (aoCells != null) {
+            nCell = getCell(getColumn(oBubble.getPositionX()), getRow(oBubble.getPositionY()));
+            if (nCell >= 0 && aoCells[nCell] == oBubble) {
+                aoCells[nCell] = null;
+            }
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        settle
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Move a bubble that has just got stuck into the nearest free cell around it, and index it there
+     *                      (if there is no free cell around it, it stays where it is, and is not indexed)
+     *
+     * ARGUMENTS:       oBubble -   The bubble (no longer a shooter)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void settle (HW04_ObjectBubble oBubble) {
+        
+        // Declare variables
+        float nBestDistance;
+        float nDistance;
+        int nBestColumn;
+        int nBestRow;
+        int nColumn;
+        int nRow;
+        
+        if (aoCells == null) {
+            rebuild();
+        }
+        
+        // Look at the cell it is closest to, and the cells around that one
+        nBestDistance = Float.MAX_VALUE;
+        nBestColumn = -1;
+        nBestRow = -1;
+        for (nRow = getRow(oBubble.getPositionY()) - 1; nRow <= getRow(oBubble.getPositionY()) + 1; nRow++) {
+            for (nColumn = getColumn(oBubble.getPositionX()) - 1; nColumn <= getColumn(oBubble.getPositionX()) + 1; nColumn++) {
+                if (getCell(nColumn, nRow) >= 0 && getBubble(nColumn, nRow) == null) {
+                    nDistance =
+                        Math.abs(getCellX(nColumn) - oBubble.getPositionX()) +
+                        Math.abs(getCellY(nRow) - oBubble.getPositionY());
+                    if (nDistance < nBestDistance) {
+                        nBestDistance = nDistance;
+                        nBestColumn = nColumn;
+                        nBestRow = nRow;
+                    }
+                }
+            }
+        }
+        
+        // Move it there
+        if (nBestColumn >= 0) {
+            oBubble.setPositionX(getCellX(nBestColumn));
+            oBubble.setPositionY(getCellY(nBestRow));
+            aoCells[getCell(nBestColumn, nBestRow)] = oBubble;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCluster
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find every settled bubble connected to some settled bubbles through bubbles of the same color
+     *                      (breadth-first, so each bubble in the cluster is looked at once, along with its neighbors)
+     *
+     * ARGUMENTS:       aoStartBubbles -    The bubbles to start from (all the same color)
+     *
+     * RETURNS:         aoCluster -         The bubbles in the cluster, including the ones started from
+     *********************************************************************************************************/
+    public static synchronized ArrayList<HW04_ObjectBubble> getCluster (ArrayList<HW04_ObjectBubble> aoStartBubbles) {
+        
+        ArrayList<HW04_ObjectBubble> aoCluster = new ArrayList<HW04_ObjectBubble>();
+        try {
+            
+            // Declare variables
+            HW04_ObjectBubble oStartBubble;
+            int nHead;
+            int nTail;
+            int nCell;
+            int i;
+            
+            if (aoCells == null) {
+                rebuild();
+            }
+            
+            // Start from the bubbles given
+            nVisitStamp++;
+            nHead = 0;
+            nTail = 0;
+            for (i = 0; i < aoStartBubbles.size(); i++) {
+                oStartBubble = aoStartBubbles.get(i);
+                nCell = getCell(getColumn(oStartBubble.getPositionX()), getRow(oStartBubble.getPositionY()));
+                if (nCell >= 0 && getBubble(nCell % nColumns, nCell / nColumns) == oStartBubble && anVisitStamps[nCell] != nVisitStamp) {
+                    anVisitStamps[nCell] = nVisitStamp;
+                    anQueue[nTail++] = nCell;
+                }
+            }
+            
+            // Spread to neighbors of the same color
+            while (nHead < nTail) {
+                nCell = anQueue[nHead++];
+                aoCluster.add(aoCells[nCell]);
+                nTail = visitNeighbors(nCell, aoCells[nCell], nTail);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoCluster;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getFloating
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find every settled bubble that is no longer connected (through bubbles of any color)
+     *                      to a bubble in the top row, which hangs from the status area
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         aoFloating -    The floating bubbles
+     *********************************************************************************************************/
+    public static synchronized ArrayList<HW04_ObjectBubble> getFloating () {
+        
+        ArrayList<HW04_ObjectBubble> aoFloating = new ArrayList<HW04_ObjectBubble>();
+        try {
+            
+            // Declare variables
+            int nHead;
+            int nTail;
+            int nCell;
+            int nColumn;
+            
+            if (aoCells == null) {
+                rebuild();
+            }
+            
+            // Start from every bubble in the top row
+            nVisitStamp++;
+            nHead = 0;
+            nTail = 0;
+            for (nColumn = 0; nColumn < nColumns; nColumn++) {
+                if (getBubble(nColumn, 0) != null) {
+                    anVisitStamps[nColumn] = nVisitStamp;
+                    anQueue[nTail++] = nColumn;
+                }
+            }
+            
+            // Spread to every neighbor
+            while (nHead < nTail) {
+                nCell = anQueue[nHead++];
+                nTail = visitNeighbors(nCell, null, nTail);
+            }
+            
+            // Whatever wasn't reached is floating
+            for (nCell = 0; nCell < aoCells.length; nCell++) {
+                if (anVisitStamps[nCell] != nVisitStamp && getBubble(nCell % nColumns, nCell / nColumns) != null) {
+                    aoFloating.add(aoCells[nCell]);
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoFloating;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        visitNeighbors
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add the not-yet-visited neighbors of a cell that have a bubble (of a color, if given)
+     *                      to the cells waiting to be visited
+     *
+     * ARGUMENTS:       nCell -         The cell
+     *                  oSameColorAs -  Only visit bubbles of the same color as this one (null for any color)
+     *                  nTail -         Where the next cell to visit goes in the queue
+     *
+     * RETURNS:         nTail -         Where the next cell to visit now goes in the queue
+     *********************************************************************************************************/
+    private static int visitNeighbors (int nCell, HW04_ObjectBubble oSameColorAs, int nTail) {
+        
+        // Declare variables
+        HW04_ObjectBubble oNeighbor;
+        int nNeighborCell;
+        int nColumn;
+        int nRow;
+        
+        for (nRow = nCell / nColumns - 1; nRow <= nCell / nColumns + 1; nRow++) {
+            for (nColumn = nCell % nColumns - 1; nColumn <= nCell % nColumns + 1; nColumn++) {
+                nNeighborCell = getCell(nColumn, nRow);
+                if (nNeighborCell >= 0 && anVisitStamps[nNeighborCell] != nVisitStamp) {
+                    oNeighbor = getBubble(nColumn, nRow);
+                    if (oNeighbor != null && (oSameColorAs == null || isSameColor(oNeighbor, oSameColorAs) == true)) {
+                        anVisitStamps[nNeighborCell] = nVisitStamp;
+                        anQueue[nTail++] = nNeighborCell;
+                    }
+                }
+            }
+        }
+        return nTail;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isSameColor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether two bubbles are the same color
+     *
+     * ARGUMENTS:       oBubble1 -  A bubble
+     *                  oBubble2 -  Another bubble
+     *
+     * RETURNS:         bSame -     True if they are the same color
+     *********************************************************************************************************/
+    public static boolean isSameColor (HW04_ObjectBubble oBubble1, HW04_ObjectBubble oBubble2) {
+        return
+            oBubble1.getColor().R == oBubble2.getColor().R &&
+            oBubble1.getColor().G == oBubble2.getColor().G &&
+            oBubble1.getColor().B == oBubble2.getColor().B;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getBubble
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the settled bubble in a cell
+     *
+     * ARGUMENTS:       nColumn -   The cell's column
+     *                  nRow -      The cell's row
+     *
+     * RETURNS:         oBubble -   The bubble (or null if the cell is empty or outside the grid)
+     *********************************************************************************************************/
+    private static HW04_ObjectBubble getBubble (int nColumn, int nRow) {
+        
+        // Declare variables
+        HW04_ObjectBubble oBubble;
+        int nCell;
+        
+        nCell = getCell(nColumn, nRow);
+        if (nCell < 0) {
+            return null;
+        }
+        oBubble = aoCells[nCell];
+        if (oBubble != null && (oBubble.getRemovalFlag() == true || oBubble.getShooterFlag() == true)) {
+            return null;
+        }
+        return oBubble;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCell
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the index of a cell
+     *
+     * ARGUMENTS:       nColumn -   The cell's column
+     *                  nRow -      The cell's row
+     *
+     * RETURNS:         nCell -     The index (or -1 if the cell is outside the grid)
+     *********************************************************************************************************/
+    private static int getCell (int nColumn, int nRow) {
+        if (nColumn < 0 || nColumn >= nColumns || nRow < 0 || nRow >= nRows) {
+            return -1;
+        }
+        return nRow * nColumns + nColumn;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getColumn
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the column nearest to a position (columns start at the left of the window)
+     *
+     * ARGUMENTS:       nX_px -     A position on the x axis
+     *
+     * RETURNS:         nColumn -   The column
+     *********************************************************************************************************/
+    private static int getColumn (float nX_px) {
+        return Math.round(nX_px / HW04_ObjectBubble.getStaticRadius());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getRow
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the row nearest to a position (rows start just below the status area)
+     *
+     * ARGUMENTS:       nY_px -     A position on the y axis
+     *
+     * RETURNS:         nRow -      The row
+     *********************************************************************************************************/
+    private static int getRow (float nY_px) {
+        return Math.round((nY_px - HW04_ObjectStatus.getTotalHeight()) / HW04_ObjectBubble.getStaticRadius());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCellX
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the position of a column
+     *
+     * ARGUMENTS:       nColumn -   The column
+     *
+     * RETURNS:         nX_px -     Its position on the x axis
+     *********************************************************************************************************/
+    private static float getCellX (int nColumn) {
+        return nColumn * HW04_ObjectBubble.getStaticRadius();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCellY
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the position of a row
+     *
+     * ARGUMENTS:       nRow -      The row
+     *
+     * RETURNS:         nY_px -     Its position on the y axis
+     *********************************************************************************************************/
+    private static float getCellY (int nRow) {
+        return HW04_ObjectStatus.getTotalHeight() + nRow * HW04_ObjectBubble.getStaticRadius();
+    }
+
+}
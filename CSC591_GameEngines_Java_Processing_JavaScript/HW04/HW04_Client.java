@@ -24,6 +24,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -33,7 +37,7 @@ import java.io.PrintWriter;
 import processing.core.PApplet;
 
 // CLASS DEFINITION
-public class HW04_Client extends PApplet implements Runnable {
+public class HW04_Client extends PApplet implements Runnable, HW04_Renderer {
     
     // Static constants
     private static final HW04_EventManager O_EVENT_MANAGER = HW04_EventManager.getInstance();
@@ -41,6 +45,8 @@ public class HW04_Client extends PApplet implements Runnable {
     // Static variables
     private static ObjectOutputStream       oStreamOut;
     private static ObjectInputStream        oStreamIn;
+    private static DataOutputStream         oFramedStreamOut;
+    private static DataInputStream          oFramedStreamIn;
     private static Socket                   oSocket;
     private static boolean                  bQuit;
     private static boolean                  bShutdownInProgress;
@@ -119,6 +125,8 @@ public class HW04_Client extends PApplet implements Runnable {
      *                      Default = 0
      *                  1 - Frame rate
      *                      Default = 60
+     *                  2+ - Engine options, in any order (see HW04_Utility.setOption)
+     *                      Options that change what goes over the wire are picked up from the server automatically
      *                      
      * RETURNS:         None
      *********************************************************************************************************/
@@ -134,7 +142,7 @@ public class HW04_Client extends PApplet implements Runnable {
             int i;
             
             // Check arguments
-            if (args.length > 2) {
+            if (args.length > 2 && HW04_Utility.parseOptions(args, 2) == false) {
                 System.out.println("\nUsage: java -classpath .:./core.jar HW04_Client [see source code for optional arguments]");
             }
             else {
@@ -185,6 +193,9 @@ public class HW04_Client extends PApplet implements Runnable {
                 if (args.length > 1) {
                     HW04_Globals.nFrameRate = Integer.parseInt(args[1]);
                 }
+                
+                // Talk to the server in the same way that it talks to us
+                HW04_Utility.loadNetworkOptions();
 
                 // Assume the user does not want to quit until we know otherwise
                 bQuit =                         false;
@@ -203,9 +214,16 @@ public class HW04_Client extends PApplet implements Runnable {
                 }
                 if (bQuit != true) {
                     
-                    // Create streams on the socket
-                    oStreamOut = new ObjectOutputStream(oSocket.getOutputStream());
-                    oStreamIn = new ObjectInputStream(oSocket.getInputStream());
+                    // Create streams on the socket (we collect our own packets with PACKETS, so turn off Nagle's algorithm)
+                    oSocket.setTcpNoDelay(HW04_Globals.bFramePackets);
+                    if (HW04_Globals.bFramedMessages == true) {
+                        oFramedStreamOut = new DataOutputStream(new BufferedOutputStream(oSocket.getOutputStream(), HW04_NetworkCodec.N_PACKET_BUFFER_BYTES));
+                        oFramedStreamIn = new DataInputStream(new BufferedInputStream(oSocket.getInputStream()));
+                    }
+                    else {
+                        oStreamOut = new ObjectOutputStream(oSocket.getOutputStream());
+                        oStreamIn = new ObjectInputStream(oSocket.getInputStream());
+                    }
                     
                     /* Wait to hear back from the server about my character object
                      *  This is the first object the server will send me
@@ -214,7 +232,7 @@ public class HW04_Client extends PApplet implements Runnable {
                      *  Gotta have this because a lot of event stuff depends on having a valid player ID
                      *      that's why we do this before almost anything else
                      */
-                    HW04_Globals.oMyCharacterObject = (HW04_ObjectCharacter) oStreamIn.readObject();
+                    HW04_Globals.oMyCharacterObject = (HW04_ObjectCharacter) readFromServer();
                     HW04_Globals.oMyCharacterObject.setColor(HW04_Color.getRandomShade("Blue"));
                     HW04_ObjectGame.addToGameObjects(HW04_Globals.oMyCharacterObject);
                     HW04_Globals.nPlayerID = HW04_Globals.oMyCharacterObject.getPlayerID();
@@ -230,8 +248,8 @@ public class HW04_Client extends PApplet implements Runnable {
                     
                     // Register interest in local events that affect the character object
                     O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.USER_INPUT,    HW04_Globals.oMyCharacterObject, false);
-                    O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.COLLISION,     HW04_Globals.oMyCharacterObject, false);
-                    O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.SPAWN,         HW04_Globals.oMyCharacterObject, false);
+                    O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.COLLISION,     HW04_Globals.oMyCharacterObject);
+                    O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.SPAWN,         HW04_Globals.oMyCharacterObject);
                     O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.REPLAY,        HW04_Globals.oMyCharacterObject, false);
                     
                     /* Register interest in network-wide events that affect the character object
@@ -249,6 +267,13 @@ public class HW04_Client extends PApplet implements Runnable {
                     oClientInstance = new HW04_Client("Read");
                     (new Thread(oClientInstance)).start();
                     
+                    // Start 1 more thread, to receive snapshots over UDP (UDP option)
+                    if (HW04_Globals.bDatagramSnapshots == true) {
+                        HW04_DatagramTransport.openClient(HW04_Utility.getPortNumber());
+                        oClientInstance = new HW04_Client("Datagram");
+                        (new Thread(oClientInstance)).start();
+                    }
+                    
                     /* Start a PApplet application and tell it to use our class
                      * This will run settings() and setup() and then will start running draw() continuously
                      * So this comes after communication is established with the server
@@ -287,6 +312,7 @@ public class HW04_Client extends PApplet implements Runnable {
             Object oObjectReadFromServer;
             HW04_ObjectCommunicable oObjectToWrite;
             HW04_ObjectGame oLocalCopyOfChangedObject;
+            HW04_ObjectGame oSnapshotFromServer;
             HW04_ObjectCharacter oThisChangedCharacter;
             int nGameObjectGUID;
             int i;
@@ -313,12 +339,8 @@ public class HW04_Client extends PApplet implements Runnable {
                         if (bQuit == false && bShutdownInProgress == false && bServerShutdownBeingHandled == false) {
                             try {
                                 
-                                /* Write object to server
-                                 * https://stackoverflow.com/questions/41058548/why-an-object-doesnt-change-when-i-send-it-through-writeobject-method
-                                 */
-                                oStreamOut.reset();
-                                oStreamOut.writeObject(oObjectToWrite);
-                                oStreamOut.flush();
+                                // Write object to server
+                                writeToServer(oObjectToWrite);
                                 
                             }
                             catch (IOException oError) {
@@ -340,7 +362,7 @@ public class HW04_Client extends PApplet implements Runnable {
                     // READ from game server
                     oObjectReadFromServer = null;
                     try {
-                        oObjectReadFromServer = oStreamIn.readObject();
+                        oObjectReadFromServer = readFromServer();
                     }
                     catch (Throwable oError) {
                         handleServerShutdown();
@@ -426,6 +448,47 @@ public class HW04_Client extends PApplet implements Runnable {
 
                         }
                         
+                        /* Deal with changed fields of a game object that we already know about (DELTA option)
+                         *  Handled just like a whole game object, except that the local copy is patched in place
+                         */
+                        if (oObjectReadFromServer instanceof HW04_ObjectDelta) {
+                            synchronized (HW04_Client.class) {
+                                
+                                // Get GUID and local copy
+                                nGameObjectGUID = ((HW04_ObjectDelta) oObjectReadFromServer).getGUID();
+                                oLocalCopyOfChangedObject = HW04_ObjectGame.getObjectByGUID(nGameObjectGUID);
+                                
+                                if (oLocalCopyOfChangedObject != null) {
+                                    
+                                    // Object is flagged for removal
+                                    if (
+                                        ((HW04_ObjectDelta) oObjectReadFromServer).hasField(HW04_ObjectDelta.N_FIELD_REMOVAL) == true && 
+                                        ((HW04_ObjectDelta) oObjectReadFromServer).getRemovalFlag() == true
+                                    ) {
+                                        oLocalCopyOfChangedObject.setRemovalFlag();
+                                        O_EVENT_MANAGER.raiseEventGameObjectChange(oLocalCopyOfChangedObject);
+                                        if (
+                                            HW04_Replay.getCurrentState() == HW04_Replay.ReplayState.RECORDING && 
+                                            oLocalCopyOfChangedObject instanceof HW04_ObjectRenderable
+                                        ) {
+                                            ((HW04_ObjectRenderable) oLocalCopyOfChangedObject).setHiddenFlag(true);
+                                        }
+                                        else {
+                                            HW04_ObjectGame.removeObjectByGUID(nGameObjectGUID);
+                                        }
+                                    }
+                                    
+                                    // Changed object (ignore if we are replaying right now, as above)
+                                    else if (HW04_Replay.getCurrentState() != HW04_Replay.ReplayState.REPLAYING) {
+                                        HW04_ObjectGame.replaceObjectByGUID(nGameObjectGUID, (HW04_ObjectDelta) oObjectReadFromServer);
+                                        O_EVENT_MANAGER.raiseEventGameObjectChange(oLocalCopyOfChangedObject);
+                                    }
+                                
+                                }
+                            
+                            }
+                        }
+                        
                         // Deal with event registration (that is, someone else in the network is interested in our events)
                         if (oObjectReadFromServer instanceof HW04_ObjectEventRemoteRegistration) {
                             
@@ -452,6 +515,46 @@ public class HW04_Client extends PApplet implements Runnable {
                 
             }
             
+            /* RECEIVE SNAPSHOTS FROM SERVER (UDP option)
+             *  Snapshots only ever update game objects that we already know about
+             *      New and removed game objects come over TCP, where they can't be lost
+             *      A snapshot that arrives before the object is new (or after it is removed) is ignored
+             *  Snapshots older than one we've already applied have been thrown out already
+             */
+            else if (this.sThreadType.equals("Datagram")) {
+                while (bQuit != true) {
+                    
+                    // RECEIVE from game server
+                    oSnapshotFromServer = null;
+                    try {
+                        oSnapshotFromServer = HW04_DatagramTransport.receiveSnapshot();
+                    }
+                    catch (Throwable oError) {
+                        // We are shutting down (if the server shut down, the TCP connection will say so)
+                        break;
+                    }
+                    
+                    // ACT on what was received
+                    if (oSnapshotFromServer != null) {
+                        HW04_ObjectCommunicable.castObject(oSnapshotFromServer);
+                        synchronized (HW04_Client.class) {
+                            nGameObjectGUID = oSnapshotFromServer.getGUID();
+                            oLocalCopyOfChangedObject = HW04_ObjectGame.getObjectByGUID(nGameObjectGUID);
+                            if (
+                                oLocalCopyOfChangedObject != null && 
+                                oLocalCopyOfChangedObject.getRemovalFlag() == false && 
+                                nGameObjectGUID != HW04_Globals.oMyCharacterObject.getGUID() && 
+                                HW04_Replay.getCurrentState() != HW04_Replay.ReplayState.REPLAYING
+                            ) {
+                                O_EVENT_MANAGER.raiseEventGameObjectChange(oSnapshotFromServer);
+                                HW04_ObjectGame.replaceObjectByGUID(nGameObjectGUID, oSnapshotFromServer);
+                            }
+                        }
+                    }
+                
+                }
+            }
+            
             // Unknown thread operation
             else {
                 throw new Exception("Thread operation type '" + this.sThreadType + "' not recognized");
@@ -463,6 +566,59 @@ public class HW04_Client extends PApplet implements Runnable {
         }
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        writeToServer
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write one object to the server, 
+     *                      either as part of one long object stream or as a frame (FRAMED option).
+     *                  The end-of-packet marker is not written, it just flushes the stream (PACKETS option).
+     *                  I/O problems are passed up to the caller, who knows how to handle server shutdown.
+     *
+     * ARGUMENTS:       oObjectToWrite -    The object to write
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void writeToServer (HW04_ObjectCommunicable oObjectToWrite) throws IOException {
+        if (HW04_Globals.bFramedMessages == true) {
+            if (oObjectToWrite == HW04_NetworkCodec.O_END_OF_PACKET) {
+                oFramedStreamOut.flush();
+            }
+            else {
+                HW04_NetworkCodec.writeFrame(oFramedStreamOut, oObjectToWrite);
+            }
+        }
+        else {
+            // https://stackoverflow.com/questions/41058548/why-an-object-doesnt-change-when-i-send-it-through-writeobject-method
+            oStreamOut.reset();
+            oStreamOut.writeObject(oObjectToWrite);
+            oStreamOut.flush();
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFromServer
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read one object from the server (blocks until it arrives),
+     *                      either as part of one long object stream or as a frame (FRAMED option).
+     *                  Problems are passed up to the caller, who knows how to handle server shutdown.
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         The object read
+     *********************************************************************************************************/
+    private static Object readFromServer () throws IOException, ClassNotFoundException {
+        if (HW04_Globals.bFramedMessages == true) {
+            return HW04_NetworkCodec.readFrame(oFramedStreamIn);
+        }
+        else {
+            return oStreamIn.readObject();
+        }
+    }
+
     /*********************************************************************************************************
      * FUNCTION:        instructUser
      *
@@ -542,6 +698,9 @@ public class HW04_Client extends PApplet implements Runnable {
             // Set default shape fill color (light gray)
             fill(200);
             
+            // Set the font that game objects draw text with
+            textFont(createFont("Arial", HW04_ObjectRenderable.getStaticFontSize(), true));
+            
             // Set the window title
             surface.setTitle("Player " + HW04_Globals.oMyCharacterObject.getPlayerID());
             
@@ -583,6 +742,8 @@ public class HW04_Client extends PApplet implements Runnable {
             Object oObjectReadFromServer;
             HW04_ObjectRenderable oThisRenderableObject;
             int nIndexOfMyCharacterObject;
+            float nCameraX_px;
+            int nSteps;
             int i;
             
             // Quitting?
@@ -614,9 +775,17 @@ public class HW04_Client extends PApplet implements Runnable {
                  *      Likewise it's better not to render collided / funky objects
                  *  Synchronize here so that we don't end up 
                  *      trying to draw stuff while that stuff is being replaced (by the read stream thread)
+                 *  With the FIXED option, objects are drawn part way between their last two steps
+                 *  With the WORLD option, the view follows our character (but the status objects stay put)
                  */
                 synchronized (HW04_Client.class) {
                     
+                    nCameraX_px = Math.max(0, Math.min(
+                        HW04_Utility.getWorldWidth() - HW04_Utility.getWindowSize(),
+                        HW04_Globals.oMyCharacterObject.getPositionX() + 
+                            HW04_Globals.oMyCharacterObject.getWidth() / 2 - 
+                            HW04_Utility.getWindowSize() / 2
+                    ));
                     aoObjectsRenderable = HW04_ObjectRenderable.getRenderableObjects();
                     for (i = 0; i < aoObjectsRenderable.size(); i++) {
                         
@@ -626,12 +795,20 @@ public class HW04_Client extends PApplet implements Runnable {
                         /* Before we can use any Processing methods, must give game objects a window
                          * Objects are received from the server, but the client has its own window to draw in
                          */
-                        oThisRenderableObject.setApplet(this);
+                        oThisRenderableObject.setRenderer(this);
                         
                         // Make sure overriding display methods are actually called
                         HW04_ObjectCommunicable.castObject(oThisRenderableObject);
-                        oThisRenderableObject.display();
-                        
+                        if (nCameraX_px > 0 && (oThisRenderableObject instanceof HW04_ObjectStatus) == false) {
+                            pushMatrix();
+                            translate(nCameraX_px * -1, 0);
+                            oThisRenderableObject.display();
+                            popMatrix();
+                        }
+                        else {
+                            oThisRenderableObject.display();
+                        }
+                                                
                     }
                     aoObjectsRenderable = null;
                     
@@ -671,24 +848,48 @@ public class HW04_Client extends PApplet implements Runnable {
                  *  Why? Moving platforms may cause collision events which need to be handled
                  *  It's better not to send collided / funky objects out
                  *  Likewise it's better not to render collided / funky objects
+                 * One step per frame, or however many fixed steps are due (FIXED option),
+                 *  remembering where everything was before each fixed step so that it can be drawn in between
                  */
-                if (HW04_Time.isGamePaused() == false) {
-                    synchronized (HW04_Client.class) {
-                        // What we do here depends upon which game we are playing (use scripting)
-                        HW04_ScriptManager.invokeFunction("performGameLoopIterationClient", HW04_Globals.oMyCharacterObject);
-                    }
+                nSteps = 1;
+                if (HW04_Globals.bFixedTimestep == true) {
+                    nSteps = HW04_Time_Loop.getPlayInstance().accumulateFixedSteps();
                 }
+                for (i = 0; i < nSteps; i++) {
+                    
+                    if (HW04_Time.isGamePaused() == false) {
+                        synchronized (HW04_Client.class) {
+                            if (HW04_Globals.bFixedTimestep == true) {
+                                HW04_ObjectLocated.rememberPositions();
+                            }
+                            // What we do here depends upon which game we are playing (use scripting)
+                            HW04_ScriptManager.invokeFunction("performGameLoopIterationClient", HW04_Globals.oMyCharacterObject);
+                        }
+                    }
+                    
+                    // Move all objects around if we are replaying
+                    if (HW04_Replay.getCurrentState() == HW04_Replay.ReplayState.REPLAYING) {
+                        HW04_Replay.stepReplayForward();
+                    }
+                    
+                    // Increment loop time
+                    if (HW04_Time.isGamePaused() == false) {
+                        HW04_Time_Loop.getPlayInstance().tick();
+                    }
                 
-                // Move all objects around if we are replaying
-                if (HW04_Replay.getCurrentState() == HW04_Replay.ReplayState.REPLAYING) {
-                    HW04_Replay.stepReplayForward();
                 }
                 
-                // Increment loop time
-                if (HW04_Time.isGamePaused() == false) {
-                    HW04_Time_Loop.getPlayInstance().tick();
-                }
+                // Send everything from this iteration to the server in one go (PACKETS option)
+                HW04_NetworkCodec.endPacket();
+                
+                // Handle the latest change to each game object from this iteration (COALESCE option)
+                O_EVENT_MANAGER.endTick();
                 
+                // Make sure the server knows where to send snapshots (UDP option)
+                if (HW04_Globals.bDatagramSnapshots == true) {
+                    HW04_DatagramTransport.sayHello(HW04_Globals.nPlayerID);
+                }
+            
             }
             
         }
@@ -928,14 +1129,36 @@ public class HW04_Client extends PApplet implements Runnable {
                  * (ignore errors - maybe server is already killed)
                  */
                 try {
-                    oStreamIn.close();
-                    oStreamOut.close();
+                    if (HW04_Globals.bFramedMessages == true) {
+                        oFramedStreamIn.close();
+                        oFramedStreamOut.close();
+                    }
+                    else {
+                        oStreamIn.close();
+                        oStreamOut.close();
+                    }
                     oSocket.close();
                 }
                 catch (Throwable oError) {
                     // Ignore
                 }
                 
+                // Stop receiving snapshots over UDP, and say how they fared (UDP option)
+                if (HW04_Globals.bDatagramSnapshots == true) {
+                    System.out.println(HW04_DatagramTransport.getStatistics());
+                    HW04_DatagramTransport.close();
+                }
+                
+                // Say how coalescing went (COALESCE option)
+                if (HW04_Globals.bCoalesceEvents == true) {
+                    System.out.println(HW04_EventManager.getCoalescingStatistics());
+                }
+                
+                // Say how the fixed steps went (FIXED option)
+                if (HW04_Globals.bFixedTimestep == true) {
+                    System.out.println(HW04_Time_Loop.getPlayInstance().getFixedStatistics());
+                }
+                                
                 /* Goodbye Cruel World
                  * (ignore errors - maybe we don't have a character object yet)
                  */
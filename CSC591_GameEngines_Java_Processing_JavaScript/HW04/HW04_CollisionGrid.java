@@ -0,0 +1,863 @@
+/*************************************************************************************************************
+ * FILE:            HW04_CollisionGrid.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Broadphase for collision detection.
+ *                  Space is divided into square cells, and every collidable game object is listed
+ *                      in the bucket of every cell that it (slightly fudged, see HW04_ObjectCollidable) overlaps.
+ *                  To find out what an object might be colliding with,
+ *                      only the objects listed in the cells that it overlaps need to be looked at,
+ *                      instead of every collidable object in the game.
+ *                  Cells are hashed into a fixed number of buckets, so space need not be bounded.
+ *                      Two far-apart cells may share a bucket, which only means a few extra objects are looked at.
+ *                  The grid can also be asked what is in a rectangle, a circle, or along a ray,
+ *                      without creating anything (see getObjectsInRectangle, getObjectsInCircle, getObjectsOnRay).
+ *                  The grid is kept up to date as objects come and go (see HW04_ObjectGame)
+ *                      and as they move (see HW04_ObjectCollidable.positionChanged),
+ *                      and an object that moves within the same cells costs nothing more than a comparison.
+ *                  Only one thread at a time may use the grid (the server's game loop and read threads,
+ *                      and the client's draw loop and read thread, may all move objects).
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_CollisionGrid {
+    
+    // Constants
+    private static final int    N_CELL_PX =     64;
+    static final int            N_BUCKETS =     4096;
+    private static final Comparator<HW04_ObjectCollidable> O_BY_GUID = new Comparator<HW04_ObjectCollidable>() {
+        public int compare (HW04_ObjectCollidable oObject1, HW04_ObjectCollidable oObject2) {
+            return Integer.compare(oObject1.getGUID(), oObject2.getGUID());
+        }
+    };
+    
+    // Buckets of objects, and a stamp used so that an object in several cells is only looked at once per query
+    private static ArrayList<ArrayList<HW04_ObjectCollidable>> aaoBuckets = createBuckets();
+    private static int nQueryStamp = 0;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        createBuckets
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Create the (empty) buckets
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         aaoBuckets -    One list of objects per bucket
+     *********************************************************************************************************/
+    private static ArrayList<ArrayList<HW04_ObjectCollidable>> createBuckets () {
+        
+        // Declare variables
+        ArrayList<ArrayList<HW04_ObjectCollidable>> aaoNewBuckets;
+        int i;
+        
+        aaoNewBuckets = new ArrayList<ArrayList<HW04_ObjectCollidable>>(N_BUCKETS);
+        for (i = 0; i < N_BUCKETS; i++) {
+            aaoNewBuckets.add(new ArrayList<HW04_ObjectCollidable>(2));
+        }
+        return aaoNewBuckets;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        add
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Start keeping track of a collidable object (it has just joined the game)
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void add (HW04_ObjectCollidable oObject) {
+        try {
+            
+            if (oObject.bInGrid == false) {
+                oObject.nGridMinX = getCell(oObject.getCollisionLeft());
+                oObject.nGridMinY = getCell(oObject.getCollisionTop());
+                oObject.nGridMaxX = getCell(oObject.getCollisionLeft() + oObject.getCollisionWidth());
+                oObject.nGridMaxY = getCell(oObject.getCollisionTop() + oObject.getCollisionHeight());
+                listInCells(oObject, true);
+                oObject.bInGrid = true;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        remove
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Stop keeping track of a collidable object (it has left the game, or been replaced)
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void remove (HW04_ObjectCollidable oObject) {
+        try {
+            
+            if (oObject.bInGrid == true) {
+                listInCells(oObject, false);
+                oObject.bInGrid = false;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        move
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Keep up with an object that has moved (or that has just been given its size).
+     *                  Nothing to do unless it now overlaps different cells,
+     *                      or if it isn't being kept track of (not in the game).
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void move (HW04_ObjectCollidable oObject) {
+        try {
+            
+            moveInCells(oObject);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        moveAll
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Keep up with a number of objects that have moved, all at once (see HW04_ColumnStore),
+     *                      so the grid is locked once for all of them instead of once per object
+     *
+     * ARGUMENTS:       aoObjects -     The objects (the first nObjects of them)
+     *                  nObjects -      How many objects
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void moveAll (HW04_ObjectCollidable[] aoObjects, int nObjects) {
+        try {
+            
+            // Declare variables
+            int i;
+            
+            for (i = 0; i < nObjects; i++) {
+                moveInCells(aoObjects[i]);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getColliding
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the collidable objects that collide with an object
+     *                      (looking only at objects listed in the cells that the object overlaps)
+     *
+     * ARGUMENTS:       oObject -       The object
+     *                  bFirstOnly -    True to stop at the first colliding object found
+     *
+     * RETURNS:         aoColliding -   The colliding objects, in GUID order
+     *********************************************************************************************************/
+    public static synchronized CopyOnWriteArrayList<HW04_ObjectCollidable> getColliding (
+        HW04_ObjectCollidable oObject,
+        boolean bFirstOnly
+    ) {
+        
+        CopyOnWriteArrayList<HW04_ObjectCollidable> aoColliding = new CopyOnWriteArrayList<HW04_ObjectCollidable>();
+        try {
+            
+            // Declare variables
+            ArrayList<HW04_ObjectCollidable> aoNearby;
+            HW04_ObjectCollidable oCandidate;
+            int nLeft;
+            int nTop;
+            int nWidth;
+            int nHeight;
+            int i;
+            
+            // Where is the object
+            nLeft = oObject.getCollisionLeft();
+            nTop = oObject.getCollisionTop();
+            nWidth = oObject.getCollisionWidth();
+            nHeight = oObject.getCollisionHeight();
+            
+            // Test every object near the object (other than itself)
+            aoNearby = getNearbyObjects(HW04_ObjectCollidable.class, null, nLeft, nTop, nLeft + nWidth, nTop + nHeight);
+            for (i = 0; i < aoNearby.size(); i++) {
+                oCandidate = aoNearby.get(i);
+                if (
+                    oCandidate.getGUID() != oObject.getGUID() &&
+                    HW04_ObjectCollidable.doRectanglesIntersect(
+                        nLeft,
+                        nTop,
+                        nWidth,
+                        nHeight,
+                        oCandidate.getCollisionLeft(),
+                        oCandidate.getCollisionTop(),
+                        oCandidate.getCollisionWidth(),
+                        oCandidate.getCollisionHeight()
+                    ) == true
+                ) {
+                    aoColliding.add(oCandidate);
+                    if (bFirstOnly == true) {
+                        break;
+                    }
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoColliding;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getObjectsInRectangle
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the collidable objects of a class that a rectangle intersects
+     *                      (the same test as collision detection, with each object's slightly fudged rectangle).
+     *                  Nothing about the game changes - no object is created to ask the question.
+     *
+     * ARGUMENTS:       cType -             The class of objects to look for (HW04_ObjectCollidable for all)
+     *                  aoObjectsToIgnore - Objects that don't count (or null)
+     *                  nLeft_px -          Left of the rectangle
+     *                  nTop_px -           Top of the rectangle
+     *                  nWidth_px -         Width of the rectangle
+     *                  nHeight_px -        Height of the rectangle
+     *
+     * RETURNS:         aoFound -           The objects, in GUID order
+     *********************************************************************************************************/
+    @SuppressWarnings("unchecked")
+    public static synchronized <T extends HW04_ObjectCollidable> CopyOnWriteArrayList<T> getObjectsInRectangle (
+        Class<T> cType,
+        CopyOnWriteArrayList<HW04_ObjectCollidable> aoObjectsToIgnore,
+        int nLeft_px,
+        int nTop_px,
+        int nWidth_px,
+        int nHeight_px
+    ) {
+        
+        CopyOnWriteArrayList<T> aoFound = new CopyOnWriteArrayList<T>();
+        try {
+            
+            // Declare variables
+            ArrayList<HW04_ObjectCollidable> aoNearby;
+            HW04_ObjectCollidable oCandidate;
+            int i;
+            
+            aoNearby = getNearbyObjects(cType, aoObjectsToIgnore, nLeft_px, nTop_px, nLeft_px + nWidth_px, nTop_px + nHeight_px);
+            for (i = 0; i < aoNearby.size(); i++) {
+                oCandidate = aoNearby.get(i);
+                if (HW04_ObjectCollidable.doRectanglesIntersect(
+                    nLeft_px,
+                    nTop_px,
+                    nWidth_px,
+                    nHeight_px,
+                    oCandidate.getCollisionLeft(),
+                    oCandidate.getCollisionTop(),
+                    oCandidate.getCollisionWidth(),
+                    oCandidate.getCollisionHeight()
+                ) == true) {
+                    aoFound.add((T) oCandidate);
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoFound;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getObjectsInCircle
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the collidable objects of a class that a circle intersects
+     *                      (the circle must reach inside the object's slightly fudged rectangle, not just touch it).
+     *                  Nothing about the game changes.
+     *
+     * ARGUMENTS:       cType -             The class of objects to look for (HW04_ObjectCollidable for all)
+     *                  aoObjectsToIgnore - Objects that don't count (or null)
+     *                  nCenterX_px -       Center of the circle on the x axis
+     *                  nCenterY_px -       Center of the circle on the y axis
+     *                  nRadius_px -        Radius of the circle
+     *
+     * RETURNS:         aoFound -           The objects, in GUID order
+     *********************************************************************************************************/
+    @SuppressWarnings("unchecked")
+    public static synchronized <T extends HW04_ObjectCollidable> CopyOnWriteArrayList<T> getObjectsInCircle (
+        Class<T> cType,
+        CopyOnWriteArrayList<HW04_ObjectCollidable> aoObjectsToIgnore,
+        float nCenterX_px,
+        float nCenterY_px,
+        float nRadius_px
+    ) {
+        
+        CopyOnWriteArrayList<T> aoFound = new CopyOnWriteArrayList<T>();
+        try {
+            
+            // Declare variables
+            ArrayList<HW04_ObjectCollidable> aoNearby;
+            HW04_ObjectCollidable oCandidate;
+            float nClosestX_px;
+            float nClosestY_px;
+            int i;
+            
+            aoNearby = getNearbyObjects(
+                cType,
+                aoObjectsToIgnore,
+                (int) Math.floor(nCenterX_px - nRadius_px),
+                (int) Math.floor(nCenterY_px - nRadius_px),
+                (int) Math.ceil(nCenterX_px + nRadius_px),
+                (int) Math.ceil(nCenterY_px + nRadius_px)
+            );
+            for (i = 0; i < aoNearby.size(); i++) {
+                
+                // The point of the rectangle closest to the center must be inside the circle
+                oCandidate = aoNearby.get(i);
+                nClosestX_px = Math.max(
+                    oCandidate.getCollisionLeft(),
+                    Math.min(nCenterX_px, oCandidate.getCollisionLeft() + oCandidate.getCollisionWidth())
+                );
+                nClosestY_px = Math.max(
+                    oCandidate.getCollisionTop(),
+                    Math.min(nCenterY_px, oCandidate.getCollisionTop() + oCandidate.getCollisionHeight())
+                );
+                if (
+                    (nClosestX_px - nCenterX_px) * (nClosestX_px - nCenterX_px) +
+                    (nClosestY_px - nCenterY_px) * (nClosestY_px - nCenterY_px) <
+                    nRadius_px * nRadius_px
+                ) {
+                    aoFound.add((T) oCandidate);
+                }
+            
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoFound;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getObjectsOnRay
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the collidable objects of a class that a ray (line segment) passes through,
+     *                      nearest first (so the first one is what the ray hits first).
+     *                  An object the ray starts inside of is hit straight away.
+     *                  Nothing about the game changes.
+     *
+     * ARGUMENTS:       cType -             The class of objects to look for (HW04_ObjectCollidable for all)
+     *                  aoObjectsToIgnore - Objects that don't count (or null)
+     *                  nStartX_px -        Start of the ray on the x axis
+     *                  nStartY_px -        Start of the ray on the y axis
+     *                  nDirectionX -       Direction of the ray on the x axis
+     *                  nDirectionY -       Direction of the ray on the y axis
+     *                  nLength_px -        How far the ray goes
+     *
+     * RETURNS:         aoFound -           The objects, nearest first (GUID order for objects hit at the same distance)
+     *********************************************************************************************************/
+    @SuppressWarnings("unchecked")
+    public static synchronized <T extends HW04_ObjectCollidable> CopyOnWriteArrayList<T> getObjectsOnRay (
+        Class<T> cType,
+        CopyOnWriteArrayList<HW04_ObjectCollidable> aoObjectsToIgnore,
+        float nStartX_px,
+        float nStartY_px,
+        float nDirectionX,
+        float nDirectionY,
+        float nLength_px
+    ) {
+        
+        CopyOnWriteArrayList<T> aoFound = new CopyOnWriteArrayList<T>();
+        try {
+            
+            // Declare variables
+            ArrayList<HW04_ObjectCollidable> aoNearby;
+            ArrayList<HW04_ObjectCollidable> aoHit;
+            HW04_ObjectCollidable oCandidate;
+            float[] anHitDistance_px;
+            float nDirectionLength;
+            float nEndX_px;
+            float nEndY_px;
+            float nEnter_px;
+            int nHits;
+            int i;
+            int j;
+            
+            // Which way (a ray that goes nowhere hits nothing)
+            nDirectionLength = (float) Math.sqrt(nDirectionX * nDirectionX + nDirectionY * nDirectionY);
+            if (nDirectionLength > 0 && nLength_px >= 0) {
+                nDirectionX /= nDirectionLength;
+                nDirectionY /= nDirectionLength;
+                nEndX_px = nStartX_px + nDirectionX * nLength_px;
+                nEndY_px = nStartY_px + nDirectionY * nLength_px;
+                
+                // Test every object near the ray, keeping the hits in order of distance
+                aoNearby = getNearbyObjects(
+                    cType,
+                    aoObjectsToIgnore,
+                    (int) Math.floor(Math.min(nStartX_px, nEndX_px)),
+                    (int) Math.floor(Math.min(nStartY_px, nEndY_px)),
+                    (int) Math.ceil(Math.max(nStartX_px, nEndX_px)),
+                    (int) Math.ceil(Math.max(nStartY_px, nEndY_px))
+                );
+                aoHit = new ArrayList<HW04_ObjectCollidable>();
+                anHitDistance_px = new float[aoNearby.size()];
+                nHits = 0;
+                for (i = 0; i < aoNearby.size(); i++) {
+                    oCandidate = aoNearby.get(i);
+                    nEnter_px = getRayEntry(oCandidate, nStartX_px, nStartY_px, nDirectionX, nDirectionY, nLength_px);
+                    if (nEnter_px >= 0) {
+                        j = nHits;
+                        while (j > 0 && anHitDistance_px[j - 1] > nEnter_px) {
+                            anHitDistance_px[j] = anHitDistance_px[j - 1];
+                            j--;
+                        }
+                        anHitDistance_px[j] = nEnter_px;
+                        aoHit.add(j, oCandidate);
+                        nHits++;
+                    }
+                }
+                for (i = 0; i < aoHit.size(); i++) {
+                    aoFound.add((T) aoHit.get(i));
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoFound;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getTimeOfImpact
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find how far an object can go along a move before it first touches another collidable object
+     *                      (continuous collision detection, so that a fast object can't jump right over another one).
+     *                  The object's rectangle is swept along the move:
+     *                      equivalently, its top left corner is cast as a ray
+     *                      against each other object's rectangle grown by the size of the moving object.
+     *                  Objects that the moving object already overlaps don't stop it (so that it can get out of them),
+     *                      but an object it is only touching does, if the move is towards it.
+     *                  Nothing about the game changes.
+     *
+     * ARGUMENTS:       oObject -       The moving object
+     *                  nMoveX_px -     How far the object wants to move on the x axis
+     *                  nMoveY_px -     How far the object wants to move on the y axis
+     *
+     * RETURNS:         nFraction -     How much of the move can be made (0 to 1, 1 if nothing is in the way)
+     *********************************************************************************************************/
+    public static synchronized float getTimeOfImpact (HW04_ObjectCollidable oObject, float nMoveX_px, float nMoveY_px) {
+        
+        float nFraction = 1;
+        try {
+            
+            // Declare variables
+            ArrayList<HW04_ObjectCollidable> aoNearby;
+            HW04_ObjectCollidable oCandidate;
+            float[] anRange;
+            float nStartX_px;
+            float nStartY_px;
+            float nMinX_px;
+            float nMinY_px;
+            float nMaxX_px;
+            float nMaxY_px;
+            int i;
+            
+            // Everything near the swept rectangle (in GUID order, so the first of several equally near objects wins)
+            nStartX_px = oObject.getPositionX();
+            nStartY_px = oObject.getPositionY();
+            aoNearby = getNearbyObjects(
+                HW04_ObjectCollidable.class,
+                null,
+                (int) Math.floor(Math.min(nStartX_px, nStartX_px + nMoveX_px)),
+                (int) Math.floor(Math.min(nStartY_px, nStartY_px + nMoveY_px)),
+                (int) Math.ceil(Math.max(nStartX_px, nStartX_px + nMoveX_px)) + oObject.getCollisionWidth(),
+                (int) Math.ceil(Math.max(nStartY_px, nStartY_px + nMoveY_px)) + oObject.getCollisionHeight()
+            );
+            anRange = new float[2];
+            for (i = 0; i < aoNearby.size(); i++) {
+                oCandidate = aoNearby.get(i);
+                if (oCandidate.getGUID() != oObject.getGUID()) {
+                    
+                    // Where may the corner not go
+                    nMinX_px = oCandidate.getPositionX() - oObject.getWidth();
+                    nMinY_px = oCandidate.getPositionY() - oObject.getHeight();
+                    nMaxX_px = oCandidate.getPositionX() + oCandidate.getWidth();
+                    nMaxY_px = oCandidate.getPositionY() + oCandidate.getHeight();
+                    
+                    // Already overlapping?
+                    if (
+                        nStartX_px > nMinX_px && nStartX_px < nMaxX_px &&
+                        nStartY_px > nMinY_px && nStartY_px < nMaxY_px
+                    ) {
+                        continue;
+                    }
+                    
+                    // When does the move first get inside on both axes (if before it's done)
+                    anRange[0] = 0;
+                    anRange[1] = nFraction;
+                    if (
+                        clipMoveToSlab(anRange, nStartX_px, nMoveX_px, nMinX_px, nMaxX_px) == true &&
+                        clipMoveToSlab(anRange, nStartY_px, nMoveY_px, nMinY_px, nMaxY_px) == true &&
+                        anRange[0] < nFraction
+                    ) {
+                        nFraction = anRange[0];
+                    }
+                
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return nFraction;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clipMoveToSlab
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Clip the range of fractions of a move to where a point is strictly between two values
+     *                      (on one axis)
+     *
+     * ARGUMENTS:       anRange -       First and last fraction of the move (clipped in place)
+     *                  nStart_px -     Start of the point on this axis
+     *                  nMove_px -      How far the point moves on this axis
+     *                  nMin_px -       Lower value on this axis
+     *                  nMax_px -       Upper value on this axis
+     *
+     * RETURNS:         bInside -       True if any of the range is left
+     *********************************************************************************************************/
+    static boolean clipMoveToSlab (float[] anRange, float nStart_px, float nMove_px, float nMin_px, float nMax_px) {
+        
+        // Declare variables
+        float nNear;
+        float nFar;
+        
+        // Not moving on this axis - either always between or never
+        if (nMove_px == 0) {
+            return nStart_px > nMin_px && nStart_px < nMax_px;
+        }
+        
+        // When does the point cross each value
+        nNear = (nMin_px - nStart_px) / nMove_px;
+        nFar = (nMax_px - nStart_px) / nMove_px;
+        anRange[0] = Math.max(anRange[0], Math.min(nNear, nFar));
+        anRange[1] = Math.min(anRange[1], Math.max(nNear, nFar));
+        return anRange[0] < anRange[1];
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getRayEntry
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find how far along a ray it first gets inside an object's (slightly fudged) rectangle
+     *                      (the ray is clipped to the part of it that is inside the rectangle on each axis in turn)
+     *
+     * ARGUMENTS:       oObject -       The object
+     *                  nStartX_px -    Start of the ray on the x axis
+     *                  nStartY_px -    Start of the ray on the y axis
+     *                  nDirectionX -   Direction of the ray on the x axis (normalized)
+     *                  nDirectionY -   Direction of the ray on the y axis (normalized)
+     *                  nLength_px -    How far the ray goes
+     *
+     * RETURNS:         nEnter_px -     Distance along the ray, or -1 if the ray misses
+     *********************************************************************************************************/
+    private static float getRayEntry (
+        HW04_ObjectCollidable oObject,
+        float nStartX_px,
+        float nStartY_px,
+        float nDirectionX,
+        float nDirectionY,
+        float nLength_px
+    ) {
+        
+        // Declare variables
+        float[] anRange;
+        
+        anRange = new float[] {0, nLength_px};
+        if (
+            clipRayToSlab(anRange, nStartX_px, nDirectionX, oObject.getCollisionLeft(), oObject.getCollisionWidth()) == true &&
+            clipRayToSlab(anRange, nStartY_px, nDirectionY, oObject.getCollisionTop(), oObject.getCollisionHeight()) == true
+        ) {
+            return anRange[0];
+        }
+        else {
+            return -1;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clipRayToSlab
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Clip the range of distances along a ray to where it is between two edges of a rectangle
+     *                      (on one axis)
+     *
+     * ARGUMENTS:       anRange -       Nearest and furthest distance along the ray (clipped in place)
+     *                  nStart_px -     Start of the ray on this axis
+     *                  nDirection -    Direction of the ray on this axis (normalized)
+     *                  nMin_px -       Near edge of the rectangle on this axis
+     *                  nSize_px -      Size of the rectangle on this axis
+     *
+     * RETURNS:         bInside -       True if any of the range is left
+     *********************************************************************************************************/
+    private static boolean clipRayToSlab (float[] anRange, float nStart_px, float nDirection, int nMin_px, int nSize_px) {
+        
+        // Declare variables
+        float nNear_px;
+        float nFar_px;
+        
+        // Parallel to the edges - either always between them or never
+        if (nDirection == 0) {
+            return nSize_px > 0 && nStart_px >= nMin_px && nStart_px < nMin_px + nSize_px;
+        }
+        
+        // Where does the ray cross each edge
+        nNear_px = (nMin_px - nStart_px) / nDirection;
+        nFar_px = (nMin_px + nSize_px - nStart_px) / nDirection;
+        if (nNear_px > nFar_px) {
+            anRange[0] = Math.max(anRange[0], nFar_px);
+            anRange[1] = Math.min(anRange[1], nNear_px);
+        }
+        else {
+            anRange[0] = Math.max(anRange[0], nNear_px);
+            anRange[1] = Math.min(anRange[1], nFar_px);
+        }
+        return anRange[0] < anRange[1];
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getNearbyObjects
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the collidable objects of a class listed in the cells that an area overlaps
+     *                      (each only once, and in GUID order so that results don't depend on how objects fall into cells)
+     *
+     * ARGUMENTS:       cType -             The class of objects to look for
+     *                  aoObjectsToIgnore - Objects to leave out (or null)
+     *                  nLeft_px -          Left of the area
+     *                  nTop_px -           Top of the area
+     *                  nRight_px -         Right of the area
+     *                  nBottom_px -        Bottom of the area
+     *
+     * RETURNS:         aoNearby -          The objects
+     *********************************************************************************************************/
+    private static ArrayList<HW04_ObjectCollidable> getNearbyObjects (
+        Class<?> cType,
+        CopyOnWriteArrayList<HW04_ObjectCollidable> aoObjectsToIgnore,
+        int nLeft_px,
+        int nTop_px,
+        int nRight_px,
+        int nBottom_px
+    ) {
+        
+        // Declare variables
+        ArrayList<HW04_ObjectCollidable> aoNearby;
+        ArrayList<HW04_ObjectCollidable> aoBucket;
+        HW04_ObjectCollidable oCandidate;
+        boolean bIgnore;
+        int nCellX;
+        int nCellY;
+        int i;
+        int j;
+        
+        aoNearby = new ArrayList<HW04_ObjectCollidable>();
+        nQueryStamp++;
+        for (nCellX = getCell(nLeft_px); nCellX <= getCell(nRight_px); nCellX++) {
+            for (nCellY = getCell(nTop_px); nCellY <= getCell(nBottom_px); nCellY++) {
+                aoBucket = aaoBuckets.get(getBucket(nCellX, nCellY));
+                for (i = 0; i < aoBucket.size(); i++) {
+                    oCandidate = aoBucket.get(i);
+                    if (oCandidate.nGridQueryStamp != nQueryStamp && cType.isInstance(oCandidate) == true) {
+                        oCandidate.nGridQueryStamp = nQueryStamp;
+                        bIgnore = false;
+                        if (aoObjectsToIgnore != null) {
+                            for (j = 0; j < aoObjectsToIgnore.size(); j++) {
+                                if (aoObjectsToIgnore.get(j).getGUID() == oCandidate.getGUID()) {
+                                    bIgnore = true;
+                                    break;
+                                }
+                            }
+                        }
+                        if (bIgnore == false) {
+                            aoNearby.add(oCandidate);
+                        }
+                    }
+                }
+            }
+        }
+        Collections.sort(aoNearby, O_BY_GUID);
+        return aoNearby;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        moveInCells
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     List an object that has moved in the cells it now overlaps, if they have changed (see move)
+     *                      (called while holding the grid's lock)
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void moveInCells (HW04_ObjectCollidable oObject) {
+        
+        // Declare variables
+        int nMinX;
+        int nMinY;
+        int nMaxX;
+        int nMaxY;
+        
+        if (oObject.bInGrid == true) {
+            nMinX = getCell(oObject.getCollisionLeft());
+            nMinY = getCell(oObject.getCollisionTop());
+            nMaxX = getCell(oObject.getCollisionLeft() + oObject.getCollisionWidth());
+            nMaxY = getCell(oObject.getCollisionTop() + oObject.getCollisionHeight());
+            if (
+                nMinX != oObject.nGridMinX ||
+                nMinY != oObject.nGridMinY ||
+                nMaxX != oObject.nGridMaxX ||
+                nMaxY != oObject.nGridMaxY
+            ) {
+                listInCells(oObject, false);
+                oObject.nGridMinX = nMinX;
+                oObject.nGridMinY = nMinY;
+                oObject.nGridMaxX = nMaxX;
+                oObject.nGridMaxY = nMaxY;
+                listInCells(oObject, true);
+            }
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        listInCells
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     List an object in (or take it out of) the bucket of every cell in its recorded cell range
+     *
+     * ARGUMENTS:       oObject -   The object
+     *                  bAdd -      True to list the object, false to take it out
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void listInCells (HW04_ObjectCollidable oObject, boolean bAdd) {
+        
+        // Declare variables
+        ArrayList<HW04_ObjectCollidable> aoBucket;
+        int nCellX;
+        int nCellY;
+        int i;
+        
+        for (nCellX = oObject.nGridMinX; nCellX <= oObject.nGridMaxX; nCellX++) {
+            for (nCellY = oObject.nGridMinY; nCellY <= oObject.nGridMaxY; nCellY++) {
+                aoBucket = aaoBuckets.get(getBucket(nCellX, nCellY));
+                if (bAdd == true) {
+                    aoBucket.add(oObject);
+                }
+                else {
+                    // Swap the last one into its place (order within a bucket doesn't matter)
+                    for (i = 0; i < aoBucket.size(); i++) {
+                        if (aoBucket.get(i) == oObject) {
+                            aoBucket.set(i, aoBucket.get(aoBucket.size() - 1));
+                            aoBucket.remove(aoBucket.size() - 1);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCell
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find which cell (along one axis) a coordinate is in
+     *
+     * ARGUMENTS:       nCoordinate_px -    The coordinate
+     *
+     * RETURNS:         nCell -             The cell
+     *********************************************************************************************************/
+    static int getCell (int nCoordinate_px) {
+        return Math.floorDiv(nCoordinate_px, N_CELL_PX);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getBucket
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find which bucket a cell is listed in
+     *
+     * ARGUMENTS:       nCellX -    The cell along the X axis
+     *                  nCellY -    The cell along the Y axis
+     *
+     * RETURNS:         nBucket -   The bucket
+     *********************************************************************************************************/
+    static int getBucket (int nCellX, int nCellY) {
+        return ((nCellX * 73856093) ^ (nCellY * 19349663)) & (N_BUCKETS - 1);
+    }
+
+}
@@ -0,0 +1,353 @@
+/*************************************************************************************************************
+ * FILE:            HW04_CollisionSnapshot.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     A read-only copy of where every collidable game object is at one moment,
+ *                      used to check for collisions from many threads at once (PARALLEL option, see HW04_ParallelTick).
+ *                  HW04_CollisionGrid can only be used by one thread at a time, because it changes as objects move
+ *                      and because a query marks the objects it has looked at.
+ *                      A snapshot never changes once it is made, so any number of threads may query it.
+ *                  The snapshot is laid out the same way as the grid (same cells, same buckets),
+ *                      but as flat arrays: the objects are numbered in GUID order,
+ *                      and each bucket is a run of object numbers in one shared array.
+ *                  Queries give the same answers as the grid would have given at the moment the snapshot was made.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_CollisionSnapshot {
+    
+    // Objects (in GUID order) and where they were (slightly fudged, see HW04_ObjectCollidable)
+    private final HW04_ObjectCollidable[]   aoObjects;
+    private final int[]                     anGUIDs;
+    private final int[]                     anLeft;
+    private final int[]                     anTop;
+    private final int[]                     anWidth;
+    private final int[]                     anHeight;
+    
+    // Where they were (exactly, for time of impact)
+    private final float[]                   anX;
+    private final float[]                   anY;
+    private final int[]                     anRealWidth;
+    private final int[]                     anRealHeight;
+    
+    // Buckets: bucket b lists the object numbers from anBucketEntries[anBucketStart[b]] up to (not including) anBucketEntries[anBucketStart[b + 1]]
+    private final int[]                     anBucketStart;
+    private final int[]                     anBucketEntries;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_CollisionSnapshot Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take a snapshot of where some collidable objects are right now.
+     *                  Nothing may move the objects while the snapshot is being made.
+     *
+     * ARGUMENTS:       aoCollidables - The collidable objects (in GUID order)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public HW04_CollisionSnapshot (CopyOnWriteArrayList<HW04_ObjectCollidable> aoCollidables) {
+        
+        // Declare variables
+        HW04_ObjectCollidable oObject;
+        int[] anNext;
+        int nCount;
+        int nCellX;
+        int nCellY;
+        int nBucket;
+        int i;
+        
+        // Copy where everything is
+        nCount = aoCollidables.size();
+        this.aoObjects = aoCollidables.toArray(new HW04_ObjectCollidable[nCount]);
+        this.anGUIDs = new int[nCount];
+        this.anLeft = new int[nCount];
+        this.anTop = new int[nCount];
+        this.anWidth = new int[nCount];
+        this.anHeight = new int[nCount];
+        this.anX = new float[nCount];
+        this.anY = new float[nCount];
+        this.anRealWidth = new int[nCount];
+        this.anRealHeight = new int[nCount];
+        for (i = 0; i < nCount; i++) {
+            oObject = this.aoObjects[i];
+            this.anGUIDs[i] = oObject.getGUID();
+            this.anLeft[i] = oObject.getCollisionLeft();
+            this.anTop[i] = oObject.getCollisionTop();
+            this.anWidth[i] = oObject.getCollisionWidth();
+            this.anHeight[i] = oObject.getCollisionHeight();
+            this.anX[i] = oObject.getPositionX();
+            this.anY[i] = oObject.getPositionY();
+            this.anRealWidth[i] = oObject.getWidth();
+            this.anRealHeight[i] = oObject.getHeight();
+        }
+        
+        // Count how many objects are listed in each bucket (in the same cells as in the grid)
+        this.anBucketStart = new int[HW04_CollisionGrid.N_BUCKETS + 1];
+        for (i = 0; i < nCount; i++) {
+            for (nCellX = this.getMinCellX(i); nCellX <= this.getMaxCellX(i); nCellX++) {
+                for (nCellY = this.getMinCellY(i); nCellY <= this.getMaxCellY(i); nCellY++) {
+                    this.anBucketStart[HW04_CollisionGrid.getBucket(nCellX, nCellY) + 1]++;
+                }
+            }
+        }
+        for (i = 0; i < HW04_CollisionGrid.N_BUCKETS; i++) {
+            this.anBucketStart[i + 1] += this.anBucketStart[i];
+        }
+        
+        // List them (in GUID order within each bucket)
+        this.anBucketEntries = new int[this.anBucketStart[HW04_CollisionGrid.N_BUCKETS]];
+        anNext = Arrays.copyOf(this.anBucketStart, HW04_CollisionGrid.N_BUCKETS);
+        for (i = 0; i < nCount; i++) {
+            for (nCellX = this.getMinCellX(i); nCellX <= this.getMaxCellX(i); nCellX++) {
+                for (nCellY = this.getMinCellY(i); nCellY <= this.getMaxCellY(i); nCellY++) {
+                    nBucket = HW04_CollisionGrid.getBucket(nCellX, nCellY);
+                    this.anBucketEntries[anNext[nBucket]] = i;
+                    anNext[nBucket]++;
+                }
+            }
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getIndex
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find an object's number in the snapshot
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         nIndex -    The object's number, or -1 if it wasn't in the game when the snapshot was made
+     *********************************************************************************************************/
+    public int getIndex (HW04_ObjectCollidable oObject) {
+        
+        // Declare variables
+        int nIndex;
+        
+        nIndex = Arrays.binarySearch(this.anGUIDs, oObject.getGUID());
+        return nIndex >= 0 ? nIndex : -1;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getColliding
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the objects that an object collided with when the snapshot was made
+     *                      (see HW04_CollisionGrid.getColliding)
+     *
+     * ARGUMENTS:       nIndex -        The object's number in the snapshot
+     *
+     * RETURNS:         aoColliding -   The colliding objects, in GUID order
+     *********************************************************************************************************/
+    public CopyOnWriteArrayList<HW04_ObjectCollidable> getColliding (int nIndex) {
+        
+        CopyOnWriteArrayList<HW04_ObjectCollidable> aoColliding = new CopyOnWriteArrayList<HW04_ObjectCollidable>();
+        try {
+            
+            // Declare variables
+            int[] anNearby;
+            int j;
+            
+            // Test every object near the object (other than itself)
+            anNearby = this.getNearbyIndexes(
+                this.anLeft[nIndex],
+                this.anTop[nIndex],
+                this.anLeft[nIndex] + this.anWidth[nIndex],
+                this.anTop[nIndex] + this.anHeight[nIndex]
+            );
+            for (j = 0; j < anNearby.length; j++) {
+                if (
+                    anNearby[j] != nIndex &&
+                    HW04_ObjectCollidable.doRectanglesIntersect(
+                        this.anLeft[nIndex],
+                        this.anTop[nIndex],
+                        this.anWidth[nIndex],
+                        this.anHeight[nIndex],
+                        this.anLeft[anNearby[j]],
+                        this.anTop[anNearby[j]],
+                        this.anWidth[anNearby[j]],
+                        this.anHeight[anNearby[j]]
+                    ) == true
+                ) {
+                    aoColliding.add(this.aoObjects[anNearby[j]]);
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoColliding;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getTimeOfImpact
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find how far an object could have gone along a move, when the snapshot was made,
+     *                      before it first touched another object (see HW04_CollisionGrid.getTimeOfImpact)
+     *
+     * ARGUMENTS:       nIndex -        The moving object's number in the snapshot
+     *                  nMoveX_px -     How far the object wants to move on the x axis
+     *                  nMoveY_px -     How far the object wants to move on the y axis
+     *
+     * RETURNS:         nFraction -     How much of the move can be made (0 to 1, 1 if nothing is in the way)
+     *********************************************************************************************************/
+    public float getTimeOfImpact (int nIndex, float nMoveX_px, float nMoveY_px) {
+        
+        float nFraction = 1;
+        try {
+            
+            // Declare variables
+            int[] anNearby;
+            float[] anRange;
+            float nStartX_px;
+            float nStartY_px;
+            float nMinX_px;
+            float nMinY_px;
+            float nMaxX_px;
+            float nMaxY_px;
+            int nCandidate;
+            int j;
+            
+            // Everything near the swept rectangle (in GUID order, so the first of several equally near objects wins)
+            nStartX_px = this.anX[nIndex];
+            nStartY_px = this.anY[nIndex];
+            anNearby = this.getNearbyIndexes(
+                (int) Math.floor(Math.min(nStartX_px, nStartX_px + nMoveX_px)),
+                (int) Math.floor(Math.min(nStartY_px, nStartY_px + nMoveY_px)),
+                (int) Math.ceil(Math.max(nStartX_px, nStartX_px + nMoveX_px)) + this.anWidth[nIndex],
+                (int) Math.ceil(Math.max(nStartY_px, nStartY_px + nMoveY_px)) + this.anHeight[nIndex]
+            );
+            anRange = new float[2];
+            for (j = 0; j < anNearby.length; j++) {
+                nCandidate = anNearby[j];
+                if (nCandidate != nIndex) {
+                    
+                    // Where may the corner not go
+                    nMinX_px = this.anX[nCandidate] - this.anRealWidth[nIndex];
+                    nMinY_px = this.anY[nCandidate] - this.anRealHeight[nIndex];
+                    nMaxX_px = this.anX[nCandidate] + this.anRealWidth[nCandidate];
+                    nMaxY_px = this.anY[nCandidate] + this.anRealHeight[nCandidate];
+                    
+                    // Already overlapping?
+                    if (
+                        nStartX_px > nMinX_px && nStartX_px < nMaxX_px &&
+                        nStartY_px > nMinY_px && nStartY_px < nMaxY_px
+                    ) {
+                        continue;
+                    }
+                    
+                    // When does the move first get inside on both axes (if before it's done)
+                    anRange[0] = 0;
+                    anRange[1] = nFraction;
+                    if (
+                        HW04_CollisionGrid.clipMoveToSlab(anRange, nStartX_px, nMoveX_px, nMinX_px, nMaxX_px) == true &&
+                        HW04_CollisionGrid.clipMoveToSlab(anRange, nStartY_px, nMoveY_px, nMinY_px, nMaxY_px) == true &&
+                        anRange[0] < nFraction
+                    ) {
+                        nFraction = anRange[0];
+                    }
+                
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return nFraction;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getNearbyIndexes
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the numbers of the objects listed in the cells that an area overlaps
+     *                      (each only once, and in GUID order)
+     *
+     * ARGUMENTS:       nLeft_px -          Left of the area
+     *                  nTop_px -           Top of the area
+     *                  nRight_px -         Right of the area
+     *                  nBottom_px -        Bottom of the area
+     *
+     * RETURNS:         anNearby -          The object numbers
+     *********************************************************************************************************/
+    private int[] getNearbyIndexes (int nLeft_px, int nTop_px, int nRight_px, int nBottom_px) {
+        
+        // Declare variables
+        int[] anNearby;
+        int nNearby;
+        int nUnique;
+        int nBucket;
+        int nCellX;
+        int nCellY;
+        int i;
+        
+        // Gather everything listed (an object in several cells is gathered several times)
+        anNearby = new int[16];
+        nNearby = 0;
+        for (nCellX = HW04_CollisionGrid.getCell(nLeft_px); nCellX <= HW04_CollisionGrid.getCell(nRight_px); nCellX++) {
+            for (nCellY = HW04_CollisionGrid.getCell(nTop_px); nCellY <= HW04_CollisionGrid.getCell(nBottom_px); nCellY++) {
+                nBucket = HW04_CollisionGrid.getBucket(nCellX, nCellY);
+                for (i = this.anBucketStart[nBucket]; i < this.anBucketStart[nBucket + 1]; i++) {
+                    if (nNearby == anNearby.length) {
+                        anNearby = Arrays.copyOf(anNearby, nNearby * 2);
+                    }
+                    anNearby[nNearby] = this.anBucketEntries[i];
+                    nNearby++;
+                }
+            }
+        }
+        
+        // Object numbers are in GUID order, so sorting them puts the objects in GUID order (and brings repeats together)
+        Arrays.sort(anNearby, 0, nNearby);
+        nUnique = 0;
+        for (i = 0; i < nNearby; i++) {
+            if (nUnique == 0 || anNearby[nUnique - 1] != anNearby[i]) {
+                anNearby[nUnique] = anNearby[i];
+                nUnique++;
+            }
+        }
+        return Arrays.copyOf(anNearby, nUnique);
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getMinCellX, getMinCellY, getMaxCellX, getMaxCellY
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the range of cells that an object overlaps (see HW04_CollisionGrid.move)
+     *
+     * ARGUMENTS:       nIndex -    The object's number in the snapshot
+     *
+     * RETURNS:         nCell -     The first or last cell along one axis
+     *********************************************************************************************************/
+    private int getMinCellX (int nIndex) {
+        return HW04_CollisionGrid.getCell(this.anLeft[nIndex]);
+    }
+    private int getMinCellY (int nIndex) {
+        return HW04_CollisionGrid.getCell(this.anTop[nIndex]);
+    }
+    private int getMaxCellX (int nIndex) {
+        return HW04_CollisionGrid.getCell(this.anLeft[nIndex] + this.anWidth[nIndex]);
+    }
+    private int getMaxCellY (int nIndex) {
+        return HW04_CollisionGrid.getCell(this.anTop[nIndex] + this.anHeight[nIndex]);
+    }
+
+}
@@ -20,6 +20,14 @@ public class HW04_Color implements java.io.Serializable {
     int G;
     int B;
     
+    // Pure colors (shared, since colors are never changed once made, and there may be thousands of bullets, enemies and bubbles)
+    private static final HW04_Color O_RED =     new HW04_Color(255, 0, 0);
+    private static final HW04_Color O_GREEN =   new HW04_Color(0, 255, 0);
+    private static final HW04_Color O_BLUE =    new HW04_Color(0, 0, 255);
+    private static final HW04_Color O_YELLOW =  new HW04_Color(255, 255, 0);
+    private static final HW04_Color O_GRAY =    new HW04_Color(100, 100, 100);
+    private static final HW04_Color[] AO_PURE = {O_RED, O_GREEN, O_BLUE, O_YELLOW, O_GRAY};
+    
     /*********************************************************************************************************
      * FUNCTION:        HW04_Color Constructor
      *
@@ -97,8 +105,8 @@ public class HW04_Color implements java.io.Serializable {
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     Return an object for a pure color
-     * 
+     * DESCRIPTION:     Return an object for a pure color (the same object every time, so it must not be changed)
+     *  
      * ARGUMENTS:       sColor -    "Red", "Green", "Blue", "Yellow", "Gray"
      * 
      * RETURNS:         oColor -    Color object
@@ -108,32 +116,27 @@ public class HW04_Color implements java.io.Serializable {
         HW04_Color oColor = null;
         try {
             
-            // Declare constants
-            int N_HIGH =    255;
-            int N_MED =     100;
-            int N_LOW =     0;
-            
             // Switch
             switch (sColor) {
                 // RED: R high, GB low
                 case "Red":
-                    oColor = new HW04_Color(N_HIGH, N_LOW, N_LOW);
+                    oColor = O_RED;
                     break;
                 // GREEN: G high, RB low
                 case "Green":
-                    oColor = new HW04_Color(N_LOW, N_HIGH, N_LOW);
+                    oColor = O_GREEN;
                     break;
                 // BLUE: B high, RG low
                 case "Blue":
-                    oColor = new HW04_Color(N_LOW, N_LOW, N_HIGH);
+                    oColor = O_BLUE;
                     break;
                 // YELLOW: RG high, B low
                 case "Yellow":
-                    oColor = new HW04_Color(N_HIGH, N_HIGH, N_LOW);
+                    oColor = O_YELLOW;
                     break;
                 // GRAY: RGB high
                 case "Gray":
-                    oColor = new HW04_Color(N_MED, N_MED, N_MED);
+                    oColor = O_GRAY;
                     break;
                 default:
                     throw new Exception("Do not recognize color name '" + sColor + "'");
@@ -248,6 +251,53 @@ public class HW04_Color implements java.io.Serializable {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        getRGB
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Pack a color into one int (0xRRGGBB), to keep in a column (see HW04_ColumnChunk)
+     * 
+     * ARGUMENTS:       oColor -    A color object (may be null)
+     * 
+     * RETURNS:         nRGB -      The packed color, or -1 for no color
+     *********************************************************************************************************/
+    public static int getRGB (HW04_Color oColor) {
+        if (oColor == null) {
+            return -1;
+        }
+        return ((oColor.R & 0xFF) << 16) | ((oColor.G & 0xFF) << 8) | (oColor.B & 0xFF);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getColor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Unpack a color packed by getRGB
+     *                  A pure color comes back as the shared object (see getPureColor), anything else as a new one
+     * 
+     * ARGUMENTS:       nRGB -      The packed color, or -1 for no color
+     * 
+     * RETURNS:         oColor -    Color object (null for no color)
+     *********************************************************************************************************/
+    public static HW04_Color getColor (int nRGB) {
+        
+        // Declare variables
+        int i;
+        
+        if (nRGB == -1) {
+            return null;
+        }
+        for (i = 0; i < AO_PURE.length; i++) {
+            if (getRGB(AO_PURE[i]) == nRGB) {
+                return AO_PURE[i];
+            }
+        }
+        return new HW04_Color((nRGB >> 16) & 0xFF, (nRGB >> 8) & 0xFF, nRGB & 0xFF);
+    
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        white
      *
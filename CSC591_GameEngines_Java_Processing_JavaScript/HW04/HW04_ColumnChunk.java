@@ -0,0 +1,135 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ColumnChunk.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     A fixed number of slots in a column store (see HW04_ColumnStore).
+ *                  Each value an object has (see HW04_ObjectFields) gets one array ("column") here,
+ *                      and each object in the chunk gets one index ("slot") in every column.
+ *                  A chunk never grows and its columns are never replaced,
+ *                      so an object can keep a reference to its chunk and read and write its slot without a lock.
+ *************************************************************************************************************/
+
+// IMPORTS
+// None
+
+// CLASS DEFINITION
+public class HW04_ColumnChunk {
+    
+    // Constants
+    static final int                N_SLOTS =   1024;
+    
+    // What an object that has no values yet starts with (never changed)
+    private static final HW04_ObjectFields O_DEFAULTS = new HW04_ObjectFields();
+    
+    // Where the chunk is in its store (the store's slot number of this chunk's first slot)
+    final HW04_ColumnStore          oStore;
+    final int                       nFirstSlot;
+    
+    // Columns (read and written directly by the objects in the chunk, see HW04_ObjectLocated)
+    final float[]                   anX =                   new float[N_SLOTS];
+    final float[]                   anY =                   new float[N_SLOTS];
+    final float[]                   anReplayTeleportX =     new float[N_SLOTS];
+    final float[]                   anReplayTeleportY =     new float[N_SLOTS];
+    final float[]                   anPreviousX =           new float[N_SLOTS];
+    final float[]                   anPreviousY =           new float[N_SLOTS];
+    final int[]                     anWidth =               new int[N_SLOTS];
+    final int[]                     anHeight =              new int[N_SLOTS];
+    final int[]                     anRadius =              new int[N_SLOTS];
+    final int[]                     anColor =               new int[N_SLOTS];
+    final int[]                     anSpeedHorizontal =     new int[N_SLOTS];
+    final int[]                     anSpeedVertical =       new int[N_SLOTS];
+    final int[]                     anFlags =               new int[N_SLOTS];
+    
+    // Which object is in each slot (null if the slot is free), and how many slots have ever been used
+    final HW04_ObjectMoveable[]     aoHandles =             new HW04_ObjectMoveable[N_SLOTS];
+    volatile int                    nSlotsUsed;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ColumnChunk Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty chunk
+     *
+     * ARGUMENTS:       oStore -        The store the chunk belongs to
+     *                  nFirstSlot -    The store's slot number of the chunk's first slot
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    HW04_ColumnChunk (HW04_ColumnStore oStore, int nFirstSlot) {
+        this.oStore = oStore;
+        this.nFirstSlot = nFirstSlot;
+        this.nSlotsUsed = 0;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        copyIn
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Fill a slot with an object's values
+     *
+     * ARGUMENTS:       nSlot -     The slot
+     *                  oFields -   The object's values (null for an object that has none yet, so it starts with defaults)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void copyIn (int nSlot, HW04_ObjectFields oFields) {
+        
+        // An object that has no values yet gets the same defaults as fields would have
+        if (oFields == null) {
+            oFields = O_DEFAULTS;
+        }
+        
+        this.anX[nSlot] =                   oFields.nX_px;
+        this.anY[nSlot] =                   oFields.nY_px;
+        this.anReplayTeleportX[nSlot] =     oFields.nReplayTeleportX_px;
+        this.anReplayTeleportY[nSlot] =     oFields.nReplayTeleportY_px;
+        this.anPreviousX[nSlot] =           oFields.nPreviousX_px;
+        this.anPreviousY[nSlot] =           oFields.nPreviousY_px;
+        this.anWidth[nSlot] =               oFields.nWidth_px;
+        this.anHeight[nSlot] =              oFields.nHeight_px;
+        this.anRadius[nSlot] =              oFields.nRadius_px;
+        this.anColor[nSlot] =               HW04_Color.getRGB(oFields.oColor);
+        this.anSpeedHorizontal[nSlot] =     oFields.nSpeedHorizontal_px_per_sec;
+        this.anSpeedVertical[nSlot] =       oFields.nSpeedVertical_px_per_sec;
+        this.anFlags[nSlot] =               oFields.nFlags;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        copyOut
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the values in a slot, for an object that is leaving the store
+     *
+     * ARGUMENTS:       nSlot -     The slot
+     *
+     * RETURNS:         oFields -   The values
+     *********************************************************************************************************/
+    HW04_ObjectFields copyOut (int nSlot) {
+        
+        // Declare variables
+        HW04_ObjectFields oFields;
+        
+        oFields = new HW04_ObjectFields();
+        oFields.nX_px =                         this.anX[nSlot];
+        oFields.nY_px =                         this.anY[nSlot];
+        oFields.nReplayTeleportX_px =           this.anReplayTeleportX[nSlot];
+        oFields.nReplayTeleportY_px =           this.anReplayTeleportY[nSlot];
+        oFields.nPreviousX_px =                 this.anPreviousX[nSlot];
+        oFields.nPreviousY_px =                 this.anPreviousY[nSlot];
+        oFields.nWidth_px =                     this.anWidth[nSlot];
+        oFields.nHeight_px =                    this.anHeight[nSlot];
+        oFields.nRadius_px =                    this.anRadius[nSlot];
+        oFields.oColor =                        HW04_Color.getColor(this.anColor[nSlot]);
+        oFields.nSpeedHorizontal_px_per_sec =   this.anSpeedHorizontal[nSlot];
+        oFields.nSpeedVertical_px_per_sec =     this.anSpeedVertical[nSlot];
+        oFields.nFlags =                        this.anFlags[nSlot];
+        return oFields;
+    
+    }
+
+}
@@ -0,0 +1,413 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ColumnStore.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Column storage for game objects that there may be a great many of (COLUMNS option, server only).
+ *                  Bullets, enemies and bubbles are moved every step, and there may be tens of thousands of them.
+ *                      Normally each one keeps its values (position, speed, size, color and flags, see HW04_ObjectFields)
+ *                      in an object of its own, spread out over the heap along with everything else.
+ *                  With the COLUMNS option, each kind of object gets a store,
+ *                      and the store keeps the values of every object of that kind
+ *                      in one primitive array ("column") per value, with each object in its own "slot"
+ *                      (the same index in every column).
+ *                      The object itself is then only a handle: it keeps what makes it a game object
+ *                      (GUID, type, player, where it is in the collision grid) and a reference to its slot,
+ *                      and its getters and setters read and write the slot (see HW04_ObjectLocated).
+ *                  Slots come in chunks of a fixed size (see HW04_ColumnChunk).
+ *                      A full store gets another chunk, but a chunk is never moved or copied,
+ *                      so an object's getters and setters use its slot without any lock,
+ *                      just as they used to use its fields.
+ *                      Only giving out and taking back slots (an object joining or leaving the game) takes the store's lock.
+ *                  Bullets are moved by a sweep down the columns (see updateLocationsAndCheckForCollisions),
+ *                      which only the game loop thread runs, and which takes no lock of its own.
+ *                  What an object sends over the network doesn't change (it is written out through its getters),
+ *                      and an object that leaves the game gets its values back (see HW04_ObjectLocated.leaveColumnStore),
+ *                      since it may still be written out, or reused (POOL option).
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_ColumnStore {
+    
+    // One store per kind of object
+    private static HashMap<Class<?>, HW04_ColumnStore> oStores = new HashMap<Class<?>, HW04_ColumnStore>();
+    
+    // Chunks (only ever added to, so a sweep can go down them while objects join and leave)
+    private volatile HW04_ColumnChunk[]     aoChunks;
+    private volatile int                    nChunks;
+    
+    // Free slots (the store's slot number, see HW04_ColumnChunk.nFirstSlot)
+    private int[]                           anFreeSlots;
+    private int                             nFreeSlots;
+    
+    // Objects moved by the sweep (used only by the game loop thread)
+    private HW04_ObjectMoveable[]           aoMoved;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ColumnStore Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty store
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private HW04_ColumnStore () {
+        this.aoChunks = new HW04_ColumnChunk[1];
+        this.nChunks = 0;
+        this.anFreeSlots = new int[HW04_ColumnChunk.N_SLOTS];
+        this.nFreeSlots = 0;
+        this.aoMoved = new HW04_ObjectMoveable[HW04_ColumnChunk.N_SLOTS];
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getStore
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the store for a kind of object, making it if need be
+     *
+     * ARGUMENTS:       cType -     The kind of object
+     *
+     * RETURNS:         oStore -    The store
+     *********************************************************************************************************/
+    public static synchronized HW04_ColumnStore getStore (Class<?> cType) {
+        
+        // Declare variables
+        HW04_ColumnStore oStore;
+        
+        oStore = oStores.get(cType);
+        if (oStore == null) {
+            oStore = new HW04_ColumnStore();
+            oStores.put(cType, oStore);
+        }
+        return oStore;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isStoredKind
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether an object should be kept in a store
+     *                      (only with the COLUMNS option, only on the server, and only bullets, enemies and bubbles)
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         bStored -   True if the object should be kept in a store
+     *********************************************************************************************************/
+    public static boolean isStoredKind (HW04_ObjectGame oObject) {
+        return
+            HW04_Globals.bColumnStorage == true &&
+            HW04_Globals.bClient == false && (
+                oObject instanceof HW04_ObjectBullet ||
+                oObject instanceof HW04_ObjectEnemy ||
+                oObject instanceof HW04_ObjectBubble
+            );
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        add
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Move an object into the store for its kind (its values then live in its slot)
+     *
+     * ARGUMENTS:       oObject -   The object (not already in a store)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void add (HW04_ObjectMoveable oObject) {
+        getStore(oObject.getClass()).addHandle(oObject);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        remove
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Move an object out of its store, if it is in one (it gets its values back)
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void remove (HW04_ObjectMoveable oObject) {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = oObject.oColumnChunk;
+        if (oChunk != null) {
+            oChunk.oStore.removeHandle(oObject);
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        addHandle
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Give an object a slot (a free one if there is one, otherwise a new one)
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private synchronized void addHandle (HW04_ObjectMoveable oObject) {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        int nSlot;
+        
+        // Already in a store?
+        if (oObject.oColumnChunk != null) {
+            return;
+        }
+        
+        // Reuse a free slot, or take the next one in the last chunk (adding a chunk if need be)
+        if (this.nFreeSlots > 0) {
+            this.nFreeSlots--;
+            nSlot = this.anFreeSlots[this.nFreeSlots];
+            oChunk = this.aoChunks[nSlot / HW04_ColumnChunk.N_SLOTS];
+            nSlot = nSlot % HW04_ColumnChunk.N_SLOTS;
+        }
+        else {
+            if (this.nChunks == 0 || this.aoChunks[this.nChunks - 1].nSlotsUsed == HW04_ColumnChunk.N_SLOTS) {
+                this.addChunk();
+            }
+            oChunk = this.aoChunks[this.nChunks - 1];
+            nSlot = oChunk.nSlotsUsed;
+            oChunk.nSlotsUsed = nSlot + 1;
+        }
+        
+        // Copy the object's values in, then hand it its slot
+        oObject.joinColumnStore(oChunk, nSlot);
+        oChunk.aoHandles[nSlot] = oObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        removeHandle
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Give an object its values back and free its slot
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private synchronized void removeHandle (HW04_ObjectMoveable oObject) {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        int nSlot;
+        
+        oChunk = oObject.oColumnChunk;
+        nSlot = oObject.nColumnSlot;
+        if (oChunk != null && oChunk.oStore == this && oChunk.aoHandles[nSlot] == oObject) {
+            oObject.leaveColumnStore();
+            oChunk.aoHandles[nSlot] = null;
+            this.anFreeSlots[this.nFreeSlots] = oChunk.nFirstSlot + nSlot;
+            this.nFreeSlots++;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        addChunk
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add an empty chunk (called while holding the store's lock)
+     *                      Only the list of chunks is copied, never a chunk,
+     *                      so a sweep going down the old list still sees the same chunks
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void addChunk () {
+        
+        // Declare variables
+        HW04_ColumnChunk[] aoNewChunks;
+        
+        aoNewChunks = this.aoChunks;
+        if (this.nChunks == aoNewChunks.length) {
+            aoNewChunks = Arrays.copyOf(aoNewChunks, this.nChunks * 2);
+        }
+        aoNewChunks[this.nChunks] = new HW04_ColumnChunk(this, this.nChunks * HW04_ColumnChunk.N_SLOTS);
+        this.anFreeSlots = Arrays.copyOf(this.anFreeSlots, (this.nChunks + 1) * HW04_ColumnChunk.N_SLOTS);
+        this.aoChunks = aoNewChunks;
+        this.nChunks++;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        updateLocationsAndCheckForCollisions
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Move everything in the store that has a speed, then check what moved for collisions
+     *                  Only the game loop thread does this, and it takes no lock of its own:
+     *                      1 - New positions are worked out and written straight into the columns (see updateLocations)
+     *                      2 - The collision grid catches up with everything that moved, all at once
+     *                          (see HW04_CollisionGrid.moveAll)
+     *                      3 - Whatever moved into something raises a COLLISION event (see checkForCollisions)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void updateLocationsAndCheckForCollisions () {
+        try {
+            
+            // Declare variables
+            int nMoved;
+            
+            nMoved = this.updateLocations();
+            HW04_CollisionGrid.moveAll(this.aoMoved, nMoved);
+            this.checkForCollisions(nMoved);
+            
+            // Free
+            Arrays.fill(this.aoMoved, 0, nMoved, null);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        updateLocations
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Move everything in the store that has a speed, a chunk at a time
+     *                      (the same move as HW04_ObjectMoveable.updateLocation, and kept inside the window
+     *                      as HW04_ObjectLocated.setPositionX and setPositionY do, worked out from the columns),
+     *                      and list what moved (see aoMoved)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nMoved -    How many objects moved
+     *********************************************************************************************************/
+    private int updateLocations () {
+        
+        // Declare constants
+        final int N_MS_PER_SEC = 1000;
+        final double N_TIME_SINCE_LAST_UPDATE_SEC =
+            HW04_Time_Loop.getPlayInstance().getTimeDelta() *
+            (double) HW04_Time_Loop.getPlayInstance().getTickSize() /
+            (double) N_MS_PER_SEC;
+        final float N_WORLD_WIDTH_PX = HW04_Utility.getWorldWidth();
+        final float N_WINDOW_SIZE_PX = HW04_Utility.getWindowSize();
+        
+        // Declare variables
+        HW04_ColumnChunk[] aoChunksNow;
+        HW04_ColumnChunk oChunk;
+        float nMoveX_px;
+        float nMoveY_px;
+        float nFraction;
+        float nX_px;
+        float nY_px;
+        int nChunksNow;
+        int nSlotsUsed;
+        int nMoved;
+        int c;
+        int i;
+        
+        aoChunksNow = this.aoChunks;
+        nChunksNow = Math.min(this.nChunks, aoChunksNow.length);
+        nMoved = 0;
+        for (c = 0; c < nChunksNow; c++) {
+            oChunk = aoChunksNow[c];
+            nSlotsUsed = oChunk.nSlotsUsed;
+            for (i = 0; i < nSlotsUsed; i++) {
+                if (oChunk.aoHandles[i] != null && (oChunk.anSpeedHorizontal[i] != 0 || oChunk.anSpeedVertical[i] != 0)) {
+                    
+                    // How far (positive speed is UP)
+                    nMoveX_px = (float) (oChunk.anSpeedHorizontal[i] * N_TIME_SINCE_LAST_UPDATE_SEC);
+                    nMoveY_px = (float) (oChunk.anSpeedVertical[i] * N_TIME_SINCE_LAST_UPDATE_SEC * -1);
+                    
+                    // Moving fast enough to jump over something? Stop where it is first touched.
+                    nFraction = 1;
+                    if (Math.abs(nMoveX_px) >= oChunk.anWidth[i] || Math.abs(nMoveY_px) >= oChunk.anHeight[i]) {
+                        nFraction = HW04_CollisionGrid.getTimeOfImpact(oChunk.aoHandles[i], nMoveX_px, nMoveY_px);
+                    }
+                    
+                    // Move, keeping inside the window
+                    nX_px = oChunk.anX[i] + nMoveX_px * nFraction;
+                    nY_px = oChunk.anY[i] + nMoveY_px * nFraction;
+                    if (nX_px < 0) {
+                        nX_px = 0;
+                    }
+                    else if (nX_px > N_WORLD_WIDTH_PX - oChunk.anWidth[i]) {
+                        nX_px = N_WORLD_WIDTH_PX - oChunk.anWidth[i];
+                    }
+                    if (nY_px < 0) {
+                        nY_px = 0;
+                    }
+                    else if (nY_px > N_WINDOW_SIZE_PX - oChunk.anHeight[i]) {
+                        nY_px = N_WINDOW_SIZE_PX - oChunk.anHeight[i];
+                    }
+                    oChunk.anX[i] = nX_px;
+                    oChunk.anY[i] = nY_px;
+                    
+                    // Remember what moved
+                    if (nMoved == this.aoMoved.length) {
+                        this.aoMoved = Arrays.copyOf(this.aoMoved, nMoved * 2);
+                    }
+                    this.aoMoved[nMoved] = oChunk.aoHandles[i];
+                    nMoved++;
+                
+                }
+            }
+        }
+        return nMoved;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        checkForCollisions
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Raise a COLLISION event for everything that moved and is now touching something
+     *                      (in the order they moved, looked up in the collision grid)
+     *
+     * ARGUMENTS:       nMoved -    How many objects moved (see aoMoved)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void checkForCollisions (int nMoved) {
+        
+        // Declare variables
+        CopyOnWriteArrayList<HW04_ObjectCollidable> aoColliding;
+        int i;
+        
+        for (i = 0; i < nMoved; i++) {
+            aoColliding = HW04_CollisionGrid.getColliding(this.aoMoved[i], false);
+            if (aoColliding.size() > 0) {
+                HW04_EventManager.getInstance().raiseEventCollision(
+                    this.aoMoved[i],
+                    aoColliding,
+                    this.aoMoved[i].getPositionX(),
+                    this.aoMoved[i].getPositionY()
+                );
+            }
+        }
+    
+    }
+
+}
@@ -0,0 +1,466 @@
+/*************************************************************************************************************
+ * FILE:            HW04_DatagramTransport.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Send game object snapshots from server to clients over UDP (UDP option),
+ *                      alongside the usual TCP connection.
+ *                  Over TCP, one lost segment holds up everything behind it,
+ *                      including fresh positions that make the lost (stale) ones irrelevant.
+ *                  Over UDP, a lost snapshot is simply lost, and the next one for that object takes its place.
+ *                  So only snapshots of game objects that a client already knows about go over UDP.
+ *                      New objects, removed objects, events and event registrations still go over TCP,
+ *                      where they can't be lost.
+ *                  Every snapshot carries a sequence number.
+ *                      A client ignores a snapshot of a game object if it has already applied a later one
+ *                      (datagrams can arrive out of order).
+ *                  A datagram is a 4-byte sequence number followed by one encoded message (see HW04_NetworkCodec).
+ *                  The server's UDP port has the same number as its TCP port.
+ *                      A client says hello (a datagram holding its player ID) until the first snapshot arrives,
+ *                      so that the server knows where to send.
+ *                      Until then, the client hears everything over TCP.
+ *                      A hello only counts if it comes from the same host as that player's TCP connection
+ *                      (otherwise anybody could have a player's snapshots sent somewhere else).
+ *                  A snapshot that is too short or cannot be decoded is dropped (and counted), just like a lost one.
+ *                  For testing on one machine, the server can pretend to have a bad network:
+ *                      UDP_LOSS=n -        Lose n% of snapshots
+ *                      UDP_JITTER=n -      Hold each snapshot back by a random 0 - n ms (so some arrive out of order)
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// CLASS DEFINITION
+public class HW04_DatagramTransport {
+    
+    // Constants
+    private static final int N_MAX_DATAGRAM_BYTES = 65507;
+    private static final int N_SEQUENCE_BYTES =     4;
+    private static final int N_RECEIVE_BUFFER_BYTES = 1024 * 1024;
+    
+    // Private variables (both ends)
+    private static DatagramChannel                              oChannel =              null;
+    
+    // Private variables (server)
+    private static ConcurrentHashMap<Integer, InetAddress>      oClientHosts =          new ConcurrentHashMap<Integer, InetAddress>();
+    private static ConcurrentHashMap<Integer, SocketAddress>    oClientAddresses =      new ConcurrentHashMap<Integer, SocketAddress>();
+    private static AtomicInteger                                oNextSequenceNumber =   new AtomicInteger();
+    private static ScheduledExecutorService                     oJitterScheduler =      null;
+    private static Random                                       oRandomizer =           new Random();
+    private static AtomicLong                                   oSnapshotsSent =        new AtomicLong();
+    private static AtomicLong                                   oSnapshotsLost =        new AtomicLong();
+    private static AtomicLong                                   oHellosRejected =       new AtomicLong();
+    
+    // Private variables (client)
+    private static ConcurrentHashMap<Integer, Integer>          oLastSequenceNumbers =  new ConcurrentHashMap<Integer, Integer>();
+    private static volatile boolean                             bHeardFromServer =      false;
+    private static AtomicLong                                   oSnapshotsReceived =    new AtomicLong();
+    private static AtomicLong                                   oSnapshotsStale =       new AtomicLong();
+    private static AtomicLong                                   oSnapshotsDropped =     new AtomicLong();
+    
+    /*********************************************************************************************************
+     * FUNCTION:        openServer
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Start listening for clients to say hello over UDP
+     *
+     * ARGUMENTS:       nPortNumber -   The server's port number (same as for TCP)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void openServer (int nPortNumber) {
+        try {
+            oChannel = DatagramChannel.open();
+            oChannel.bind(new InetSocketAddress(nPortNumber));
+            if (HW04_Globals.nDatagramJitter_ms > 0) {
+                oJitterScheduler = Executors.newSingleThreadScheduledExecutor();
+            }
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        openClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get ready to receive snapshots from the server over UDP
+     *                      (with room to hold a burst of them, since anything that doesn't fit is lost)
+     *
+     * ARGUMENTS:       nPortNumber -   The server's port number (same as for TCP)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void openClient (int nPortNumber) {
+        try {
+            oChannel = DatagramChannel.open();
+            oChannel.socket().setReceiveBufferSize(N_RECEIVE_BUFFER_BYTES);
+            oChannel.connect(new InetSocketAddress("127.0.0.1", nPortNumber));
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        close
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Stop sending and receiving over UDP (ignore errors - we are shutting down anyway)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void close () {
+        try {
+            if (oJitterScheduler != null) {
+                oJitterScheduler.shutdownNow();
+            }
+            if (oChannel != null) {
+                oChannel.close();
+            }
+        }
+        catch (Throwable oError) {
+            // Ignore
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        receiveHello
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Wait for a client to say hello, and remember where it said hello from
+     *                      (as long as that is the host the player connected from over TCP, see expectClient).
+     *                  I/O problems are passed up to the caller (probably the server is shutting down).
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void receiveHello () throws Exception {
+        
+        // Declare variables
+        ByteBuffer oHello;
+        SocketAddress oAddress;
+        InetAddress oExpectedHost;
+        int nPlayerID;
+        
+        // Receive
+        oHello = ByteBuffer.allocate(4);
+        oAddress = oChannel.receive(oHello);
+        oHello.flip();
+        
+        // Remember (if it makes sense)
+        if (oAddress instanceof InetSocketAddress && oHello.remaining() == 4) {
+            nPlayerID = oHello.getInt();
+            oExpectedHost = oClientHosts.get(nPlayerID);
+            if (oExpectedHost != null && oExpectedHost.equals(((InetSocketAddress) oAddress).getAddress()) == true) {
+                oClientAddresses.put(nPlayerID, oAddress);
+            }
+            else {
+                oHellosRejected.incrementAndGet();
+            }
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        sayHello
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Tell the server where to send snapshots, unless it has already started sending them.
+     *                  Called once per game loop iteration, since a hello could in theory be lost.
+     *
+     * ARGUMENTS:       nPlayerID -     This client's player ID
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void sayHello (int nPlayerID) {
+        try {
+            
+            // Declare variables
+            ByteBuffer oHello;
+            
+            // Say hello
+            if (oChannel != null && bHeardFromServer == false) {
+                oHello = ByteBuffer.allocate(4);
+                oHello.putInt(nPlayerID);
+                oHello.flip();
+                oChannel.write(oHello);
+            }
+        
+        }
+        catch (Throwable oError) {
+            // Ignore (if the server has gone away, the TCP connection will say so)
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        expectClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get ready for a client to say hello (the client has joined the game over TCP)
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *                  oHost -         The host the client connected from
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void expectClient (int nPlayerID, InetAddress oHost) {
+        try {
+            if (oHost != null) {
+                oClientHosts.put(nPlayerID, oHost);
+            }
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        canReachClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether snapshots can be sent to a client over UDP (it has said hello)
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *
+     * RETURNS:         bReachable -    True if the client can be sent snapshots
+     *********************************************************************************************************/
+    public static boolean canReachClient (int nPlayerID) {
+        return oChannel != null && oClientAddresses.containsKey(nPlayerID);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        forgetClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Stop sending snapshots to a client (the client has left the game)
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void forgetClient (int nPlayerID) {
+        try {
+            oClientHosts.remove(nPlayerID);
+            oClientAddresses.remove(nPlayerID);
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        createSnapshot
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Encode a game object as it is right now, with the next sequence number.
+     *                  The same snapshot may be sent to any number of clients.
+     *
+     * ARGUMENTS:       oObject -       The game object
+     *
+     * RETURNS:         abSnapshot -    The datagram
+     *********************************************************************************************************/
+    public static byte[] createSnapshot (HW04_ObjectGame oObject) {
+        
+        byte[] abSnapshot = null;
+        try {
+            
+            // Declare variables
+            byte[] abMessage;
+            ByteBuffer oSnapshot;
+            
+            // Sequence number, then message
+            abMessage = HW04_NetworkCodec.encode(oObject);
+            oSnapshot = ByteBuffer.allocate(N_SEQUENCE_BYTES + abMessage.length);
+            oSnapshot.putInt(oNextSequenceNumber.incrementAndGet());
+            oSnapshot.put(abMessage);
+            abSnapshot = oSnapshot.array();
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return abSnapshot;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        sendSnapshot
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Send a snapshot to one client,
+     *                      losing it or holding it back first if we are pretending to have a bad network
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *                  abSnapshot -    The snapshot (see createSnapshot)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void sendSnapshot (int nPlayerID, final byte[] abSnapshot) {
+        try {
+            
+            // Declare variables
+            final SocketAddress oAddress;
+            
+            // Pretend to lose it
+            oAddress = oClientAddresses.get(nPlayerID);
+            oSnapshotsSent.incrementAndGet();
+            if (oAddress == null || oRandomizer.nextInt(100) < HW04_Globals.nDatagramLossPercent) {
+                oSnapshotsLost.incrementAndGet();
+            }
+            
+            // Pretend to hold it back
+            else if (oJitterScheduler != null) {
+                oJitterScheduler.schedule(
+                    new Runnable() {
+                        public void run () {
+                            send(oAddress, abSnapshot);
+                        }
+                    },
+                    oRandomizer.nextInt(HW04_Globals.nDatagramJitter_ms + 1),
+                    TimeUnit.MILLISECONDS
+                );
+            }
+            
+            // Send it right away
+            else {
+                send(oAddress, abSnapshot);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        receiveSnapshot
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Wait for a snapshot from the server.
+     *                  I/O problems are passed up to the caller (probably the client is shutting down).
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oObject -   The game object in the snapshot,
+     *                              or null if a later snapshot of the same game object has already been received,
+     *                              or if the snapshot is too short or cannot be decoded (it is dropped)
+     *********************************************************************************************************/
+    public static HW04_ObjectGame receiveSnapshot () throws Exception {
+        
+        // Declare variables
+        ByteBuffer oSnapshot;
+        byte[] abMessage;
+        HW04_ObjectCommunicable oDecoded;
+        HW04_ObjectGame oObject;
+        Integer nLastSequenceNumber;
+        int nSequenceNumber;
+        
+        // Receive
+        oSnapshot = ByteBuffer.allocate(N_MAX_DATAGRAM_BYTES);
+        oChannel.read(oSnapshot);
+        oSnapshot.flip();
+        bHeardFromServer = true;
+        oSnapshotsReceived.incrementAndGet();
+        
+        // Sequence number, then message
+        if (oSnapshot.remaining() < N_SEQUENCE_BYTES) {
+            oSnapshotsDropped.incrementAndGet();
+            return null;
+        }
+        nSequenceNumber = oSnapshot.getInt();
+        abMessage = new byte[oSnapshot.remaining()];
+        oSnapshot.get(abMessage);
+        oDecoded = HW04_NetworkCodec.decode(abMessage);
+        if ((oDecoded instanceof HW04_ObjectGame) == false) {
+            oSnapshotsDropped.incrementAndGet();
+            return null;
+        }
+        oObject = (HW04_ObjectGame) oDecoded;
+        
+        // Ignore stale snapshots
+        nLastSequenceNumber = oLastSequenceNumbers.get(oObject.getGUID());
+        if (nLastSequenceNumber != null && nLastSequenceNumber >= nSequenceNumber) {
+            oSnapshotsStale.incrementAndGet();
+            return null;
+        }
+        else {
+            oLastSequenceNumbers.put(oObject.getGUID(), nSequenceNumber);
+            return oObject;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getStatistics
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Describe how snapshots fared (for printing on shutdown)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         sStatistics -   Snapshots sent and lost, and hellos rejected (server),
+     *                                  or snapshots received, found stale, and dropped as unreadable (client)
+     *********************************************************************************************************/
+    public static String getStatistics () {
+        if (HW04_Globals.bClient == true) {
+            return 
+                "UDP snapshots: " + oSnapshotsReceived.get() + " received, " + oSnapshotsStale.get() + " stale, " + 
+                oSnapshotsDropped.get() + " dropped (unreadable)";
+        }
+        else {
+            return 
+                "UDP snapshots: " + oSnapshotsSent.get() + " sent, " + oSnapshotsLost.get() + " lost, " + 
+                oHellosRejected.get() + " hellos rejected (wrong host or player)";
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        send
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Send a datagram (if it can't be sent, that's what UDP is like - carry on)
+     *
+     * ARGUMENTS:       oAddress -      Where to send it
+     *                  abDatagram -    What to send
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void send (SocketAddress oAddress, byte[] abDatagram) {
+        try {
+            oChannel.send(ByteBuffer.wrap(abDatagram), oAddress);
+        }
+        catch (Throwable oError) {
+            oSnapshotsLost.incrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EnemyFormation.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Index of the enemies in the Space Invaders game, by column (server only).
+ *                  Enemies are made a row at a time, one per column, across the top of the window
+ *                      (see HW04_ObjectEnemy.addNewRowOfEnemiesAtTopOfWindow),
+ *                      and every row already there moves down first, so within a column the oldest enemy is the lowest.
+ *                      Each column keeps its enemies oldest first, so the lowest living enemy in it
+ *                      (the one that is promoted to the front line and can shoot) is simply the first one.
+ *                  All enemies move together (same speed, same direction, and they all move down together),
+ *                      so which enemy is furthest left and which is furthest right only changes when an enemy comes or goes.
+ *                      The formation remembers them, so only enemies close to those two need to look for the side walls each tick
+ *                      (close, not just those two, since a wall can turn the enemies around partway through a tick,
+ *                      which leaves some of them a pixel or so out of step with the rest).
+ *                  This lets enemies be handled column by column instead of asking every enemy about every other enemy:
+ *                      - Promotion when an enemy dies costs as much as its column is tall (see remove).
+ *                      - Finding the enemies that may touch the side walls costs nothing (see isOnEdge).
+ *                      - Finding the enemies that can shoot costs as much as there are columns (see getFront).
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.ArrayList;
+
+// CLASS DEFINITION
+public class HW04_EnemyFormation {
+    
+    // Enemies in each column (oldest, i.e. lowest, first), and the furthest left and right enemy in each column
+    private static ArrayList<ArrayList<HW04_ObjectEnemy>> aaoColumns = new ArrayList<ArrayList<HW04_ObjectEnemy>>();
+    private static ArrayList<HW04_ObjectEnemy> aoColumnLeftmost = new ArrayList<HW04_ObjectEnemy>();
+    private static ArrayList<HW04_ObjectEnemy> aoColumnRightmost = new ArrayList<HW04_ObjectEnemy>();
+    
+    // Furthest left and right enemy in the whole formation
+    private static HW04_ObjectEnemy oLeftmost = null;
+    private static HW04_ObjectEnemy oRightmost = null;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        add
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Index a new enemy, at the top of its column
+     *
+     * ARGUMENTS:       oEnemy -    The enemy
+     *                  nColumn -   The column it was made in (0 = left)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void add (HW04_ObjectEnemy oEnemy, int nColumn) {
+        try {
+            
+            // Make room for the column (the first time)
+            while (aaoColumns.size() <= nColumn) {
+                aaoColumns.add(new ArrayList<HW04_ObjectEnemy>());
+                aoColumnLeftmost.add(null);
+                aoColumnRightmost.add(null);
+            }
+            
+            // Add to the column
+            aaoColumns.get(nColumn).add(oEnemy);
+            oEnemy.setFormationColumn(nColumn);
+            
+            // Is it further out than anything already there?
+            if (isFurtherLeft(oEnemy, aoColumnLeftmost.get(nColumn)) == true) {
+                aoColumnLeftmost.set(nColumn, oEnemy);
+            }
+            if (isFurtherRight(oEnemy, aoColumnRightmost.get(nColumn)) == true) {
+                aoColumnRightmost.set(nColumn, oEnemy);
+            }
+            if (isFurtherLeft(oEnemy, oLeftmost) == true) {
+                oLeftmost = oEnemy;
+            }
+            if (isFurtherRight(oEnemy, oRightmost) == true) {
+                oRightmost = oEnemy;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        remove
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Stop indexing an enemy (it has been destroyed)
+     *                  If there's another enemy behind it in its column, the lowest one is promoted to the "front line" (can shoot)
+     *
+     * ARGUMENTS:       oEnemy -    The enemy
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void remove (HW04_ObjectEnemy oEnemy) {
+        try {
+            
+            // Declare variables
+            ArrayList<HW04_ObjectEnemy> aoColumn;
+            int nColumn;
+            int i;
+            
+            // Not indexed?
+            nColumn = oEnemy.getFormationColumn();
+            if (nColumn < 0 || nColumn >= aaoColumns.size() || aaoColumns.get(nColumn).remove(oEnemy) == false) {
+                return;
+            }
+            oEnemy.setFormationColumn(-1);
+            aoColumn = aaoColumns.get(nColumn);
+            
+            // Promote the next enemy in the column
+            if (aoColumn.size() > 0) {
+                aoColumn.get(0).setFrontLineEnemy(true);
+            }
+            
+            // Work out the column's extents again, if the enemy was at one of them
+            if (aoColumnLeftmost.get(nColumn) == oEnemy || aoColumnRightmost.get(nColumn) == oEnemy) {
+                aoColumnLeftmost.set(nColumn, null);
+                aoColumnRightmost.set(nColumn, null);
+                for (i = 0; i < aoColumn.size(); i++) {
+                    if (isFurtherLeft(aoColumn.get(i), aoColumnLeftmost.get(nColumn)) == true) {
+                        aoColumnLeftmost.set(nColumn, aoColumn.get(i));
+                    }
+                    if (isFurtherRight(aoColumn.get(i), aoColumnRightmost.get(nColumn)) == true) {
+                        aoColumnRightmost.set(nColumn, aoColumn.get(i));
+                    }
+                }
+            }
+            
+            // Work out the formation's extents again (from the columns'), if the enemy was at one of them
+            if (oLeftmost == oEnemy || oRightmost == oEnemy) {
+                oLeftmost = null;
+                oRightmost = null;
+                for (i = 0; i < aaoColumns.size(); i++) {
+                    if (isFurtherLeft(aoColumnLeftmost.get(i), oLeftmost) == true) {
+                        oLeftmost = aoColumnLeftmost.get(i);
+                    }
+                    if (isFurtherRight(aoColumnRightmost.get(i), oRightmost) == true) {
+                        oRightmost = aoColumnRightmost.get(i);
+                    }
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getColumnCount
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nColumns -  How many columns there are (some may be empty)
+     *********************************************************************************************************/
+    public static synchronized int getColumnCount () {
+        return aaoColumns.size();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getFront
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the lowest living enemy in a column
+     *
+     * ARGUMENTS:       nColumn -   The column (0 = left)
+     *
+     * RETURNS:         oEnemy -    The enemy (or null if the column is empty)
+     *********************************************************************************************************/
+    public static synchronized HW04_ObjectEnemy getFront (int nColumn) {
+        if (nColumn < 0 || nColumn >= aaoColumns.size() || aaoColumns.get(nColumn).size() == 0) {
+            return null;
+        }
+        return aaoColumns.get(nColumn).get(0);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isOnEdge
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether an enemy is at (within one enemy width of) the left or right of the formation
+     *                      (only these can reach a side wall first)
+     *
+     * ARGUMENTS:       oEnemy -    The enemy
+     *
+     * RETURNS:         bOnEdge -   True if the enemy is at one of the formation's extents
+     *********************************************************************************************************/
+    public static synchronized boolean isOnEdge (HW04_ObjectEnemy oEnemy) {
+        return
+            (oLeftmost != null && oEnemy.getPositionX() < oLeftmost.getPositionX() + oEnemy.getWidth()) ||
+            (oRightmost != null && oEnemy.getPositionX() > oRightmost.getPositionX() - oEnemy.getWidth());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isFurtherLeft
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether one enemy is further left than another
+     *
+     * ARGUMENTS:       oEnemy -    The enemy (may be null)
+     *                  oOther -    The enemy to compare it with (may be null)
+     *
+     * RETURNS:         bFurther -  True if oEnemy is further left (or there is no oOther)
+     *********************************************************************************************************/
+    private static boolean isFurtherLeft (HW04_ObjectEnemy oEnemy, HW04_ObjectEnemy oOther) {
+        return oEnemy != null && (oOther == null || oEnemy.getPositionX() < oOther.getPositionX());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isFurtherRight
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether one enemy is further right than another
+     *
+     * ARGUMENTS:       oEnemy -    The enemy (may be null)
+     *                  oOther -    The enemy to compare it with (may be null)
+     *
+     * RETURNS:         bFurther -  True if oEnemy is further right (or there is no oOther)
+     *********************************************************************************************************/
+    private static boolean isFurtherRight (HW04_ObjectEnemy oEnemy, HW04_ObjectEnemy oOther) {
+        return oEnemy != null && (oOther == null || oEnemy.getPositionX() > oOther.getPositionX());
+    }
+
+}
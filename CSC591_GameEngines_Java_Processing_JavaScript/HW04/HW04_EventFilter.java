@@ -0,0 +1,18 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventFilter.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Define an interface for choosing which events of a type an observer is sent
+ *                      (see HW04_EventManager.registerForEvents)
+ *************************************************************************************************************/
+
+// IMPORTS
+// None
+
+// INTERFACE DEFINITION
+public interface HW04_EventFilter {
+    
+    public boolean accept(HW04_ObjectEvent oEventToHandle);
+
+}
\ No newline at end of file
@@ -0,0 +1,492 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventLanes.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     A queue of events with one lane per priority level (LANES option).
+ *                  Without the option, events wait in a PriorityBlockingQueue:
+ *                      every thread that raises an event (each client's read thread, the game loop, the event manager itself)
+ *                      takes the same lock to add it, and each add or take compares events O(log n) times
+ *                      (see HW04_ObjectEvent.compareTo).
+ *                  But there are only a handful of priority levels (see HW04_ObjectEvent.getEventTypeValue),
+ *                      and within a level, events are handled oldest first, which is the order they are added in.
+ *                      So with the option, each level has a lane of its own, in which events simply wait their turn,
+ *                      and events are taken from the highest priority lane that has any.
+ *                  Each lane is a ring of slots that any number of threads can add to without taking a lock:
+ *                      a thread claims the next slot by moving the lane's tail along one (compare and set),
+ *                      then fills it in.
+ *                      Only one thread may take events out (the thread that handles them),
+ *                      which empties the slot at the lane's head and moves the head along.
+ *                  If a lane's ring is full, events go to an overflow queue for the lane instead
+ *                      (and keep going there until it has been emptied, so that the lane stays in order),
+ *                      since an event can't be dropped, and the thread raising it may be the one that handles events.
+ *                  The thread taking events waits (parked) when every lane is empty,
+ *                      and a thread that adds an event wakes it up.
+ *                  Unlike the PriorityBlockingQueue, events within a level are in the order they were added,
+ *                      which is also the order of their timestamps, except for events received from network partners,
+ *                      which were timestamped when they were raised over there.
+ *                  See HW04_EventQueueBenchmark for a comparison of the two queues.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// CLASS DEFINITION
+public class HW04_EventLanes extends AbstractQueue<HW04_ObjectEvent> implements BlockingQueue<HW04_ObjectEvent> {
+    
+    // Constants
+    private static final int N_LANE_CAPACITY =  4096;
+    private static final int N_LANE_MASK =      N_LANE_CAPACITY - 1;
+    private static final int N_SPACING =        8;
+    
+    // Each lane's ring of slots, and where its head and tail are (lane n's head and tail are at n * N_SPACING, a cache line apart)
+    private ArrayList<AtomicReferenceArray<HW04_ObjectEvent>>   aaoSlots;
+    private AtomicLongArray                                     anHeads;
+    private AtomicLongArray                                     anTails;
+    
+    // Each lane's overflow queue (used while its ring is full)
+    private ArrayList<ConcurrentLinkedQueue<HW04_ObjectEvent>>  aoOverflows;
+    private LongAdder                                           nOverflowed;
+    
+    // The thread taking events, if it is waiting for one
+    private volatile Thread                                     oWaitingThread;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_EventLanes Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty queue, with a lane for each priority level
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public HW04_EventLanes () {
+        
+        // Declare variables
+        int nLanes;
+        int i;
+        
+        // One lane per priority level, from 0 (least important) up
+        nLanes = 0;
+        for (HW04_ObjectEvent.EventType nEventType : HW04_ObjectEvent.EventType.values()) {
+            nLanes = Math.max(nLanes, HW04_ObjectEvent.getEventTypeValue(nEventType) + 1);
+        }
+        this.aaoSlots = new ArrayList<AtomicReferenceArray<HW04_ObjectEvent>>();
+        this.aoOverflows = new ArrayList<ConcurrentLinkedQueue<HW04_ObjectEvent>>();
+        for (i = 0; i < nLanes; i++) {
+            this.aaoSlots.add(new AtomicReferenceArray<HW04_ObjectEvent>(N_LANE_CAPACITY));
+            this.aoOverflows.add(new ConcurrentLinkedQueue<HW04_ObjectEvent>());
+        }
+        this.anHeads = new AtomicLongArray(nLanes * N_SPACING);
+        this.anTails = new AtomicLongArray(nLanes * N_SPACING);
+        this.nOverflowed = new LongAdder();
+        this.oWaitingThread = null;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        offer
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add an event to the back of its lane (any thread)
+     *
+     * ARGUMENTS:       oEvent -    The event
+     *
+     * RETURNS:         bAdded -    Always true (the queue has no limit)
+     *********************************************************************************************************/
+    @Override
+    public boolean offer (HW04_ObjectEvent oEvent) {
+        
+        // Declare variables
+        ConcurrentLinkedQueue<HW04_ObjectEvent> oOverflow;
+        Thread oWaiting;
+        boolean bAdded;
+        long nTail;
+        int nLane;
+        
+        if (oEvent == null) {
+            throw new NullPointerException();
+        }
+        
+        // Claim the next slot in the lane's ring and fill it in, unless the lane is overflowing
+        nLane = oEvent.getEventTypeValue();
+        oOverflow = this.aoOverflows.get(nLane);
+        bAdded = false;
+        while (bAdded == false && oOverflow.isEmpty() == true) {
+            nTail = this.anTails.get(nLane * N_SPACING);
+            if (nTail - this.anHeads.get(nLane * N_SPACING) >= N_LANE_CAPACITY) {
+                break;
+            }
+            if (this.anTails.compareAndSet(nLane * N_SPACING, nTail, nTail + 1) == true) {
+                this.aaoSlots.get(nLane).set((int) (nTail & N_LANE_MASK), oEvent);
+                bAdded = true;
+            }
+        }
+        if (bAdded == false) {
+            oOverflow.add(oEvent);
+            this.nOverflowed.increment();
+        }
+        
+        // Wake up the thread taking events, if it's waiting
+        oWaiting = this.oWaitingThread;
+        if (oWaiting != null) {
+            LockSupport.unpark(oWaiting);
+        }
+        return true;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        poll
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take the event at the front of the highest priority lane that has one
+     *                      (only ever from one thread at a time)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oEvent -    The event (or null if there is none)
+     *********************************************************************************************************/
+    @Override
+    public HW04_ObjectEvent poll () {
+        
+        // Declare variables
+        HW04_ObjectEvent oEvent = null;
+        int nLane;
+        
+        for (nLane = this.aaoSlots.size() - 1; oEvent == null && nLane >= 0; nLane--) {
+            oEvent = this.pollLane(nLane);
+        }
+        return oEvent;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        take
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take the highest priority event, waiting for one if need be
+     *                      (only ever from one thread at a time)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oEvent -    The event
+     *********************************************************************************************************/
+    @Override
+    public HW04_ObjectEvent take () throws InterruptedException {
+        
+        // Declare variables
+        HW04_ObjectEvent oEvent;
+        
+        oEvent = this.poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        return oEvent;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        poll
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take the highest priority event, waiting a while for one if need be
+     *                      (only ever from one thread at a time)
+     *                  Says it is waiting before it looks one last time, and a thread adding an event
+     *                      looks to see if anyone is waiting after it adds it, so one or the other always sees the event.
+     *
+     * ARGUMENTS:       nTimeout -  How long to wait
+     *                  oUnit -     Unit of nTimeout
+     *
+     * RETURNS:         oEvent -    The event (or null if none came in time)
+     *********************************************************************************************************/
+    @Override
+    public HW04_ObjectEvent poll (long nTimeout, TimeUnit oUnit) throws InterruptedException {
+        
+        // Declare variables
+        HW04_ObjectEvent oEvent;
+        long nDeadline_ns;
+        long nRemaining_ns;
+        
+        oEvent = this.poll();
+        nRemaining_ns = oUnit.toNanos(nTimeout);
+        nDeadline_ns = System.nanoTime() + nRemaining_ns;
+        while (oEvent == null && nRemaining_ns > 0) {
+            this.oWaitingThread = Thread.currentThread();
+            oEvent = this.poll();
+            if (oEvent == null) {
+                LockSupport.parkNanos(this, nRemaining_ns);
+            }
+            this.oWaitingThread = null;
+            if (oEvent == null && Thread.interrupted() == true) {
+                throw new InterruptedException();
+            }
+            if (oEvent == null) {
+                oEvent = this.poll();
+                nRemaining_ns = nDeadline_ns - System.nanoTime();
+            }
+        }
+        return oEvent;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        peek
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Look at the highest priority event without taking it
+     *                      (from any thread, but it may be taken at any moment, unless called by the thread that takes events)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oEvent -    The event (or null if there is none)
+     *********************************************************************************************************/
+    @Override
+    public HW04_ObjectEvent peek () {
+        
+        // Declare variables
+        HW04_ObjectEvent oEvent = null;
+        long nHead;
+        int nLane;
+        
+        for (nLane = this.aaoSlots.size() - 1; oEvent == null && nLane >= 0; nLane--) {
+            nHead = this.anHeads.get(nLane * N_SPACING);
+            oEvent = this.aaoSlots.get(nLane).get((int) (nHead & N_LANE_MASK));
+            if (oEvent == null && this.anTails.get(nLane * N_SPACING) == nHead) {
+                oEvent = this.aoOverflows.get(nLane).peek();
+            }
+        }
+        return oEvent;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        size
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Count the events waiting (a moment ago, if other threads are busy with the queue)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nSize -     How many events are waiting
+     *********************************************************************************************************/
+    @Override
+    public int size () {
+        
+        // Declare variables
+        long nSize = 0;
+        int nLane;
+        
+        for (nLane = 0; nLane < this.aaoSlots.size(); nLane++) {
+            nSize += this.anTails.get(nLane * N_SPACING) - this.anHeads.get(nLane * N_SPACING);
+            nSize += this.aoOverflows.get(nLane).size();
+        }
+        return (int) Math.min(nSize, Integer.MAX_VALUE);
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        iterator
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Go through the events waiting, highest priority first
+     *                      (as they were a moment ago, if other threads are busy with the queue, and only for looking at)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oIterator - Iterator over a copy of the events waiting
+     *********************************************************************************************************/
+    @Override
+    public Iterator<HW04_ObjectEvent> iterator () {
+        
+        // Declare variables
+        ArrayList<HW04_ObjectEvent> aoEvents;
+        HW04_ObjectEvent oEvent;
+        long nSlot;
+        int nLane;
+        
+        aoEvents = new ArrayList<HW04_ObjectEvent>();
+        for (nLane = this.aaoSlots.size() - 1; nLane >= 0; nLane--) {
+            for (
+                nSlot = this.anHeads.get(nLane * N_SPACING);
+                nSlot < this.anTails.get(nLane * N_SPACING);
+                nSlot++
+            ) {
+                oEvent = this.aaoSlots.get(nLane).get((int) (nSlot & N_LANE_MASK));
+                if (oEvent != null) {
+                    aoEvents.add(oEvent);
+                }
+            }
+            aoEvents.addAll(this.aoOverflows.get(nLane));
+        }
+        return aoEvents.iterator();
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        put
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add an event (never has to wait, the queue has no limit)
+     *
+     * ARGUMENTS:       oEvent -    The event
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    public void put (HW04_ObjectEvent oEvent) {
+        this.offer(oEvent);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        offer
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add an event (never has to wait, the queue has no limit)
+     *
+     * ARGUMENTS:       oEvent -    The event
+     *                  nTimeout -  Ignored
+     *                  oUnit -     Ignored
+     *
+     * RETURNS:         bAdded -    Always true
+     *********************************************************************************************************/
+    @Override
+    public boolean offer (HW04_ObjectEvent oEvent, long nTimeout, TimeUnit oUnit) {
+        return this.offer(oEvent);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        remainingCapacity
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nCapacity - Integer.MAX_VALUE (the queue has no limit)
+     *********************************************************************************************************/
+    @Override
+    public int remainingCapacity () {
+        return Integer.MAX_VALUE;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        drainTo
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take every event waiting, highest priority first (only from the thread that takes events)
+     *
+     * ARGUMENTS:       oCollection -   Where to put them
+     *
+     * RETURNS:         nDrained -      How many events were taken
+     *********************************************************************************************************/
+    @Override
+    public int drainTo (Collection<? super HW04_ObjectEvent> oCollection) {
+        return this.drainTo(oCollection, Integer.MAX_VALUE);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        drainTo
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take up to so many events, highest priority first (only from the thread that takes events)
+     *
+     * ARGUMENTS:       oCollection -   Where to put them
+     *                  nMaxEvents -    The most to take
+     *
+     * RETURNS:         nDrained -      How many events were taken
+     *********************************************************************************************************/
+    @Override
+    public int drainTo (Collection<? super HW04_ObjectEvent> oCollection, int nMaxEvents) {
+        
+        // Declare variables
+        HW04_ObjectEvent oEvent;
+        int nDrained = 0;
+        
+        while (nDrained < nMaxEvents) {
+            oEvent = this.poll();
+            if (oEvent == null) {
+                break;
+            }
+            oCollection.add(oEvent);
+            nDrained++;
+        }
+        return nDrained;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getOverflowCount
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nOverflowed -   How many events have gone to an overflow queue (a lane's ring was full)
+     *********************************************************************************************************/
+    public long getOverflowCount () {
+        return this.nOverflowed.sum();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        pollLane
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take the event at the front of one lane (only from the thread that takes events)
+     *                  The slot at the head may have been claimed but not filled in yet,
+     *                      in which case the lane counts as empty for now (the thread filling it in will wake us up).
+     *                  The overflow queue is only used once the ring is empty, since whatever is in it came later.
+     *
+     * ARGUMENTS:       nLane -     The lane (priority level)
+     *
+     * RETURNS:         oEvent -    The event (or null if there is none)
+     *********************************************************************************************************/
+    private HW04_ObjectEvent pollLane (int nLane) {
+        
+        // Declare variables
+        AtomicReferenceArray<HW04_ObjectEvent> aoSlots;
+        HW04_ObjectEvent oEvent;
+        long nHead;
+        int nSlot;
+        
+        aoSlots = this.aaoSlots.get(nLane);
+        nHead = this.anHeads.get(nLane * N_SPACING);
+        nSlot = (int) (nHead & N_LANE_MASK);
+        oEvent = aoSlots.get(nSlot);
+        if (oEvent != null) {
+            // Empty the slot before moving the head along, so that it is empty when a thread adding an event gets to it
+            aoSlots.set(nSlot, null);
+            this.anHeads.set(nLane * N_SPACING, nHead + 1);
+        }
+        else if (this.anTails.get(nLane * N_SPACING) == nHead) {
+            oEvent = this.aoOverflows.get(nLane).poll();
+        }
+        return oEvent;
+    
+    }
+
+}
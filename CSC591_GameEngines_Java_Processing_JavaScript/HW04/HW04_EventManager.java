@@ -32,6 +32,21 @@
  *                              Depending on how fast events are raised and how fast the code to handle them runs,
  *                              we could have almost-always-nearly-empty queue, or we could have often-quite-full queue.
  *                              Event prioritization ensures that the most important events are handled first.
+ *                              With the LANES option, the prioritized queue is instead one lane per priority level,
+ *                              each of which events can be added to without taking a lock (see HW04_EventLanes).
+ *                              With the SHARDS option, events are instead split between several prioritized queues (shards),
+ *                              each with a thread of its own, so that one slow observer doesn't hold up every other event,
+ *                              and events are handled on as many cores as there are shards.
+ *                              Which shard an event goes to depends on what it is about (see getShardKey):
+ *                                  - An event about a game object other than a character (a bullet's collision, say)
+ *                                    goes by that object's GUID.
+ *                                  - Any other event goes by player ID: that of the character it is about,
+ *                                    or else that of whoever raised it.
+ *                                    So a character's input, collisions, spawns and score changes stay together,
+ *                                    as does everything a client raises about its own character.
+ *                              Events in the same shard are handled one at a time, in the same priority order as above.
+ *                              Events in different shards may be handled at the same time, in no particular order
+ *                              (observers already have to cope with events being handled while the game loop runs).
  *                          Event Handling
  *                              When the event manager handles an event, it consults gets from the 
  *                              event-type-as-key hashmap a collection of all interested objects.
@@ -100,23 +115,48 @@
  *************************************************************************************************************/
 
 // IMPORTS
+import java.util.ArrayList;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 // CLASS DEFINITION
 public class HW04_EventManager implements Runnable {
     
     // Private variables
     private static HW04_EventManager oInstance = null;
-    private static PriorityBlockingQueue<HW04_ObjectEvent> oEventQueue = 
-        new PriorityBlockingQueue<HW04_ObjectEvent>();
     private static ConcurrentHashMap<HW04_ObjectEvent.EventType, CopyOnWriteArrayList<Object>> oObservers = 
         new ConcurrentHashMap<HW04_ObjectEvent.EventType, CopyOnWriteArrayList<Object>>();
     private static ConcurrentHashMap<HW04_ObjectEvent.EventType, CopyOnWriteArrayList<Integer>> oServerEventRegistrationTracker = 
             new ConcurrentHashMap<HW04_ObjectEvent.EventType, CopyOnWriteArrayList<Integer>>();
     
+    /* Interest narrower than a whole event type (see HW04_EventSubscription)
+     *  - Interest in events about one game object, by event type, then by the GUID of that game object
+     *  - Interest in events that pass a filter, by event type
+     *  - Every subscription a game object has (to whole event types too), by its GUID (see deRegisterForEvents)
+     */
+    private static ConcurrentHashMap<HW04_ObjectEvent.EventType, ConcurrentHashMap<Integer, CopyOnWriteArrayList<HW04_EventSubscription>>> oSubscriptionsAbout = 
+        new ConcurrentHashMap<HW04_ObjectEvent.EventType, ConcurrentHashMap<Integer, CopyOnWriteArrayList<HW04_EventSubscription>>>();
+    private static ConcurrentHashMap<HW04_ObjectEvent.EventType, CopyOnWriteArrayList<HW04_EventSubscription>> oSubscriptionsFiltered = 
+        new ConcurrentHashMap<HW04_ObjectEvent.EventType, CopyOnWriteArrayList<HW04_EventSubscription>>();
+    private static ConcurrentHashMap<Integer, CopyOnWriteArrayList<HW04_EventSubscription>> oSubscriptionsByObserver = 
+        new ConcurrentHashMap<Integer, CopyOnWriteArrayList<HW04_EventSubscription>>();
+    
+    /* The prioritized queue (see getEventQueue), or one prioritized queue per shard (SHARDS option)
+     *  Made when first needed, since options are read after this class is loaded
+     */
+    private static BlockingQueue<HW04_ObjectEvent> oEventQueue = null;
+    private static ArrayList<BlockingQueue<HW04_ObjectEvent>> aoShardQueues = null;
+    
+    /* Game object change events raised during this game loop iteration, by GUID of the changed object (COALESCE option)
+     *  Only the latest one for each game object is queued, at the end of the iteration (see endTick)
+     */
+    private static ConcurrentHashMap<Integer, HW04_ObjectEvent> oPendingChanges = new ConcurrentHashMap<Integer, HW04_ObjectEvent>();
+    private static LongAdder nChangesRaised = new LongAdder();
+    private static LongAdder nChangesCoalesced = new LongAdder();
+    
     /*********************************************************************************************************
      * FUNCTION:        HW04_EventManager Constructor
      *
@@ -157,13 +197,20 @@ public class HW04_EventManager implements Runnable {
     public void run () {
         try {
             
+            // Declare variables
+            HW04_ObjectEvent oEvent;
+            
             while (true) {
                 
                 /* Get highest priority event from priority queue and handle it
                  * .poll() is the non-blocking version (returns even if queue empty)
                  * .take() is the blocking version (waits for queue to be non-empty)
                  */
-                handleEvent(oEventQueue.take());
+                oEvent = getEventQueue().take();
+                handleEvent(oEvent);
+                
+                // Done with the event (it may go back into HW04_EventPool)
+                oEvent.release();
                 
             }
             
@@ -188,8 +235,7 @@ public class HW04_EventManager implements Runnable {
         if (oInstance == null) {
             // Create instance
             oInstance = new HW04_EventManager();
-            // Start thread that actually handles events
-            (new Thread(oInstance)).start();
+            // The thread that actually handles events is started along with its queue (see getEventQueue)
         }
         return oInstance;
     }
@@ -214,24 +260,119 @@ public class HW04_EventManager implements Runnable {
     ) {
         try {
             
-            // Declare variables
-            HW04_ObjectEvent oCreatedEvent;
+            // Create event and raise it
+            this.raiseEvent(new HW04_ObjectEvent(nNewEventType, oNewEventArgs));
             
-            // Create event
-            oCreatedEvent = new HW04_ObjectEvent(nNewEventType, oNewEventArgs);
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        raiseEvent
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Raise a new event that has already been created (see the wrapper methods below)
+     * 
+     * ARGUMENTS:       oCreatedEvent -     The event (with its arguments filled in)
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void raiseEvent (HW04_ObjectEvent oCreatedEvent) {
+        try {
+            
+            // Declare variables
+            HW04_ObjectGame oChangedObject;
+            HW04_ObjectEvent oReplacedEvent;
             
             /* Add the event object to the priority queue
              *  Separate thread will deal with the event according to its priority
+             *  With the COALESCE option, a game object change waits for the end of the game loop iteration instead,
+             *      and takes the place of any change to the same game object that is already waiting
+             *      (every other type of event is queued right away, as always)
              */
             oCreatedEvent.setHandledFlag();
-            oEventQueue.add(oCreatedEvent);
+            oChangedObject = oCreatedEvent.getSubject();
+            if (
+                HW04_Globals.bCoalesceEvents == true &&
+                oCreatedEvent.getEventType() == HW04_ObjectEvent.EventType.GAME_OBJECT_CHANGE &&
+                oChangedObject != null
+            ) {
+                nChangesRaised.increment();
+                oReplacedEvent = oPendingChanges.put(oChangedObject.getGUID(), oCreatedEvent);
+                if (oReplacedEvent != null) {
+                    nChangesCoalesced.increment();
+                    oReplacedEvent.release();
+                }
+            }
+            else {
+                queueEvent(oCreatedEvent);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        endTick
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Queue the game object change events that have been waiting for the end of this game loop iteration,
+     *                      one per game object (COALESCE option)
+     *                  Called once per game loop iteration.
+     *                  Does nothing if events are not being coalesced.
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void endTick () {
+        try {
             
+            // Declare variables
+            HW04_ObjectEvent oPendingEvent;
+            
+            /* Each event is taken out of the waiting ones before it is queued,
+             *  so a change raised meanwhile (by another thread) simply waits for the next iteration
+             */
+            if (HW04_Globals.bCoalesceEvents == true) {
+                for (Integer nGUID : oPendingChanges.keySet()) {
+                    oPendingEvent = oPendingChanges.remove(nGUID);
+                    if (oPendingEvent != null) {
+                        queueEvent(oPendingEvent);
+                    }
+                }
+            }
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
         }
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        getCoalescingStatistics
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Say how coalescing went (COALESCE option)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         sStatistics -   A line of text
+     *********************************************************************************************************/
+    public static String getCoalescingStatistics () {
+        return
+            "Event coalescing: " +
+            nChangesRaised.sum() + " game object changes raised, " +
+            nChangesCoalesced.sum() + " replaced by a later change in the same game loop iteration";
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        reRaiseEvent
      *
@@ -250,7 +391,7 @@ public class HW04_EventManager implements Runnable {
             /* This is an event someone else originated
              *  Add to the queue to get handled when it is highest priority
              */
-            oEventQueue.add(oReceivedEvent);
+            queueEvent(oReceivedEvent);
             
         }
         catch (Throwable oError) {
@@ -283,7 +424,6 @@ public class HW04_EventManager implements Runnable {
             
             // Declare variables
             CopyOnWriteArrayList<Object> aoObservers;
-            HW04_ObjectEventRemoteRegistration oEventRegistrationRequest;
             
             // Add to observers interested in this event type
             if (oObservers.containsKey(nEventTypeOfInterest)) {
@@ -295,44 +435,183 @@ public class HW04_EventManager implements Runnable {
                 oObservers.put(nEventTypeOfInterest, aoObservers);
             }
             
+            // Remember the interest of a game object, so that it can be forgotten quickly
+            rememberSubscription(new HW04_EventSubscription(nEventTypeOfInterest, oObjectInterested, false, 0, null));
+            
             // If interested in this event even from other places in the network, send registration out
             if (bGameWide == true) {
-                
-                // Create the registration request
-                oEventRegistrationRequest = new HW04_ObjectEventRemoteRegistration(nEventTypeOfInterest);
-                
-                // If we are the client, send the request to the server
-                if (HW04_Globals.bClient == true) {
-                    if (HW04_Globals.oObjectsToWrite == null) {
-                        throw new Exception("Cannot use objects to write hashmap before it is initialized");
-                    }
-                    else {
-                        HW04_Globals.oObjectsToWrite.get(-1).add(oEventRegistrationRequest);
-                    }
+                registerRemotely(nEventTypeOfInterest);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        registerForEvents
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Register interest in certain events, but only those that pass a filter
+     *                      (the filter is asked about each event of the type, just before it would be handled)
+     * 
+     * ARGUMENTS:       nEventTypeOfInterest -  An indication of what type of event the caller is interested in
+     *                  oObjectInterested -     A reference to the interested object
+     *                  bGameWide -             If true, interested in this event game-wide (as above)
+     *                  oFilter -               The filter
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void registerForEvents (
+        HW04_ObjectEvent.EventType nEventTypeOfInterest, 
+        Object oObjectInterested,
+        boolean bGameWide,
+        HW04_EventFilter oFilter
+    ) {
+        try {
+            
+            // Declare variables
+            HW04_EventSubscription oSubscription;
+            
+            // Add to filtered subscriptions to this event type
+            oSubscription = new HW04_EventSubscription(nEventTypeOfInterest, oObjectInterested, false, 0, oFilter);
+            oSubscriptionsFiltered.putIfAbsent(nEventTypeOfInterest, new CopyOnWriteArrayList<HW04_EventSubscription>());
+            oSubscriptionsFiltered.get(nEventTypeOfInterest).add(oSubscription);
+            rememberSubscription(oSubscription);
+            
+            // If interested in this event even from other places in the network, send registration out
+            if (bGameWide == true) {
+                registerRemotely(nEventTypeOfInterest);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        registerForEventsAbout
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Register a game object's interest in certain events, but only those about itself
+     *                      (e.g. collisions in which it is the object that moved, see HW04_ObjectEvent.getSubject),
+     *                      or about no game object in particular (e.g. a score change for every character)
+     *                  Events are found for the object by its GUID, so an event about one object is not passed to all the others.
+     *                  Only for local events (the object's own network partners have the same interest of their own).
+     * 
+     * ARGUMENTS:       nEventTypeOfInterest -  An indication of what type of event the caller is interested in
+     *                  oObjectInterested -     A reference to the interested game object
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void registerForEventsAbout (
+        HW04_ObjectEvent.EventType nEventTypeOfInterest, 
+        HW04_ObjectGame oObjectInterested
+    ) {
+        try {
+            
+            // Declare variables
+            ConcurrentHashMap<Integer, CopyOnWriteArrayList<HW04_EventSubscription>> oByGUID;
+            HW04_EventSubscription oSubscription;
+            int nGUID;
+            
+            // Add to subscriptions to this event type about this object
+            nGUID = oObjectInterested.getGUID();
+            oSubscription = new HW04_EventSubscription(nEventTypeOfInterest, oObjectInterested, true, nGUID, null);
+            oSubscriptionsAbout.putIfAbsent(
+                nEventTypeOfInterest, 
+                new ConcurrentHashMap<Integer, CopyOnWriteArrayList<HW04_EventSubscription>>()
+            );
+            oByGUID = oSubscriptionsAbout.get(nEventTypeOfInterest);
+            oByGUID.putIfAbsent(nGUID, new CopyOnWriteArrayList<HW04_EventSubscription>());
+            oByGUID.get(nGUID).add(oSubscription);
+            rememberSubscription(oSubscription);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        rememberSubscription
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Remember a subscription by the GUID of the game object that has it (see deRegisterForEvents)
+     *                  Subscriptions of anything other than a game object are never forgotten.
+     * 
+     * ARGUMENTS:       oSubscription -     The subscription
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void rememberSubscription (HW04_EventSubscription oSubscription) {
+        
+        // Declare variables
+        int nGUID;
+        
+        if (oSubscription.oObserver instanceof HW04_ObjectGame) {
+            nGUID = ((HW04_ObjectGame) oSubscription.oObserver).getGUID();
+            oSubscriptionsByObserver.putIfAbsent(nGUID, new CopyOnWriteArrayList<HW04_EventSubscription>());
+            oSubscriptionsByObserver.get(nGUID).add(oSubscription);
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        registerRemotely
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Tell network partners that we are interested in events of a type that they raise
+     * 
+     * ARGUMENTS:       nEventTypeOfInterest -  An indication of what type of event we are interested in
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void registerRemotely (HW04_ObjectEvent.EventType nEventTypeOfInterest) {
+        try {
+            
+            // Declare variables
+            HW04_ObjectEventRemoteRegistration oEventRegistrationRequest;
+            
+            // Create the registration request
+            oEventRegistrationRequest = new HW04_ObjectEventRemoteRegistration(nEventTypeOfInterest);
+            
+            // If we are the client, send the request to the server
+            if (HW04_Globals.bClient == true) {
+                if (HW04_Globals.oObjectsToWrite == null) {
+                    throw new Exception("Cannot use objects to write hashmap before it is initialized");
                 }
-                
-                /* If we are the server, send the request to all clients
-                 *  It's okay if no clients exist yet
-                 *  Either way, remember our interest so that we may send the requests to any clients who join in the future
-                 */
                 else {
-                    // Make sure we have the ability to track our interest in this event type
-                    if (oServerEventRegistrationTracker.contains(nEventTypeOfInterest) == false) {
-                        oServerEventRegistrationTracker.put(nEventTypeOfInterest, new CopyOnWriteArrayList<Integer>());
+                    HW04_Globals.oObjectsToWrite.get(-1).add(oEventRegistrationRequest);
+                }
+            }
+            
+            /* If we are the server, send the request to all clients
+             *  It's okay if no clients exist yet
+             *  Either way, remember our interest so that we may send the requests to any clients who join in the future
+             */
+            else {
+                // Make sure we have the ability to track our interest in this event type
+                if (oServerEventRegistrationTracker.contains(nEventTypeOfInterest) == false) {
+                    oServerEventRegistrationTracker.put(nEventTypeOfInterest, new CopyOnWriteArrayList<Integer>());
+                }
+                // Proceed if we have anybody to talk to
+                if (HW04_Globals.oObjectsToWrite != null) {
+                    // Add the event registration request object to each connected client's queue of objects to write
+                    for (BlockingQueue<HW04_ObjectCommunicable> value : HW04_Globals.oObjectsToWrite.values()){
+                        value.add(oEventRegistrationRequest);
                     }
-                    // Proceed if we have anybody to talk to
-                    if (HW04_Globals.oObjectsToWrite != null) {
-                        // Add the event registration request object to each connected client's queue of objects to write
-                        for (BlockingQueue<HW04_ObjectCommunicable> value : HW04_Globals.oObjectsToWrite.values()){
-                            value.add(oEventRegistrationRequest);
-                        }
-                        // Keep track of the fact that we have sent this registration request to these clients
-                        for (Integer key : HW04_Globals.oObjectsToWrite.keySet()){
-                            oServerEventRegistrationTracker.get(nEventTypeOfInterest).add(key);
-                        }
+                    // Keep track of the fact that we have sent this registration request to these clients
+                    for (Integer key : HW04_Globals.oObjectsToWrite.keySet()){
+                        oServerEventRegistrationTracker.get(nEventTypeOfInterest).add(key);
                     }
                 }
-                
             }
             
         }
@@ -347,6 +626,8 @@ public class HW04_EventManager implements Runnable {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     De-Register interest in all events
+     *                  Only game objects can de-register, and only their own subscriptions are looked at
+     *                      (they are remembered by GUID, whichever version of the object registered).
      * 
      * ARGUMENTS:       oObjectNoLongerInterested -     A reference to the interested object
      * 
@@ -356,26 +637,34 @@ public class HW04_EventManager implements Runnable {
         try {
             
             // Declare variables
-            CopyOnWriteArrayList<Object> aoListeners;
-            Object oThisListener;
+            CopyOnWriteArrayList<HW04_EventSubscription> aoSubscriptions;
+            HW04_EventSubscription oSubscription;
+            ConcurrentHashMap<Integer, CopyOnWriteArrayList<HW04_EventSubscription>> oByGUID;
             int i;
             
-            // Go through all event types
-            for (HW04_ObjectEvent.EventType key : oObservers.keySet()){
-                aoListeners = oObservers.get(key);
-                // Go through all listeners for this event type
-                for (i = 0; i < aoListeners.size(); i++) {
-                    oThisListener = aoListeners.get(i);
-                    if (
-                        oThisListener instanceof HW04_ObjectGame && 
-                        oObjectNoLongerInterested instanceof HW04_ObjectGame &&
-                        ((HW04_ObjectGame) oThisListener).getGUID() == ((HW04_ObjectGame) oObjectNoLongerInterested).getGUID()
-                    ) {
-                        aoListeners.remove(oThisListener);
+            // Forget every subscription this game object has
+            if (oObjectNoLongerInterested instanceof HW04_ObjectGame) {
+                aoSubscriptions = oSubscriptionsByObserver.remove(((HW04_ObjectGame) oObjectNoLongerInterested).getGUID());
+                if (aoSubscriptions != null) {
+                    for (i = 0; i < aoSubscriptions.size(); i++) {
+                        oSubscription = aoSubscriptions.get(i);
+                        if (oSubscription.bAboutOneObject == true) {
+                            // (Only a game object's own subscriptions are about it, see registerForEventsAbout)
+                            oByGUID = oSubscriptionsAbout.get(oSubscription.nEventType);
+                            if (oByGUID != null) {
+                                oByGUID.remove(oSubscription.nAboutGUID);
+                            }
+                        }
+                        else if (oSubscription.oFilter != null) {
+                            oSubscriptionsFiltered.get(oSubscription.nEventType).remove(oSubscription);
+                        }
+                        else {
+                            oObservers.get(oSubscription.nEventType).remove(oSubscription.oObserver);
+                        }
                     }
                 }
             }
-            
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -439,9 +728,27 @@ public class HW04_EventManager implements Runnable {
     public double getTimestampEventQueue () {
         double oTimeReal_ms = -1;
         try {
-            if (oEventQueue.isEmpty() == false) {
-                oTimeReal_ms = oEventQueue.peek().getEventTimeReal();
+            
+            // Declare variables
+            ArrayList<BlockingQueue<HW04_ObjectEvent>> aoQueues;
+            HW04_ObjectEvent oOldestEvent;
+            int i;
+            
+            // Look at the head of every queue (the event at the head of a queue is not necessarily its oldest, as before)
+            aoQueues = new ArrayList<BlockingQueue<HW04_ObjectEvent>>();
+            if (HW04_Globals.bShardedEvents == true) {
+                aoQueues.addAll(getShardQueues());
             }
+            else {
+                aoQueues.add(getEventQueue());
+            }
+            for (i = 0; i < aoQueues.size(); i++) {
+                oOldestEvent = aoQueues.get(i).peek();
+                if (oOldestEvent != null && (oTimeReal_ms < 0 || oOldestEvent.getEventTimeReal() < oTimeReal_ms)) {
+                    oTimeReal_ms = oOldestEvent.getEventTimeReal();
+                }
+            }
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -449,6 +756,185 @@ public class HW04_EventManager implements Runnable {
         return oTimeReal_ms;
     }
         
+    /*********************************************************************************************************
+     * FUNCTION:        queueEvent
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add an event to the prioritized queue, or with the SHARDS option, to its shard's prioritized queue
+     *
+     * ARGUMENTS:       oEventToQueue -     The event to queue
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void queueEvent (HW04_ObjectEvent oEventToQueue) {
+        
+        // Declare variables
+        ArrayList<BlockingQueue<HW04_ObjectEvent>> aoQueues;
+        
+        // Queue the event
+        if (HW04_Globals.bShardedEvents == true) {
+            aoQueues = getShardQueues();
+            aoQueues.get(Math.floorMod(getShardKey(oEventToQueue), aoQueues.size())).add(oEventToQueue);
+        }
+        else {
+            getEventQueue().add(oEventToQueue);
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getShardKey
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Work out what decides which shard an event goes to (SHARDS option)
+     *                      - For an event about a game object other than a character, the object's GUID
+     *                      - For any other event, the player ID of the character it is about,
+     *                        or else the player ID of whoever raised it (-1 for the server)
+     * 
+     * ARGUMENTS:       oEvent -    The event
+     * 
+     * RETURNS:         nKey -      The shard key (events with the same key always go to the same shard)
+     *********************************************************************************************************/
+    private static int getShardKey (HW04_ObjectEvent oEvent) {
+        
+        int nKey = oEvent.getPlayerID();
+        try {
+            
+            // Declare variables
+            HW04_ObjectGame oAbout;
+            
+            // What game object (if any) is the event about?
+            oAbout = oEvent.getSubject();
+            
+            // Characters go by player, everything else by GUID
+            if (oAbout instanceof HW04_ObjectCharacter) {
+                nKey = ((HW04_ObjectCharacter) oAbout).getPlayerID();
+            }
+            else if (oAbout != null) {
+                nKey = oAbout.getGUID();
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return nKey;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getEventQueue
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the prioritized queue (without the SHARDS option),
+     *                      making it and starting the thread that handles its events (see run) the first time
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         oQueue -    The prioritized queue
+     *********************************************************************************************************/
+    private static synchronized BlockingQueue<HW04_ObjectEvent> getEventQueue () {
+        try {
+            if (oEventQueue == null) {
+                oEventQueue = createQueue();
+                (new Thread(getInstance())).start();
+            }
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oEventQueue;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        createQueue
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Create an empty prioritized queue:
+     *                      a lane per priority level with the LANES option (see HW04_EventLanes),
+     *                      otherwise a priority queue ordered by HW04_ObjectEvent.compareTo
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         oQueue -    The queue
+     *********************************************************************************************************/
+    private static BlockingQueue<HW04_ObjectEvent> createQueue () {
+        
+        // Declare variables
+        BlockingQueue<HW04_ObjectEvent> oQueue;
+        
+        if (HW04_Globals.bEventLanes == true) {
+            oQueue = new HW04_EventLanes();
+        }
+        else {
+            oQueue = new PriorityBlockingQueue<HW04_ObjectEvent>();
+        }
+        return oQueue;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getShardQueues
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the shards' prioritized queues (SHARDS option),
+     *                      making them and starting a thread to handle each one's events the first time
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         aoQueues -  One prioritized queue per shard
+     *********************************************************************************************************/
+    private static synchronized ArrayList<BlockingQueue<HW04_ObjectEvent>> getShardQueues () {
+        try {
+            
+            // Declare variables
+            int nShards;
+            int i;
+            
+            if (aoShardQueues == null) {
+                nShards = HW04_Globals.nEventShards > 0 ? HW04_Globals.nEventShards : Runtime.getRuntime().availableProcessors();
+                aoShardQueues = new ArrayList<BlockingQueue<HW04_ObjectEvent>>();
+                for (i = 0; i < nShards; i++) {
+                    aoShardQueues.add(createQueue());
+                }
+                
+                // Each shard's thread works just like run(), but on its own queue
+                for (i = 0; i < nShards; i++) {
+                    final BlockingQueue<HW04_ObjectEvent> oQueue = aoShardQueues.get(i);
+                    (new Thread(new Runnable() {
+                        public void run () {
+                            
+                            // Declare variables
+                            HW04_ObjectEvent oEvent;
+                            
+                            try {
+                                while (true) {
+                                    oEvent = oQueue.take();
+                                    getInstance().handleEvent(oEvent);
+                                    oEvent.release();
+                                }
+                            }
+                            catch (Throwable oError) {
+                                HW04_Utility.handleError(oError);
+                            }
+                        }
+                    }, "Event shard " + i)).start();
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoShardQueues;
+    
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        handleEvent
      *
@@ -467,6 +953,9 @@ public class HW04_EventManager implements Runnable {
 
             // Declare variables
             CopyOnWriteArrayList<Object> aoObservers;
+            ConcurrentHashMap<Integer, CopyOnWriteArrayList<HW04_EventSubscription>> oByGUID;
+            CopyOnWriteArrayList<HW04_EventSubscription> aoSubscriptions;
+            HW04_ObjectGame oSubject;
             HW04_ObjectGame oLatestVersionOfListener;
             int nListenerGUID;
             int i;
@@ -501,6 +990,38 @@ public class HW04_EventManager implements Runnable {
                 } 
             }
             
+            /* Pass to parties interested in events of this type about one game object
+             *  Only to those interested in the game object the event is about,
+             *  or, if it isn't about any game object in particular, to all of them
+             */
+            oByGUID = oSubscriptionsAbout.get(oEventToHandle.getEventType());
+            if (oByGUID != null) {
+                oSubject = oEventToHandle.getSubject();
+                if (oSubject != null) {
+                    aoSubscriptions = oByGUID.get(oSubject.getGUID());
+                    if (aoSubscriptions != null) {
+                        for (i = 0; i < aoSubscriptions.size(); i++) {
+                            aoSubscriptions.get(i).deliver(oEventToHandle);
+                        }
+                    }
+                }
+                else {
+                    for (CopyOnWriteArrayList<HW04_EventSubscription> aoSubscriptionsAbout : oByGUID.values()) {
+                        for (i = 0; i < aoSubscriptionsAbout.size(); i++) {
+                            aoSubscriptionsAbout.get(i).deliver(oEventToHandle);
+                        }
+                    }
+                }
+            }
+            
+            // Pass to parties interested in events of this type that pass a filter
+            aoSubscriptions = oSubscriptionsFiltered.get(oEventToHandle.getEventType());
+            if (aoSubscriptions != null) {
+                for (i = 0; i < aoSubscriptions.size(); i++) {
+                    aoSubscriptions.get(i).deliver(oEventToHandle);
+                }
+            }
+            
             /* Pass to parties interested in all events
              * Interested party might be a locally-existing object
              * Or might be a network partner proxy object,
@@ -519,7 +1040,9 @@ public class HW04_EventManager implements Runnable {
         }
     }
     
-    // CONVENIENCE - WRAPPER METHODS
+    /* CONVENIENCE - WRAPPER METHODS
+     *  Each one acquires an event with typed arguments (see HW04_EventPool), fills them in, and raises it
+     */
 
     /*********************************************************************************************************
      * FUNCTION:        raiseEventAdmin
@@ -535,12 +1058,12 @@ public class HW04_EventManager implements Runnable {
     public void raiseEventAdmin (String sDescription) {
         
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        oEventArguments.put(sDescription, "");
-        this.raiseEvent(HW04_ObjectEvent.EventType.ADMIN, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.ADMIN);
+        ((HW04_EventPayloadAdmin) oEvent.getPayload()).sDescription = sDescription;
+        this.raiseEvent(oEvent);
         
     }
 
@@ -561,14 +1084,16 @@ public class HW04_EventManager implements Runnable {
     public void raiseEventUserInput (String sKey, boolean bPressed, float nReplaySpeed) {
 
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
+        HW04_EventPayloadUserInput oPayload;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        oEventArguments.put("sKey", sKey);
-        oEventArguments.put("bPressed", (bPressed ? "TRUE" : "FALSE"));
-        oEventArguments.put("nReplaySpeed", nReplaySpeed);
-        this.raiseEvent(HW04_ObjectEvent.EventType.USER_INPUT, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.USER_INPUT);
+        oPayload = (HW04_EventPayloadUserInput) oEvent.getPayload();
+        oPayload.sKey = sKey;
+        oPayload.bPressed = bPressed;
+        oPayload.nReplaySpeed = nReplaySpeed;
+        this.raiseEvent(oEvent);
         
     }
 
@@ -594,15 +1119,17 @@ public class HW04_EventManager implements Runnable {
     ) {
         
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
+        HW04_EventPayloadCollision oPayload;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        oEventArguments.put("oMovedObject", oMovedObject);
-        oEventArguments.put("aoCollidingObjects", aoCollidingObjects);
-        oEventArguments.put("nOriginalX", nOriginalX);
-        oEventArguments.put("nOriginalY", nOriginalY);
-        this.raiseEvent(HW04_ObjectEvent.EventType.COLLISION, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.COLLISION);
+        oPayload = (HW04_EventPayloadCollision) oEvent.getPayload();
+        oPayload.oMovedObject = oMovedObject;
+        oPayload.aoCollidingObjects = aoCollidingObjects;
+        oPayload.nOriginalX = nOriginalX;
+        oPayload.nOriginalY = nOriginalY;
+        this.raiseEvent(oEvent);
         
     }
 
@@ -621,15 +1148,15 @@ public class HW04_EventManager implements Runnable {
     public void raiseEventScoreChange (HW04_ObjectCharacter oCharacterObject, boolean bScoreIncrement) {
 
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
+        HW04_EventPayloadScoreChange oPayload;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        if (oCharacterObject != null) {
-            oEventArguments.put("oCharacterObject", oCharacterObject);
-        }
-        oEventArguments.put("bScoreIncrement", (bScoreIncrement ? "TRUE" : "FALSE"));
-        this.raiseEvent(HW04_ObjectEvent.EventType.SCORE_CHANGE, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.SCORE_CHANGE);
+        oPayload = (HW04_EventPayloadScoreChange) oEvent.getPayload();
+        oPayload.oCharacterObject = oCharacterObject;
+        oPayload.bScoreIncrement = bScoreIncrement;
+        this.raiseEvent(oEvent);
         
     }
 
@@ -647,12 +1174,12 @@ public class HW04_EventManager implements Runnable {
     public void raiseEventSpawn (HW04_ObjectCharacter oCharacterObject) {
         
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        oEventArguments.put("oCharacterObject", oCharacterObject);
-        this.raiseEvent(HW04_ObjectEvent.EventType.SPAWN, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.SPAWN);
+        ((HW04_EventPayloadSpawn) oEvent.getPayload()).oCharacterObject = oCharacterObject;
+        this.raiseEvent(oEvent);
         
     }
 
@@ -670,12 +1197,12 @@ public class HW04_EventManager implements Runnable {
     public void raiseEventReplay (HW04_Replay.ReplayEventType nReplayEventType) {
         
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        oEventArguments.put("nReplayEventType", nReplayEventType);
-        this.raiseEvent(HW04_ObjectEvent.EventType.REPLAY, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.REPLAY);
+        ((HW04_EventPayloadReplay) oEvent.getPayload()).nReplayEventType = nReplayEventType;
+        this.raiseEvent(oEvent);
         
     }
 
@@ -699,12 +1226,12 @@ public class HW04_EventManager implements Runnable {
     public void raiseEventGameObjectChange (HW04_ObjectGame oGameObject) {
 
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        oEventArguments.put("oGameObject", oGameObject);
-        this.raiseEvent(HW04_ObjectEvent.EventType.GAME_OBJECT_CHANGE, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.GAME_OBJECT_CHANGE);
+        ((HW04_EventPayloadGameObjectChange) oEvent.getPayload()).oGameObject = oGameObject;
+        this.raiseEvent(oEvent);
         
     }
     
@@ -725,12 +1252,12 @@ public class HW04_EventManager implements Runnable {
     public void raiseEventGamePause (boolean bPaused) {
 
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        oEventArguments.put("bPaused", (bPaused ? "TRUE" : "FALSE"));
-        this.raiseEvent(HW04_ObjectEvent.EventType.GAME_PAUSE, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.GAME_PAUSE);
+        ((HW04_EventPayloadGamePause) oEvent.getPayload()).bPaused = bPaused;
+        this.raiseEvent(oEvent);
         
     }
     
@@ -748,12 +1275,12 @@ public class HW04_EventManager implements Runnable {
     public void raiseEventGameEnd (boolean bWon) {
 
         // Declare variables
-        ConcurrentHashMap<String, Object> oEventArguments;
+        HW04_ObjectEvent oEvent;
         
         // Raise event
-        oEventArguments = new ConcurrentHashMap<String, Object>();
-        oEventArguments.put("bWon", (bWon ? "TRUE" : "FALSE"));
-        this.raiseEvent(HW04_ObjectEvent.EventType.GAME_END, oEventArguments);
+        oEvent = HW04_EventPool.acquire(HW04_ObjectEvent.EventType.GAME_END);
+        ((HW04_EventPayloadGameEnd) oEvent.getPayload()).bWon = bWon;
+        this.raiseEvent(oEvent);
         
     }
 
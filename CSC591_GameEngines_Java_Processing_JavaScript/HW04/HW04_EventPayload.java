@@ -0,0 +1,152 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventPayload.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     The arguments of an event, as typed fields (one subclass per event type).
+ *                  Events used to carry their arguments only as a map of names to values,
+ *                      made afresh for every event, with flags written as the strings "TRUE" and "FALSE",
+ *                      so every handler looked each argument up by name (and cast it) every time.
+ *                  Events raised through the event manager's wrapper methods now carry a payload instead,
+ *                      and handlers read its fields directly (see HW04_ObjectEvent.getPayload).
+ *                  The map is still what goes over the network (so partners see exactly what they used to),
+ *                      and is still there for whoever asks for it (the scripts, the logger):
+ *                      it is filled in from the payload when first needed (see writeArguments),
+ *                      and a payload is filled in from the map for events that arrive from network partners (see readArguments).
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.concurrent.ConcurrentHashMap;
+
+// CLASS DEFINITION
+public abstract class HW04_EventPayload {
+    
+    /*********************************************************************************************************
+     * FUNCTION:        create
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Create an empty payload for a type of event
+     *
+     * ARGUMENTS:       nEventType -    The event type
+     *
+     * RETURNS:         oPayload -      The payload (or null for a wildcard, which is never raised)
+     *********************************************************************************************************/
+    public static HW04_EventPayload create (HW04_ObjectEvent.EventType nEventType) {
+        
+        HW04_EventPayload oPayload = null;
+        try {
+            
+            switch (nEventType) {
+                case WILDCARD:
+                    oPayload = null;
+                    break;
+                case ADMIN:
+                    oPayload = new HW04_EventPayloadAdmin();
+                    break;
+                case USER_INPUT:
+                    oPayload = new HW04_EventPayloadUserInput();
+                    break;
+                case COLLISION:
+                    oPayload = new HW04_EventPayloadCollision();
+                    break;
+                case SCORE_CHANGE:
+                    oPayload = new HW04_EventPayloadScoreChange();
+                    break;
+                case SPAWN:
+                    oPayload = new HW04_EventPayloadSpawn();
+                    break;
+                case REPLAY:
+                    oPayload = new HW04_EventPayloadReplay();
+                    break;
+                case GAME_OBJECT_CHANGE:
+                    oPayload = new HW04_EventPayloadGameObjectChange();
+                    break;
+                case GAME_PAUSE:
+                    oPayload = new HW04_EventPayloadGamePause();
+                    break;
+                case GAME_END:
+                    oPayload = new HW04_EventPayloadGameEnd();
+                    break;
+                default:
+                    throw new Exception ("Unknown event type " + nEventType);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oPayload;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put the payload's fields into a map of event arguments, with the names and values events have always had
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    abstract void writeArguments (ConcurrentHashMap<String, Object> oArgs);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Fill in the payload's fields from a map of event arguments (as written by writeArguments)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    abstract void readArguments (ConcurrentHashMap<String, Object> oArgs);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clear
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Let go of everything the payload refers to (its event is going back to HW04_EventPool)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    abstract void clear ();
+    
+    /*********************************************************************************************************
+     * FUNCTION:        toFlag
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write a flag the way event arguments always have
+     *
+     * ARGUMENTS:       bFlag -     The flag
+     *
+     * RETURNS:         sFlag -     "TRUE" or "FALSE"
+     *********************************************************************************************************/
+    static String toFlag (boolean bFlag) {
+        return bFlag ? "TRUE" : "FALSE";
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isFlagSet
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read a flag written by toFlag
+     *
+     * ARGUMENTS:       oFlag -     The event argument (may be null)
+     *
+     * RETURNS:         bFlag -     True if it is "TRUE"
+     *********************************************************************************************************/
+    static boolean isFlagSet (Object oFlag) {
+        return "TRUE".equals(oFlag);
+    }
+
+}
@@ -0,0 +1,76 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventPayloadAdmin.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Arguments of an ADMIN event: a description of something interesting that has happened
+ *                      (which, as an event argument, has always been the name of the argument, with an empty value)
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.concurrent.ConcurrentHashMap;
+
+// CLASS DEFINITION
+public class HW04_EventPayloadAdmin extends HW04_EventPayload {
+    
+    // Fields (read and written directly by whoever raises or handles the event, so package-private)
+    String  sDescription =  null;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put the payload's fields into a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeArguments (ConcurrentHashMap<String, Object> oArgs) {
+        if (this.sDescription != null) {
+            oArgs.put(this.sDescription, "");
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Fill in the payload's fields from a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readArguments (ConcurrentHashMap<String, Object> oArgs) {
+        // Declare variables
+        String sFirstName = null;
+        
+        for (String sName : oArgs.keySet()) {
+            sFirstName = sName;
+            break;
+        }
+        this.sDescription = sFirstName;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clear
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Let go of everything the payload refers to (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void clear () {
+        this.sDescription = null;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventPayloadCollision.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Arguments of a COLLISION event: the object that moved, what it hit, and where it was before it moved
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_EventPayloadCollision extends HW04_EventPayload {
+    
+    // Fields (read and written directly by whoever raises or handles the event, so package-private)
+    HW04_ObjectGame                              oMovedObject =        null;
+    CopyOnWriteArrayList<HW04_ObjectCollidable>  aoCollidingObjects =  null;
+    float                                        nOriginalX =          0;
+    float                                        nOriginalY =          0;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put the payload's fields into a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeArguments (ConcurrentHashMap<String, Object> oArgs) {
+        if (this.oMovedObject != null) {
+            oArgs.put("oMovedObject", this.oMovedObject);
+        }
+        if (this.aoCollidingObjects != null) {
+            oArgs.put("aoCollidingObjects", this.aoCollidingObjects);
+        }
+        oArgs.put("nOriginalX", this.nOriginalX);
+        oArgs.put("nOriginalY", this.nOriginalY);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Fill in the payload's fields from a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    @SuppressWarnings("unchecked")
+    void readArguments (ConcurrentHashMap<String, Object> oArgs) {
+        this.oMovedObject = (HW04_ObjectGame) oArgs.get("oMovedObject");
+        this.aoCollidingObjects = (CopyOnWriteArrayList<HW04_ObjectCollidable>) oArgs.get("aoCollidingObjects");
+        this.nOriginalX = oArgs.containsKey("nOriginalX") ? (float) oArgs.get("nOriginalX") : 0;
+        this.nOriginalY = oArgs.containsKey("nOriginalY") ? (float) oArgs.get("nOriginalY") : 0;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clear
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Let go of everything the payload refers to (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void clear () {
+        this.oMovedObject = null;
+        this.aoCollidingObjects = null;
+        this.nOriginalX = 0;
+        this.nOriginalY = 0;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventPayloadGameEnd.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Arguments of a GAME_END event: whether the game was won or lost
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.concurrent.ConcurrentHashMap;
+
+// CLASS DEFINITION
+public class HW04_EventPayloadGameEnd extends HW04_EventPayload {
+    
+    // Fields (read and written directly by whoever raises or handles the event, so package-private)
+    boolean  bWon =  false;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put the payload's fields into a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeArguments (ConcurrentHashMap<String, Object> oArgs) {
+        oArgs.put("bWon", toFlag(this.bWon));
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Fill in the payload's fields from a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readArguments (ConcurrentHashMap<String, Object> oArgs) {
+        this.bWon = isFlagSet(oArgs.get("bWon"));
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clear
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Let go of everything the payload refers to (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void clear () {
+        this.bWon = false;
+    }
+
+}
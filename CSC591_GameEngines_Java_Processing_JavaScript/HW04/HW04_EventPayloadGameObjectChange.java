@@ -0,0 +1,68 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventPayloadGameObjectChange.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Arguments of a GAME_OBJECT_CHANGE event: the game object that has changed
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.concurrent.ConcurrentHashMap;
+
+// CLASS DEFINITION
+public class HW04_EventPayloadGameObjectChange extends HW04_EventPayload {
+    
+    // Fields (read and written directly by whoever raises or handles the event, so package-private)
+    HW04_ObjectGame  oGameObject =  null;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put the payload's fields into a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeArguments (ConcurrentHashMap<String, Object> oArgs) {
+        if (this.oGameObject != null) {
+            oArgs.put("oGameObject", this.oGameObject);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Fill in the payload's fields from a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readArguments (ConcurrentHashMap<String, Object> oArgs) {
+        this.oGameObject = (HW04_ObjectGame) oArgs.get("oGameObject");
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clear
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Let go of everything the payload refers to (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void clear () {
+        this.oGameObject = null;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventPayloadGamePause.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Arguments of a GAME_PAUSE event: whether the game is being paused or unpaused
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.concurrent.ConcurrentHashMap;
+
+// CLASS DEFINITION
+public class HW04_EventPayloadGamePause extends HW04_EventPayload {
+    
+    // Fields (read and written directly by whoever raises or handles the event, so package-private)
+    boolean  bPaused =  false;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put the payload's fields into a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeArguments (ConcurrentHashMap<String, Object> oArgs) {
+        oArgs.put("bPaused", toFlag(this.bPaused));
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Fill in the payload's fields from a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readArguments (ConcurrentHashMap<String, Object> oArgs) {
+        this.bPaused = isFlagSet(oArgs.get("bPaused"));
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clear
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Let go of everything the payload refers to (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void clear () {
+        this.bPaused = false;
+    }
+
+}
@@ -0,0 +1,121 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventPayloadUserInput.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Arguments of a USER_INPUT event: which key was pressed or released, and the replay speed wanted (if any)
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.concurrent.ConcurrentHashMap;
+
+// CLASS DEFINITION
+public class HW04_EventPayloadUserInput extends HW04_EventPayload {
+    
+    // Fields (read and written directly by whoever raises or handles the event, so package-private)
+    String   sKey =          null;
+    boolean  bPressed =      false;
+    float    nReplaySpeed =  -1;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getKey
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter (public, so that game scripts can read the payload instead of a map of event arguments)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         sKey -      The key that was pressed or released (e.g. "SPACE"), or null if none
+     *********************************************************************************************************/
+    public String getKey () {
+        return this.sKey;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isPressed
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter (public, so that game scripts can read the payload instead of a map of event arguments)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         bPressed -  True if the key was pressed, false if it was released
+     *********************************************************************************************************/
+    public boolean isPressed () {
+        return this.bPressed;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getReplaySpeed
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter (public, so that game scripts can read the payload instead of a map of event arguments)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nReplaySpeed -  The replay speed wanted, or -1 if none
+     *********************************************************************************************************/
+    public float getReplaySpeed () {
+        return this.nReplaySpeed;
+    }
+
+    /*********************************************************************************************************
+     * FUNCTION:        writeArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put the payload's fields into a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeArguments (ConcurrentHashMap<String, Object> oArgs) {
+        if (this.sKey != null) {
+            oArgs.put("sKey", this.sKey);
+        }
+        oArgs.put("bPressed", toFlag(this.bPressed));
+        oArgs.put("nReplaySpeed", this.nReplaySpeed);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Fill in the payload's fields from a map of event arguments (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       oArgs -     The map
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readArguments (ConcurrentHashMap<String, Object> oArgs) {
+        this.sKey = (String) oArgs.get("sKey");
+        this.bPressed = isFlagSet(oArgs.get("bPressed"));
+        this.nReplaySpeed = oArgs.containsKey("nReplaySpeed") ? (float) oArgs.get("nReplaySpeed") : -1;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clear
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Let go of everything the payload refers to (see HW04_EventPayload)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void clear () {
+        this.sKey = null;
+        this.bPressed = false;
+        this.nReplaySpeed = -1;
+    }
+
+}
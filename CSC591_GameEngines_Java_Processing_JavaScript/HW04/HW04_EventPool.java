@@ -0,0 +1,152 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventPool.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Keep events that have been handled, so that they can be raised again (EVENT_POOL option).
+ *                  The game raises events all the time (a collision event for nearly everything that moves, every step),
+ *                      and without the option every one of them, and its payload (see HW04_EventPayload),
+ *                      is a new object, left behind for the garbage collector once it has been handled.
+ *                  With the option, the event manager's wrapper methods acquire an event (with its payload) from the pool
+ *                      for the type of event they raise, and an event goes back into the pool once nobody is holding on to it:
+ *                      - The event manager holds on to an event from when it is raised until it has been handled.
+ *                      - The logger holds on to an event until it has been written to the log.
+ *                      - An event that is sent to a network partner is held on to for good
+ *                        (it is written out later, by another thread, so it is left to the garbage collector as before).
+ *                      (see HW04_ObjectEvent.retain and HW04_ObjectEvent.release)
+ *                  Events received from network partners, or raised with a map of arguments, are never pooled.
+ *************************************************************************************************************/
+
+// IMPORTS
+// None
+
+// CLASS DEFINITION
+public class HW04_EventPool {
+    
+    // Constants
+    private static final int N_MAX_EVENTS = 256;
+    
+    // Events resting in the pool, by event type (a stack each), and how many there are of each
+    // (indexed by the event type's ordinal, so that counting doesn't make an Integer every time)
+    private static HW04_ObjectEvent[][] aPools =
+        new HW04_ObjectEvent[HW04_ObjectEvent.EventType.values().length][N_MAX_EVENTS];
+    private static int[] aCounts = new int[HW04_ObjectEvent.EventType.values().length];
+    
+    // How it went (all event types)
+    private static long nAcquired = 0;
+    private static long nMissed = 0;
+    private static long nReleased = 0;
+    private static long nDiscarded = 0;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        acquire
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get an event of a type, with an empty payload, ready to be filled in and raised
+     *                      (from the pool if possible with the EVENT_POOL option, otherwise a new one)
+     *                  The caller holds on to the event, until the event manager has handled it.
+     *
+     * ARGUMENTS:       nEventType -    The event type
+     *
+     * RETURNS:         oEvent -        The event (timestamped now)
+     *********************************************************************************************************/
+    public static HW04_ObjectEvent acquire (HW04_ObjectEvent.EventType nEventType) {
+        
+        // Declare variables
+        HW04_ObjectEvent oEvent = null;
+        int nType = nEventType.ordinal();
+        
+        try {
+            
+            // Take the event that went into the pool last, if there is one
+            if (HW04_Globals.bEventPooling == true) {
+                synchronized (HW04_EventPool.class) {
+                    if (aCounts[nType] > 0) {
+                        aCounts[nType]--;
+                        oEvent = aPools[nType][aCounts[nType]];
+                        aPools[nType][aCounts[nType]] = null;
+                        nAcquired++;
+                    }
+                    else {
+                        nMissed++;
+                    }
+                }
+            }
+            
+            // Stamp it as if it were new, or make a new one
+            if (oEvent != null) {
+                oEvent.prepareForReuse();
+            }
+            else {
+                oEvent = new HW04_ObjectEvent(nEventType, HW04_EventPayload.create(nEventType));
+                oEvent.setPooled(HW04_Globals.bEventPooling);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oEvent;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        release
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Keep an event that nobody is holding on to any more, for reuse
+     *                      (if the pool for its type is full, the event is simply let go)
+     *
+     * ARGUMENTS:       oEvent -    The event (see HW04_ObjectEvent.release)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void release (HW04_ObjectEvent oEvent) {
+        try {
+            
+            // Declare variables
+            int nType;
+            int nCount;
+            
+            // Keep the event, unless the pool for its type is full
+            nType = oEvent.getEventType().ordinal();
+            nCount = aCounts[nType];
+            if (nCount < N_MAX_EVENTS) {
+                oEvent.clearForPool();
+                aPools[nType][nCount] = oEvent;
+                aCounts[nType] = nCount + 1;
+                nReleased++;
+            }
+            else {
+                nDiscarded++;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getStatistics
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Say how pooling went
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         sStatistics -   A line of text
+     *********************************************************************************************************/
+    public static synchronized String getStatistics () {
+        return
+            "Event pool: " +
+            nAcquired + " events reused, " +
+            nMissed + " made new (none ready), " +
+            nReleased + " released, " +
+            nDiscarded + " let go (pool full)";
+    }
+
+}
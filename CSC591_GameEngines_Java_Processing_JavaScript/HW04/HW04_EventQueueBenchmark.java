@@ -0,0 +1,273 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventQueueBenchmark.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Compare the two queues the event manager can keep events in:
+ *                      a PriorityBlockingQueue (default) and a lane per priority level (LANES option, see HW04_EventLanes).
+ *                  Several threads raise events at once, just as each client's read thread and the game loop do on the server,
+ *                      and one thread takes them, just as the event manager thread does (events are not handled,
+ *                      so that only the queue is measured).
+ *                  Events are a mix of the types the game raises most, at several priority levels.
+ *                  For each queue, two things are measured:
+ *                      - Throughput, with every raising thread going flat out.
+ *                      - Latency from raising an event to taking it from the queue,
+ *                        with every raising thread raising a burst of events, then pausing (like a game loop iteration).
+ *                  Each measurement is made once to warm up, then again for real.
+ *
+ *                  java -classpath .:./core.jar HW04_EventQueueBenchmark [raising threads] [events per thread]
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+// CLASS DEFINITION
+public class HW04_EventQueueBenchmark {
+    
+    // Constants
+    private static final int    N_DEFAULT_PRODUCERS =       4;
+    private static final int    N_DEFAULT_EVENTS =          200000;
+    private static final int    N_BURST_EVENTS =            32;
+    private static final long   N_BURST_PAUSE_NS =          100000;
+    private static final HW04_ObjectEvent.EventType[] A_EVENT_TYPES = {
+        HW04_ObjectEvent.EventType.COLLISION,
+        HW04_ObjectEvent.EventType.GAME_OBJECT_CHANGE,
+        HW04_ObjectEvent.EventType.COLLISION,
+        HW04_ObjectEvent.EventType.USER_INPUT,
+        HW04_ObjectEvent.EventType.GAME_OBJECT_CHANGE,
+        HW04_ObjectEvent.EventType.SCORE_CHANGE,
+        HW04_ObjectEvent.EventType.ADMIN
+    };
+    
+    /*********************************************************************************************************
+     * FUNCTION:        main
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Main method for the benchmark
+     *
+     * ARGUMENTS:       args -  Optional number of raising threads (default 4)
+     *                          and number of events each raises per measurement (default 200000)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void main (String[] args) {
+        try {
+            
+            // Declare variables
+            int nProducers;
+            int nEvents;
+            boolean bPriorityQueue;
+            int i;
+            
+            // Events are created as they would be on the server
+            HW04_Globals.bClient = false;
+            nProducers = args.length > 0 ? Math.max(1, Integer.parseInt(args[0])) : N_DEFAULT_PRODUCERS;
+            nEvents = args.length > 1 ? Math.max(1, Integer.parseInt(args[1])) : N_DEFAULT_EVENTS;
+            
+            // Compare
+            System.out.println("Cores:               " + Runtime.getRuntime().availableProcessors());
+            System.out.println("Raising threads:     " + nProducers);
+            System.out.println("Events per thread:   " + nEvents);
+            System.out.println("");
+            System.out.println(String.format(
+                "%-24s %16s %12s %12s %12s %12s",
+                "Queue",
+                "Events/sec",
+                "p50 us",
+                "p99 us",
+                "p99.9 us",
+                "Max us"
+            ));
+            for (i = 0; i < 2; i++) {
+                bPriorityQueue = (i == 0);
+                measure(bPriorityQueue, nProducers, nEvents, false);
+                measure(bPriorityQueue, nProducers, nEvents, true);
+            }
+            
+            // Creating events may have started other threads, so exit explicitly
+            System.exit(0);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        measure
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Measure throughput, then latency, for one kind of queue
+     *
+     * ARGUMENTS:       bPriorityQueue -    True for a PriorityBlockingQueue, false for HW04_EventLanes
+     *                  nProducers -        Number of raising threads
+     *                  nEvents -           Number of events each raises
+     *                  bReport -           True to print the results (false to warm up)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void measure (boolean bPriorityQueue, int nProducers, int nEvents, boolean bReport) {
+        try {
+            
+            // Declare variables
+            long[] anLatencies_ns;
+            long nElapsed_ns;
+            
+            // Flat out
+            nElapsed_ns = run(createQueue(bPriorityQueue), nProducers, nEvents, false, null);
+            
+            // In bursts
+            anLatencies_ns = new long[nProducers * nEvents];
+            run(createQueue(bPriorityQueue), nProducers, nEvents, true, anLatencies_ns);
+            Arrays.sort(anLatencies_ns);
+            
+            if (bReport == true) {
+                System.out.println(String.format(
+                    "%-24s %16.0f %12.1f %12.1f %12.1f %12.1f",
+                    bPriorityQueue ? "PriorityBlockingQueue" : "HW04_EventLanes (LANES)",
+                    nProducers * (double) nEvents / (nElapsed_ns / 1e9),
+                    getPercentile(anLatencies_ns, 0.5) / 1e3,
+                    getPercentile(anLatencies_ns, 0.99) / 1e3,
+                    getPercentile(anLatencies_ns, 0.999) / 1e3,
+                    anLatencies_ns[anLatencies_ns.length - 1] / 1e3
+                ));
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        run
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Raise events on several threads and take them all on this one
+     *
+     * ARGUMENTS:       oQueue -            The queue
+     *                  nProducers -        Number of raising threads
+     *                  nEvents -           Number of events each raises
+     *                  bBursts -           True to raise events in bursts, false to go flat out
+     *                  anLatencies_ns -    Where to put how long each event waited (or null)
+     *
+     * RETURNS:         nElapsed_ns -       How long it took from starting to raise events to taking the last one
+     *********************************************************************************************************/
+    private static long run (
+        final BlockingQueue<HW04_ObjectEvent> oQueue,
+        int nProducers,
+        final int nEvents,
+        final boolean bBursts,
+        long[] anLatencies_ns
+    ) {
+        
+        long nElapsed_ns = 0;
+        try {
+            
+            // Declare variables
+            final CountDownLatch oStart;
+            HW04_ObjectEvent oEvent;
+            long nStart_ns;
+            int i;
+            
+            // Each raising thread waits for the others before it starts
+            oStart = new CountDownLatch(1);
+            for (i = 0; i < nProducers; i++) {
+                (new Thread(new Runnable() {
+                    public void run () {
+                        
+                        // Declare variables
+                        ConcurrentHashMap<String, Object> oEventArguments;
+                        HW04_ObjectEvent oNewEvent;
+                        int j;
+                        
+                        try {
+                            oStart.await();
+                            for (j = 0; j < nEvents; j++) {
+                                oEventArguments = new ConcurrentHashMap<String, Object>();
+                                oNewEvent = new HW04_ObjectEvent(A_EVENT_TYPES[j % A_EVENT_TYPES.length], oEventArguments);
+                                oEventArguments.put("nRaised_ns", System.nanoTime());
+                                oQueue.add(oNewEvent);
+                                if (bBursts == true && j % N_BURST_EVENTS == N_BURST_EVENTS - 1) {
+                                    LockSupport.parkNanos(N_BURST_PAUSE_NS);
+                                }
+                            }
+                        }
+                        catch (Throwable oError) {
+                            HW04_Utility.handleError(oError);
+                        }
+                    
+                    }
+                })).start();
+            }
+            
+            // Take every event
+            nStart_ns = System.nanoTime();
+            oStart.countDown();
+            for (i = 0; i < nProducers * nEvents; i++) {
+                oEvent = oQueue.take();
+                if (anLatencies_ns != null) {
+                    anLatencies_ns[i] = System.nanoTime() - (Long) oEvent.getEventArguments().get("nRaised_ns");
+                }
+            }
+            nElapsed_ns = System.nanoTime() - nStart_ns;
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return nElapsed_ns;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        createQueue
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Create an empty queue of one kind or the other
+     *
+     * ARGUMENTS:       bPriorityQueue -    True for a PriorityBlockingQueue, false for HW04_EventLanes
+     *
+     * RETURNS:         oQueue -            The queue
+     *********************************************************************************************************/
+    private static BlockingQueue<HW04_ObjectEvent> createQueue (boolean bPriorityQueue) {
+        
+        // Declare variables
+        BlockingQueue<HW04_ObjectEvent> oQueue;
+        
+        if (bPriorityQueue == true) {
+            oQueue = new PriorityBlockingQueue<HW04_ObjectEvent>();
+        }
+        else {
+            oQueue = new HW04_EventLanes();
+        }
+        return oQueue;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getPercentile
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get a percentile from sorted values
+     *
+     * ARGUMENTS:       anSorted -      The values, smallest first
+     *                  nFraction -     Which percentile (0.99 = 99th)
+     *
+     * RETURNS:         nValue -        The value
+     *********************************************************************************************************/
+    private static long getPercentile (long[] anSorted, double nFraction) {
+        return anSorted[(int) Math.min(anSorted.length - 1, Math.floor(anSorted.length * nFraction))];
+    }
+
+}
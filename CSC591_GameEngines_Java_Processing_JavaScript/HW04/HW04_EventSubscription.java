@@ -0,0 +1,92 @@
+/*************************************************************************************************************
+ * FILE:            HW04_EventSubscription.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Define a class of object that represents one observer's interest in one type of event
+ *                      (see HW04_EventManager.registerForEvents and HW04_EventManager.registerForEventsAbout)
+ *                  The interest may be narrowed down:
+ *                      - To events about one game object (kept by that object's GUID, see HW04_ObjectEvent.getSubject)
+ *                      - To events that pass a filter
+ *************************************************************************************************************/
+
+// IMPORTS
+// None
+
+// CLASS DEFINITION
+public class HW04_EventSubscription {
+    
+    // Object properties (read directly by the event manager, so package-private)
+    final HW04_ObjectEvent.EventType    nEventType;
+    final Object                        oObserver;
+    final boolean                       bAboutOneObject;
+    final int                           nAboutGUID;
+    final HW04_EventFilter              oFilter;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_EventSubscription Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for a new subscription
+     *
+     * ARGUMENTS:       nNewEventType -         Type of event the observer is interested in
+     *                  oNewObserver -          The interested object
+     *                  bNewAboutOneObject -    True if only interested in events about one game object
+     *                  nNewAboutGUID -         GUID of that game object (ignored otherwise)
+     *                  oNewFilter -            Filter that events must pass (or null for none)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    HW04_EventSubscription (
+        HW04_ObjectEvent.EventType nNewEventType,
+        Object oNewObserver,
+        boolean bNewAboutOneObject,
+        int nNewAboutGUID,
+        HW04_EventFilter oNewFilter
+    ) {
+        this.nEventType =       nNewEventType;
+        this.oObserver =        oNewObserver;
+        this.bAboutOneObject =  bNewAboutOneObject;
+        this.nAboutGUID =       nNewAboutGUID;
+        this.oFilter =          oNewFilter;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        deliver
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Pass an event to the observer, if it passes the filter (if any)
+     *                  If the observer is a game object, the latest version of it handles the event
+     *                      (see HW04_EventManager.handleEvent for why).
+     *
+     * ARGUMENTS:       oEventToHandle -    The event
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void deliver (HW04_ObjectEvent oEventToHandle) {
+        try {
+            
+            // Declare variables
+            HW04_ObjectGame oLatestVersionOfListener;
+            
+            if (this.oFilter == null || this.oFilter.accept(oEventToHandle) == true) {
+                if (this.oObserver instanceof HW04_ObjectGame) {
+                    oLatestVersionOfListener = HW04_ObjectGame.getObjectByGUID(((HW04_ObjectGame) this.oObserver).getGUID());
+                    if (oLatestVersionOfListener != null) {
+                        ((HW04_EventObserver) oLatestVersionOfListener).handleEvent(oEventToHandle);
+                    }
+                }
+                else {
+                    ((HW04_EventObserver) this.oObserver).handleEvent(oEventToHandle);
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+
+}
@@ -30,6 +30,34 @@ public class HW04_Globals implements java.io.Serializable {
     public static int                                                                   nFrameRate =            60;
     public static int                                                                   nPlayerID =             -1;
     
+    // Engine options (see HW04_Utility.parseOptions)
+    public static boolean                                                               bFramedMessages =       false;
+    public static boolean                                                               bBinaryMessages =       false;
+    public static boolean                                                               bServerSelector =       false;
+    public static int                                                                   nServerIOThreads =      2;
+    public static boolean                                                               bDeltaReplication =     false;
+    public static boolean                                                               bFramePackets =         false;
+    public static boolean                                                               bDatagramSnapshots =    false;
+    public static int                                                                   nDatagramLossPercent =  0;
+    public static int                                                                   nDatagramJitter_ms =    0;
+    public static boolean                                                               bVirtualThreads =       false;
+    public static boolean                                                               bHeadless =             false;
+    public static boolean                                                               bFixedTimestep =        false;
+    public static int                                                                   nFixedStepRate =        60;
+    public static int                                                                   nFixedMaxSteps =        5;
+    public static boolean                                                               bParallelTick =         false;
+    public static int                                                                   nParallelThreads =      0;
+    public static boolean                                                               bColumnStorage =        false;
+    public static boolean                                                               bObjectPooling =        false;
+    public static int                                                                   nWorldWidthWindows =    1;
+    public static boolean                                                               bInterestManagement =   false;
+    public static int                                                                   nInterestRadius_px =    0;
+    public static boolean                                                               bShardedEvents =        false;
+    public static int                                                                   nEventShards =          0;
+    public static boolean                                                               bEventLanes =           false;
+    public static boolean                                                               bEventPooling =         false;
+    public static boolean                                                               bCoalesceEvents =       false;
+    
     /*********************************************************************************************************
      * FUNCTION:        HW04_Globals Constructor
      *
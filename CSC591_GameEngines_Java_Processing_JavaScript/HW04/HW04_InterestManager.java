@@ -0,0 +1,243 @@
+/*************************************************************************************************************
+ * FILE:            HW04_InterestManager.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Keep track of which game objects each client is interested in (INTEREST option, server only).
+ *                  Without the option, every client is told about every game object when it joins,
+ *                      and about every change to every game object after that,
+ *                      so what the server sends (and what each client has to do with it) grows with the whole game world.
+ *                  With the option, a client is only told about collidable game objects
+ *                      that are near its character: in a square reaching out a fixed distance from the character's middle
+ *                      (one window by default, so that everything the client can see, or bump into, is included).
+ *                      Nearby objects are found with HW04_CollisionGrid, so this costs as much as there is nearby.
+ *                  Once per game loop iteration, each client's set of nearby objects is worked out again (see refresh):
+ *                      - An object that has come near is sent whole (the client adds it, as for any new object).
+ *                      - An object that has gone away is sent as a delta that only says it is flagged for removal
+ *                        (see HW04_ObjectDelta), so the client lets go of it (the object stays in the game).
+ *                  Between times, updates about an object only go to clients that know about it (see isOfInterest).
+ *                  Objects that are not collidable (the status objects, spawn points) are not located in any useful sense,
+ *                      so every client is told about them, as without the option.
+ *                  Only useful with a game world bigger than the window (WORLD option), or many players far apart.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_InterestManager {
+    
+    // GUIDs of the game objects that each client knows about, by client player ID
+    private static ConcurrentHashMap<Integer, Set<Integer>> oObjectsKnown = new ConcurrentHashMap<Integer, Set<Integer>>();
+    
+    // How it went (all clients)
+    private static long nEntered = 0;
+    private static long nLeft = 0;
+    private static long nUpdatesSkipped = 0;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isManaged
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether clients are only told about a game object when it is near them
+     *                      (only with the INTEREST option, and only collidable objects)
+     *
+     * ARGUMENTS:       oObject -   The game object
+     *
+     * RETURNS:         bManaged -  True if clients are only told about the object when it is near them
+     *********************************************************************************************************/
+    public static boolean isManaged (HW04_ObjectGame oObject) {
+        return HW04_Globals.bInterestManagement == true && oObject instanceof HW04_ObjectCollidable;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isOfInterest
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether a client should be told about a change to a game object
+     *                      (it should, if it knows about the object, or if the object isn't managed)
+     *                  An object that is being removed is forgotten, since the client is about to be told so.
+     *                  Caller should hold the server's clients lock,
+     *                      so that the client is told about changes in the same order as it is told about objects coming and going.
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *                  oObject -       The game object
+     *
+     * RETURNS:         bInterested -   True if the client should be told
+     *********************************************************************************************************/
+    public static boolean isOfInterest (int nPlayerID, HW04_ObjectGame oObject) {
+        
+        boolean bInterested = true;
+        try {
+            
+            // Declare variables
+            Set<Integer> anKnown;
+            
+            if (isManaged(oObject) == true) {
+                anKnown = getObjectsKnown(nPlayerID);
+                if (oObject.getRemovalFlag() == true) {
+                    bInterested = anKnown.remove(oObject.getGUID());
+                }
+                else {
+                    bInterested = anKnown.contains(oObject.getGUID());
+                }
+                if (bInterested == false) {
+                    nUpdatesSkipped++;
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return bInterested;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        refresh
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Work out again which game objects are near a client's character,
+     *                      and tell the client about the ones that have come near and the ones that have gone away
+     *                  Caller should hold the server's clients lock (as above).
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *                  oQueue -        The queue of objects to write to the client
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void refresh (int nPlayerID, BlockingQueue<HW04_ObjectCommunicable> oQueue) {
+        try {
+            
+            // Declare variables
+            HW04_ObjectCharacter oCharacter;
+            CopyOnWriteArrayList<HW04_ObjectCollidable> aoNear;
+            HW04_ObjectCollidable oNearObject;
+            HW04_ObjectGame oGoneObject;
+            HW04_ObjectDelta oLeave;
+            Set<Integer> anKnownBefore;
+            Set<Integer> anKnownNow;
+            int nRadius_px;
+            int i;
+            
+            // No character yet, nothing to be near
+            oCharacter = HW04_ObjectCharacter.getCharacterObjectByPlayerID(nPlayerID);
+            if (oCharacter == null) {
+                return;
+            }
+            
+            // What is near the character now?
+            nRadius_px = HW04_Globals.nInterestRadius_px > 0 ? HW04_Globals.nInterestRadius_px : HW04_Utility.getWindowSize();
+            aoNear = HW04_CollisionGrid.getObjectsInRectangle(
+                HW04_ObjectCollidable.class,
+                null,
+                (int) oCharacter.getPositionX() + oCharacter.getWidth() / 2 - nRadius_px,
+                (int) oCharacter.getPositionY() + oCharacter.getHeight() / 2 - nRadius_px,
+                nRadius_px * 2,
+                nRadius_px * 2
+            );
+            
+            // Tell the client about whatever has come near (but never about its own objects, it's in charge of those)
+            anKnownBefore = getObjectsKnown(nPlayerID);
+            anKnownNow = ConcurrentHashMap.newKeySet();
+            for (i = 0; i < aoNear.size(); i++) {
+                oNearObject = aoNear.get(i);
+                if (oNearObject.getPlayerID() == nPlayerID || oNearObject.getRemovalFlag() == true) {
+                    continue;
+                }
+                anKnownNow.add(oNearObject.getGUID());
+                if (anKnownBefore.contains(oNearObject.getGUID()) == false) {
+                    oQueue.add(oNearObject);
+                    if (HW04_Globals.bDeltaReplication == true || HW04_Globals.bDatagramSnapshots == true) {
+                        HW04_Replicator.recordWholeObjectSent(nPlayerID, oNearObject);
+                    }
+                    nEntered++;
+                }
+            }
+            
+            /* Tell the client to let go of whatever has gone away
+             *  Unless it has left the game altogether (the client has been, or is about to be, told so)
+             */
+            for (Integer nGUID : anKnownBefore) {
+                if (anKnownNow.contains(nGUID) == false) {
+                    oGoneObject = HW04_ObjectGame.getObjectByGUID(nGUID);
+                    if (oGoneObject != null && oGoneObject.getRemovalFlag() == false) {
+                        oLeave = new HW04_ObjectDelta(nGUID);
+                        oLeave.setRemovalFlag(true);
+                        oQueue.add(oLeave);
+                        HW04_Replicator.forgetObject(nPlayerID, oGoneObject);
+                        nLeft++;
+                    }
+                }
+            }
+            oObjectsKnown.put(nPlayerID, anKnownNow);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        forgetClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Forget which game objects a client knows about (the client has left the game)
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void forgetClient (int nPlayerID) {
+        try {
+            oObjectsKnown.remove(nPlayerID);
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getStatistics
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Say how interest management went
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         sStatistics -   A line of text
+     *********************************************************************************************************/
+    public static String getStatistics () {
+        return
+            "Interest management: " +
+            nEntered + " objects came near a client, " +
+            nLeft + " went away, " +
+            nUpdatesSkipped + " updates not sent (not near)";
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getObjectsKnown
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the GUIDs of the game objects that one client knows about, creating an empty set if need be
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *
+     * RETURNS:         anKnown -       GUIDs of the game objects the client knows about
+     *********************************************************************************************************/
+    private static Set<Integer> getObjectsKnown (int nPlayerID) {
+        oObjectsKnown.putIfAbsent(nPlayerID, ConcurrentHashMap.<Integer>newKeySet());
+        return oObjectsKnown.get(nPlayerID);
+    }
+
+}
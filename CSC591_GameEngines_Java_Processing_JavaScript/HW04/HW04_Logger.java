@@ -75,6 +75,12 @@ public class HW04_Logger implements HW04_EventObserver, Runnable {
     public void run () {
         try {
             
+            /* Declare variables
+             *  The same map is filled in with each event's arguments in turn (see HW04_ObjectEvent.copyEventArguments),
+             *  so that events with typed arguments don't each need a map of their own just to be logged
+             */
+            ConcurrentHashMap<String, Object> oEventArguments = new ConcurrentHashMap<String, Object>();
+            
             while (true) {
                 
                 // Declare variables
@@ -91,7 +97,6 @@ public class HW04_Logger implements HW04_EventObserver, Runnable {
                 String S_DELIMITER_MINOR = ", ";
                 
                 // Declare variables
-                ConcurrentHashMap<String, Object> oEventArguments;
                 StringBuilder sStringToLog;
                 HW04_ObjectGame oGameObject;
                 String sGameObjectType;
@@ -100,11 +105,12 @@ public class HW04_Logger implements HW04_EventObserver, Runnable {
                 int i;
                 
                 // Get event arguments
-                oEventArguments = oEventToWrite.getEventArguments();
+                oEventArguments.clear();
+                oEventToWrite.copyEventArguments(oEventArguments);
                 
                 // USER INPUT
                 if (oEventToWrite.getEventType() == HW04_ObjectEvent.EventType.REPLAY) {
-                    if (oEventArguments.get("nReplayEventType") == HW04_Replay.ReplayEventType.RECORD_START) {
+                    if (((HW04_EventPayloadReplay) oEventToWrite.getPayload()).nReplayEventType == HW04_Replay.ReplayEventType.RECORD_START) {
                         // Remember that we are recording for replay
                         bRecordingForReplay = true;
                         // Make sure that we start a fresh recording file
@@ -114,7 +120,7 @@ public class HW04_Logger implements HW04_EventObserver, Runnable {
                             oWriterReplay = null;
                         }
                     }
-                    else if (oEventArguments.get("nReplayEventType") == HW04_Replay.ReplayEventType.RECORD_END) {
+                    else if (((HW04_EventPayloadReplay) oEventToWrite.getPayload()).nReplayEventType == HW04_Replay.ReplayEventType.RECORD_END) {
                         // Remember that we are no longer recording for replay
                         bRecordingForReplay = false;
                     }
@@ -153,7 +159,7 @@ public class HW04_Logger implements HW04_EventObserver, Runnable {
                 sStringToLog.append(S_DELIMITER_MAJOR);
                 sStringToLog.append(oEventToWrite.getEventType());
                 sStringToLog.append(S_DELIMITER_MAJOR);
-                for (ConcurrentHashMap.Entry<String, Object> oEntry : oEventToWrite.getEventArguments().entrySet()) {
+                for (ConcurrentHashMap.Entry<String, Object> oEntry : oEventArguments.entrySet()) {
                     sStringToLog.append(oEntry.getKey());
                     sStringToLog.append(S_DELIMITER_MAJOR);
                     /* "oGameObject" key used in GAME_OBJECT_CHANGE events
@@ -213,6 +219,9 @@ public class HW04_Logger implements HW04_EventObserver, Runnable {
                     oWriterReplay.flush();
                 }
                 
+                // Done with the event (see handleEvent)
+                oEventToWrite.release();
+                                
             }
             
         }
@@ -287,7 +296,9 @@ public class HW04_Logger implements HW04_EventObserver, Runnable {
             /* Simply add the event to a queue
              * A separate thread will dequeue and deal with file I/O
              * Don't want to bog down the program by waiting on that here
+             * Hold on to the event until it has been written (so that it doesn't go back into HW04_EventPool before then)
              */
+            oEventToHandle.retain();
             oEventWriteQueue.add(oEventToHandle);
             
         }
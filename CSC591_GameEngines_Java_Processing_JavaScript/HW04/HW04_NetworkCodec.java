@@ -0,0 +1,612 @@
+/*************************************************************************************************************
+ * FILE:            HW04_NetworkCodec.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Define a class to turn communicable objects into bytes and back again,
+ *                      for use whenever messages are sent as frames (see the FRAMED option)
+ *                      rather than as part of one long object stream.
+ *                  A frame is a 4-byte length followed by that many bytes of message.
+ *                  Each message is self-contained, just as it is when the object stream is reset before every write.
+ *                  Two message formats are supported:
+ *                      Java serialization (default) -
+ *                          Class descriptors and field names travel with every message.
+ *                      Binary (BINARY option) -
+ *                          A 1-byte type tag, followed by the object's fields in a fixed layout
+ *                          (see writeFields / readFields in each communicable class).
+ *                          Nested game objects are written the same way, behind their own type tag.
+ *                          Event arguments are written as a count, then a name and a value-tagged value for each.
+ *                  See HW04_NetworkCodecBenchmark for a comparison of the two formats.
+ *                  With the PACKETS option, frames are not flushed one at a time.
+ *                      Everything queued during one game loop iteration is written back to back as one packet,
+ *                      and the packet is flushed when the end-of-packet marker comes off the queue (see endPacket).
+ *                      Every frame inside is still length-prefixed, so readers need not know about packets.
+ *                  Frames come from network partners, who cannot be trusted to send good ones.
+ *                      A length that is negative or bigger than N_MAX_FRAME_BYTES, or a message that cannot be decoded,
+ *                      is a problem with that partner only (see isFrameLengthValid, decode and readFrame).
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_NetworkCodec {
+    
+    // Constants
+    public static final int N_FRAME_HEADER_BYTES =  4;
+    public static final int N_PACKET_BUFFER_BYTES = 65536;
+    public static final int N_MAX_FRAME_BYTES =     16777216;
+    
+    // Queued after the last object of a packet (PACKETS option) - never goes over the network itself
+    public static final HW04_ObjectCommunicable O_END_OF_PACKET = new HW04_ObjectCommunicable();
+    
+    // Value tags for event arguments (BINARY option)
+    private static final byte N_VALUE_STRING =          1;
+    private static final byte N_VALUE_FLOAT =           2;
+    private static final byte N_VALUE_DOUBLE =          3;
+    private static final byte N_VALUE_INTEGER =         4;
+    private static final byte N_VALUE_BOOLEAN =         5;
+    private static final byte N_VALUE_COMMUNICABLE =    6;
+    private static final byte N_VALUE_LIST =            7;
+    private static final byte N_VALUE_REPLAY_EVENT =    8;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        encode
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Turn a communicable object into a self-contained message,
+     *                      in whichever format is in effect
+     *
+     * ARGUMENTS:       oObject -   The object to encode
+     *
+     * RETURNS:         abMessage - The message
+     *********************************************************************************************************/
+    public static byte[] encode (HW04_ObjectCommunicable oObject) {
+        return encode(oObject, HW04_Globals.bBinaryMessages);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        encode
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Turn a communicable object into a self-contained message
+     *
+     * ARGUMENTS:       oObject -   The object to encode
+     *                  bBinary -   True for the binary format, false for Java serialization
+     *
+     * RETURNS:         abMessage - The message
+     *********************************************************************************************************/
+    public static byte[] encode (HW04_ObjectCommunicable oObject, boolean bBinary) {
+        
+        byte[] abMessage = null;
+        try {
+            
+            // Declare variables
+            ByteArrayOutputStream oBytes;
+            ObjectOutputStream oStream;
+            DataOutputStream oBinaryStream;
+            
+            // Serialize
+            oBytes = new ByteArrayOutputStream();
+            if (bBinary == true) {
+                oBinaryStream = new DataOutputStream(oBytes);
+                writeObjectBinary(oBinaryStream, oObject);
+                oBinaryStream.close();
+            }
+            else {
+                oStream = new ObjectOutputStream(oBytes);
+                oStream.writeObject(oObject);
+                oStream.close();
+            }
+            abMessage = oBytes.toByteArray();
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return abMessage;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        decode
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Turn a self-contained message back into a communicable object,
+     *                      in whichever format is in effect
+     *
+     * ARGUMENTS:       abMessage - The message
+     *
+     * RETURNS:         oObject -   The decoded object
+     *********************************************************************************************************/
+    public static HW04_ObjectCommunicable decode (byte[] abMessage) {
+        return decode(abMessage, HW04_Globals.bBinaryMessages);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        decode
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Turn a self-contained message back into a communicable object.
+     *                  A message that cannot be decoded (truncated, corrupt, or not a communicable object)
+     *                      is not an error in this program, just a bad message from a network partner,
+     *                      so it is left to the caller to decide what to do about it.
+     *
+     * ARGUMENTS:       abMessage - The message
+     *                  bBinary -   True for the binary format, false for Java serialization
+     *
+     * RETURNS:         oObject -   The decoded object (or null if the message could not be decoded)
+     *********************************************************************************************************/
+    public static HW04_ObjectCommunicable decode (byte[] abMessage, boolean bBinary) {
+        
+        HW04_ObjectCommunicable oObject = null;
+        try {
+            
+            // Declare variables
+            ObjectInputStream oStream;
+            DataInputStream oBinaryStream;
+            
+            // Deserialize
+            if (bBinary == true) {
+                oBinaryStream = new DataInputStream(new ByteArrayInputStream(abMessage));
+                oObject = readObjectBinary(oBinaryStream);
+                oBinaryStream.close();
+            }
+            else {
+                oStream = new ObjectInputStream(new ByteArrayInputStream(abMessage));
+                oObject = (HW04_ObjectCommunicable) oStream.readObject();
+                oStream.close();
+            }
+        
+        }
+        catch (Exception oError) {
+            oObject = null;
+        }
+        return oObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        frame
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Encode a communicable object as a frame, ready to be written to a channel
+     *
+     * ARGUMENTS:       oObject -   The object to encode
+     *
+     * RETURNS:         oFrame -    Length-prefixed message, positioned at its start
+     *********************************************************************************************************/
+    public static ByteBuffer frame (HW04_ObjectCommunicable oObject) {
+        
+        ByteBuffer oFrame = null;
+        try {
+            
+            // Declare variables
+            byte[] abMessage;
+            
+            // Length, then message
+            abMessage = encode(oObject);
+            oFrame = ByteBuffer.allocate(N_FRAME_HEADER_BYTES + abMessage.length);
+            oFrame.putInt(abMessage.length);
+            oFrame.put(abMessage);
+            oFrame.flip();
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oFrame;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeFrame
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write a communicable object to a stream as a frame.
+     *                  The stream is flushed, unless frames are being collected into packets (PACKETS option).
+     *                  I/O problems are passed up to the caller,
+     *                      who knows whether they mean that a network partner has gone away.
+     *
+     * ARGUMENTS:       oStream -   The stream to write to
+     *                  oObject -   The object to write
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void writeFrame (DataOutputStream oStream, HW04_ObjectCommunicable oObject) throws IOException {
+        
+        // Declare variables
+        byte[] abMessage;
+        
+        // Length, then message
+        abMessage = encode(oObject);
+        oStream.writeInt(abMessage.length);
+        oStream.write(abMessage);
+        if (HW04_Globals.bFramePackets == false) {
+            oStream.flush();
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        endPacket
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Mark the end of a packet in every queue of objects to write (PACKETS option).
+     *                  Called once per game loop iteration;
+     *                      when a write thread reaches the marker, it flushes everything queued before it at once.
+     *                  Does nothing if frames are not being collected into packets.
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void endPacket () {
+        try {
+            if (HW04_Globals.bFramePackets == true && HW04_Globals.oObjectsToWrite != null) {
+                for (BlockingQueue<HW04_ObjectCommunicable> oQueue : HW04_Globals.oObjectsToWrite.values()) {
+                    oQueue.add(O_END_OF_PACKET);
+                }
+            }
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isFrameLengthValid
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Say whether the length at the start of a frame is one we are willing to read
+     *                      (checked before any room is made for the message, so that a bad length
+     *                      cannot make us allocate a negative or huge amount of memory)
+     *
+     * ARGUMENTS:       nMessageLength -    The length
+     *
+     * RETURNS:         bValid -            True if the length is OK
+     *********************************************************************************************************/
+    public static boolean isFrameLengthValid (int nMessageLength) {
+        return nMessageLength >= 0 && nMessageLength <= N_MAX_FRAME_BYTES;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFrame
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read a frame from a stream (blocks until the whole frame has arrived).
+     *                  I/O problems are passed up to the caller,
+     *                      who knows whether they mean that a network partner has gone away.
+     *                  A bad frame (see isFrameLengthValid and decode) is passed up the same way,
+     *                      since there is no telling where the next frame starts after one.
+     *
+     * ARGUMENTS:       oStream -   The stream to read from
+     *
+     * RETURNS:         oObject -   The decoded object
+     *********************************************************************************************************/
+    public static HW04_ObjectCommunicable readFrame (DataInputStream oStream) throws IOException {
+        
+        // Declare variables
+        byte[] abMessage;
+        int nMessageLength;
+        HW04_ObjectCommunicable oObject;
+        
+        // Length, then message
+        nMessageLength = oStream.readInt();
+        if (isFrameLengthValid(nMessageLength) == false) {
+            throw new IOException("Frame length '" + nMessageLength + "' not accepted");
+        }
+        abMessage = new byte[nMessageLength];
+        oStream.readFully(abMessage);
+        oObject = decode(abMessage);
+        if (oObject == null) {
+            throw new IOException("Frame could not be decoded");
+        }
+        return oObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeObjectBinary
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write a communicable object in the binary format (type tag, then fields).
+     *                  Also used by communicable objects to write other communicable objects they refer to.
+     *
+     * ARGUMENTS:       oStream -   The stream to write to
+     *                  oObject -   The object to write (may be null)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    static void writeObjectBinary (DataOutputStream oStream, HW04_ObjectCommunicable oObject) throws IOException {
+        if (oObject == null) {
+            oStream.writeByte(0);
+        }
+        else {
+            oStream.writeByte(getTypeTag(oObject));
+            oObject.writeFields(oStream);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readObjectBinary
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read a communicable object in the binary format (type tag, then fields).
+     *                  The object is created empty, so that it is NOT given a new GUID 
+     *                      or added to the collection of game objects, just as with Java serialization.
+     *
+     * ARGUMENTS:       oStream -   The stream to read from
+     *
+     * RETURNS:         oObject -   The object read (may be null)
+     *********************************************************************************************************/
+    static HW04_ObjectCommunicable readObjectBinary (DataInputStream oStream) throws IOException {
+        
+        // Declare variables
+        HW04_ObjectCommunicable oObject;
+        
+        // Create an empty object of the right type, then fill it in
+        oObject = createEmptyObject(oStream.readUnsignedByte());
+        if (oObject != null) {
+            oObject.readFields(oStream);
+        }
+        return oObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write event arguments in the binary format
+     *
+     * ARGUMENTS:       oStream -   The stream to write to
+     *                  oArgs -     The event arguments
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    static void writeArguments (DataOutputStream oStream, ConcurrentHashMap<String, Object> oArgs) throws IOException {
+        oStream.writeShort(oArgs.size());
+        for (ConcurrentHashMap.Entry<String, Object> oEntry : oArgs.entrySet()) {
+            oStream.writeUTF(oEntry.getKey());
+            writeValue(oStream, oEntry.getValue());
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read event arguments in the binary format
+     *
+     * ARGUMENTS:       oStream -   The stream to read from
+     *
+     * RETURNS:         oArgs -     The event arguments
+     *********************************************************************************************************/
+    static ConcurrentHashMap<String, Object> readArguments (DataInputStream oStream) throws IOException {
+        
+        // Declare variables
+        ConcurrentHashMap<String, Object> oArgs;
+        int nArgs;
+        int i;
+        
+        // Count, then name and value for each
+        oArgs = new ConcurrentHashMap<String, Object>();
+        nArgs = oStream.readUnsignedShort();
+        for (i = 0; i < nArgs; i++) {
+            oArgs.put(oStream.readUTF(), readValue(oStream));
+        }
+        return oArgs;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeValue
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write one event argument value (value tag, then value)
+     *
+     * ARGUMENTS:       oStream -   The stream to write to
+     *                  oValue -    The value
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void writeValue (DataOutputStream oStream, Object oValue) throws IOException {
+        if (oValue instanceof String) {
+            oStream.writeByte(N_VALUE_STRING);
+            oStream.writeUTF((String) oValue);
+        }
+        else if (oValue instanceof Float) {
+            oStream.writeByte(N_VALUE_FLOAT);
+            oStream.writeFloat((Float) oValue);
+        }
+        else if (oValue instanceof Double) {
+            oStream.writeByte(N_VALUE_DOUBLE);
+            oStream.writeDouble((Double) oValue);
+        }
+        else if (oValue instanceof Integer) {
+            oStream.writeByte(N_VALUE_INTEGER);
+            oStream.writeInt((Integer) oValue);
+        }
+        else if (oValue instanceof Boolean) {
+            oStream.writeByte(N_VALUE_BOOLEAN);
+            oStream.writeBoolean((Boolean) oValue);
+        }
+        else if (oValue instanceof HW04_ObjectCommunicable) {
+            oStream.writeByte(N_VALUE_COMMUNICABLE);
+            writeObjectBinary(oStream, (HW04_ObjectCommunicable) oValue);
+        }
+        else if (oValue instanceof CopyOnWriteArrayList) {
+            oStream.writeByte(N_VALUE_LIST);
+            oStream.writeShort(((CopyOnWriteArrayList<?>) oValue).size());
+            for (Object oElement : (CopyOnWriteArrayList<?>) oValue) {
+                writeValue(oStream, oElement);
+            }
+        }
+        else if (oValue instanceof HW04_Replay.ReplayEventType) {
+            oStream.writeByte(N_VALUE_REPLAY_EVENT);
+            oStream.writeByte(((HW04_Replay.ReplayEventType) oValue).ordinal());
+        }
+        else {
+            throw new IOException("Event argument of type '" + oValue.getClass().getSimpleName() + "' cannot be written in binary");
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readValue
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read one event argument value (value tag, then value)
+     *
+     * ARGUMENTS:       oStream -   The stream to read from
+     *
+     * RETURNS:         oValue -    The value
+     *********************************************************************************************************/
+    private static Object readValue (DataInputStream oStream) throws IOException {
+        
+        // Declare variables
+        CopyOnWriteArrayList<Object> aoValues;
+        Object oValue;
+        int nValues;
+        int nValueTag;
+        int i;
+        
+        // Read according to value tag
+        nValueTag = oStream.readUnsignedByte();
+        switch (nValueTag) {
+            case N_VALUE_STRING:
+                oValue = oStream.readUTF();
+                break;
+            case N_VALUE_FLOAT:
+                oValue = oStream.readFloat();
+                break;
+            case N_VALUE_DOUBLE:
+                oValue = oStream.readDouble();
+                break;
+            case N_VALUE_INTEGER:
+                oValue = oStream.readInt();
+                break;
+            case N_VALUE_BOOLEAN:
+                oValue = oStream.readBoolean();
+                break;
+            case N_VALUE_COMMUNICABLE:
+                oValue = readObjectBinary(oStream);
+                break;
+            case N_VALUE_LIST:
+                aoValues = new CopyOnWriteArrayList<Object>();
+                nValues = oStream.readUnsignedShort();
+                for (i = 0; i < nValues; i++) {
+                    aoValues.add(readValue(oStream));
+                }
+                oValue = aoValues;
+                break;
+            case N_VALUE_REPLAY_EVENT:
+                oValue = HW04_Replay.ReplayEventType.values()[oStream.readUnsignedByte()];
+                break;
+            default:
+                throw new IOException("Event argument value tag '" + nValueTag + "' not recognized");
+        }
+        return oValue;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getTypeTag
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the 1-byte type tag that stands in for an object's type in the binary format.
+     *                  Tag 0 is reserved for null.
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         nTypeTag -  The type tag
+     *********************************************************************************************************/
+    private static int getTypeTag (HW04_ObjectCommunicable oObject) throws IOException {
+        switch (oObject.getType()) {
+            case "HW04_ObjectSpawnPoint":               return 1;
+            case "HW04_ObjectZoneWin":                  return 2;
+            case "HW04_ObjectZoneDeath":                return 3;
+            case "HW04_ObjectBoundary":                 return 4;
+            case "HW04_ObjectStatusScoreboard":         return 5;
+            case "HW04_ObjectStatusSummary":            return 6;
+            case "HW04_ObjectStatusInstructions":       return 7;
+            case "HW04_ObjectPlatformStatic":           return 8;
+            case "HW04_ObjectPlatformH":                return 9;
+            case "HW04_ObjectPlatformV":                return 10;
+            case "HW04_ObjectBubble":                   return 11;
+            case "HW04_ObjectArrow":                    return 12;
+            case "HW04_ObjectBullet":                   return 13;
+            case "HW04_ObjectEnemy":                    return 14;
+            case "HW04_ObjectCharacter":                return 15;
+            case "HW04_ObjectEvent":                    return 16;
+            case "HW04_ObjectEventRemoteRegistration":  return 17;
+            case "HW04_ObjectDelta":                    return 18;
+            default:
+                throw new IOException("Object type '" + oObject.getType() + "' cannot be written in binary");
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        createEmptyObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Create an empty object for a type tag (see getTypeTag)
+     *
+     * ARGUMENTS:       nTypeTag -  The type tag
+     *
+     * RETURNS:         oObject -   An empty object of that type (or null for tag 0)
+     *********************************************************************************************************/
+    private static HW04_ObjectCommunicable createEmptyObject (int nTypeTag) throws IOException {
+        switch (nTypeTag) {
+            case 0:     return null;
+            case 1:     return new HW04_ObjectSpawnPoint();
+            case 2:     return new HW04_ObjectZoneWin();
+            case 3:     return new HW04_ObjectZoneDeath();
+            case 4:     return new HW04_ObjectBoundary();
+            case 5:     return new HW04_ObjectStatusScoreboard();
+            case 6:     return new HW04_ObjectStatusSummary();
+            case 7:     return new HW04_ObjectStatusInstructions();
+            case 8:     return new HW04_ObjectPlatformStatic();
+            case 9:     return new HW04_ObjectPlatformH();
+            case 10:    return new HW04_ObjectPlatformV();
+            case 11:    return new HW04_ObjectBubble();
+            case 12:    return new HW04_ObjectArrow();
+            case 13:    return new HW04_ObjectBullet();
+            case 14:    return new HW04_ObjectEnemy();
+            case 15:    return new HW04_ObjectCharacter();
+            case 16:    return new HW04_ObjectEvent();
+            case 17:    return new HW04_ObjectEventRemoteRegistration();
+            case 18:    return new HW04_ObjectDelta();
+            default:
+                throw new IOException("Type tag '" + nTypeTag + "' not recognized");
+        }
+    }
+
+}
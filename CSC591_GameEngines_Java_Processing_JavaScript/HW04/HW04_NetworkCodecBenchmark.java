@@ -0,0 +1,333 @@
+/*************************************************************************************************************
+ * FILE:            HW04_NetworkCodecBenchmark.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Compare the two message formats supported by HW04_NetworkCodec
+ *                      (Java serialization and BINARY)
+ *                      on a representative mix of the messages the server sends:
+ *                      platforms, a character, a bullet, an enemy, a collision event, a remote registration.
+ *                  For each format, report bytes per message and encode / decode throughput.
+ *                  The Java serialization numbers are taken the way the existing object streams work
+ *                      (one long stream, reset before every write),
+ *                      so that they are a fair baseline rather than a worst case.
+ *                  Before timing anything, every binary message is decoded and re-encoded,
+ *                      and must come back byte-for-byte identical.
+ *
+ *                  java -classpath .:./core.jar HW04_NetworkCodecBenchmark [iterations]
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_NetworkCodecBenchmark {
+    
+    // Constants
+    private static final int N_DEFAULT_ITERATIONS = 20000;
+    private static final int N_WARMUP_ITERATIONS =  5000;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        main
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Main method for the benchmark
+     *
+     * ARGUMENTS:       args -  Optional number of iterations (default 20000)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void main (String[] args) {
+        try {
+            
+            // Declare variables
+            HW04_ObjectCommunicable[] aoMessages;
+            int nIterations;
+            
+            // Objects are created as they would be on the server
+            HW04_Globals.bClient = false;
+            nIterations = args.length > 0 ? Integer.parseInt(args[0]) : N_DEFAULT_ITERATIONS;
+            aoMessages = createSampleMessages();
+            
+            // Check round trip
+            checkRoundTrip(aoMessages);
+            
+            // Compare
+            System.out.println("Messages in sample:  " + aoMessages.length);
+            System.out.println("Iterations:          " + nIterations);
+            System.out.println("");
+            System.out.println(String.format(
+                "%-20s %16s %20s %20s",
+                "Format",
+                "Bytes/message",
+                "Encode msgs/sec",
+                "Decode msgs/sec"
+            ));
+            measureSerialization(aoMessages, N_WARMUP_ITERATIONS, false);
+            measureSerialization(aoMessages, nIterations, true);
+            measureBinary(aoMessages, N_WARMUP_ITERATIONS, false);
+            measureBinary(aoMessages, nIterations, true);
+            
+            // Creating game objects started the event manager thread, so exit explicitly
+            System.exit(0);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        createSampleMessages
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Create a representative mix of the messages the server sends
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         aoMessages -    The messages
+     *********************************************************************************************************/
+    private static HW04_ObjectCommunicable[] createSampleMessages () {
+        
+        HW04_ObjectCommunicable[] aoMessages = null;
+        try {
+            
+            // Declare variables
+            HW04_ObjectCharacter oCharacter;
+            HW04_ObjectPlatformStatic oPlatform;
+            HW04_ObjectPlatformH oPlatformH;
+            HW04_ObjectBullet oBullet;
+            HW04_ObjectEnemy oEnemy;
+            CopyOnWriteArrayList<HW04_ObjectCollidable> aoCollidingObjects;
+            ConcurrentHashMap<String, Object> oCollisionArgs;
+            HW04_ObjectEvent oCollision;
+            
+            // Game objects
+            oCharacter = new HW04_ObjectCharacter(-1, -1, 100, 200, null);
+            oPlatform = new HW04_ObjectPlatformStatic(-1, 0, 400, 200, 20, null);
+            oPlatformH = new HW04_ObjectPlatformH(-1, 300, 300, 100, 20, null);
+            oBullet = new HW04_ObjectBullet(-1, 110, 190, null, oCharacter);
+            oEnemy = new HW04_ObjectEnemy(-1, 250, 50, null);
+            
+            // Event
+            aoCollidingObjects = new CopyOnWriteArrayList<HW04_ObjectCollidable>();
+            aoCollidingObjects.add(oPlatform);
+            oCollisionArgs = new ConcurrentHashMap<String, Object>();
+            oCollisionArgs.put("oMovedObject", oCharacter);
+            oCollisionArgs.put("aoCollidingObjects", aoCollidingObjects);
+            oCollisionArgs.put("nOriginalX", 100f);
+            oCollisionArgs.put("nOriginalY", 198f);
+            oCollision = new HW04_ObjectEvent(HW04_ObjectEvent.EventType.COLLISION, oCollisionArgs);
+            
+            aoMessages = new HW04_ObjectCommunicable[] {
+                oCharacter,
+                oPlatform,
+                oPlatformH,
+                oBullet,
+                oEnemy,
+                oCollision,
+                new HW04_ObjectEventRemoteRegistration(HW04_ObjectEvent.EventType.USER_INPUT)
+            };
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return aoMessages;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        checkRoundTrip
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Make sure that each message survives the binary format unchanged
+     *
+     * ARGUMENTS:       aoMessages -    The messages
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void checkRoundTrip (HW04_ObjectCommunicable[] aoMessages) {
+        try {
+            
+            // Declare variables
+            byte[] abEncoded;
+            byte[] abReEncoded;
+            
+            // Encode, decode, encode again
+            for (HW04_ObjectCommunicable oMessage : aoMessages) {
+                abEncoded = HW04_NetworkCodec.encode(oMessage, true);
+                abReEncoded = HW04_NetworkCodec.encode(HW04_NetworkCodec.decode(abEncoded, true), true);
+                if (Arrays.equals(abEncoded, abReEncoded) == false) {
+                    throw new Exception("Binary round trip failed for '" + oMessage.getType() + "'");
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        measureSerialization
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Measure the Java serialization format,
+     *                      written to one long stream that is reset before every write
+     *
+     * ARGUMENTS:       aoMessages -    The messages
+     *                  nIterations -   How many times to send the whole set of messages
+     *                  bReport -       True to print results (false to warm up)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void measureSerialization (HW04_ObjectCommunicable[] aoMessages, int nIterations, boolean bReport) {
+        try {
+            
+            // Declare variables
+            ByteArrayOutputStream oBytes;
+            ObjectOutputStream oStreamOut;
+            ObjectInputStream oStreamIn;
+            long nEncodeTime_ns;
+            long nDecodeTime_ns;
+            long nStart_ns;
+            int nHeaderBytes;
+            int nMessages;
+            int i;
+            
+            // Encode
+            oBytes = new ByteArrayOutputStream();
+            oStreamOut = new ObjectOutputStream(oBytes);
+            oStreamOut.flush();
+            nHeaderBytes = oBytes.size();
+            nStart_ns = System.nanoTime();
+            for (i = 0; i < nIterations; i++) {
+                for (HW04_ObjectCommunicable oMessage : aoMessages) {
+                    oStreamOut.writeObject(oMessage);
+                    oStreamOut.reset();
+                }
+            }
+            oStreamOut.flush();
+            nEncodeTime_ns = System.nanoTime() - nStart_ns;
+            
+            // Decode
+            nMessages = nIterations * aoMessages.length;
+            oStreamIn = new ObjectInputStream(new ByteArrayInputStream(oBytes.toByteArray()));
+            nStart_ns = System.nanoTime();
+            for (i = 0; i < nMessages; i++) {
+                oStreamIn.readObject();
+            }
+            nDecodeTime_ns = System.nanoTime() - nStart_ns;
+            
+            // Report
+            if (bReport == true) {
+                report("Serialization", (oBytes.size() - nHeaderBytes) / (double) nMessages, nMessages, nEncodeTime_ns, nDecodeTime_ns);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        measureBinary
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Measure the binary format
+     *
+     * ARGUMENTS:       aoMessages -    The messages
+     *                  nIterations -   How many times to send the whole set of messages
+     *                  bReport -       True to print results (false to warm up)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void measureBinary (HW04_ObjectCommunicable[] aoMessages, int nIterations, boolean bReport) {
+        try {
+            
+            // Declare variables
+            byte[][] aabEncoded;
+            long nEncodeTime_ns;
+            long nDecodeTime_ns;
+            long nStart_ns;
+            long nTotalBytes;
+            int nMessages;
+            int i;
+            int j;
+            
+            // Encode
+            nMessages = nIterations * aoMessages.length;
+            aabEncoded = new byte[nMessages][];
+            nStart_ns = System.nanoTime();
+            for (i = 0; i < nIterations; i++) {
+                for (j = 0; j < aoMessages.length; j++) {
+                    aabEncoded[i * aoMessages.length + j] = HW04_NetworkCodec.encode(aoMessages[j], true);
+                }
+            }
+            nEncodeTime_ns = System.nanoTime() - nStart_ns;
+            
+            // Decode
+            nStart_ns = System.nanoTime();
+            for (i = 0; i < nMessages; i++) {
+                HW04_NetworkCodec.decode(aabEncoded[i], true);
+            }
+            nDecodeTime_ns = System.nanoTime() - nStart_ns;
+            
+            // Report (frame header included, since binary messages are always framed)
+            if (bReport == true) {
+                nTotalBytes = 0;
+                for (i = 0; i < nMessages; i++) {
+                    nTotalBytes += aabEncoded[i].length + HW04_NetworkCodec.N_FRAME_HEADER_BYTES;
+                }
+                report("Binary", nTotalBytes / (double) nMessages, nMessages, nEncodeTime_ns, nDecodeTime_ns);
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        report
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Print one line of results
+     *
+     * ARGUMENTS:       sFormat -           Name of the message format
+     *                  nBytesPerMessage -  Average bytes per message
+     *                  nMessages -         How many messages were encoded and decoded
+     *                  nEncodeTime_ns -    Time spent encoding
+     *                  nDecodeTime_ns -    Time spent decoding
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void report (String sFormat, double nBytesPerMessage, int nMessages, long nEncodeTime_ns, long nDecodeTime_ns) {
+        try {
+            System.out.println(String.format(
+                "%-20s %16.1f %20.0f %20.0f",
+                sFormat,
+                nBytesPerMessage,
+                nMessages / (nEncodeTime_ns / 1e9),
+                nMessages / (nDecodeTime_ns / 1e9)
+            ));
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+
+}
\ No newline at end of file
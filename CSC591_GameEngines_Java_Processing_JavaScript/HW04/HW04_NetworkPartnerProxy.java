@@ -79,6 +79,8 @@ public class HW04_NetworkPartnerProxy implements HW04_EventObserver {
              *      - Do not send an event back to the partner that originated it
              *      - Do not send an event to yourself
              *      - If you are a client, do not send an event to the server unless you originated it
+             *  The event is written out later by another thread, so hold on to it for good
+             *      (it never goes back into HW04_EventPool, and is left to the garbage collector)
              */
             if (
                 oEventToHandle.getPlayerID() != this.nNetworkPartnerPlayerID &&
@@ -88,6 +90,7 @@ public class HW04_NetworkPartnerProxy implements HW04_EventObserver {
                     HW04_Globals.nPlayerID == oEventToHandle.getPlayerID()
                 )
             ) {
+                oEventToHandle.retain();
                 HW04_Globals.oObjectsToWrite.get(this.nNetworkPartnerPlayerID).add(oEventToHandle);
             }
             
@@ -7,11 +7,12 @@
  *************************************************************************************************************/
 
 // IMPORTS
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
-import processing.core.PConstants;
 
 // CLASS DEFINITION
 public class HW04_ObjectArrow extends HW04_ObjectRenderable {
@@ -41,7 +42,7 @@ public class HW04_ObjectArrow extends HW04_ObjectRenderable {
      *                                              If -1, a new GUID will be automatically assigned
      *                  nX_px -                     The origin of the new arrow on the x axis (0 = left)
      *                  nY_px -                     The origin of the new arrow on the y axis (0 = top)
-     *                  oApplet -                   A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -                 What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
@@ -49,7 +50,7 @@ public class HW04_ObjectArrow extends HW04_ObjectRenderable {
         int nExistingGUID,
         int nX_px,
         int nY_px,
-        PApplet oApplet
+        HW04_Renderer oRenderer
     ) {
         
         // Construct renderable object
@@ -68,8 +69,8 @@ public class HW04_ObjectArrow extends HW04_ObjectRenderable {
             0, 
             // Color
             HW04_Color.getPureColor("Gray"),
-            // Applet
-            oApplet
+            // Renderer
+            oRenderer
         );
         
         // Set angle to point straight up
@@ -81,6 +82,21 @@ public class HW04_ObjectArrow extends HW04_ObjectRenderable {
     }
 
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectArrow Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty arrow object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectArrow () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getLatestArrow
      *
@@ -125,7 +141,7 @@ public class HW04_ObjectArrow extends HW04_ObjectRenderable {
                 (int) (oLatestShooter.getPositionX() + HW04_ObjectBubble.getStaticRadius() / 2),
                 // Y
                 (int) (oLatestShooter.getPositionY() + HW04_ObjectBubble.getStaticRadius() / 2),
-                // Applet
+                // Renderer
                 null
             );
 
@@ -245,31 +261,31 @@ public class HW04_ObjectArrow extends HW04_ObjectRenderable {
             float nEndHeadRightY_px;
             
             // Set arrow color and width
-            this.getApplet().stroke(this.getColor().R, this.getColor().G, this.getColor().B);
-            this.getApplet().strokeWeight(2);
+            this.getRenderer().stroke(this.getColor().R, this.getColor().G, this.getColor().B);
+            this.getRenderer().strokeWeight(2);
             
             // Calculate end points
             nEndArrowX_px = 
                     this.getPositionX() + 
-                    PApplet.sin(PApplet.radians(this.nAngle_deg)) * N_LENGTH_BODY_PX;
+                    (float) Math.sin(Math.toRadians(this.nAngle_deg)) * N_LENGTH_BODY_PX;
             nEndArrowY_px = 
                     this.getPositionY() - 
-                    PApplet.cos(PApplet.radians(this.nAngle_deg)) * N_LENGTH_BODY_PX;
+                    (float) Math.cos(Math.toRadians(this.nAngle_deg)) * N_LENGTH_BODY_PX;
             nEndHeadLeftX_px = 
                     nEndArrowX_px + 
-                    PApplet.sin(PApplet.radians(this.nAngle_deg - N_HEAD_ANGLE_DEG)) * N_LENGTH_HEAD_PX;
+                    (float) Math.sin(Math.toRadians(this.nAngle_deg - N_HEAD_ANGLE_DEG)) * N_LENGTH_HEAD_PX;
             nEndHeadLeftY_px = 
                     nEndArrowY_px - 
-                    PApplet.cos(PApplet.radians(this.nAngle_deg - N_HEAD_ANGLE_DEG)) * N_LENGTH_HEAD_PX;
+                    (float) Math.cos(Math.toRadians(this.nAngle_deg - N_HEAD_ANGLE_DEG)) * N_LENGTH_HEAD_PX;
             nEndHeadRightX_px = 
                     nEndArrowX_px + 
-                    PApplet.sin(PApplet.radians(this.nAngle_deg + N_HEAD_ANGLE_DEG)) * N_LENGTH_HEAD_PX;
+                    (float) Math.sin(Math.toRadians(this.nAngle_deg + N_HEAD_ANGLE_DEG)) * N_LENGTH_HEAD_PX;
             nEndHeadRightY_px = 
                     nEndArrowY_px - 
-                    PApplet.cos(PApplet.radians(this.nAngle_deg + N_HEAD_ANGLE_DEG)) * N_LENGTH_HEAD_PX;
+                    (float) Math.cos(Math.toRadians(this.nAngle_deg + N_HEAD_ANGLE_DEG)) * N_LENGTH_HEAD_PX;
             
             // Draw arrow body
-            this.getApplet().line(
+            this.getRenderer().line(
                 this.getPositionX(), 
                 this.getPositionY(), 
                 nEndArrowX_px, 
@@ -277,13 +293,13 @@ public class HW04_ObjectArrow extends HW04_ObjectRenderable {
             );
             
             // Draw arrow head
-            this.getApplet().line(
+            this.getRenderer().line(
                 nEndArrowX_px, 
                 nEndArrowY_px, 
                 nEndHeadLeftX_px, 
                 nEndHeadLeftY_px
             );
-            this.getApplet().line(
+            this.getRenderer().line(
                 nEndArrowX_px, 
                 nEndArrowY_px, 
                 nEndHeadRightX_px, 
@@ -318,4 +334,76 @@ public class HW04_ObjectArrow extends HW04_ObjectRenderable {
         // No-Op (other objects care if they collide with us - we don't care)
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeFloat(this.nAngle_deg);
+        oStream.writeInt(this.nMovement);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.nAngle_deg = oStream.readFloat();
+        this.nMovement = oStream.readInt();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        captureState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Record this object's replicated fields in a state object (see HW04_ObjectDelta)
+     * 
+     * ARGUMENTS:       oState -    The state object to record into
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void captureState (HW04_ObjectDelta oState) {
+        super.captureState(oState);
+        oState.setAngle(this.nAngle_deg);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        applyState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Patch this object in place with whichever replicated fields a delta carries
+     * 
+     * ARGUMENTS:       oDelta -    The delta to apply
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void applyState (HW04_ObjectDelta oDelta) {
+        super.applyState(oDelta);
+        if (oDelta.hasField(HW04_ObjectDelta.N_FIELD_ANGLE) == true) {
+            this.nAngle_deg = oDelta.getAngle();
+        }
+    }
+    
 }
\ No newline at end of file
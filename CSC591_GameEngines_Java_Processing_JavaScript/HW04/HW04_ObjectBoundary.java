@@ -53,6 +53,21 @@ public class HW04_ObjectBoundary extends HW04_ObjectCollidable {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectBoundary Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty boundary object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectBoundary () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        HW04_ObjectBoundary Constructor
      *
@@ -103,7 +118,8 @@ public class HW04_ObjectBoundary extends HW04_ObjectCollidable {
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     Add boundary objects at each of the window's edges
+     * DESCRIPTION:     Add boundary objects at each of the game world's edges
+     *                      (the window's edges, unless the WORLD option makes the world wider)
      *
      * ARGUMENTS:       None
      * 
@@ -121,7 +137,7 @@ public class HW04_ObjectBoundary extends HW04_ObjectCollidable {
                 // Y
                 0, 
                 // Length
-                HW04_Utility.getWindowSize(), 
+                HW04_Utility.getWorldWidth(),  
                 // Vertical
                 false
             );
@@ -131,7 +147,7 @@ public class HW04_ObjectBoundary extends HW04_ObjectCollidable {
                 // Get auto GUID
                 -1,
                 // X
-                HW04_Utility.getWindowSize() - HW04_ObjectBoundary.getStaticSkinnyDimension(),
+                HW04_Utility.getWorldWidth() - HW04_ObjectBoundary.getStaticSkinnyDimension(),
                 // Y
                 0, 
                 // Length
@@ -149,7 +165,7 @@ public class HW04_ObjectBoundary extends HW04_ObjectCollidable {
                 // Y
                 HW04_Utility.getWindowSize() - HW04_ObjectBoundary.getStaticSkinnyDimension(),
                 // Length
-                HW04_Utility.getWindowSize(), 
+                HW04_Utility.getWorldWidth(),  
                 // Vertical
                 false
             );
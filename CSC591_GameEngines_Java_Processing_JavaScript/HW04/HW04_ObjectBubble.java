@@ -7,11 +7,15 @@
  *************************************************************************************************************/
 
 // IMPORTS
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.util.ArrayList;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
-import processing.core.PConstants;
 
 // CLASS DEFINITION
 public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_EventObserver {
@@ -24,9 +28,11 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
     private final static int N_RADIUS_PX =                      20;
     private static HW04_ObjectBubble oLatestShooterBubble;
     
-    // Object properties (variable)
-    private boolean bShooterBubble;
-    private boolean bPopPending;
+    // What Java serialization writes (these used to be fields, and are now flags kept with the position, see HW04_ObjectLocated)
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("bShooterBubble", boolean.class),
+        new ObjectStreamField("bPopPending", boolean.class)
+    };
 
     /*********************************************************************************************************
      * FUNCTION:        HW04_ObjectBubble Constructor
@@ -39,7 +45,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      *                                  If -1, a new GUID will be automatically assigned
      *                  nX_px -         The position of the new object on the x axis (0 = left)
      *                  nY_px -         The position of the new object on the y axis (0 = top)
-     *                  oApplet -       A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -     What to draw the object with (only the client has one, see HW04_Renderer)
      *                  bShooter -      True if the bubble is a shootER, false if shootEE
      * 
      * RETURNS:         None
@@ -48,7 +54,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
         int nExistingGUID,
         int nX_px,
         int nY_px,
-        PApplet oApplet,
+        HW04_Renderer oRenderer,
         boolean bShooter
     ) {
         
@@ -61,14 +67,14 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
             N_RADIUS_PX, 
             N_RADIUS_PX, 
             HW04_Color.getRandomColor(),
-            oApplet,
+            oRenderer,
             0,
             0
         );
         
         // Set flags
-        this.bShooterBubble = bShooter;
-        this.bPopPending = false;
+        this.setShooterFlag(bShooter);
+        this.setPopPendingFlag(false);
         
         // Remember the latest shooter bubble
         if (bShooter == true) {
@@ -77,6 +83,21 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectBubble Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty bubble object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectBubble () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getBubbleObjects
      *
@@ -89,27 +110,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      * RETURNS:         aoObjectsBubble -    All bubble objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectBubble> getBubbleObjects () {
-        CopyOnWriteArrayList<HW04_ObjectBubble> aoObjectsBubble = new CopyOnWriteArrayList<HW04_ObjectBubble>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectBubble) {
-                    aoObjectsBubble.add((HW04_ObjectBubble) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsBubble;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectBubble.class);
     }
     
     /*********************************************************************************************************
@@ -160,29 +161,41 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
                     if (oThisBubble.getPositionY() > (HW04_Utility.getWindowSize() * 0.9)) {
                         oThisBubble.checkForCollisionsAndRaiseEvent();
                     }
-                    
+                
                 }
             }
             
+            // Every settled bubble is now in a different cell
+            HW04_BubbleGrid.rebuild();
+            
             // Add one row of bubbles starting at the top of the window
             for (i = 0; i < N_NUM_BUBBLES_ONE_ROW; i++) {
                 
+                // Leave alone any spot that still has a bubble in it (just ask, see HW04_CollisionGrid)
+                if (HW04_CollisionGrid.getObjectsInRectangle(
+                    HW04_ObjectBubble.class,
+                    null,
+                    HW04_ObjectBubble.getStaticRadius() * i,
+                    HW04_ObjectStatus.getTotalHeight(),
+                    HW04_ObjectBubble.getStaticRadius(),
+                    HW04_ObjectBubble.getStaticRadius()
+                ).size() > 0) {
+                    continue;
+                }
+                
                 // Create bubble
-                oNewBubble = new HW04_ObjectBubble(
-                    // Get auto GUID
-                    -1,
+                oNewBubble = createBubble(
                     // X
                     HW04_ObjectBubble.getStaticRadius() * i,
                     // Y
                     HW04_ObjectStatus.getTotalHeight(),
-                    // Applet
-                    null,
                     // Shooter (as opposed to shootee) bubble
                     false
                 );
+                HW04_BubbleGrid.add(oNewBubble);
                 
                 // Register interest in events that affect the object
-                O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.COLLISION, oNewBubble, false);
+                O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.COLLISION, oNewBubble);
                 
                 // Tell clients about the new bubble
                 HW04_Server.notifyClientsAboutOneObject(-1, oNewBubble);
@@ -214,6 +227,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
             
             // Declare variables
             CopyOnWriteArrayList<HW04_ObjectBubble> aoBubbles = null;
+            CopyOnWriteArrayList<HW04_ObjectBubble> aoShooterBubbles;
             int i;
             
             // Get object collections
@@ -226,13 +240,24 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
                  *  Why? Moving objects may cause collision events which need to be handled
                  *  It's better not to send collided / funky objects out
                  */
+                aoShooterBubbles = new CopyOnWriteArrayList<HW04_ObjectBubble>();
                 for (i = 0; i < aoBubbles.size(); i++) {
                     if (aoBubbles.get(i).getShooterFlag() == true) {
                         HW04_Server.notifyClientsAboutOneObject(-1, aoBubbles.get(i));
-                        aoBubbles.get(i).updateLocationAndCheckForCollisions();
+                        if (HW04_Globals.bParallelTick == true) {
+                            aoShooterBubbles.add(aoBubbles.get(i));
+                        }
+                        else {
+                            aoBubbles.get(i).updateLocationAndCheckForCollisions();
+                        }
                     }
                 }
                 
+                // Move all shooter bubbles together (PARALLEL option)
+                if (HW04_Globals.bParallelTick == true) {
+                    HW04_ParallelTick.updateLocationsAndCheckForCollisions(aoShooterBubbles, null);
+                }
+                
             }
             
             // Free
@@ -252,6 +277,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      * DESCRIPTION:     Shoot latest shooter bubble off at some angle
      *                  Initial game bubbles are created by the Server
      *                  This method however is expected to be called by the Client
+     *                  Uses Math rather than Processing's trigonometry, so that it can also run on a headless server
      *
      * ARGUMENTS:       nAngle_deg -    Angle at which to shoot the bubble
      * 
@@ -289,11 +315,11 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
                 nCalculationAngle_deg = nAngle_deg - N_ANGLE_STRAIGHT_UP_DEG;
                 nSpeedHorizontal_px = (int) (
                     N_SHOOT_SPEED_PX_PER_SEC * 
-                    PApplet.sin(PApplet.radians(nCalculationAngle_deg))
+                    (float) Math.sin(Math.toRadians(nCalculationAngle_deg))
                 );
                 nSpeedVertical_px = (int) (
                     N_SHOOT_SPEED_PX_PER_SEC * 
-                    PApplet.cos(PApplet.radians(nCalculationAngle_deg))
+                    (float) Math.cos(Math.toRadians(nCalculationAngle_deg))
                 );
             }
             else if (nAngle_deg < N_ANGLE_STRAIGHT_UP_DEG) {
@@ -301,11 +327,11 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
                 nSpeedHorizontal_px = (int) (
                     -1 * 
                     N_SHOOT_SPEED_PX_PER_SEC * 
-                    PApplet.sin(PApplet.radians(nCalculationAngle_deg))
+                    (float) Math.sin(Math.toRadians(nCalculationAngle_deg))
                 );
                 nSpeedVertical_px = (int) (
                     N_SHOOT_SPEED_PX_PER_SEC * 
-                    PApplet.cos(PApplet.radians(nCalculationAngle_deg))
+                    (float) Math.cos(Math.toRadians(nCalculationAngle_deg))
                 );
             }
             oLatestShooter.setSpeedHorizontal(nSpeedHorizontal_px);
@@ -340,21 +366,17 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
             HW04_ObjectBubble oNewBubble;
             
             // Create a new shooter bubble
-            oNewBubble = new HW04_ObjectBubble(
-                // Get auto GUID
-                -1,
+            oNewBubble = createBubble(
                 // X
                 (int) (HW04_Utility.getWindowSize() / 2 - HW04_ObjectBubble.getStaticRadius() / 2),
                 // Y
                 (int)(HW04_Utility.getWindowSize() - HW04_ObjectBubble.getStaticRadius()),
-                // Applet
-                null,
                 // Shooter (as opposed to shootee) bubble
                 true
             );
             
             // Register interest in events that affect the object
-            O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.COLLISION, oNewBubble, false);
+            O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.COLLISION, oNewBubble);
             
             // Tell the clients about this new game object
             HW04_Server.notifyClientsAboutOneObject(-1, oNewBubble);
@@ -365,6 +387,57 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
         }
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        createBubble
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get a new bubble in the game (with an auto GUID)
+     *                  With the POOL option, a bubble that has left the game is reset in place if one is ready
+     *                      (see HW04_ObjectPool), otherwise a new bubble is made
+     *
+     * ARGUMENTS:       nX_px -     The position of the bubble on the x axis (0 = left)
+     *                  nY_px -     The position of the bubble on the y axis (0 = top)
+     *                  bShooter -  True if the bubble is a shootER, false if shootEE
+     * 
+     * RETURNS:         oNewBubble -    The bubble
+     *********************************************************************************************************/
+    private static HW04_ObjectBubble createBubble (int nX_px, int nY_px, boolean bShooter) {
+        
+        // Declare variables
+        HW04_ObjectBubble oNewBubble = null;
+        
+        // Reuse a bubble that has left the game
+        if (HW04_Globals.bObjectPooling == true) {
+            oNewBubble = HW04_ObjectPool.acquire(HW04_ObjectBubble.class);
+        }
+        if (oNewBubble != null) {
+            
+            // Reset, just as the constructor would set it up
+            oNewBubble.resetPosition(nX_px, nY_px);
+            oNewBubble.setColor(HW04_Color.getRandomColor());
+            oNewBubble.setSpeedHorizontal(0);
+            oNewBubble.setSpeedVertical(0);
+            oNewBubble.setShooterFlag(bShooter);
+            oNewBubble.setPopPendingFlag(false);
+            if (bShooter == true) {
+                oLatestShooterBubble = oNewBubble;
+            }
+            
+            // Back in the game, with a new GUID
+            oNewBubble.rejoinGame();
+        
+        }
+        
+        // Or make a new one
+        else {
+            oNewBubble = new HW04_ObjectBubble(-1, nX_px, nY_px, null, bShooter);
+        }
+        
+        return oNewBubble;
+    
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getLatestShooterBubble
      *
@@ -392,7 +465,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      * RETURNS:         bShooterBubble
      *********************************************************************************************************/
     public boolean getShooterFlag () {
-        return this.bShooterBubble;
+        return this.getFlag(HW04_ObjectFields.N_FLAG_SHOOTER_BUBBLE);
     }
     
     /*********************************************************************************************************
@@ -407,7 +480,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      * RETURNS:         None
      *********************************************************************************************************/
     public void setShooterFlag (boolean bShooter) {
-        this.bShooterBubble = bShooter;
+        this.setFlag(HW04_ObjectFields.N_FLAG_SHOOTER_BUBBLE, bShooter);
     }
 
     /*********************************************************************************************************
@@ -422,7 +495,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      * RETURNS:         bPopPending
      *********************************************************************************************************/
     public boolean getPopPendingFlag () {
-        return this.bPopPending;
+        return this.getFlag(HW04_ObjectFields.N_FLAG_POP_PENDING);
     }
     
     /*********************************************************************************************************
@@ -437,7 +510,7 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      * RETURNS:         None
      *********************************************************************************************************/
     public void setPopPendingFlag (boolean bPending) {
-        this.bPopPending = bPending;
+        this.setFlag(HW04_ObjectFields.N_FLAG_POP_PENDING, bPending);
     }
 
     /*********************************************************************************************************
@@ -479,6 +552,8 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
             // Declare variables
             HW04_ObjectCollidable oCollidedObject;
             HW04_ObjectBubble oCollidedBubble;
+            ArrayList<HW04_ObjectBubble> aoHitBubbles;
+            ArrayList<HW04_ObjectBubble> aoBubblesToPop;
             boolean bLostGame;
             boolean bShooterPoppedBubbles;
             boolean bShooterGotStuck;
@@ -508,47 +583,36 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
                 // Shooter bubble?
                 if (this.getShooterFlag() == true) {
                     
-                    // Check everything it's collided with
+                    // Check everything it's collided with, for shootee bubbles of the same color
+                    aoHitBubbles = new ArrayList<HW04_ObjectBubble>();
                     for (i = 0; i < oCollidingObjects.size(); i++) {
-                        
-                        // Get collided object
                         oCollidedObject = oCollidingObjects.get(i);
-                        
-                        // If the shooter bubble has collided with a shootee bubble of the same color
                         if (oCollidedObject instanceof HW04_ObjectBubble) {
                             oCollidedBubble = (HW04_ObjectBubble) oCollidedObject;
                             if (
                                 oCollidedBubble.getShooterFlag() == false && 
-                                oCollidedBubble.getColor().R == this.getColor().R && 
-                                oCollidedBubble.getColor().G == this.getColor().G && 
-                                oCollidedBubble.getColor().B == this.getColor().B 
+                                HW04_BubbleGrid.isSameColor(oCollidedBubble, this) == true
                             ) {
-                                
-                                // Turn the collided bubble into a shooter bubble
-                                oCollidedBubble.setShooterFlag(true);
-                                
-                                /* Check the collided bubble itself for collisions
-                                 * This will kick off a chain of events which will pop all connected bubbles of the same color
-                                 */
-                                oCollidedBubble.checkForCollisionsAndRaiseEvent();
-                                
-                                /* Need to pop the collided bubble
-                                 * but can't do it quite yet
-                                 * it might need to handle an event!
-                                 */
-                                oCollidedBubble.setPopPendingFlag(true);
-                                
-                                // Remember what happened
-                                bShooterPoppedBubbles = true;
-                                
+                                aoHitBubbles.add(oCollidedBubble);
                             }
                         }
-
                     }
                     
-                    // Pop the shooter bubble if it's done it's job
-                    if (bShooterPoppedBubbles == true || this.getPopPendingFlag() == true) {
+                    /* Pop the shooter bubble if it hit any,
+                     *  along with every bubble of the same color connected to them (see HW04_BubbleGrid.getCluster),
+                     *  and then every bubble that leaves floating (see HW04_BubbleGrid.getFloating)
+                     */
+                    if (aoHitBubbles.size() > 0) {
                         popBubble(this);
+                        aoBubblesToPop = HW04_BubbleGrid.getCluster(aoHitBubbles);
+                        for (i = 0; i < aoBubblesToPop.size(); i++) {
+                            popBubble(aoBubblesToPop.get(i));
+                        }
+                        aoBubblesToPop = HW04_BubbleGrid.getFloating();
+                        for (i = 0; i < aoBubblesToPop.size(); i++) {
+                            popBubble(aoBubblesToPop.get(i));
+                        }
+                        bShooterPoppedBubbles = true;
                     }
                     
                     // Shooter becomes shootee if it collides with a bubble of a different color or with the top of the window
@@ -566,6 +630,8 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
                                 this.setShooterFlag(false);
                                 this.setSpeedHorizontal(0);
                                 this.setSpeedVertical(0);
+                                HW04_BubbleGrid.settle(this);
+                                HW04_Server.notifyClientsAboutOneObject(-1, this);
                                 bShooterGotStuck = true;
                                 break;
                             }
@@ -609,7 +675,6 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      *
      * DESCRIPTION:     Pop a bubble (remove it from the game)
      *                  Each popped bubble gets you a point
-     *                  See if this pop has caused any nearby bubbles to be orphaned (if so, pop them too)
      *
      * ARGUMENTS:       oBubbleToPop -  The bubble to pop
      * 
@@ -618,50 +683,18 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
     private void popBubble (HW04_ObjectBubble oBubbleToPop) {
         try {
             
-            // Declare variables
-            CopyOnWriteArrayList<HW04_ObjectCollidable> aoCollidingWithPoppedBubble;
-            CopyOnWriteArrayList<HW04_ObjectCollidable> aoCollidingWithNeigborBubble;
-            HW04_ObjectBubble oNeighborBubble;
-            boolean bOrphanedBubble;
-            int i;
-            int j;
-            
             // Ignore if this bubble is already popped
             if (HW04_ObjectGame.getObjectByGUID(oBubbleToPop.getGUID()) != null) {
                 
                 // Pop bubble
+                HW04_BubbleGrid.remove(oBubbleToPop);
                 HW04_Server.removeObjectFromGame(oBubbleToPop, -1);
                 
                 // Every popped bubble gets you a point
                 O_EVENT_MANAGER.raiseEventScoreChange(null, true);
-                
-                // Any nearby bubbles orphaned by this?  Pop them too
-                aoCollidingWithPoppedBubble = oBubbleToPop.getCollidingObjects();
-                for (i = 0; i < aoCollidingWithPoppedBubble.size(); i++) {
-                    if (aoCollidingWithPoppedBubble.get(i) instanceof HW04_ObjectBubble) {
-                        oNeighborBubble = ((HW04_ObjectBubble) aoCollidingWithPoppedBubble.get(i));
-                        aoCollidingWithNeigborBubble = oNeighborBubble.getCollidingObjects();
-                        bOrphanedBubble = true;
-                        for (j = 0; j < aoCollidingWithNeigborBubble.size(); j++) {
-                            if (
-                                aoCollidingWithNeigborBubble.get(j) instanceof HW04_ObjectStatus ||
-                                (
-                                    aoCollidingWithNeigborBubble.get(j) instanceof HW04_ObjectBubble &&
-                                    aoCollidingWithNeigborBubble.get(j).getPositionY() < oNeighborBubble.getPositionY()
-                                )
-                            ) {
-                                bOrphanedBubble = false;
-                                break;
-                            }
-                        }
-                        if (bOrphanedBubble == true) {
-                            popBubble(oNeighborBubble);
-                        }
-                    }
-                }
-                
-            }
             
+            }
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -679,27 +712,23 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
     @Override
     public void handleEvent (HW04_ObjectEvent oEventToHandle) {
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
-            
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
+            HW04_EventPayloadCollision oCollision;
             
             // COLLISION
-            if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION && 
-                ((HW04_ObjectCollidable) oEventArguments.get("oMovedObject")).getGUID() == this.getGUID()
-            ) {
-                this.handleCollision(
-                    (CopyOnWriteArrayList<HW04_ObjectCollidable>) oEventArguments.get("aoCollidingObjects"), 
-                    (float) oEventArguments.get("nOriginalX"),
-                    (float) oEventArguments.get("nOriginalY")
-                );
+            if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION) {
+                oCollision = (HW04_EventPayloadCollision) oEventToHandle.getPayload();
+                if (oCollision.oMovedObject.getGUID() == this.getGUID()) {
+                    this.handleCollision(
+                        oCollision.aoCollidingObjects, 
+                        oCollision.nOriginalX,
+                        oCollision.nOriginalY
+                    );
+                }
             }
 
         }
@@ -708,4 +737,85 @@ public class HW04_ObjectBubble extends HW04_ObjectMoveable implements HW04_Event
         }
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeBoolean(this.getShooterFlag());
+        oStream.writeBoolean(this.getPopPendingFlag());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.setShooterFlag(oStream.readBoolean());
+        this.setPopPendingFlag(oStream.readBoolean());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields with Java serialization (see serialPersistentFields)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void writeObject (ObjectOutputStream oStream) throws IOException {
+        
+        // Declare variables
+        ObjectOutputStream.PutField oFieldsOut;
+        
+        oFieldsOut = oStream.putFields();
+        oFieldsOut.put("bShooterBubble", this.getShooterFlag());
+        oFieldsOut.put("bPopPending", this.getPopPendingFlag());
+        oStream.writeFields();
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields with Java serialization (see writeObject)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void readObject (ObjectInputStream oStream) throws IOException, ClassNotFoundException {
+        
+        // Declare variables
+        ObjectInputStream.GetField oFieldsIn;
+        
+        oFieldsIn = oStream.readFields();
+        this.setShooterFlag(oFieldsIn.get("bShooterBubble", false));
+        this.setPopPendingFlag(oFieldsIn.get("bPopPending", false));
+    
+    }
+    
 }
\ No newline at end of file
@@ -7,11 +7,11 @@
  *************************************************************************************************************/
 
 // IMPORTS
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
-import processing.core.PConstants;
 
 // CLASS DEFINITION
 public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_EventObserver {
@@ -40,7 +40,7 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
      *                                  If -1, a new GUID will be automatically assigned
      *                  nX_px -         The position of the new object on the x axis (0 = left)
      *                  nY_px -         The position of the new object on the y axis (0 = top)
-     *                  oApplet -       A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -     What to draw the object with (only the client has one, see HW04_Renderer)
      *                  oShooter -      The game object that is shooting the bullet
      * 
      * RETURNS:         None
@@ -49,7 +49,7 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
         int nExistingGUID,
         int nX_px,
         int nY_px,
-        PApplet oApplet,
+        HW04_Renderer oRenderer,
         HW04_ObjectRenderable oShooter
     ) {
         
@@ -69,8 +69,8 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
             N_RADIUS_PX, 
             // Color
             oShooter.getColor(),
-            // Applet
-            oApplet,
+            // Renderer
+            oRenderer,
             // Default horizontal speed (pixels per second)
             0,
             // Default vertical speed (pixels per second)
@@ -81,10 +81,25 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
         this.oBulletShotBy = oShooter;
         
         // Register interest in events that affect the object
-        O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.COLLISION, this, false);
+        O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.COLLISION, this);
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectBullet Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty bullet object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectBullet () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getBulletObjects
      *
@@ -97,27 +112,7 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
      * RETURNS:         aoObjectsBullet -    All bullet objects in the game
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectBullet> getBulletObjects () {
-        CopyOnWriteArrayList<HW04_ObjectBullet> aoObjectsBullet = new CopyOnWriteArrayList<HW04_ObjectBullet>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectBullet) {
-                    aoObjectsBullet.add((HW04_ObjectBullet) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsBullet;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectBullet.class);
     }
 
     /*********************************************************************************************************
@@ -151,7 +146,17 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
                  */
                 for (i = 0; i < aoBullets.size(); i++) {
                     HW04_Server.notifyClientsAboutOneObject(-1, aoBullets.get(i));
-                    aoBullets.get(i).updateLocationAndCheckForCollisions();
+                    if (HW04_Globals.bColumnStorage == false && HW04_Globals.bParallelTick == false) {
+                        aoBullets.get(i).updateLocationAndCheckForCollisions();
+                    }
+                }
+                
+                // Move all bullets a column at a time (COLUMNS option), or all together (PARALLEL option)
+                if (HW04_Globals.bColumnStorage == true) {
+                    HW04_ColumnStore.getStore(HW04_ObjectBullet.class).updateLocationsAndCheckForCollisions();
+                }
+                else if (HW04_Globals.bParallelTick == true) {
+                    HW04_ParallelTick.updateLocationsAndCheckForCollisions(aoBullets, null);
                 }
                 
             }
@@ -199,19 +204,30 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
                 nY_px -= (HW04_ObjectBullet.getStaticHeight() + N_SCOOCH_PX);
             }
             
-            // Create a bullet shooting from the given object
-            oNewBullet = new HW04_ObjectBullet(
-                // GUID
-                -1,
-                // X
-                nX_px,
-                // Y
-                nY_px,
-                // Applet
-                null,
-                // Shooting object
-                oShooter
-            );
+            // Reuse a bullet that has left the game (POOL option)
+            oNewBullet = null;
+            if (HW04_Globals.bObjectPooling == true) {
+                oNewBullet = HW04_ObjectPool.acquire(HW04_ObjectBullet.class);
+            }
+            if (oNewBullet != null) {
+                oNewBullet.reuseBullet(nX_px, nY_px, oShooter);
+            }
+            
+            // Or create a bullet shooting from the given object
+            else {
+                oNewBullet = new HW04_ObjectBullet(
+                    // GUID
+                    -1,
+                    // X
+                    nX_px,
+                    // Y
+                    nY_px,
+                    // Renderer
+                    null,
+                    // Shooting object
+                    oShooter
+                );
+            }
             
         }
         catch (Throwable oError) {
@@ -219,6 +235,37 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
         }
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        reuseBullet
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Reset a bullet taken from the pool in place, just as the constructor would set it up,
+     *                      and put it back in the game (POOL option, see HW04_ObjectPool)
+     *
+     * ARGUMENTS:       nX_px -         The position of the bullet on the x axis (0 = left)
+     *                  nY_px -         The position of the bullet on the y axis (0 = top)
+     *                  oShooter -      The game object that is shooting the bullet
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void reuseBullet (int nX_px, int nY_px, HW04_ObjectRenderable oShooter) {
+        
+        // Reset
+        this.resetPosition(nX_px, nY_px);
+        this.setColor(oShooter.getColor());
+        this.setSpeedHorizontal(0);
+        this.setSpeedVertical(oShooter instanceof HW04_ObjectCharacter ? N_SPEED_PX_PER_SEC : N_SPEED_PX_PER_SEC * -1);
+        this.oBulletShotBy = oShooter;
+        
+        // Back in the game, with a new GUID
+        this.rejoinGame();
+        
+        // Register interest in events that affect the object
+        O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.COLLISION, this);
+    
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getBulletShotBy
      *
@@ -372,27 +419,23 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
     @Override
     public void handleEvent (HW04_ObjectEvent oEventToHandle) {
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
-            
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
+            HW04_EventPayloadCollision oCollision;
             
             // COLLISION
-            if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION && 
-                ((HW04_ObjectCollidable) oEventArguments.get("oMovedObject")).getGUID() == this.getGUID()
-            ) {
-                this.handleCollision(
-                    (CopyOnWriteArrayList<HW04_ObjectCollidable>) oEventArguments.get("aoCollidingObjects"), 
-                    (float) oEventArguments.get("nOriginalX"),
-                    (float) oEventArguments.get("nOriginalY")
-                );
+            if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION) {
+                oCollision = (HW04_EventPayloadCollision) oEventToHandle.getPayload();
+                if (oCollision.oMovedObject.getGUID() == this.getGUID()) {
+                    this.handleCollision(
+                        oCollision.aoCollidingObjects, 
+                        oCollision.nOriginalX,
+                        oCollision.nOriginalY
+                    );
+                }
             }
 
         }
@@ -401,4 +444,38 @@ public class HW04_ObjectBullet extends HW04_ObjectMoveable implements HW04_Event
         }
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        HW04_NetworkCodec.writeObjectBinary(oStream, this.oBulletShotBy);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.oBulletShotBy = (HW04_ObjectGame) HW04_NetworkCodec.readObjectBinary(oStream);
+    }
+    
 }
\ No newline at end of file
@@ -7,12 +7,11 @@
  *************************************************************************************************************/
 
 // IMPORTS
-import java.awt.desktop.SystemEventListener;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
-import processing.core.PConstants;
 
 // CLASS DEFINITION
 public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_EventObserver, Comparable<HW04_ObjectCharacter> {
@@ -56,11 +55,11 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
      *                                      If -1, a new player ID will be automatically assigned
      *                  nX_px -             The position of the new object on the x axis
      *                  nY_px -             The position of the new object on the y axis
-     *                  oApplet -           A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -         What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public HW04_ObjectCharacter (int nExistingGUID, int nExistingPlayerID, int nX_px, int nY_px, PApplet oApplet) {
+    public HW04_ObjectCharacter (int nExistingGUID, int nExistingPlayerID, int nX_px, int nY_px, HW04_Renderer oRenderer) {
         
         // Construct moveable object
         super(
@@ -71,7 +70,7 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
             N_HEIGHT_PX, 
             N_RADIUS_PX, 
             HW04_Color.getRandomShade("Red"),
-            oApplet,
+            oRenderer,
             // Default horizontal speed
             0,
             // Default vertical speed
@@ -113,6 +112,22 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectCharacter Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty character object, to be filled in from a binary message (see HW04_NetworkCodec)
+     *                  Unlike the other constructor, this does not assign a player ID.
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectCharacter () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getCharacterObjects
      *
@@ -125,27 +140,7 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
      * RETURNS:         aoObjectsCharacter -    All character objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectCharacter> getCharacterObjects () {
-        CopyOnWriteArrayList<HW04_ObjectCharacter> aoObjectsCharacter = new CopyOnWriteArrayList<HW04_ObjectCharacter>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectCharacter) {
-                    aoObjectsCharacter.add((HW04_ObjectCharacter) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsCharacter;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectCharacter.class);
     }
     
     /*********************************************************************************************************
@@ -164,20 +159,18 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
         try {
             
             // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (
-                    oEntry.getValue() instanceof HW04_ObjectCharacter && 
-                    ((HW04_ObjectCharacter) oEntry.getValue()).getPlayerID() == nObjectPlayerID
-                ) {
-                    oObjectCharacter = (HW04_ObjectCharacter) oEntry.getValue();
+            CopyOnWriteArrayList<HW04_ObjectCharacter> aoObjectsCharacter = getCharacterObjects();
+            int i;
+            
+            // Look through all character objects
+            for (i = 0; i < aoObjectsCharacter.size(); i++) {
+                if (aoObjectsCharacter.get(i).getPlayerID() == nObjectPlayerID) {
+                    oObjectCharacter = aoObjectsCharacter.get(i);
                 }
             }
             
             // Free
-            oObjectsGame = null;
+            aoObjectsCharacter = null;
             
         }
         catch (Throwable oError) {
@@ -689,6 +682,7 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
             final int N_MAX_MOVE_NEGATIVE_PX = 3;
             
             // Declare variables
+            CopyOnWriteArrayList<HW04_ObjectCollidable> aoObjectsToIgnore;
             HW04_ObjectSpawnPoint oSpawnPoint;
             Random oRandomizer;
             boolean bFailedToSpawn;
@@ -700,20 +694,28 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
             this.stopJumpSequence();
             this.stopMoving();
             
-            // Take a guess about where the character should spawn (random spawn point)
-            oSpawnPoint = HW04_ObjectSpawnPoint.getRandomSpawnPoint();
+            // Wherever the character is now doesn't matter
+            aoObjectsToIgnore = new CopyOnWriteArrayList<HW04_ObjectCollidable>();
+            aoObjectsToIgnore.add(this);
+            
+            // Take a guess about where the character should spawn (random spawn point, with room if possible)
+            oSpawnPoint = HW04_ObjectSpawnPoint.getRandomSpawnPoint(aoObjectsToIgnore, this.getWidth(), this.getHeight());
             nX_px = oSpawnPoint.getPositionX();
             nY_px = oSpawnPoint.getPositionY();
             
-            /* Move the new character object until it has no collisions
+            /* Look around the spawn point until there is a spot with no collisions
              *  This assumes that we won't ever have so many clients that there just isn't room for them all
              *  Risk is mitigated by randomizing the attempt to find a non-colliding spot
              *  This is one of the simplifying assumptions made for the time scale of a HW assignment
+             *  Only ask about each spot (see HW04_CollisionGrid) - the character only moves once a spot is found
              */
             oRandomizer = new Random();
             bFailedToSpawn = false;
             nNumAttempts = 0;
-            while (bFailedToSpawn == false && this.doesObjectCollide() == true) { 
+            while (
+                bFailedToSpawn == false && 
+                isSpaceOccupied(aoObjectsToIgnore, nX_px, nX_px + this.getWidth(), nY_px, nY_px + this.getHeight()) == true
+            ) { 
                 nNumAttempts++;
                 if (nNumAttempts >= N_MAX_ATTEMPTS) {
                     bFailedToSpawn = true;
@@ -721,10 +723,10 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
                 else {
                     nX_px += oRandomizer.nextInt(N_MAX_MOVE_POSITIVE_PX + N_MAX_MOVE_NEGATIVE_PX) - N_MAX_MOVE_NEGATIVE_PX; 
                     nY_px -= oRandomizer.nextInt(N_MAX_MOVE_POSITIVE_PX + N_MAX_MOVE_NEGATIVE_PX) - N_MAX_MOVE_NEGATIVE_PX; 
-                    this.setPositionX(nX_px); 
-                    this.setPositionY(nY_px); 
                 }
             }
+            this.setPositionX(nX_px); 
+            this.setPositionY(nY_px); 
             
             /* If this spawn point is so crowded that we just can't find a spot, 
              * try again, maybe we'll get a different spawn point
@@ -777,12 +779,12 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
                 super.display();
                 
                 // Also display player ID
-                this.getApplet().fill(HW04_Color.black());
-                this.getApplet().textAlign(PConstants.CENTER, PConstants.CENTER);
-                this.getApplet().text(
+                this.getRenderer().fill(HW04_Color.black());
+                this.getRenderer().textAlign(HW04_Renderer.N_ALIGN_CENTER, HW04_Renderer.N_ALIGN_CENTER);
+                this.getRenderer().text(
                     this.getPlayerID(), 
-                    this.getPositionX() + this.getWidth() / 2, 
-                    this.getPositionY() + this.getHeight() / 2
+                    this.getRenderPositionX() + this.getWidth() / 2, 
+                    this.getRenderPositionY() + this.getHeight() / 2
                 );
                 
             }
@@ -862,16 +864,14 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
     @Override
     public void handleEvent (HW04_ObjectEvent oEventToHandle) {
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
-            
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
+            HW04_EventPayloadCollision oCollision;
+            HW04_EventPayloadScoreChange oScoreChange;
+            HW04_EventPayloadSpawn oSpawn;
             
             // USER INPUT
             if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.USER_INPUT) {
@@ -880,48 +880,45 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
             }
             
             // COLLISION
-            else if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION && 
-                ((HW04_ObjectCollidable) oEventArguments.get("oMovedObject")).getGUID() == this.getGUID()
-            ) {
-                // Separate function because it's (relatively) a lot of code
-                this.handleCollision(
-                    (CopyOnWriteArrayList<HW04_ObjectCollidable>) oEventArguments.get("aoCollidingObjects"), 
-                    (float) oEventArguments.get("nOriginalX"),
-                    (float) oEventArguments.get("nOriginalY")
-                );
+            else if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION) {
+                oCollision = (HW04_EventPayloadCollision) oEventToHandle.getPayload();
+                if (oCollision.oMovedObject.getGUID() == this.getGUID()) {
+                    // Separate function because it's (relatively) a lot of code
+                    this.handleCollision(
+                        oCollision.aoCollidingObjects, 
+                        oCollision.nOriginalX,
+                        oCollision.nOriginalY
+                    );
+                }
             }
             
             // SCORE CHANGE
-            else if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.SCORE_CHANGE && 
-                (
-                    oEventArguments.containsKey("oCharacterObject") == false ||
-                    ((HW04_ObjectCollidable) oEventArguments.get("oCharacterObject")).getGUID() == this.getGUID() 
-                )
-            ) {
-                if (oEventArguments.get("bScoreIncrement").equals("TRUE")) {
-                    this.incrementScore();
-                }
-                else {
-                    this.decrementScore();
+            else if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.SCORE_CHANGE) {
+                oScoreChange = (HW04_EventPayloadScoreChange) oEventToHandle.getPayload();
+                if (oScoreChange.oCharacterObject == null || oScoreChange.oCharacterObject.getGUID() == this.getGUID()) {
+                    if (oScoreChange.bScoreIncrement == true) {
+                        this.incrementScore();
+                    }
+                    else {
+                        this.decrementScore();
+                    }
+                    // Either way, re-spawn
+                    O_EVENT_MANAGER.raiseEventSpawn(this);
                 }
-                // Either way, re-spawn
-                O_EVENT_MANAGER.raiseEventSpawn(this);
             }
             
             // SPAWN
-            else if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.SPAWN && 
-                ((HW04_ObjectCollidable) oEventArguments.get("oCharacterObject")).getGUID() == this.getGUID()
-            ) {
-                this.spawn();
+            else if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.SPAWN) {
+                oSpawn = (HW04_EventPayloadSpawn) oEventToHandle.getPayload();
+                if (oSpawn.oCharacterObject.getGUID() == this.getGUID()) {
+                    this.spawn();
+                }
             }
             
             // GAME END
             else if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.GAME_END) {
                 HW04_ScriptManager.loadScript("HW04_Script_GameEnd.js");
-                HW04_ScriptManager.invokeFunction("endGame", (oEventArguments.get("bWon").equals("TRUE")));
+                HW04_ScriptManager.invokeFunction("endGame", ((HW04_EventPayloadGameEnd) oEventToHandle.getPayload()).bWon);
             }
 
         }
@@ -930,4 +927,90 @@ public class HW04_ObjectCharacter extends HW04_ObjectMoveable implements HW04_Ev
         }
     }
    
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeBoolean(this.bJumping);
+        oStream.writeBoolean(this.bJumpAllowed);
+        oStream.writeBoolean(this.bShootingAllowed);
+        oStream.writeInt(this.nPlayerID);
+        oStream.writeInt(this.nJumpHeightAchieved_px);
+        oStream.writeInt(this.nBaseSpeedHorizontal_px_per_sec);
+        oStream.writeInt(this.nBaseSpeedVertical_px_per_sec);
+        oStream.writeInt(this.nScore);
+        HW04_NetworkCodec.writeObjectBinary(oStream, this.oLastCollidedObject);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.bJumping = oStream.readBoolean();
+        this.bJumpAllowed = oStream.readBoolean();
+        this.bShootingAllowed = oStream.readBoolean();
+        this.nPlayerID = oStream.readInt();
+        this.nJumpHeightAchieved_px = oStream.readInt();
+        this.nBaseSpeedHorizontal_px_per_sec = oStream.readInt();
+        this.nBaseSpeedVertical_px_per_sec = oStream.readInt();
+        this.nScore = oStream.readInt();
+        this.oLastCollidedObject = (HW04_ObjectCollidable) HW04_NetworkCodec.readObjectBinary(oStream);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        captureState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Record this object's replicated fields in a state object (see HW04_ObjectDelta)
+     * 
+     * ARGUMENTS:       oState -    The state object to record into
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void captureState (HW04_ObjectDelta oState) {
+        super.captureState(oState);
+        oState.setScore(this.nScore);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        applyState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Patch this object in place with whichever replicated fields a delta carries
+     * 
+     * ARGUMENTS:       oDelta -    The delta to apply
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void applyState (HW04_ObjectDelta oDelta) {
+        super.applyState(oDelta);
+        if (oDelta.hasField(HW04_ObjectDelta.N_FIELD_SCORE) == true) {
+            this.nScore = oDelta.getScore();
+        }
+    }
+    
 }
\ No newline at end of file
@@ -7,22 +7,37 @@
  *************************************************************************************************************/
 
 // IMPORTS
-import java.awt.Rectangle;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.concurrent.CopyOnWriteArrayList;
 
-import processing.core.PApplet;
-
 // CLASS DEFINITION
 public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
     
     // Required for serializable class
     private static final long serialVersionUID = 1L;
     
-    // Object properties (variable)
-    private int nWidth_px;
-    private int nHeight_px;
-    private int nRadius_px;
+    // Be liberal in interpretation of collision (use slightly fudged width and height to consider touching objects collided)
+    private static final int N_FUDGE_FACTOR_PX = 1;
+    
+    // What Java serialization writes (these used to be fields, and are now kept with the position, see HW04_ObjectLocated)
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("nWidth_px", int.class),
+        new ObjectStreamField("nHeight_px", int.class),
+        new ObjectStreamField("nRadius_px", int.class)
+    };
+    
+    // Where this object is in the collision broadphase (maintained by HW04_CollisionGrid, deliberately not initialized here)
+    transient boolean bInGrid;
+    transient int nGridMinX;
+    transient int nGridMinY;
+    transient int nGridMaxX;
+    transient int nGridMaxY;
+    transient int nGridQueryStamp;
     
     // Declare abstract methods
     abstract void handleCollision(
@@ -61,14 +76,30 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
         super(nExistingGUID, nX_px, nY_px);
             
         try {
-            this.nWidth_px =    nWidth_px;
-            this.nHeight_px =   nHeight_px;
-            this.nRadius_px =   nRadius_px;
+            this.storeSize(nWidth_px, nHeight_px, nRadius_px);
+                        
+            // The object joined the game before it had a size, so make sure the broadphase has it in the right cells
+            HW04_CollisionGrid.move(this);
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
         }
-        
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectCollidable Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty collidable object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectCollidable () {
+        // Nothing to do here, fields are filled in by readFields()
     }
     
     /*********************************************************************************************************
@@ -83,27 +114,7 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
      * RETURNS:         aoObjectsRenderable -    All collidable objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectCollidable> getCollidableObjects () {
-        CopyOnWriteArrayList<HW04_ObjectCollidable> aoObjectsCollidable = new CopyOnWriteArrayList<HW04_ObjectCollidable>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectCollidable) {
-                    aoObjectsCollidable.add((HW04_ObjectCollidable) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsCollidable;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectCollidable.class);
     }
     
     /*********************************************************************************************************
@@ -118,7 +129,16 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
      * RETURNS:         nWidth_px - the object's width, in pixels
      *********************************************************************************************************/
     public int getWidth () {
-        return this.nWidth_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anWidth[this.nColumnSlot];
+        }
+        return this.getFields().nWidth_px;
+    
     }
     
     /*********************************************************************************************************
@@ -133,7 +153,16 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
      * RETURNS:         nHeight_px - the object's height, in pixels
      *********************************************************************************************************/
     public int getHeight () {
-        return this.nHeight_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anHeight[this.nColumnSlot];
+        }
+        return this.getFields().nHeight_px;
+    
     }
     
     /*********************************************************************************************************
@@ -148,7 +177,92 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
      * RETURNS:         nRadius_px - the object's radius, in pixels
      *********************************************************************************************************/
     public int getRadius () {
-        return this.nRadius_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anRadius[this.nColumnSlot];
+        }
+        return this.getFields().nRadius_px;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCollisionLeft
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter for the left of the (fudged) rectangle used in collision detection
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nLeft_px - Left of the rectangle, in pixels
+     *********************************************************************************************************/
+    int getCollisionLeft () {
+        return (int) this.getPositionX();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCollisionTop
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter for the top of the (fudged) rectangle used in collision detection
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nTop_px - Top of the rectangle, in pixels
+     *********************************************************************************************************/
+    int getCollisionTop () {
+        return (int) this.getPositionY();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCollisionWidth
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter for the width of the (fudged) rectangle used in collision detection
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nWidth_px - Width of the rectangle, in pixels
+     *********************************************************************************************************/
+    int getCollisionWidth () {
+        return this.getWidth() + N_FUDGE_FACTOR_PX;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCollisionHeight
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter for the height of the (fudged) rectangle used in collision detection
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nHeight_px - Height of the rectangle, in pixels
+     *********************************************************************************************************/
+    int getCollisionHeight () {
+        return this.getHeight() + N_FUDGE_FACTOR_PX;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        positionChanged
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Keep the collision broadphase up to date as this object moves
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void positionChanged () {
+        HW04_CollisionGrid.move(this);
     }
     
     /*********************************************************************************************************
@@ -204,67 +318,58 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
      *                      provides a .intersects() method. 
      *                      If you convert your Processing shapes into java.awt shapes, 
      *                      collision detection should be straightforward."
-     *                  This function uses that hint, but without the use of Processing shapes.
+     *                  This function started out using that hint, but without the use of Processing shapes.
+     *                      It now does the same rectangle test itself (see doRectanglesIntersect),
+     *                      so that the server has no need of AWT (HEADLESS option).
+     *                  It also used to test against every collidable object in the game.
+     *                      It now only tests against objects near this one (see HW04_CollisionGrid).
      *
      * ARGUMENTS:       None
      * 
      * RETURNS:         oCollidedObjects -  The collidable objects that this one collides with.
      *********************************************************************************************************/
     public CopyOnWriteArrayList<HW04_ObjectCollidable> getCollidingObjects () {
+        return HW04_CollisionGrid.getColliding(this, false);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        doRectanglesIntersect
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether two rectangles intersect
+     *                      (the same test as java.awt.Rectangle.intersects, edges touching is not intersecting)
+     *
+     * ARGUMENTS:       nX1_px, nY1_px -            Top left corner of the first rectangle
+     *                  nWidth1_px, nHeight1_px -   Size of the first rectangle
+     *                  nX2_px, nY2_px -            Top left corner of the second rectangle
+     *                  nWidth2_px, nHeight2_px -   Size of the second rectangle
+     * 
+     * RETURNS:         bIntersect -    True if the rectangles intersect
+     *********************************************************************************************************/
+    static boolean doRectanglesIntersect (
+        int nX1_px, 
+        int nY1_px, 
+        int nWidth1_px, 
+        int nHeight1_px, 
+        int nX2_px, 
+        int nY2_px, 
+        int nWidth2_px, 
+        int nHeight2_px
+    ) {
         
-        CopyOnWriteArrayList<HW04_ObjectCollidable> oCollidedObjects = new CopyOnWriteArrayList<HW04_ObjectCollidable>();
-        
-        try {
-            
-            // Declare constants
-            final int N_FUDGE_FACTOR_PX = 1;
-            
-            // Declare variables
-            CopyOnWriteArrayList<HW04_ObjectCollidable> aoObjectsCollidable;
-            HW04_ObjectCollidable oObjectOfComparison;
-            Rectangle oObjectShape1;
-            Rectangle oObjectShape2;
-            int i;
-            
-            /* Find out whether this game object intersects with any other game objects
-             *  The choice to use CopyOnWriteArrayList for the collection of game objects 
-             *      means that collision detection is not terribly efficient.
-             *      This isn't great - we could use a different collection type to get better performance.
-             *      However, for the short timeline of a homework assignment, took the easiest route.
-             *  Be liberal in interpretation of collision 
-             *      (use slightly fudged width and height to consider touching objects collided)
-             */
-            oObjectShape1 = new Rectangle(
-                (int) this.getPositionX(), 
-                (int) this.getPositionY(), 
-                this.getWidth() + N_FUDGE_FACTOR_PX, 
-                this.getHeight() + N_FUDGE_FACTOR_PX
-            );
-            aoObjectsCollidable = getCollidableObjects();
-            for (i = 0; i < aoObjectsCollidable.size(); i++) {
-                if (aoObjectsCollidable.get(i).getGUID() != this.getGUID()) {
-                    oObjectOfComparison = (HW04_ObjectCollidable) aoObjectsCollidable.get(i);
-                    oObjectShape2 = new Rectangle(
-                        (int) oObjectOfComparison.getPositionX(), 
-                        (int) oObjectOfComparison.getPositionY(), 
-                        oObjectOfComparison.getWidth() + N_FUDGE_FACTOR_PX, 
-                        oObjectOfComparison.getHeight() + N_FUDGE_FACTOR_PX
-                    );
-                    if (oObjectShape1.intersects(oObjectShape2)) {
-                        oCollidedObjects.add(oObjectOfComparison);
-                    }
-                }
-            }
-            
-            // Free
-            aoObjectsCollidable = null;
-            
+        // Empty rectangles don't intersect anything
+        if (nWidth1_px <= 0 || nHeight1_px <= 0 || nWidth2_px <= 0 || nHeight2_px <= 0) {
+            return false;
         }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return oCollidedObjects;
         
+        // Each rectangle must start before the other one ends, in both directions
+        return 
+            (long) nX1_px < (long) nX2_px + nWidth2_px && 
+            (long) nX2_px < (long) nX1_px + nWidth1_px && 
+            (long) nY1_px < (long) nY2_px + nHeight2_px && 
+            (long) nY2_px < (long) nY1_px + nHeight1_px;
+    
     }
     
     /*********************************************************************************************************
@@ -274,13 +379,14 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
      *
      * DESCRIPTION:     Determine if this game world object collides with any other game world objects
      *                  Do not return list of colliding objects, so that list may be freed sooner
+     *                  Stop looking at the first colliding object found
      *
      * ARGUMENTS:       None
      * 
      * RETURNS:         bObjectCollides -  True if the object collides
      *********************************************************************************************************/
     public boolean doesObjectCollide () {
-        return this.getCollidingObjects().size() > 0;
+        return HW04_CollisionGrid.getColliding(this, true).size() > 0;
     }
     
     /*********************************************************************************************************
@@ -289,6 +395,8 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     Find out if any collidable game objects that exist in the specified space (x,y range)
+     *                  This used to create a fake game object to look for collisions, then remove it again.
+     *                      It now just asks the collision broadphase, so nothing about the game changes.
      *
      * ARGUMENTS:       oObjectsToIgnore -  The objects where we don't care if they are in the space
      *                  nXMin_px -          Left of the space
@@ -306,55 +414,134 @@ public abstract class HW04_ObjectCollidable extends HW04_ObjectLocated {
         float nYMax_px
     ) {
         
-        boolean bOccupied = false;
-        try {
-            
-            // Declare variables
-            HW04_ObjectPlatformStatic oFakeObject;
-            CopyOnWriteArrayList<HW04_ObjectCollidable> aoCollidingObjects;
-            boolean bMatchToIgnoredObject;
-            int i, j;
-            
-            // Create fake object to look for collisions
-            oFakeObject = new HW04_ObjectPlatformStatic(
-                // Use nonsense GUID
-                0,
-                // X
-                (int) nXMin_px, 
-                // Y
-                (int) nYMin_px, 
-                // Width
-                (int) (nXMax_px - nXMin_px), 
-                // Height
-                (int) (nYMax_px - nYMin_px), 
-                // Applet
-                null
-            );
-            
-            // Find out if this fake object collides with anything we don't specifically want to ignore
-            aoCollidingObjects = oFakeObject.getCollidingObjects();
-            for (i = 0; i < aoCollidingObjects.size(); i++) {
-                bMatchToIgnoredObject = false;
-                for (j = 0; j < oObjectsToIgnore.size(); j++) {
-                    if (aoCollidingObjects.get(i).getGUID() == oObjectsToIgnore.get(j).getGUID()) {
-                        bMatchToIgnoredObject = true;
-                        break;
-                    }
-                }
-                if (bMatchToIgnoredObject == false) {
-                    bOccupied = true;
-                    break;
-                }
-            }
-            
-            // Remove fake object
-            HW04_ObjectGame.removeObjectByGUID(oFakeObject.getGUID());
-            
+        /* Find out if anything we don't specifically want to ignore is in the space
+         *  The space is treated like a collidable object would be (fudged width and height)
+         */
+        return HW04_CollisionGrid.getObjectsInRectangle(
+            HW04_ObjectCollidable.class,
+            oObjectsToIgnore,
+            (int) nXMin_px, 
+            (int) nYMin_px, 
+            (int) (nXMax_px - nXMin_px) + N_FUDGE_FACTOR_PX, 
+            (int) (nYMax_px - nYMin_px) + N_FUDGE_FACTOR_PX
+        ).size() > 0;
+        
+    }
+
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeInt(this.getWidth());
+        oStream.writeInt(this.getHeight());
+        oStream.writeInt(this.getRadius());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.storeSize(oStream.readInt(), oStream.readInt(), oStream.readInt());
+        HW04_CollisionGrid.move(this);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        storeSize
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Keep the size (in this object's slot in a store, if it is in one, see HW04_ObjectLocated)
+     * 
+     * ARGUMENTS:       nWidth_px -     The width of the object
+     *                  nHeight_px -    The height of the object
+     *                  nRadius_px -    The corner radius of the object
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void storeSize (int nWidth_px, int nHeight_px, int nRadius_px) {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        HW04_ObjectFields oFields;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            oChunk.anWidth[this.nColumnSlot] = nWidth_px;
+            oChunk.anHeight[this.nColumnSlot] = nHeight_px;
+            oChunk.anRadius[this.nColumnSlot] = nRadius_px;
         }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
+        else {
+            oFields = this.getFields();
+            oFields.nWidth_px = nWidth_px;
+            oFields.nHeight_px = nHeight_px;
+            oFields.nRadius_px = nRadius_px;
         }
-        return bOccupied;
+    
     }
-
-}
\ No newline at end of file
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields with Java serialization (see serialPersistentFields)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void writeObject (ObjectOutputStream oStream) throws IOException {
+        
+        // Declare variables
+        ObjectOutputStream.PutField oFieldsOut;
+        
+        oFieldsOut = oStream.putFields();
+        oFieldsOut.put("nWidth_px", this.getWidth());
+        oFieldsOut.put("nHeight_px", this.getHeight());
+        oFieldsOut.put("nRadius_px", this.getRadius());
+        oStream.writeFields();
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields with Java serialization (see writeObject)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void readObject (ObjectInputStream oStream) throws IOException, ClassNotFoundException {
+        
+        // Declare variables
+        ObjectInputStream.GetField oFieldsIn;
+        
+        oFieldsIn = oStream.readFields();
+        this.storeSize(oFieldsIn.get("nWidth_px", 0), oFieldsIn.get("nHeight_px", 0), oFieldsIn.get("nRadius_px", 0));
+    
+    }
+    
+}
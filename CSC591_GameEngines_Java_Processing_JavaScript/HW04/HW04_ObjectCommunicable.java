@@ -8,6 +8,9 @@
  *************************************************************************************************************/
 
 // IMPORTS
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.ObjectStreamException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -77,6 +80,41 @@ public class HW04_ObjectCommunicable implements java.io.Serializable {
         return this.nPlayerID;
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec).
+     *                  Every subclass with fields of its own overrides this,
+     *                      writing its superclass's fields first and then its own.
+     *                  The object type is not written here, the codec writes a type tag in front of the fields.
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void writeFields (DataOutputStream oStream) throws IOException {
+        oStream.writeInt(this.nPlayerID);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec).
+     *                  Every subclass with fields of its own overrides this,
+     *                      reading its superclass's fields first and then its own.
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void readFields (DataInputStream oStream) throws IOException {
+        this.nPlayerID = oStream.readInt();
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        castObject
      *
@@ -155,6 +193,9 @@ public class HW04_ObjectCommunicable implements java.io.Serializable {
                 case "HW04_ObjectEventRemoteRegistration":
                     oObject = (HW04_ObjectEventRemoteRegistration) oObject;
                     break;
+                case "HW04_ObjectDelta":
+                    oObject = (HW04_ObjectDelta) oObject;
+                    break;
                 default:
                     throw new Exception("Object type '" + sObjectType + "' not recognized");
             }
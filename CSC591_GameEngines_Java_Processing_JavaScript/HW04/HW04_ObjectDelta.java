@@ -0,0 +1,630 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ObjectDelta.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Define a class of object that represents the replicated fields of one game object
+ *                  (position, speed, hidden / removal flags, score, angle),
+ *                  to be communicated over the network (client-server) instead of the whole game object.
+ *                  A delta only carries the fields that are flagged in it,
+ *                      so that the server can send just what changed since a client last heard about the object
+ *                      (see the DELTA option, and HW04_Replicator).
+ *                  The same class is used for a full record of an object's replicated fields,
+ *                      which is what the server remembers per client per GUID.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// CLASS DEFINITION
+public class HW04_ObjectDelta extends HW04_ObjectCommunicable {
+    
+    // Required for serializable class
+    private static final long serialVersionUID = 1L;
+    
+    // Field flags
+    public static final int N_FIELD_POSITION_X =    0x01;
+    public static final int N_FIELD_POSITION_Y =    0x02;
+    public static final int N_FIELD_SPEED_H =       0x04;
+    public static final int N_FIELD_SPEED_V =       0x08;
+    public static final int N_FIELD_HIDDEN =        0x10;
+    public static final int N_FIELD_REMOVAL =       0x20;
+    public static final int N_FIELD_SCORE =         0x40;
+    public static final int N_FIELD_ANGLE =         0x80;
+    
+    // Private variables
+    private int         nGUID;
+    private int         nFields;
+    private float       nX_px;
+    private float       nY_px;
+    private int         nSpeedH;
+    private int         nSpeedV;
+    private boolean     bHidden;
+    private boolean     bRemoveObject;
+    private int         nScore;
+    private float       nAngle_deg;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectDelta Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for a new delta that does not yet carry any fields
+     *
+     * ARGUMENTS:       nGUID -     The GUID of the game object that the delta describes
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public HW04_ObjectDelta (int nGUID) {
+        try {
+            this.nGUID = nGUID;
+            this.nFields = 0;
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectDelta Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty delta object, to be filled in from a binary message (see HW04_NetworkCodec)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectDelta () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        capture
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Record all of a game object's replicated fields
+     *
+     * ARGUMENTS:       oObject -   The game object
+     *
+     * RETURNS:         oState -    A delta carrying every replicated field the game object has
+     *********************************************************************************************************/
+    public static HW04_ObjectDelta capture (HW04_ObjectGame oObject) {
+        
+        HW04_ObjectDelta oState = null;
+        try {
+            oState = new HW04_ObjectDelta(oObject.getGUID());
+            oObject.captureState(oState);
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oState;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getChangesSince
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Compare this full record of an object's replicated fields with an earlier one
+     *
+     * ARGUMENTS:       oEarlierState -     The earlier record (or null if there isn't one)
+     *
+     * RETURNS:         oChanges -          A delta carrying only the fields that differ
+     *                                          (every field, if there is no earlier record)
+     *                                      Or, null if nothing changed
+     *********************************************************************************************************/
+    public HW04_ObjectDelta getChangesSince (HW04_ObjectDelta oEarlierState) {
+        
+        HW04_ObjectDelta oChanges = null;
+        try {
+            
+            // Declare variables
+            int nChangedFields;
+            
+            // Figure out which fields changed
+            if (oEarlierState == null) {
+                nChangedFields = this.nFields;
+            }
+            else {
+                nChangedFields = this.nFields & ~oEarlierState.nFields;
+                if (this.nX_px != oEarlierState.nX_px) {
+                    nChangedFields |= N_FIELD_POSITION_X;
+                }
+                if (this.nY_px != oEarlierState.nY_px) {
+                    nChangedFields |= N_FIELD_POSITION_Y;
+                }
+                if (this.nSpeedH != oEarlierState.nSpeedH) {
+                    nChangedFields |= N_FIELD_SPEED_H;
+                }
+                if (this.nSpeedV != oEarlierState.nSpeedV) {
+                    nChangedFields |= N_FIELD_SPEED_V;
+                }
+                if (this.bHidden != oEarlierState.bHidden) {
+                    nChangedFields |= N_FIELD_HIDDEN;
+                }
+                if (this.bRemoveObject != oEarlierState.bRemoveObject) {
+                    nChangedFields |= N_FIELD_REMOVAL;
+                }
+                if (this.nScore != oEarlierState.nScore) {
+                    nChangedFields |= N_FIELD_SCORE;
+                }
+                if (this.nAngle_deg != oEarlierState.nAngle_deg) {
+                    nChangedFields |= N_FIELD_ANGLE;
+                }
+                nChangedFields &= this.nFields;
+            }
+            
+            // Copy out just the changed fields
+            if (nChangedFields != 0) {
+                oChanges = new HW04_ObjectDelta(this.nGUID);
+                oChanges.nFields =          nChangedFields;
+                oChanges.nX_px =            this.nX_px;
+                oChanges.nY_px =            this.nY_px;
+                oChanges.nSpeedH =          this.nSpeedH;
+                oChanges.nSpeedV =          this.nSpeedV;
+                oChanges.bHidden =          this.bHidden;
+                oChanges.bRemoveObject =    this.bRemoveObject;
+                oChanges.nScore =           this.nScore;
+                oChanges.nAngle_deg =       this.nAngle_deg;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oChanges;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        mergeWithEarlier
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Combine this delta with an earlier delta for the same game object
+     *                      that has not been sent yet (see HW04_OutboundQueue),
+     *                      so that one message carries everything both of them would have.
+     *                  Where both carry a field, this delta's value wins.
+     *                  Neither delta is changed.
+     *
+     * ARGUMENTS:       oEarlierDelta -     The earlier delta
+     *
+     * RETURNS:         oMerged -           A delta carrying every field either of them carries
+     *********************************************************************************************************/
+    public HW04_ObjectDelta mergeWithEarlier (HW04_ObjectDelta oEarlierDelta) {
+        
+        HW04_ObjectDelta oMerged = null;
+        try {
+            
+            // Start from the earlier delta's values
+            oMerged = new HW04_ObjectDelta(this.nGUID);
+            oMerged.nFields =           oEarlierDelta.nFields | this.nFields;
+            oMerged.nX_px =             oEarlierDelta.nX_px;
+            oMerged.nY_px =             oEarlierDelta.nY_px;
+            oMerged.nSpeedH =           oEarlierDelta.nSpeedH;
+            oMerged.nSpeedV =           oEarlierDelta.nSpeedV;
+            oMerged.bHidden =           oEarlierDelta.bHidden;
+            oMerged.bRemoveObject =     oEarlierDelta.bRemoveObject;
+            oMerged.nScore =            oEarlierDelta.nScore;
+            oMerged.nAngle_deg =        oEarlierDelta.nAngle_deg;
+            
+            // Overlay this delta's values, field by field
+            if (this.hasField(N_FIELD_POSITION_X) == true) {
+                oMerged.nX_px = this.nX_px;
+            }
+            if (this.hasField(N_FIELD_POSITION_Y) == true) {
+                oMerged.nY_px = this.nY_px;
+            }
+            if (this.hasField(N_FIELD_SPEED_H) == true) {
+                oMerged.nSpeedH = this.nSpeedH;
+            }
+            if (this.hasField(N_FIELD_SPEED_V) == true) {
+                oMerged.nSpeedV = this.nSpeedV;
+            }
+            if (this.hasField(N_FIELD_HIDDEN) == true) {
+                oMerged.bHidden = this.bHidden;
+            }
+            if (this.hasField(N_FIELD_REMOVAL) == true) {
+                oMerged.bRemoveObject = this.bRemoveObject;
+            }
+            if (this.hasField(N_FIELD_SCORE) == true) {
+                oMerged.nScore = this.nScore;
+            }
+            if (this.hasField(N_FIELD_ANGLE) == true) {
+                oMerged.nAngle_deg = this.nAngle_deg;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oMerged;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getGUID
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nGUID - The GUID of the game object that the delta describes
+     *********************************************************************************************************/
+    public int getGUID () {
+        return this.nGUID;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nFields -   The N_FIELD_ flags for every field the delta carries
+     *********************************************************************************************************/
+    public int getFields () {
+        return this.nFields;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        hasField
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether the delta carries a field
+     *
+     * ARGUMENTS:       nField -    One of the N_FIELD_ flags
+     *
+     * RETURNS:         bHasField - True if the delta carries the field
+     *********************************************************************************************************/
+    public boolean hasField (int nField) {
+        return (this.nFields & nField) != 0;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getPositionX
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nX_px - The object's X position, in pixels
+     *********************************************************************************************************/
+    public float getPositionX () {
+        return this.nX_px;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setPositionX
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (also flags the field as carried)
+     *
+     * ARGUMENTS:       nX_px - The object's X position, in pixels
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setPositionX (float nX_px) {
+        this.nX_px = nX_px;
+        this.nFields |= N_FIELD_POSITION_X;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getPositionY
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nY_px - The object's Y position, in pixels
+     *********************************************************************************************************/
+    public float getPositionY () {
+        return this.nY_px;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setPositionY
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (also flags the field as carried)
+     *
+     * ARGUMENTS:       nY_px - The object's Y position, in pixels
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setPositionY (float nY_px) {
+        this.nY_px = nY_px;
+        this.nFields |= N_FIELD_POSITION_Y;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getSpeedHorizontal
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nSpeedH -   The object's horizontal speed
+     *********************************************************************************************************/
+    public int getSpeedHorizontal () {
+        return this.nSpeedH;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setSpeedHorizontal
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (also flags the field as carried)
+     *
+     * ARGUMENTS:       nSpeedH -   The object's horizontal speed
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setSpeedHorizontal (int nSpeedH) {
+        this.nSpeedH = nSpeedH;
+        this.nFields |= N_FIELD_SPEED_H;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getSpeedVertical
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nSpeedV -   The object's vertical speed
+     *********************************************************************************************************/
+    public int getSpeedVertical () {
+        return this.nSpeedV;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setSpeedVertical
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (also flags the field as carried)
+     *
+     * ARGUMENTS:       nSpeedV -   The object's vertical speed
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setSpeedVertical (int nSpeedV) {
+        this.nSpeedV = nSpeedV;
+        this.nFields |= N_FIELD_SPEED_V;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getHiddenFlag
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         bHidden -   True if the object is hidden
+     *********************************************************************************************************/
+    public boolean getHiddenFlag () {
+        return this.bHidden;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setHiddenFlag
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (also flags the field as carried)
+     *
+     * ARGUMENTS:       bHidden -   True if the object is hidden
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setHiddenFlag (boolean bHidden) {
+        this.bHidden = bHidden;
+        this.nFields |= N_FIELD_HIDDEN;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getRemovalFlag
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         bRemoveObject - True if the object is flagged for removal
+     *********************************************************************************************************/
+    public boolean getRemovalFlag () {
+        return this.bRemoveObject;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setRemovalFlag
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (also flags the field as carried)
+     *
+     * ARGUMENTS:       bRemoveObject - True if the object is flagged for removal
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setRemovalFlag (boolean bRemoveObject) {
+        this.bRemoveObject = bRemoveObject;
+        this.nFields |= N_FIELD_REMOVAL;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getScore
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nScore -    The character's score
+     *********************************************************************************************************/
+    public int getScore () {
+        return this.nScore;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setScore
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (also flags the field as carried)
+     *
+     * ARGUMENTS:       nScore -    The character's score
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setScore (int nScore) {
+        this.nScore = nScore;
+        this.nFields |= N_FIELD_SCORE;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getAngle
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nAngle_deg -    The arrow's angle
+     *********************************************************************************************************/
+    public float getAngle () {
+        return this.nAngle_deg;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setAngle
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (also flags the field as carried)
+     *
+     * ARGUMENTS:       nAngle_deg -    The arrow's angle
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setAngle (float nAngle_deg) {
+        this.nAngle_deg = nAngle_deg;
+        this.nFields |= N_FIELD_ANGLE;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a binary layout (see HW04_NetworkCodec).
+     *                  Only the fields that the delta carries are written, behind a byte of field flags.
+     *
+     * ARGUMENTS:       oStream -   The stream to write to
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeInt(this.nGUID);
+        oStream.writeByte(this.nFields);
+        if (this.hasField(N_FIELD_POSITION_X) == true) {
+            oStream.writeFloat(this.nX_px);
+        }
+        if (this.hasField(N_FIELD_POSITION_Y) == true) {
+            oStream.writeFloat(this.nY_px);
+        }
+        if (this.hasField(N_FIELD_SPEED_H) == true) {
+            oStream.writeInt(this.nSpeedH);
+        }
+        if (this.hasField(N_FIELD_SPEED_V) == true) {
+            oStream.writeInt(this.nSpeedV);
+        }
+        if (this.hasField(N_FIELD_HIDDEN) == true) {
+            oStream.writeBoolean(this.bHidden);
+        }
+        if (this.hasField(N_FIELD_REMOVAL) == true) {
+            oStream.writeBoolean(this.bRemoveObject);
+        }
+        if (this.hasField(N_FIELD_SCORE) == true) {
+            oStream.writeInt(this.nScore);
+        }
+        if (this.hasField(N_FIELD_ANGLE) == true) {
+            oStream.writeFloat(this.nAngle_deg);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a binary layout (see HW04_NetworkCodec)
+     *
+     * ARGUMENTS:       oStream -   The stream to read from
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.nGUID = oStream.readInt();
+        this.nFields = oStream.readUnsignedByte();
+        if (this.hasField(N_FIELD_POSITION_X) == true) {
+            this.nX_px = oStream.readFloat();
+        }
+        if (this.hasField(N_FIELD_POSITION_Y) == true) {
+            this.nY_px = oStream.readFloat();
+        }
+        if (this.hasField(N_FIELD_SPEED_H) == true) {
+            this.nSpeedH = oStream.readInt();
+        }
+        if (this.hasField(N_FIELD_SPEED_V) == true) {
+            this.nSpeedV = oStream.readInt();
+        }
+        if (this.hasField(N_FIELD_HIDDEN) == true) {
+            this.bHidden = oStream.readBoolean();
+        }
+        if (this.hasField(N_FIELD_REMOVAL) == true) {
+            this.bRemoveObject = oStream.readBoolean();
+        }
+        if (this.hasField(N_FIELD_SCORE) == true) {
+            this.nScore = oStream.readInt();
+        }
+        if (this.hasField(N_FIELD_ANGLE) == true) {
+            this.nAngle_deg = oStream.readFloat();
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ObjectEncoded.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Define a class of object that represents a communicable object which has already been encoded
+ *                      as a frame (see HW04_NetworkCodec and the FRAMED option).
+ *                  The server encodes an update once and puts this same object on every interested client's queue,
+ *                      so the cost of encoding does not grow with the number of clients.
+ *                  The frame is never changed after it is made,
+ *                      so any number of write threads may write it out at the same time.
+ *                  Only the frame goes over the network, never this object itself.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+// CLASS DEFINITION
+public class HW04_ObjectEncoded extends HW04_ObjectCommunicable {
+    
+    // Required for serializable class
+    private static final long serialVersionUID = 1L;
+    
+    // Private variables
+    private final byte[] abFrame;
+    private final transient HW04_ObjectCommunicable oSource;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectEncoded Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for a new encoded object
+     *
+     * ARGUMENTS:       oObject -   The communicable object to encode (as it is right now)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public HW04_ObjectEncoded (HW04_ObjectCommunicable oObject) {
+        this.abFrame = HW04_NetworkCodec.frame(oObject).array();
+        this.oSource = oObject;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getSource
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the communicable object that was encoded
+     *                      (for example, so that an outbound queue can tell which game object an update is about).
+     *                  The object may have changed since it was encoded; the frame has not.
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oSource -   The communicable object that was encoded
+     *********************************************************************************************************/
+    public HW04_ObjectCommunicable getSource () {
+        return this.oSource;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getFrame
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the frame, ready to be written to a channel.
+     *                  Every caller gets its own read-only view (with its own position) of the same bytes.
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oFrame -    Length-prefixed message, positioned at its start
+     *********************************************************************************************************/
+    public ByteBuffer getFrame () {
+        return ByteBuffer.wrap(this.abFrame).asReadOnlyBuffer();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeFrame
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write the frame to a stream.
+     *                  The stream is flushed, unless frames are being collected into packets (PACKETS option).
+     *                  I/O problems are passed up to the caller,
+     *                      who knows whether they mean that a network partner has gone away.
+     *
+     * ARGUMENTS:       oStream -   The stream to write to
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void writeFrame (OutputStream oStream) throws IOException {
+        oStream.write(this.abFrame);
+        if (HW04_Globals.bFramePackets == false) {
+            oStream.flush();
+        }
+    }
+
+}
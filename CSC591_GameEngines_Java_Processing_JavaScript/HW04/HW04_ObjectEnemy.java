@@ -7,11 +7,14 @@
  *************************************************************************************************************/
 
 // IMPORTS
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
-import processing.core.PConstants;
 
 // CLASS DEFINITION
 public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventObserver {
@@ -36,7 +39,14 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
     // Variables (per object)
     private double nTimeOfLastShot_ms =                         -1;
     private int nTimeBetweenShots_ms =                          -1;
-    private boolean bFrontLineEnemy =                            false;
+    private transient int nFormationColumn =                    -1;
+    
+    // What Java serialization writes (the front line flag used to be a field, and is now kept with the position, see HW04_ObjectLocated)
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("nTimeOfLastShot_ms", double.class),
+        new ObjectStreamField("nTimeBetweenShots_ms", int.class),
+        new ObjectStreamField("bFrontLineEnemy", boolean.class)
+    };
 
     /*********************************************************************************************************
      * FUNCTION:        HW04_ObjectEnemy Constructor
@@ -49,7 +59,7 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
      *                                  If -1, a new GUID will be automatically assigned
      *                  nX_px -         The position of the new object on the x axis (0 = left)
      *                  nY_px -         The position of the new object on the y axis (0 = top)
-     *                  oApplet -       A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -     What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
@@ -57,7 +67,7 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
         int nExistingGUID,
         int nX_px,
         int nY_px,
-        PApplet oApplet
+        HW04_Renderer oRenderer
     ) {
         
         // Construct moveable object
@@ -76,8 +86,8 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
             N_RADIUS_PX, 
             // Color
             HW04_Color.getPureColor("Red"),
-            // Applet
-            oApplet,
+            // Renderer
+            oRenderer,
             // Default horizontal speed (pixels per second)
             N_SPEED_PX_PER_SEC,
             // Default vertical speed (pixels per second)
@@ -90,6 +100,21 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectEnemy Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty enemy object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectEnemy () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getEnemyObjects
      *
@@ -102,27 +127,7 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
      * RETURNS:         aoObjectsEnemy -    All enemy objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectEnemy> getEnemyObjects () {
-        CopyOnWriteArrayList<HW04_ObjectEnemy> aoObjectsEnemy = new CopyOnWriteArrayList<HW04_ObjectEnemy>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectEnemy) {
-                    aoObjectsEnemy.add((HW04_ObjectEnemy) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsEnemy;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectEnemy.class);
     }
     
     /*********************************************************************************************************
@@ -154,6 +159,18 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
             // Add one row of enemies starting at the top of the window
             for (i = 0; i < N_NUM_ENEMIES_ONE_ROW; i++) {
                 
+                // Leave alone any spot that still has an enemy in it (just ask, see HW04_CollisionGrid)
+                if (HW04_CollisionGrid.getObjectsInRectangle(
+                    HW04_ObjectEnemy.class,
+                    null,
+                    HW04_ObjectEnemy.getStaticRadius() * 2 * i,
+                    HW04_ObjectStatus.getTotalHeight(),
+                    HW04_ObjectEnemy.getStaticRadius(),
+                    HW04_ObjectEnemy.getStaticRadius()
+                ).size() > 0) {
+                    continue;
+                }
+                
                 // Create enemy
                 oNewEnemy = new HW04_ObjectEnemy(
                     // Get auto GUID
@@ -162,12 +179,15 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
                     HW04_ObjectEnemy.getStaticRadius() * 2 * i,
                     // Y
                     HW04_ObjectStatus.getTotalHeight(),
-                    // Applet
+                    // Renderer
                     null
                 );
                 
                 // Register interest in events that affect the object
-                O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.COLLISION, oNewEnemy, false);
+                O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.COLLISION, oNewEnemy);
+                
+                // Index it at the top of its column (see HW04_EnemyFormation)
+                HW04_EnemyFormation.add(oNewEnemy, i);
                 
                 // Set front line flag
                 if (bFrontLineExists == false) {
@@ -270,6 +290,7 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
             // Declare variables
             CopyOnWriteArrayList<HW04_ObjectEnemy> aoEnemies = null;
             HW04_ObjectEnemy oThisEnemy;
+            boolean[] abCheckForCollisions;
             int i;
             
             // Get object collections
@@ -282,6 +303,7 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
                  *  Why? Moving objects may cause collision events which need to be handled
                  *  It's better not to send collided / funky objects out
                  */
+                abCheckForCollisions = new boolean[aoEnemies.size()];
                 for (i = 0; i < aoEnemies.size(); i++) {
                     
                     // Send update to clients
@@ -289,17 +311,20 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
                     
                     /* Move enemy
                      * Collision checking is expensive so minimize it
+                     *  Only the furthest left and furthest right enemies can reach a side wall first (see HW04_EnemyFormation)
+                     * With the PARALLEL option, all enemies are moved together after this loop
                      */
                     oThisEnemy = aoEnemies.get(i);
-                    if (
-                        oThisEnemy.getPositionX() < (HW04_Utility.getWindowSize() * 0.1) ||
-                        oThisEnemy.getPositionX() > (HW04_Utility.getWindowSize() * 0.9) ||
-                        oThisEnemy.getPositionY() > (HW04_Utility.getWindowSize() * 0.9)
-                    ) {
-                        oThisEnemy.updateLocationAndCheckForCollisions();
-                    }
-                    else {
-                        oThisEnemy.updateLocation();
+                    abCheckForCollisions[i] = 
+                        HW04_EnemyFormation.isOnEdge(oThisEnemy) == true ||
+                        oThisEnemy.getPositionY() > (HW04_Utility.getWindowSize() * 0.9);
+                    if (HW04_Globals.bParallelTick == false) {
+                        if (abCheckForCollisions[i] == true) {
+                            oThisEnemy.updateLocationAndCheckForCollisions();
+                        }
+                        else {
+                            oThisEnemy.updateLocation();
+                        }
                     }
                     
                     /* Don't start counting down to the first shot until there is something to shoot at
@@ -308,11 +333,21 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
                     if (bTargetExists == false) {
                         oThisEnemy.nTimeOfLastShot_ms = O_TIME_MANAGER.getTime();
                     }
-                    
-                    /* Take a shot if it's time to do so
-                     *  Only if you're on the front line   
-                     */
-                    else if (
+                
+                }
+                
+                // Move all enemies together (PARALLEL option)
+                if (HW04_Globals.bParallelTick == true) {
+                    HW04_ParallelTick.updateLocationsAndCheckForCollisions(aoEnemies, abCheckForCollisions);
+                }
+                
+                /* Take a shot if it's time to do so
+                 *  Only if you're on the front line (the lowest enemy in each column, see HW04_EnemyFormation)
+                 */
+                for (i = 0; bTargetExists == true && i < HW04_EnemyFormation.getColumnCount(); i++) {
+                    oThisEnemy = HW04_EnemyFormation.getFront(i);
+                    if (
+                        oThisEnemy != null &&
                         oThisEnemy.getFrontLineEnemy() == true && 
                         (O_TIME_MANAGER.getTime() - oThisEnemy.getTimeOfLastShot()) > oThisEnemy.getTimeBetweenShots()
                     ) {
@@ -323,11 +358,10 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
                         // Reset timer for next shot
                         oThisEnemy.setTimeOfLastShot();
                         oThisEnemy.setTimeBetweenShots();
-                        
-                    }
                     
+                    }
                 }
-                
+            
             }
             
             // Update knowledge of whether there is something to shoot at
@@ -433,7 +467,7 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
      * RETURNS:         bFrontLineEnemy
      *********************************************************************************************************/
     public boolean getFrontLineEnemy () {
-        return this.bFrontLineEnemy;
+        return this.getFlag(HW04_ObjectFields.N_FLAG_FRONT_LINE_ENEMY);
     }
     
     /*********************************************************************************************************
@@ -449,7 +483,38 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
      * RETURNS:         None
      *********************************************************************************************************/
     public void setFrontLineEnemy (boolean bFrontLine) {
-        this.bFrontLineEnemy = bFrontLine;
+        this.setFlag(HW04_ObjectFields.N_FLAG_FRONT_LINE_ENEMY, bFrontLine);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getFormationColumn
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nFormationColumn -  The column this enemy is indexed in (see HW04_EnemyFormation),
+     *                                      -1 if it is not indexed (e.g. on a client)
+     *********************************************************************************************************/
+    int getFormationColumn () {
+        return this.nFormationColumn;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setFormationColumn
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter
+     *
+     * ARGUMENTS:       nColumn -   The column this enemy is indexed in (see HW04_EnemyFormation), -1 if none
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void setFormationColumn (int nColumn) {
+        this.nFormationColumn = nColumn;
     }
     
     /*********************************************************************************************************
@@ -540,35 +605,11 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
     public void destroyEnemy () {
         try {
             
-            // Declare variables
-            CopyOnWriteArrayList<HW04_ObjectEnemy> aoEnemies;
-            HW04_ObjectEnemy oPossibleEnemyToBePromoted;
-            HW04_ObjectEnemy oEnemyToBePromoted;
-            int i;
-            
             // Every destroyed enemy gets you a point
             O_EVENT_MANAGER.raiseEventScoreChange(null, true);
             
-            // If there's another enemy behind you, he is promoted to the "front line" (can shoot)
-            oEnemyToBePromoted = null;
-            aoEnemies = getEnemyObjects();
-            for (i = 0; i < aoEnemies.size(); i++) {
-                oPossibleEnemyToBePromoted = aoEnemies.get(i);
-                if (
-                    oPossibleEnemyToBePromoted.getGUID() != this.getGUID() &&
-                    oPossibleEnemyToBePromoted.getPositionX() > this.getPositionX() - this.getWidth() &&
-                    oPossibleEnemyToBePromoted.getPositionX() < this.getPositionX() + this.getWidth() &&
-                    (
-                        oEnemyToBePromoted == null ||
-                        oPossibleEnemyToBePromoted.getPositionY() > oEnemyToBePromoted.getPositionY()
-                    )
-                ) {
-                    oEnemyToBePromoted = oPossibleEnemyToBePromoted;
-                }
-            }
-            if (oEnemyToBePromoted != null) {
-                oEnemyToBePromoted.setFrontLineEnemy(true);
-            }
+            // If there's another enemy behind you in your column, he is promoted to the "front line" (can shoot)
+            HW04_EnemyFormation.remove(this);
             
             // Destroy enemy
             HW04_Server.removeObjectFromGame(this, -1);
@@ -595,27 +636,23 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
     @Override
     public void handleEvent (HW04_ObjectEvent oEventToHandle) {
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
-            
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
+            HW04_EventPayloadCollision oCollision;
             
             // COLLISION
-            if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION && 
-                ((HW04_ObjectCollidable) oEventArguments.get("oMovedObject")).getGUID() == this.getGUID()
-            ) {
-                this.handleCollision(
-                    (CopyOnWriteArrayList<HW04_ObjectCollidable>) oEventArguments.get("aoCollidingObjects"), 
-                    (float) oEventArguments.get("nOriginalX"),
-                    (float) oEventArguments.get("nOriginalY")
-                );
+            if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION) {
+                oCollision = (HW04_EventPayloadCollision) oEventToHandle.getPayload();
+                if (oCollision.oMovedObject.getGUID() == this.getGUID()) {
+                    this.handleCollision(
+                        oCollision.aoCollidingObjects, 
+                        oCollision.nOriginalX,
+                        oCollision.nOriginalY
+                    );
+                }
             }
 
         }
@@ -624,4 +661,90 @@ public class HW04_ObjectEnemy extends HW04_ObjectMoveable implements HW04_EventO
         }
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeDouble(this.nTimeOfLastShot_ms);
+        oStream.writeInt(this.nTimeBetweenShots_ms);
+        oStream.writeBoolean(this.getFrontLineEnemy());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.nTimeOfLastShot_ms = oStream.readDouble();
+        this.nTimeBetweenShots_ms = oStream.readInt();
+        this.setFrontLineEnemy(oStream.readBoolean());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields with Java serialization (see serialPersistentFields)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void writeObject (ObjectOutputStream oStream) throws IOException {
+        
+        // Declare variables
+        ObjectOutputStream.PutField oFieldsOut;
+        
+        oFieldsOut = oStream.putFields();
+        oFieldsOut.put("nTimeOfLastShot_ms", this.nTimeOfLastShot_ms);
+        oFieldsOut.put("nTimeBetweenShots_ms", this.nTimeBetweenShots_ms);
+        oFieldsOut.put("bFrontLineEnemy", this.getFrontLineEnemy());
+        oStream.writeFields();
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields with Java serialization (see writeObject)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void readObject (ObjectInputStream oStream) throws IOException, ClassNotFoundException {
+        
+        // Declare variables
+        ObjectInputStream.GetField oFieldsIn;
+        
+        oFieldsIn = oStream.readFields();
+        this.nTimeOfLastShot_ms = oFieldsIn.get("nTimeOfLastShot_ms", -1.0);
+        this.nTimeBetweenShots_ms = oFieldsIn.get("nTimeBetweenShots_ms", -1);
+        this.nFormationColumn = -1;
+        this.setFrontLineEnemy(oFieldsIn.get("bFrontLineEnemy", false));
+    
+    }
+    
 }
\ No newline at end of file
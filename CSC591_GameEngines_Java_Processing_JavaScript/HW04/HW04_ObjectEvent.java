@@ -4,12 +4,18 @@
  * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
  *
  * DESCRIPTION:     Define a class of object that represents a game world event
+ *                  An event's arguments are either a typed payload (see HW04_EventPayload),
+ *                      or a map of argument names to values (events received from network partners, or raised with a map),
+ *                      and each is made from the other when first asked for (see getPayload, getEventArguments).
  *************************************************************************************************************/
 
 // IMPORTS
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.Date;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 // CLASS DEFINITION
 public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Comparable<HW04_ObjectEvent> {
@@ -31,6 +37,14 @@ public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Compara
         GAME_END
     }
     
+    // Importance of each event type, by ordinal (worked out once, since events are compared all the time)
+    private static final int[] AN_EVENT_TYPE_VALUES = new int[EventType.values().length];
+    static {
+        for (EventType nEventType : EventType.values()) {
+            AN_EVENT_TYPE_VALUES[nEventType.ordinal()] = getEventTypeValue(nEventType);
+        }
+    }
+    
     // Object properties
     private double                              nTimeReal_ms;
     private double                              nTimeGame_ms;
@@ -40,6 +54,13 @@ public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Compara
     private boolean                             bHandledByOriginator;
     private ConcurrentHashMap<String, Object>   oArgs;
     
+    /* Typed arguments, and pooling (see HW04_EventPool)
+     *  Not sent over the network: partners are sent the map of arguments, as they always have been
+     */
+    private transient HW04_EventPayload         oPayload;
+    private transient boolean                   bPooled;
+    private transient int                       nHolds;
+    
     /*********************************************************************************************************
      * FUNCTION:        HW04_ObjectEvent Constructor
      *
@@ -60,19 +81,177 @@ public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Compara
         
         // Set values
         try {
-            this.nTimeReal_ms =         HW04_Time_Real.getInstance().getTime();
-            this.nTimeGame_ms =         HW04_Time_Game.getInstance().getTime();
-            this.nTimePlayLoop =        HW04_Time_Loop.getPlayInstance().getTime();
+            this.stamp();
             this.nEventType =           nNewEventType;
             this.oArgs =                oNewEventArgs;
-            this.bClient =              HW04_Globals.bClient;
-            this.nPlayerID =            this.bClient ? HW04_Globals.nPlayerID : -1;
-            this.bHandledByOriginator = false;
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
         }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectEvent Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for a new game world event with typed arguments (see HW04_EventPool.acquire)
+     * 
+     * ARGUMENTS:       nNewEventType - An indication of what type of event this is
+     *                  oNewPayload -   Its arguments (filled in by the caller before the event is raised)
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    HW04_ObjectEvent (
+        EventType nNewEventType, 
+        HW04_EventPayload oNewPayload
+    ) {
+        
+        // Set values
+        try {
+            this.stamp();
+            this.nEventType =           nNewEventType;
+            this.oPayload =             oNewPayload;
+            this.nHolds =               1;
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectEvent Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty event object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectEvent () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        stamp
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Stamp the event with the time now, and with whoever is raising it
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void stamp () {
+        this.nTimeReal_ms =         HW04_Time_Real.getInstance().getTime();
+        this.nTimeGame_ms =         HW04_Time_Game.getInstance().getTime();
+        this.nTimePlayLoop =        HW04_Time_Loop.getPlayInstance().getTime();
+        this.bClient =              HW04_Globals.bClient;
+        this.nPlayerID =            this.bClient ? HW04_Globals.nPlayerID : -1;
+        this.bHandledByOriginator = false;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        prepareForReuse
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Make an event taken from HW04_EventPool look new (its payload was cleared when it went into the pool)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    synchronized void prepareForReuse () {
+        this.stamp();
+        this.oArgs = null;
+        this.nHolds = 1;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        clearForPool
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Let go of everything the event refers to (it is going into HW04_EventPool)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    synchronized void clearForPool () {
+        this.oArgs = null;
+        if (this.oPayload != null) {
+            this.oPayload.clear();
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setPooled
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter (set whether the event goes back into HW04_EventPool once nobody is holding on to it)
+     * 
+     * ARGUMENTS:       bNewPooled -    True if so
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    synchronized void setPooled (boolean bNewPooled) {
+        this.bPooled = bNewPooled;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        retain
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Hold on to the event after it has been handled (it won't go back into HW04_EventPool
+     *                      until release has been called once for this, and once by the event manager)
+     *                  Does nothing for events that are not pooled.
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public synchronized void retain () {
+        if (this.bPooled == true) {
+            this.nHolds++;
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        release
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Stop holding on to the event (see retain), putting it back into HW04_EventPool if nobody else is
+     *                  Does nothing for events that are not pooled.
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void release () {
+        
+        // Declare variables
+        boolean bFree = false;
         
+        synchronized (this) {
+            if (this.bPooled == true && this.nHolds > 0) {
+                this.nHolds--;
+                bFree = (this.nHolds == 0);
+            }
+        }
+        if (bFree == true) {
+            HW04_EventPool.release(this);
+        }
+    
     }
     
     /*********************************************************************************************************
@@ -219,32 +398,140 @@ public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Compara
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     Getter
+     * DESCRIPTION:     Getter (for an event with typed arguments, the map is made from them the first time it is asked for,
+     *                      so prefer getPayload)
      * 
      * ARGUMENTS:       None
      * 
-     * RETURNS:         sEventType -   Type of event
+     * RETURNS:         oArgs -     Event arguments, by name
      *********************************************************************************************************/
-    public ConcurrentHashMap<String, Object> getEventArguments () {
+    public synchronized ConcurrentHashMap<String, Object> getEventArguments () {
+        if (this.oArgs == null && this.oPayload != null) {
+            this.oArgs = new ConcurrentHashMap<String, Object>();
+            this.oPayload.writeArguments(this.oArgs);
+        }
         return this.oArgs;
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        copyEventArguments
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put the event's arguments into a map the caller already has
+     *                      (unlike getEventArguments, does not make a map for an event with typed arguments)
+     * 
+     * ARGUMENTS:       oCopy -     The map
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public synchronized void copyEventArguments (ConcurrentHashMap<String, Object> oCopy) {
+        if (this.oArgs != null) {
+            oCopy.putAll(this.oArgs);
+        }
+        else if (this.oPayload != null) {
+            this.oPayload.writeArguments(oCopy);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getPayload
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter (for an event that only has a map of arguments, the payload is made from it the first time it is asked for)
+     *                  Cast to the subclass for the event type, e.g. HW04_EventPayloadCollision for a COLLISION event.
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         oPayload -  Typed event arguments (null for a wildcard event)
+     *********************************************************************************************************/
+    public synchronized HW04_EventPayload getPayload () {
+        if (this.oPayload == null) {
+            this.oPayload = HW04_EventPayload.create(this.nEventType);
+            if (this.oPayload != null && this.oArgs != null) {
+                this.oPayload.readArguments(this.oArgs);
+            }
+        }
+        return this.oPayload;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getSubject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the game object that the event is about, if any:
+     *                      - COLLISION:            The object that moved (and collided)
+     *                      - GAME_OBJECT_CHANGE:   The object that changed
+     *                      - SPAWN, SCORE_CHANGE:  The character (a score change may be about every character)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         oSubject -  The game object (or null if the event is not about any one game object)
+     *********************************************************************************************************/
+    public HW04_ObjectGame getSubject () {
+        
+        HW04_ObjectGame oSubject = null;
+        try {
+            
+            switch (this.nEventType) {
+                case COLLISION:
+                    oSubject = ((HW04_EventPayloadCollision) this.getPayload()).oMovedObject;
+                    break;
+                case GAME_OBJECT_CHANGE:
+                    oSubject = ((HW04_EventPayloadGameObjectChange) this.getPayload()).oGameObject;
+                    break;
+                case SPAWN:
+                    oSubject = ((HW04_EventPayloadSpawn) this.getPayload()).oCharacterObject;
+                    break;
+                case SCORE_CHANGE:
+                    oSubject = ((HW04_EventPayloadScoreChange) this.getPayload()).oCharacterObject;
+                    break;
+                default:
+                    break;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oSubject;
+    
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getEventTypeValue
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     Get some first guess about the importance of an event based on its type
+     *                      (also the lane it waits in, with the LANES option, see HW04_EventLanes)
      * 
      * ARGUMENTS:       None
      * 
      * RETURNS:         nEventTypeValue -   Bigger number = more important event
      *********************************************************************************************************/
-    private int getEventTypeValue () {
+    int getEventTypeValue () {
+        return AN_EVENT_TYPE_VALUES[this.nEventType.ordinal()];
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getEventTypeValue
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get some first guess about the importance of a type of event
+     * 
+     * ARGUMENTS:       nEventType -        The event type
+     * 
+     * RETURNS:         nEventTypeValue -   Bigger number = more important event (0 or more)
+     *********************************************************************************************************/
+    static int getEventTypeValue (EventType nEventType) {
         int nEventTypeValue = 0;
         try {
-
-            switch (this.nEventType) {
+            
+            switch (nEventType) {
                 case WILDCARD:
                     nEventTypeValue = 0;
                     break;
@@ -276,7 +563,7 @@ public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Compara
                     nEventTypeValue = 7;
                     break;
                 default:
-                    throw new Exception ("Unknown event type " + this.nEventType);
+                    throw new Exception ("Unknown event type " + nEventType);
             }
 
         }
@@ -297,7 +584,6 @@ public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Compara
      * 
      * RETURNS:         String describing event
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
     public String toString () {
         
         // Declare variables
@@ -308,7 +594,7 @@ public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Compara
         bCollisionEvent = this.getEventType() == HW04_ObjectEvent.EventType.COLLISION;
         if (bCollisionEvent == true) {
             sFirstCollidedObjectType = 
-                ((CopyOnWriteArrayList<HW04_ObjectCollidable>) this.getEventArguments().get("aoCollidingObjects")).get(0).getType();
+                ((HW04_EventPayloadCollision) this.getPayload()).aoCollidingObjects.get(0).getType();
         }
         
         // Build & return string
@@ -326,4 +612,67 @@ public class HW04_ObjectEvent extends HW04_ObjectCommunicable implements Compara
     
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeDouble(this.nTimeReal_ms);
+        oStream.writeDouble(this.nTimeGame_ms);
+        oStream.writeDouble(this.nTimePlayLoop);
+        oStream.writeByte(this.nEventType.ordinal());
+        oStream.writeBoolean(this.bClient);
+        oStream.writeBoolean(this.bHandledByOriginator);
+        HW04_NetworkCodec.writeArguments(oStream, this.getEventArguments());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.nTimeReal_ms = oStream.readDouble();
+        this.nTimeGame_ms = oStream.readDouble();
+        this.nTimePlayLoop = oStream.readDouble();
+        this.nEventType = EventType.values()[oStream.readUnsignedByte()];
+        this.bClient = oStream.readBoolean();
+        this.bHandledByOriginator = oStream.readBoolean();
+        this.oArgs = HW04_NetworkCodec.readArguments(oStream);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object with Java serialization (make sure the map of arguments is there to be written,
+     *                      since the typed arguments are not written)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void writeObject (ObjectOutputStream oStream) throws IOException {
+        this.getEventArguments();
+        oStream.defaultWriteObject();
+    }
+    
 }
\ No newline at end of file
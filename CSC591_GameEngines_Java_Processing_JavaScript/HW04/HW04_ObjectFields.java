@@ -0,0 +1,51 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ObjectFields.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     The values of a located game object (where it is, how big it is, what color, how fast it goes, and flags)
+ *                      for an object that is not kept in a column store.
+ *                  These used to be fields of HW04_ObjectLocated and its subclasses.
+ *                      They are kept apart from the object so that an object in a column store
+ *                      can do without them altogether: its values live in its slot instead (see HW04_ColumnStore).
+ *                  The object's own getters and setters decide which to use, so nothing else needs to know,
+ *                      and Java serialization still writes them as the object's fields (see HW04_ObjectLocated.writeObject).
+ *************************************************************************************************************/
+
+// IMPORTS
+// None
+
+// CLASS DEFINITION
+public class HW04_ObjectFields {
+    
+    // Flags (bits of nFlags, and of the flags column in a store)
+    static final int    N_FLAG_HAS_PREVIOUS_POSITION =  1;
+    static final int    N_FLAG_HIDDEN =                 2;
+    static final int    N_FLAG_SHOOTER_BUBBLE =         4;
+    static final int    N_FLAG_POP_PENDING =            8;
+    static final int    N_FLAG_FRONT_LINE_ENEMY =       16;
+    
+    // Position (see HW04_ObjectLocated)
+    float               nX_px;
+    float               nY_px;
+    float               nReplayTeleportX_px;
+    float               nReplayTeleportY_px;
+    float               nPreviousX_px;
+    float               nPreviousY_px;
+    
+    // Size (see HW04_ObjectCollidable)
+    int                 nWidth_px;
+    int                 nHeight_px;
+    int                 nRadius_px;
+    
+    // Color (see HW04_ObjectRenderable)
+    HW04_Color          oColor;
+    
+    // Speed (see HW04_ObjectMoveable)
+    int                 nSpeedHorizontal_px_per_sec;
+    int                 nSpeedVertical_px_per_sec;
+    
+    // Flags
+    int                 nFlags;
+
+}
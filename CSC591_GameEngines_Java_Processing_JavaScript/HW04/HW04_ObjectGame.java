@@ -5,15 +5,18 @@
  *
  * DESCRIPTION:     Define a class of object that represents a basic game object.
  *                  Maintain a collection of all game objects.
- *                  Game objects are maintained as a hash map for easy lookup / replace / remove.
+ *                  Game objects are maintained in a registry for easy lookup / replace / remove (see HW04_ObjectRegistry).
  *                  Game objects are exposed to the rest of the game engine in array lists.
  *                      This is for historical (not ripping apart tons of code) reasons,
  *                      as game objects were maintained in an array list in a previous version.
+ *                      The registry keeps these lists up to date by class, so they needn't be built on every call.
  *************************************************************************************************************/
 
 // IMPORTS
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.ObjectStreamException;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 // CLASS DEFINITION
@@ -22,8 +25,13 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
     // Required for serializable class
     private static final long serialVersionUID = 1L;
     
-    //  Maintain collection of all game objects
-    private static ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = new ConcurrentHashMap<Integer, HW04_ObjectGame>();
+    /* GUIDs
+     *  The low bits are an index (handed out in order), the high bits a generation (normally 0)
+     *  An object that is reused gets the next generation of its GUID (POOL option, see HW04_ObjectPool)
+     */
+    static final int        N_GUID_INDEX_BITS =     24;
+    static final int        N_GUID_INDEX_MASK =     (1 << N_GUID_INDEX_BITS) - 1;
+    static final int        N_GUID_GENERATIONS =    1 << (31 - N_GUID_INDEX_BITS);
     
     // Object properties
     static private int      nNextGUID = 1;
@@ -54,8 +62,11 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
             }
             else {
                 
-                // Set GUID
+                // Set GUID (with the POOL option, the index must leave room for a generation)
                 if (nExistingGUID < 0) {
+                    if (HW04_Globals.bObjectPooling == true && nNextGUID > N_GUID_INDEX_MASK) {
+                        throw new Exception("Out of GUIDs for '" + this.getType() + "' game object");
+                    }
                     this.nGUID = nNextGUID;
                     nNextGUID++;
                 }
@@ -77,6 +88,22 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
         }
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectGame Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty game object, to be filled in from a binary message (see HW04_NetworkCodec)
+     *                  Unlike the other constructor, this does not assign a GUID or add the object to the collection of game objects.
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectGame () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getRemovalFlag
      *
@@ -122,6 +149,44 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
         return this.nGUID;
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        prepareForReuse
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get an object that has left the game ready to come back (POOL option, see HW04_ObjectPool)
+     *                  It gets the next generation of its GUID (so that nothing still referring to its old GUID finds it),
+     *                      and is no longer flagged for removal
+     *                  Subclasses reset whatever else they must
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void prepareForReuse () {
+        this.nGUID = 
+            (this.nGUID & N_GUID_INDEX_MASK) | 
+            ((((this.nGUID >>> N_GUID_INDEX_BITS) + 1) % N_GUID_GENERATIONS) << N_GUID_INDEX_BITS);
+        this.bRemoveObject = false;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        rejoinGame
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put an object taken from a pool back in the game (POOL option, see HW04_ObjectPool)
+     *                      The caller should already have reset whatever is particular to the object (position, speed...)
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void rejoinGame () {
+        this.prepareForReuse();
+        addToGameObjects(this);
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getGameObjects
      *
@@ -131,10 +196,10 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
      *
      * ARGUMENTS:       None
      * 
-     * RETURNS:         oObjectsGame - Collection of all game objects (hashmap, key is object GUID)
+     * RETURNS:         aoObjectsGame - All game objects, in GUID order (must not be changed, see HW04_ObjectRegistry)
      *********************************************************************************************************/
-    public static ConcurrentHashMap<Integer, HW04_ObjectGame> getGameObjects () {
-        return oObjectsGame;
+    public static CopyOnWriteArrayList<HW04_ObjectGame> getGameObjects () {
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectGame.class);
     }
     
     /*********************************************************************************************************
@@ -149,9 +214,16 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
      * RETURNS:         None
      *********************************************************************************************************/
     public static void addToGameObjects (HW04_ObjectGame oNewObject) {
-        if (oObjectsGame.containsKey(oNewObject.nGUID) == false) {
+        if (HW04_ObjectRegistry.get(oNewObject.nGUID) == null) {
             HW04_ObjectCommunicable.castObject(oNewObject);
-            oObjectsGame.put(oNewObject.nGUID, oNewObject);
+            if (HW04_ObjectRegistry.add(oNewObject) == true) {
+                if (oNewObject instanceof HW04_ObjectCollidable) {
+                    HW04_CollisionGrid.add((HW04_ObjectCollidable) oNewObject);
+                }
+                if (HW04_ColumnStore.isStoredKind(oNewObject) == true) {
+                    HW04_ColumnStore.add((HW04_ObjectMoveable) oNewObject);
+                }
+            }
         }
     }
     
@@ -170,9 +242,7 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
         HW04_ObjectGame oObjectGame = null;
         try {
             
-            if (oObjectsGame.containsKey(nGUID) == true) {
-                oObjectGame = oObjectsGame.get(nGUID);
-            }
+            oObjectGame = HW04_ObjectRegistry.get(nGUID);
             
         }
         catch (Throwable oError) {
@@ -238,9 +308,21 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
                     bShootingAllowed = ((HW04_ObjectCharacter) getObjectByGUID(nGUID)).getShootingAllowed();
                 }
                 
-                // Cast and replace
+                // Cast and replace (in the collision broadphase and column store too)
                 HW04_ObjectCommunicable.castObject(oObjectGame);
-                oObjectsGame.replace(nGUID, oObjectGame);
+                if (getObjectByGUID(nGUID) instanceof HW04_ObjectCollidable) {
+                    HW04_CollisionGrid.remove((HW04_ObjectCollidable) getObjectByGUID(nGUID));
+                }
+                if (getObjectByGUID(nGUID) instanceof HW04_ObjectMoveable) {
+                    HW04_ColumnStore.remove((HW04_ObjectMoveable) getObjectByGUID(nGUID));
+                }
+                HW04_ObjectRegistry.replace(oObjectGame);
+                if (oObjectGame instanceof HW04_ObjectCollidable) {
+                    HW04_CollisionGrid.add((HW04_ObjectCollidable) oObjectGame);
+                }
+                if (HW04_ColumnStore.isStoredKind(oObjectGame) == true) {
+                    HW04_ColumnStore.add((HW04_ObjectMoveable) oObjectGame);
+                }
                 
                 // Fix certain flags
                 if (oObjectGame instanceof HW04_ObjectLocated) {
@@ -263,6 +345,54 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        replaceObjectByGUID
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Patch a game object in the game object collection in place, by its GUID,
+     *                      with just the fields that changed (DELTA option)
+     *
+     * ARGUMENTS:       nGUID -         GUID of desired game object
+     *                  oDelta -        Changed fields
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void replaceObjectByGUID (int nGUID, HW04_ObjectDelta oDelta) {
+        try {
+            
+            // Declare variables
+            boolean bHidden = false;
+            
+            // Check for problems
+            if (getObjectByGUID(nGUID) == null) {
+                throw new Exception("Object with GUID " + nGUID + " not found, so we cannot patch it");
+            }
+            else {
+                
+                /* Save hidden flag
+                 * As with a whole replacement, this is an attribute of an object that the CLIENT controls
+                 */
+                if (getObjectByGUID(nGUID) instanceof HW04_ObjectRenderable) {
+                    bHidden = ((HW04_ObjectRenderable) getObjectByGUID(nGUID)).getHiddenFlag();
+                }
+                
+                // Patch
+                getObjectByGUID(nGUID).applyState(oDelta);
+                
+                // Fix certain flags
+                if (getObjectByGUID(nGUID) instanceof HW04_ObjectRenderable) {
+                    ((HW04_ObjectRenderable) getObjectByGUID(nGUID)).setHiddenFlag(bHidden);
+                }
+            
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        replaceObject
      *
@@ -292,10 +422,20 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
     public static HW04_ObjectGame removeObjectByGUID (int nGUID) {
         
         // Deregister interest in any events
-        HW04_EventManager.getInstance().deRegisterForEvents(oObjectsGame.get(nGUID));
+        HW04_EventManager.getInstance().deRegisterForEvents(HW04_ObjectRegistry.get(nGUID));
+        
+        // Remove from collision broadphase
+        if (HW04_ObjectRegistry.get(nGUID) instanceof HW04_ObjectCollidable) {
+            HW04_CollisionGrid.remove((HW04_ObjectCollidable) HW04_ObjectRegistry.get(nGUID));
+        }
+        
+        // Remove from column store (COLUMNS option)
+        if (HW04_ObjectRegistry.get(nGUID) instanceof HW04_ObjectMoveable) {
+            HW04_ColumnStore.remove((HW04_ObjectMoveable) HW04_ObjectRegistry.get(nGUID));
+        }
         
         // Remove from game object collections and return
-        return oObjectsGame.remove(nGUID);
+        return HW04_ObjectRegistry.remove(nGUID);
     }
     
     /*********************************************************************************************************
@@ -313,4 +453,76 @@ public class HW04_ObjectGame extends HW04_ObjectCommunicable implements java.io.
         return removeObjectByGUID(oObjectToRemove.getGUID());
     }
     
-}
\ No newline at end of file
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeInt(this.nGUID);
+        oStream.writeBoolean(this.bRemoveObject);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.nGUID = oStream.readInt();
+        this.bRemoveObject = oStream.readBoolean();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        captureState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Record this object's replicated fields in a state object (see HW04_ObjectDelta).
+     *                  Every subclass with replicated fields of its own overrides this,
+     *                      recording its superclass's fields first and then its own.
+     * 
+     * ARGUMENTS:       oState -    The state object to record into
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void captureState (HW04_ObjectDelta oState) {
+        oState.setRemovalFlag(this.bRemoveObject);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        applyState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Patch this object in place with whichever replicated fields a delta carries.
+     *                  Every subclass with replicated fields of its own overrides this,
+     *                      patching its superclass's fields first and then its own.
+     * 
+     * ARGUMENTS:       oDelta -    The delta to apply
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void applyState (HW04_ObjectDelta oDelta) {
+        if (oDelta.hasField(HW04_ObjectDelta.N_FIELD_REMOVAL) == true) {
+            this.bRemoveObject = oDelta.getRemovalFlag();
+        }
+    }
+    
+}
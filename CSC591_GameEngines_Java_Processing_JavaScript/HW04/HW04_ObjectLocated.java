@@ -7,7 +7,12 @@
  *************************************************************************************************************/
 
 // IMPORTS
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 // CLASS DEFINITION
@@ -16,12 +21,22 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
     // Required for serializable class
     private static final long serialVersionUID = 1L;
     
-    // Object properties (variable)
-    private float nX_px;
-    private float nY_px;
-    private float nReplayTeleportX_px;
-    private float nReplayTeleportY_px;
+    // What Java serialization writes (these used to be fields, and are now kept in oFields or a slot)
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("nX_px", float.class),
+        new ObjectStreamField("nY_px", float.class),
+        new ObjectStreamField("nReplayTeleportX_px", float.class),
+        new ObjectStreamField("nReplayTeleportY_px", float.class)
+    };
     
+    /* Where this object's values live (position here, and size, color, speed and flags in subclasses):
+     *  in a slot, for an object kept in a column store (COLUMNS option, see HW04_ColumnStore),
+     *  or else in an object of their own (made when first needed, see getFields)
+     */
+    private transient HW04_ObjectFields oFields;
+    transient volatile HW04_ColumnChunk oColumnChunk;
+    transient int nColumnSlot;
+
     /*********************************************************************************************************
      * FUNCTION:        HW04_ObjectLocated Constructor
      *
@@ -48,13 +63,13 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
         // Set values
         try {
             
-            // Set straightforward values
-            this.nX_px = nX_px;
-            this.nY_px = nY_px;
+            // Set straightforward values (this object may already be in a store, see HW04_ObjectGame.addToGameObjects)
+            this.storePositionX(nX_px);
+            this.storePositionY(nY_px);
             
             // Set defaults for teleport so we can see if they have ever been given "real" values
-            this.nReplayTeleportX_px = -1;
-            this.nReplayTeleportY_px = -1;
+            this.setReplayTeleportX(-1);
+            this.setReplayTeleportY(-1);
             
         }
         catch (Throwable oError) {
@@ -63,6 +78,21 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectLocated Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty located object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectLocated () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getLocatedObjects
      *
@@ -75,27 +105,7 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
      * RETURNS:         aoObjectsLocated -    All located objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectLocated> getLocatedObjects () {
-        CopyOnWriteArrayList<HW04_ObjectLocated> aoObjectsLocated = new CopyOnWriteArrayList<HW04_ObjectLocated>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectLocated) {
-                    aoObjectsLocated.add((HW04_ObjectLocated) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsLocated;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectLocated.class);
     }
    
     /*********************************************************************************************************
@@ -110,7 +120,16 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
      * RETURNS:         nX_px - The object's X position, in pixels
      *********************************************************************************************************/
     public float getPositionX () {
-        return this.nX_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anX[this.nColumnSlot];
+        }
+        return this.getFields().nX_px;
+    
     }
     
     /*********************************************************************************************************
@@ -119,7 +138,7 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     Setter
-     *                  Enforce window boundaries as a safeguard
+     *                  Enforce game world boundaries as a safeguard
      *
      * ARGUMENTS:       nX_px - The object's X position, in pixels
      * 
@@ -136,24 +155,25 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
             nMinX_px = 0;
             if (this instanceof HW04_ObjectRenderable) {
                 nMaxX_px = 
-                    HW04_Utility.getWindowSize() - 
+                    HW04_Utility.getWorldWidth() - 
                     ((HW04_ObjectRenderable) this).getWidth();
             }
             else {
-                nMaxX_px = HW04_Utility.getWindowSize();
+                nMaxX_px = HW04_Utility.getWorldWidth();
             }
             
             // Set position
             if (nX_px < nMinX_px) {
-                this.nX_px = nMinX_px;
+                this.storePositionX(nMinX_px);
             }
             else if (nX_px > nMaxX_px) {
-                this.nX_px = nMaxX_px;
+                this.storePositionX(nMaxX_px);
             }
             else {
-                this.nX_px = nX_px;
+                this.storePositionX(nX_px);
             }
-            
+            this.positionChanged();
+
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -172,7 +192,16 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
      * RETURNS:         nY_px - The object's Y position, in pixels
      *********************************************************************************************************/
     public float getPositionY () {
-        return this.nY_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anY[this.nColumnSlot];
+        }
+        return this.getFields().nY_px;
+    
     }
     
     /*********************************************************************************************************
@@ -207,21 +236,164 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
             
             // Set position
             if (nY_px < nMinY_px) {
-                this.nY_px = nMinY_px;
+                this.storePositionY(nMinY_px);
             }
             else if (nY_px > nMaxY_px) {
-                this.nY_px = nMaxY_px;
+                this.storePositionY(nMaxY_px);
             }
             else {
-                this.nY_px = nY_px;
+                this.storePositionY(nY_px);
+            }
+            this.positionChanged();
+
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        positionChanged
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Called whenever this object's position has been set
+     *                  Nothing to do here, but subclasses may need to keep up (see HW04_ObjectCollidable)
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void positionChanged () {
+        // Nothing to do here
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        rememberPositions
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Remember where every located object is, just before a fixed step moves things (FIXED option),
+     *                      so that rendering can show objects part way between their last two positions.
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void rememberPositions () {
+        try {
+            
+            // Declare variables
+            CopyOnWriteArrayList<HW04_ObjectLocated> aoObjectsLocated = getLocatedObjects();
+            HW04_ObjectLocated oObjectLocated;
+            int i;
+            
+            // Remember every located object's position
+            for (i = 0; i < aoObjectsLocated.size(); i++) {
+                oObjectLocated = aoObjectsLocated.get(i);
+                oObjectLocated.rememberPosition();
             }
             
+            // Free
+            aoObjectsLocated = null;
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
         }
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        rememberPosition
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Remember where this object is, just before a fixed step moves things (see rememberPositions)
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void rememberPosition () {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            oChunk.anPreviousX[this.nColumnSlot] = oChunk.anX[this.nColumnSlot];
+            oChunk.anPreviousY[this.nColumnSlot] = oChunk.anY[this.nColumnSlot];
+        }
+        else {
+            this.getFields().nPreviousX_px = this.getFields().nX_px;
+            this.getFields().nPreviousY_px = this.getFields().nY_px;
+        }
+        this.setFlag(HW04_ObjectFields.N_FLAG_HAS_PREVIOUS_POSITION, true);
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getRenderPositionX
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the X position at which to draw the object.
+     *                  With the FIXED option, this is part way between the object's last two positions,
+     *                      depending on how far game time has got towards the next step,
+     *                      so that movement looks smooth even when frames and steps don't line up.
+     *                  Otherwise (or if the object hasn't been through a step here yet), it is just the position.
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nX_px - The X position to draw at, in pixels
+     *********************************************************************************************************/
+    public float getRenderPositionX () {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        float nPreviousX_px;
+        
+        if (HW04_Globals.bFixedTimestep == true && this.getFlag(HW04_ObjectFields.N_FLAG_HAS_PREVIOUS_POSITION) == true) {
+            oChunk = this.oColumnChunk;
+            nPreviousX_px = oChunk != null ? oChunk.anPreviousX[this.nColumnSlot] : this.getFields().nPreviousX_px;
+            return (float) (
+                nPreviousX_px + 
+                (this.getPositionX() - nPreviousX_px) * HW04_Time_Loop.getPlayInstance().getInterpolation()
+            );
+        }
+        return this.getPositionX();
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getRenderPositionY
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the Y position at which to draw the object (see getRenderPositionX)
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nY_px - The Y position to draw at, in pixels
+     *********************************************************************************************************/
+    public float getRenderPositionY () {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        float nPreviousY_px;
+        
+        if (HW04_Globals.bFixedTimestep == true && this.getFlag(HW04_ObjectFields.N_FLAG_HAS_PREVIOUS_POSITION) == true) {
+            oChunk = this.oColumnChunk;
+            nPreviousY_px = oChunk != null ? oChunk.anPreviousY[this.nColumnSlot] : this.getFields().nPreviousY_px;
+            return (float) (
+                nPreviousY_px + 
+                (this.getPositionY() - nPreviousY_px) * HW04_Time_Loop.getPlayInstance().getInterpolation()
+            );
+        }
+        return this.getPositionY();
+    
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getReplayTeleportX
      *
@@ -234,7 +406,16 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
      * RETURNS:         nTeleportX_px - The object's X position, in pixels
      *********************************************************************************************************/
     public float getReplayTeleportX () {
-        return this.nReplayTeleportX_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anReplayTeleportX[this.nColumnSlot];
+        }
+        return this.getFields().nReplayTeleportX_px;
+    
     }
     
     /*********************************************************************************************************
@@ -249,7 +430,18 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
      * RETURNS:         None
      *********************************************************************************************************/
     public void setReplayTeleportX (float nTeleportX_px) {
-        this.nReplayTeleportX_px = nTeleportX_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            oChunk.anReplayTeleportX[this.nColumnSlot] = nTeleportX_px;
+        }
+        else {
+            this.getFields().nReplayTeleportX_px = nTeleportX_px;
+        }
+    
     }
     
     /*********************************************************************************************************
@@ -264,7 +456,16 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
      * RETURNS:         nTeleportY_px - The object's Y position, in pixels
      *********************************************************************************************************/
     public float getReplayTeleportY () {
-        return this.nReplayTeleportY_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anReplayTeleportY[this.nColumnSlot];
+        }
+        return this.getFields().nReplayTeleportY_px;
+    
     }
     
     /*********************************************************************************************************
@@ -279,7 +480,367 @@ public class HW04_ObjectLocated extends HW04_ObjectGame {
      * RETURNS:         None
      *********************************************************************************************************/
     public void setReplayTeleportY (float nTeleportY_px) {
-        this.nReplayTeleportY_px = nTeleportY_px;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            oChunk.anReplayTeleportY[this.nColumnSlot] = nTeleportY_px;
+        }
+        else {
+            this.getFields().nReplayTeleportY_px = nTeleportY_px;
+        }
+    
     }
 
-}
\ No newline at end of file
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeFloat(this.getPositionX());
+        oStream.writeFloat(this.getPositionY());
+        oStream.writeFloat(this.getReplayTeleportX());
+        oStream.writeFloat(this.getReplayTeleportY());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.storePositionX(oStream.readFloat());
+        this.storePositionY(oStream.readFloat());
+        this.setReplayTeleportX(oStream.readFloat());
+        this.setReplayTeleportY(oStream.readFloat());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        captureState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Record this object's replicated fields in a state object (see HW04_ObjectDelta)
+     * 
+     * ARGUMENTS:       oState -    The state object to record into
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void captureState (HW04_ObjectDelta oState) {
+        super.captureState(oState);
+        oState.setPositionX(this.getPositionX());
+        oState.setPositionY(this.getPositionY());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        applyState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Patch this object in place with whichever replicated fields a delta carries
+     * 
+     * ARGUMENTS:       oDelta -    The delta to apply
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void applyState (HW04_ObjectDelta oDelta) {
+        super.applyState(oDelta);
+        if (oDelta.hasField(HW04_ObjectDelta.N_FIELD_POSITION_X) == true) {
+            this.storePositionX(oDelta.getPositionX());
+        }
+        if (oDelta.hasField(HW04_ObjectDelta.N_FIELD_POSITION_Y) == true) {
+            this.storePositionY(oDelta.getPositionY());
+        }
+        this.positionChanged();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        storePositionX
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Keep the X position (in this object's slot in a store, if it is in one, otherwise in this object)
+     * 
+     * ARGUMENTS:       nX_px - The object's X position, in pixels
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void storePositionX (float nX_px) {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            oChunk.anX[this.nColumnSlot] = nX_px;
+        }
+        else {
+            this.getFields().nX_px = nX_px;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        storePositionY
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Keep the Y position (see storePositionX)
+     * 
+     * ARGUMENTS:       nY_px - The object's Y position, in pixels
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void storePositionY (float nY_px) {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            oChunk.anY[this.nColumnSlot] = nY_px;
+        }
+        else {
+            this.getFields().nY_px = nY_px;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        prepareForReuse
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get an object that has left the game ready to come back (see HW04_ObjectGame.prepareForReuse)
+     *                      It has no previous position to draw from, and hasn't been teleported (replay)
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void prepareForReuse () {
+        super.prepareForReuse();
+        this.setFlag(HW04_ObjectFields.N_FLAG_HAS_PREVIOUS_POSITION, false);
+        this.setReplayTeleportX(-1);
+        this.setReplayTeleportY(-1);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        resetPosition
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Put an object that is out of the game somewhere, as the constructor does
+     *                      (without keeping it inside the window, see setPositionX), ready for it to come back (POOL option)
+     * 
+     * ARGUMENTS:       nX_px -     The position of the object on the x axis (0 = left)
+     *                  nY_px -     The position of the object on the y axis (0 = top)
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void resetPosition (float nX_px, float nY_px) {
+        this.storePositionX(nX_px);
+        this.storePositionY(nY_px);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the object that keeps this object's values, when it is not in a column store
+     *                  Made when first needed, since this object's constructors only run after it has joined the game
+     *                      (see HW04_ObjectGame.addToGameObjects), and an object read in (Java serialization,
+     *                      or HW04_NetworkCodec) doesn't go through them at all
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         oFields -   This object's values
+     *********************************************************************************************************/
+    HW04_ObjectFields getFields () {
+        
+        // Declare variables
+        HW04_ObjectFields oFieldsNow;
+        
+        oFieldsNow = this.oFields;
+        if (oFieldsNow == null) {
+            oFieldsNow = new HW04_ObjectFields();
+            this.oFields = oFieldsNow;
+        }
+        return oFieldsNow;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getFlag
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter for one of this object's flags
+     * 
+     * ARGUMENTS:       nFlag -     Which flag (see HW04_ObjectFields)
+     * 
+     * RETURNS:         bSet -      True if the flag is set
+     *********************************************************************************************************/
+    boolean getFlag (int nFlag) {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return (oChunk.anFlags[this.nColumnSlot] & nFlag) != 0;
+        }
+        return (this.getFields().nFlags & nFlag) != 0;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setFlag
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Setter for one of this object's flags
+     *                  All of an object's flags share one int, so this is synchronized,
+     *                      so that setting one flag can't undo another being set at the same time
+     *                      (flags are set now and then, not every step)
+     * 
+     * ARGUMENTS:       nFlag -     Which flag (see HW04_ObjectFields)
+     *                  bSet -      True to set the flag, false to clear it
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    synchronized void setFlag (int nFlag, boolean bSet) {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        int nFlags;
+        
+        // Get all the flags, change the one, and put them back
+        oChunk = this.oColumnChunk;
+        nFlags = oChunk != null ? oChunk.anFlags[this.nColumnSlot] : this.getFields().nFlags;
+        if (bSet == true) {
+            nFlags = nFlags | nFlag;
+        }
+        else {
+            nFlags = nFlags & ~nFlag;
+        }
+        if (oChunk != null) {
+            oChunk.anFlags[this.nColumnSlot] = nFlags;
+        }
+        else {
+            this.getFields().nFlags = nFlags;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        joinColumnStore
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Move this object's values into a slot, and use the slot from now on (see HW04_ColumnStore.add)
+     * 
+     * ARGUMENTS:       oChunk -    The chunk the slot is in
+     *                  nSlot -     The slot
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void joinColumnStore (HW04_ColumnChunk oChunk, int nSlot) {
+        oChunk.copyIn(nSlot, this.oFields);
+        this.nColumnSlot = nSlot;
+        this.oColumnChunk = oChunk;
+        this.oFields = null;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        leaveColumnStore
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take back this object's values from its slot, and stop using the slot (see HW04_ColumnStore.remove)
+     *                  The values are in place before the slot is let go,
+     *                      so another thread using this object meanwhile finds them one way or the other
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    void leaveColumnStore () {
+        this.oFields = this.oColumnChunk.copyOut(this.nColumnSlot);
+        this.oColumnChunk = null;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields with Java serialization (see serialPersistentFields),
+     *                      wherever its values are kept
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void writeObject (ObjectOutputStream oStream) throws IOException {
+        
+        // Declare variables
+        ObjectOutputStream.PutField oFieldsOut;
+        
+        oFieldsOut = oStream.putFields();
+        oFieldsOut.put("nX_px", this.getPositionX());
+        oFieldsOut.put("nY_px", this.getPositionY());
+        oFieldsOut.put("nReplayTeleportX_px", this.getReplayTeleportX());
+        oFieldsOut.put("nReplayTeleportY_px", this.getReplayTeleportY());
+        oStream.writeFields();
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields with Java serialization (see writeObject)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void readObject (ObjectInputStream oStream) throws IOException, ClassNotFoundException {
+        
+        // Declare variables
+        ObjectInputStream.GetField oFieldsIn;
+        
+        oFieldsIn = oStream.readFields();
+        this.storePositionX(oFieldsIn.get("nX_px", 0f));
+        this.storePositionY(oFieldsIn.get("nY_px", 0f));
+        this.setReplayTeleportX(oFieldsIn.get("nReplayTeleportX_px", 0f));
+        this.setReplayTeleportY(oFieldsIn.get("nReplayTeleportY_px", 0f));
+    
+    }
+    
+}
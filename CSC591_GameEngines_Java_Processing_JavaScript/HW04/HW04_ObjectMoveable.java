@@ -7,9 +7,13 @@
  *************************************************************************************************************/
 
 // IMPORTS
-import java.util.Random;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
 
 // CLASS DEFINITION
 public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
@@ -17,9 +21,11 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
     // Required for serializable class
     private static final long serialVersionUID = 1L;
     
-    // Object properties (variable)
-    private int nSpeedHorizontal_px_per_sec;
-    private int nSpeedVertical_px_per_sec;
+    // What Java serialization writes (these used to be fields, and are now kept with the position, see HW04_ObjectLocated)
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("nSpeedHorizontal_px_per_sec", int.class),
+        new ObjectStreamField("nSpeedVertical_px_per_sec", int.class)
+    };
     
     // Declare abstract methods
     abstract void handleCollision(
@@ -43,7 +49,7 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
      *                  nHeight_px -        The height of the new object
      *                  nRadius_px -        The corner radius of the new object
      *                  oColor -            The color of the new object
-     *                  oApplet -           A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -         What to draw the object with (only the client has one, see HW04_Renderer)
      *                  nSpeedDefaultH -    The default speed (pixels per game loop iteration)
      *                                      that the object moves along the horizontal axis
      *                                      Negative number = left
@@ -65,7 +71,7 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
         int nHeight_px,
         int nRadius_px,
         HW04_Color oColor,
-        PApplet oApplet,
+        HW04_Renderer oRenderer,
         int nSpeedDefaultH,
         int nSpeedDefaultV
     ) {
@@ -79,7 +85,7 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
             nHeight_px, 
             nRadius_px, 
             oColor,
-            oApplet
+            oRenderer
         );
         
         try {
@@ -92,6 +98,21 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectMoveable Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty moveable object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectMoveable () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getSpeedHorizontal
      *
@@ -108,7 +129,16 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
      *                                      Zero = stationary
      *********************************************************************************************************/
     int getSpeedHorizontal () {
-        return this.nSpeedHorizontal_px_per_sec;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anSpeedHorizontal[this.nColumnSlot];
+        }
+        return this.getFields().nSpeedHorizontal_px_per_sec;
+    
     }
     
     /*********************************************************************************************************
@@ -129,8 +159,18 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
     void setSpeedHorizontal (int nSpeedHorizontal_px_per_sec) {
         try {
             
-            this.nSpeedHorizontal_px_per_sec = nSpeedHorizontal_px_per_sec;
+            // Declare variables
+            HW04_ColumnChunk oChunk;
             
+            // Keep the speed in this object's slot in a store, if it is in one (COLUMNS option)
+            oChunk = this.oColumnChunk;
+            if (oChunk != null) {
+                oChunk.anSpeedHorizontal[this.nColumnSlot] = nSpeedHorizontal_px_per_sec;
+            }
+            else {
+                this.getFields().nSpeedHorizontal_px_per_sec = nSpeedHorizontal_px_per_sec;
+            }
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -153,7 +193,16 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
      *                                      Zero = stationary
      *********************************************************************************************************/
     int getSpeedVertical () {
-        return this.nSpeedVertical_px_per_sec;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anSpeedVertical[this.nColumnSlot];
+        }
+        return this.getFields().nSpeedVertical_px_per_sec;
+    
     }
     
     /*********************************************************************************************************
@@ -174,8 +223,18 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
     void setSpeedVertical (int nSpeedVertical_px_per_sec) {
         try {
             
-            this.nSpeedVertical_px_per_sec = nSpeedVertical_px_per_sec;
+            // Declare variables
+            HW04_ColumnChunk oChunk;
             
+            // Keep the speed in this object's slot in a store, if it is in one (COLUMNS option)
+            oChunk = this.oColumnChunk;
+            if (oChunk != null) {
+                oChunk.anSpeedVertical[this.nColumnSlot] = nSpeedVertical_px_per_sec;
+            }
+            else {
+                this.getFields().nSpeedVertical_px_per_sec = nSpeedVertical_px_per_sec;
+            }
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -219,6 +278,10 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     Move an object
+     *                  If the object moves at least its own size along either axis,
+     *                      it could jump right over another object,
+     *                      so it is stopped where it first touches another object along the way
+     *                      (that object is then found by the usual collision check).
      *
      * ARGUMENTS:       None
      * 
@@ -228,9 +291,32 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
         
         try {
             
+            // Declare variables
+            float nFuturePositionX;
+            float nFuturePositionY;
+            float nMoveX_px;
+            float nMoveY_px;
+            float nFraction;
+            
+            // Where would the object end up
+            nFuturePositionX = this.getFuturePositionX();
+            nFuturePositionY = this.getFuturePositionY();
+            nMoveX_px = nFuturePositionX - this.getPositionX();
+            nMoveY_px = nFuturePositionY - this.getPositionY();
+            
+            // Moving fast enough to jump over something? Stop where it is first touched.
+            if (
+                Math.abs(nMoveX_px) >= this.getWidth() ||
+                Math.abs(nMoveY_px) >= this.getHeight()
+            ) {
+                nFraction = HW04_CollisionGrid.getTimeOfImpact(this, nMoveX_px, nMoveY_px);
+                nFuturePositionX = this.getPositionX() + nMoveX_px * nFraction;
+                nFuturePositionY = this.getPositionY() + nMoveY_px * nFraction;
+            }
+            
             // Move object along both axes
-            this.setPositionX(this.getFuturePositionX());
-            this.setPositionY(this.getFuturePositionY());
+            this.setPositionX(nFuturePositionX);
+            this.setPositionY(nFuturePositionY);
             
         }
         catch (Throwable oError) {
@@ -268,19 +354,16 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
             /* Move object along Y axis 
              * (0,0) is top left of window, positive speed is UP
              * How much we move an object depends on speed (px / sec) and on time since last update (sec)
-             * Enforce speed limit: 
-             *      Do not allow a game object to move faster 
-             *      than it's size in the axis along which it is moving.
-             *      If that happens, we could end up jumping "through" another object
-             *      and collision detection falls apart!
+             * There is no speed limit:
+             *      An object moving faster than its size could jump "through" another object,
+             *      but updateLocation() catches that with a swept check.
+             *      With the FIXED option, the time since last update is always one step,
+             *      so how far an object moves doesn't depend on frame rate.
              */
             nVerticalMovement_px = (float) (
                 Math.abs(this.getSpeedVertical()) * 
                 N_TIME_SINCE_LAST_UPDATE_SEC
             );
-            if (nVerticalMovement_px >= this.getHeight()) {
-                nVerticalMovement_px = this.getHeight() - 1;
-            }
             nFuturePositionY = (float) (
                 this.getPositionY() + 
                 nVerticalMovement_px * 
@@ -323,19 +406,16 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
             /* Move object along Y axis 
              * (0,0) is top left of window, positive speed is UP
              * How much we move an object depends on speed (px / sec) and on time since last update (sec)
-             * Enforce speed limit: 
-             *      Do not allow a game object to move faster 
-             *      than it's size in the axis along which it is moving.
-             *      If that happens, we could end up jumping "through" another object
-             *      and collision detection falls apart!
+             * There is no speed limit:
+             *      An object moving faster than its size could jump "through" another object,
+             *      but updateLocation() catches that with a swept check.
+             *      With the FIXED option, the time since last update is always one step,
+             *      so how far an object moves doesn't depend on frame rate.
              */
             nHorizontalMovement_px = (float) (
                 Math.abs(this.getSpeedHorizontal()) *
                 N_TIME_SINCE_LAST_UPDATE_SEC
             );
-            if (nHorizontalMovement_px >= this.getWidth()) {
-                nHorizontalMovement_px = this.getWidth() - 1;
-            }
             nFuturePositionX = (float) (
                 this.getPositionX() + 
                 nHorizontalMovement_px * (this.getSpeedHorizontal() < 0 ? -1 : 1)
@@ -406,7 +486,11 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     Back up until no longer collided with another object
-     *                  Show preference to backing out along the Y-axis (gravity is a major factor)
+     *                  Collided objects are handled in GUID order (not randomly), so the result is always the same.
+     *                  For each one, back away along whichever direction gets us out of it soonest
+     *                      (the smallest way out, a "minimum translation vector"),
+     *                      considering only directions that go back the way we came, if we are moving.
+     *                  A few passes are made in case backing away from one object puts us into another.
      *
      * ARGUMENTS:       nOriginalX -   X-axis location before the move that caused the collision
      *                  nOriginalY -   Y-axis location before the move that caused the collision
@@ -418,101 +502,87 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
         try {
             
             // Declare constants
-            final int N_MAX_ATTEMPTS =  100;
+            final int N_MAX_PASSES = 4;
                  
             // Declare variables
-            boolean bGoingUpBackingDown;
-            boolean bGoingDownBackingUp;
-            boolean bGoingRightBackingLeft;
-            boolean bGoingLeftBackingRight;
-            int nNumAttempts;
+            boolean bMayBackLeft;
+            boolean bMayBackRight;
+            boolean bMayBackUp;
+            boolean bMayBackDown;
+            int nToLeft_px;
+            int nToRight_px;
+            int nToTop_px;
+            int nToBottom_px;
+            int nSmallest_px;
+            int nPass;
             int i;
-            Random oRandom;
             CopyOnWriteArrayList<HW04_ObjectCollidable> oCollidedObjects;
-            HW04_ObjectCollidable oSomeCollidedObject;
-            
-            // Get randomizer
-            oRandom = new Random();
+            HW04_ObjectCollidable oCollidedObject;
              
-            // Which way are we headed?
-            bGoingUpBackingDown = this.getSpeedVertical() > 0;
-            bGoingDownBackingUp = this.getSpeedVertical() < 0;
-            bGoingRightBackingLeft = this.getSpeedHorizontal() > 0;
-            bGoingLeftBackingRight = this.getSpeedHorizontal() < 0;
-            
-            // Initialize some stuff used by the loop
-            nNumAttempts = 0;
+            /* Which ways may we back out?
+             * Back the way we came (if we are moving at all)
+             * (positive vertical speed is UP)
+             */
+            bMayBackLeft = this.getSpeedHorizontal() > 0;
+            bMayBackRight = this.getSpeedHorizontal() < 0;
+            bMayBackUp = this.getSpeedVertical() < 0;
+            bMayBackDown = this.getSpeedVertical() > 0;
+            if (bMayBackLeft == false && bMayBackRight == false && bMayBackUp == false && bMayBackDown == false) {
+                bMayBackLeft = true;
+                bMayBackRight = true;
+                bMayBackUp = true;
+                bMayBackDown = true;
+            }
             
-            // Keep trying until we are backed out of all collisions or it has taken too long
-            while (true) {
+            // Keep trying until we are backed out of all collisions or it has taken too many passes
+            for (nPass = 0; nPass < N_MAX_PASSES; nPass++) {
                 
-                // Get a collection of all objects with whom we are collided
+                // Get all objects with whom we are collided (in GUID order)
                 oCollidedObjects = this.getCollidingObjects();
-                
-                // See if it's time to stop
-                if (
-                    oCollidedObjects.size() == 0 ||
-                    nNumAttempts >= N_MAX_ATTEMPTS
-                ) {
+                if (oCollidedObjects.size() == 0) {
                     break;
                 }
-                else {
+                
+                for (i = 0; i < oCollidedObjects.size(); i++) {
                     
-                    // Get a randomly selected collided object
-                    oSomeCollidedObject = oCollidedObjects.get(oRandom.nextInt(oCollidedObjects.size()));
+                    // How far would we have to go in each direction to get out of this object
+                    oCollidedObject = oCollidedObjects.get(i);
+                    nToLeft_px = this.getCollisionLeft() + this.getCollisionWidth() - oCollidedObject.getCollisionLeft();
+                    nToRight_px = oCollidedObject.getCollisionLeft() + oCollidedObject.getCollisionWidth() - this.getCollisionLeft();
+                    nToTop_px = this.getCollisionTop() + this.getCollisionHeight() - oCollidedObject.getCollisionTop();
+                    nToBottom_px = oCollidedObject.getCollisionTop() + oCollidedObject.getCollisionHeight() - this.getCollisionTop();
                     
-                    // If it's a platform, back out along Y axis if possible
-                    if (oSomeCollidedObject instanceof HW04_ObjectPlatform) {
-                        if (bGoingDownBackingUp == true) {
-                            backAwayFromObjectY(oSomeCollidedObject, true);
-                        }
-                        else if (bGoingUpBackingDown == true) {
-                            backAwayFromObjectY(oSomeCollidedObject, false);
-                        }
-                        else if (bGoingRightBackingLeft == true) {
-                            backAwayFromObjectX(oSomeCollidedObject, true);
-                        }
-                        else if (bGoingLeftBackingRight == true) {
-                            backAwayFromObjectX(oSomeCollidedObject, false);
-                        }
+                    // Already out of it (backing away from an earlier object took care of it)?
+                    if (nToLeft_px <= 0 || nToRight_px <= 0 || nToTop_px <= 0 || nToBottom_px <= 0) {
+                        continue;
                     }
                     
-                    // If it's a boundary, back out along X axis if possible
-                    else if (oSomeCollidedObject instanceof HW04_ObjectBoundary) {
-                        if (bGoingRightBackingLeft == true) {
-                            backAwayFromObjectX(oSomeCollidedObject, true);
-                        }
-                        else if (bGoingLeftBackingRight == true) {
-                            backAwayFromObjectX(oSomeCollidedObject, false);
-                        }
-                        else if (bGoingDownBackingUp == true) {
-                            backAwayFromObjectY(oSomeCollidedObject, true);
-                        }
-                        else if (bGoingUpBackingDown == true) {
-                            backAwayFromObjectY(oSomeCollidedObject, false);
-                        }
+                    // Back away in the allowed direction that is the smallest way out
+                    nSmallest_px = Integer.MAX_VALUE;
+                    if (bMayBackLeft == true) {
+                        nSmallest_px = Math.min(nSmallest_px, nToLeft_px);
                     }
-                    
-                    // Otherwise, back out along randomly selected axis
-                    else if (oRandom.nextInt(2) < 1) {
-                        if (bGoingRightBackingLeft == true) {
-                            backAwayFromObjectX(oSomeCollidedObject, true);
-                        }
-                        else if (bGoingLeftBackingRight == true) {
-                            backAwayFromObjectX(oSomeCollidedObject, false);
-                        }
+                    if (bMayBackRight == true) {
+                        nSmallest_px = Math.min(nSmallest_px, nToRight_px);
+                    }
+                    if (bMayBackUp == true) {
+                        nSmallest_px = Math.min(nSmallest_px, nToTop_px);
+                    }
+                    if (bMayBackDown == true) {
+                        nSmallest_px = Math.min(nSmallest_px, nToBottom_px);
+                    }
+                    if (bMayBackUp == true && nSmallest_px == nToTop_px) {
+                        backAwayFromObjectY(oCollidedObject, true);
+                    }
+                    else if (bMayBackDown == true && nSmallest_px == nToBottom_px) {
+                        backAwayFromObjectY(oCollidedObject, false);
+                    }
+                    else if (bMayBackLeft == true && nSmallest_px == nToLeft_px) {
+                        backAwayFromObjectX(oCollidedObject, true);
                     }
                     else {
-                        if (bGoingDownBackingUp == true) {
-                            backAwayFromObjectY(oSomeCollidedObject, true);
-                        }
-                        else if (bGoingUpBackingDown == true) {
-                            backAwayFromObjectY(oSomeCollidedObject, false);
-                        }
+                        backAwayFromObjectX(oCollidedObject, false);
                     }
-
-                    // Increment counter
-                    nNumAttempts++;
                     
                 }
                 
@@ -613,4 +683,125 @@ public abstract class HW04_ObjectMoveable extends HW04_ObjectRenderable {
          
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        super.writeFields(oStream);
+        oStream.writeInt(this.getSpeedHorizontal());
+        oStream.writeInt(this.getSpeedVertical());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        this.setSpeedHorizontal(oStream.readInt());
+        this.setSpeedVertical(oStream.readInt());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        captureState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Record this object's replicated fields in a state object (see HW04_ObjectDelta)
+     * 
+     * ARGUMENTS:       oState -    The state object to record into
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void captureState (HW04_ObjectDelta oState) {
+        super.captureState(oState);
+        oState.setSpeedHorizontal(this.getSpeedHorizontal());
+        oState.setSpeedVertical(this.getSpeedVertical());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        applyState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Patch this object in place with whichever replicated fields a delta carries
+     * 
+     * ARGUMENTS:       oDelta -    The delta to apply
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void applyState (HW04_ObjectDelta oDelta) {
+        super.applyState(oDelta);
+        if (oDelta.hasField(HW04_ObjectDelta.N_FIELD_SPEED_H) == true) {
+            this.setSpeedHorizontal(oDelta.getSpeedHorizontal());
+        }
+        if (oDelta.hasField(HW04_ObjectDelta.N_FIELD_SPEED_V) == true) {
+            this.setSpeedVertical(oDelta.getSpeedVertical());
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields with Java serialization (see serialPersistentFields)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void writeObject (ObjectOutputStream oStream) throws IOException {
+        
+        // Declare variables
+        ObjectOutputStream.PutField oFieldsOut;
+        
+        oFieldsOut = oStream.putFields();
+        oFieldsOut.put("nSpeedHorizontal_px_per_sec", this.getSpeedHorizontal());
+        oFieldsOut.put("nSpeedVertical_px_per_sec", this.getSpeedVertical());
+        oStream.writeFields();
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields with Java serialization (see writeObject)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void readObject (ObjectInputStream oStream) throws IOException, ClassNotFoundException {
+        
+        // Declare variables
+        ObjectInputStream.GetField oFieldsIn;
+        
+        oFieldsIn = oStream.readFields();
+        this.setSpeedHorizontal(oFieldsIn.get("nSpeedHorizontal_px_per_sec", 0));
+        this.setSpeedVertical(oFieldsIn.get("nSpeedVertical_px_per_sec", 0));
+    
+    }
+    
 }
\ No newline at end of file
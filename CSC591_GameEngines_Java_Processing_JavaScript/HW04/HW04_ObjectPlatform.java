@@ -9,7 +9,6 @@
 // IMPORTS
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
 
 // CLASS DEFINITION
 public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
@@ -35,7 +34,7 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
      *                  nWidth_px -                 The width of the new object
      *                  nHeight_px -                The height of the new object
      *                  oColor -                    The color of the new object
-     *                  oApplet -                   A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -                 What to draw the object with (only the client has one, see HW04_Renderer)
      *                  nSpeedDefaultH_px_per_sec - The default speed
      *                                              that the object moves along the horizontal axis
      *                                              Negative number = left
@@ -56,7 +55,7 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
         int nWidth_px,
         int nHeight_px,
         HW04_Color oColor,
-        PApplet oApplet,
+        HW04_Renderer oRenderer,
         int nSpeedDefaultH_px_per_sec,
         int nSpeedDefaultV_px_per_sec
     ) {
@@ -70,13 +69,28 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
             nHeight_px, 
             N_RADIUS_PX, 
             oColor,
-            oApplet,
+            oRenderer,
             nSpeedDefaultH_px_per_sec,
             nSpeedDefaultV_px_per_sec
         );
         
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectPlatform Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty platform object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectPlatform () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        addPlatformObjects
      *
@@ -91,6 +105,7 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
      *                      so just go ahead and use this rule for all platforms
      *                  Also, since static platforms serve as spawn points,
      *                      Make sure (if there are few of them) that they are wide enough
+     *                  A game world wider than the window (WORLD option) gets as many platforms per window's width
      *
      * ARGUMENTS:       None
      * 
@@ -103,6 +118,7 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
             
             final int N_WINDOW_AREA_PX =        HW04_Utility.getWindowSize() * HW04_Utility.getWindowSize();
             final int N_PLATFORM_AREA_PX =      (int) ( ((double) N_WINDOW_AREA_PX) / 5);
+            final int N_WINDOWS =               HW04_Utility.getWorldWidth() / HW04_Utility.getWindowSize();
             
             final int N_PLATFORMS_STATIC =      3;
             final int N_PLATFORMS_DYNAMIC =     3;
@@ -135,10 +151,10 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
             oRandomizer = new Random();
             
             // STATIC
-            for (i = 0; i < N_PLATFORMS_STATIC; i++) {
+            for (i = 0; i < N_PLATFORMS_STATIC * N_WINDOWS; i++) {
                 
                 // Randomize location
-                nX_px = oRandomizer.nextInt(HW04_Utility.getWindowSize());
+                nX_px = oRandomizer.nextInt(HW04_Utility.getWorldWidth());
                 nY_px = getRandomPlatformY();
                 
                 // Create object
@@ -154,17 +170,17 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
                 
                 // Move it if it's in collision with some other object
                 while (oPlatformStatic.doesObjectCollide() == true) {
-                    oPlatformStatic.setPositionX(oRandomizer.nextInt(HW04_Utility.getWindowSize()));
+                    oPlatformStatic.setPositionX(oRandomizer.nextInt(HW04_Utility.getWorldWidth()));
                     oPlatformStatic.setPositionY(getRandomPlatformY());
                 }
                 
             }
             
             // HORIZONTAL
-            for (i = 0; i < (N_PLATFORMS_DYNAMIC / 2); i++) {
+            for (i = 0; i < (N_PLATFORMS_DYNAMIC / 2) * N_WINDOWS; i++) {
                 
                 // Randomize location
-                nX_px = oRandomizer.nextInt(HW04_Utility.getWindowSize());
+                nX_px = oRandomizer.nextInt(HW04_Utility.getWorldWidth());
                 nY_px = getRandomPlatformY();
                 
                 // Create object
@@ -180,20 +196,20 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
                 
                 // Move it if it's in collision with some other object
                 while (oPlatformH.doesObjectCollide() == true) {
-                    oPlatformH.setPositionX(oRandomizer.nextInt(HW04_Utility.getWindowSize()));
+                    oPlatformH.setPositionX(oRandomizer.nextInt(HW04_Utility.getWorldWidth()));
                     oPlatformH.setPositionY(getRandomPlatformY());
                 }
                 
                 // Register interest in events that affect the object
-                O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.COLLISION, oPlatformH, false);
+                O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.COLLISION, oPlatformH);
                 
             }
             
             // VERTICAL
-            for (i = 0; i < (N_PLATFORMS_DYNAMIC / 2) + (N_PLATFORMS_DYNAMIC % 2); i++) {
+            for (i = 0; i < ((N_PLATFORMS_DYNAMIC / 2) + (N_PLATFORMS_DYNAMIC % 2)) * N_WINDOWS; i++) {
                 
                 // Randomize location
-                nX_px = oRandomizer.nextInt(HW04_Utility.getWindowSize());
+                nX_px = oRandomizer.nextInt(HW04_Utility.getWorldWidth());
                 nY_px = getRandomPlatformY();
                 
                 // Create object
@@ -209,12 +225,12 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
                 
                 // Move it if it's in collision with some other object
                 while (oPlatformV.doesObjectCollide() == true) {
-                    oPlatformV.setPositionX(oRandomizer.nextInt(HW04_Utility.getWindowSize()));
+                    oPlatformV.setPositionX(oRandomizer.nextInt(HW04_Utility.getWorldWidth()));
                     oPlatformV.setPositionY(getRandomPlatformY());
                 }
                 
                 // Register interest in events that affect the object
-                O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.COLLISION, oPlatformV, false);
+                O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.COLLISION, oPlatformV);
                 
             }
             
@@ -309,11 +325,17 @@ public abstract class HW04_ObjectPlatform extends HW04_ObjectMoveable {
                  *  Why? Moving platforms may cause collision events which need to be handled
                  *  It's better not to send collided / funky objects out
                  */
-                for (i = 0; i < aoObjectsPlatformH.size(); i++) {
-                    aoObjectsPlatformH.get(i).updateLocationAndCheckForCollisions();
+                if (HW04_Globals.bParallelTick == true) {
+                    HW04_ParallelTick.updateLocationsAndCheckForCollisions(aoObjectsPlatformH, null);
+                    HW04_ParallelTick.updateLocationsAndCheckForCollisions(aoObjectsPlatformV, null);
                 }
-                for (i = 0; i < aoObjectsPlatformV.size(); i++) {
-                    aoObjectsPlatformV.get(i).updateLocationAndCheckForCollisions();
+                else {
+                    for (i = 0; i < aoObjectsPlatformH.size(); i++) {
+                        aoObjectsPlatformH.get(i).updateLocationAndCheckForCollisions();
+                    }
+                    for (i = 0; i < aoObjectsPlatformV.size(); i++) {
+                        aoObjectsPlatformV.get(i).updateLocationAndCheckForCollisions();
+                    }
                 }
                 
             }
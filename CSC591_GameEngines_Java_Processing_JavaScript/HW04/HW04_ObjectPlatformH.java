@@ -8,9 +8,7 @@
 
 // IMPORTS
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
 
 // CLASS DEFINITION
 public class HW04_ObjectPlatformH extends HW04_ObjectPlatform implements HW04_EventObserver {
@@ -35,7 +33,7 @@ public class HW04_ObjectPlatformH extends HW04_ObjectPlatform implements HW04_Ev
      *                  nY_px -             The position of the new object on the y axis (0 = top)
      *                  nWidth_px -         The width of the new object
      *                  nHeight_px -        The height of the new object
-     *                  oApplet -           A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -         What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
@@ -45,7 +43,7 @@ public class HW04_ObjectPlatformH extends HW04_ObjectPlatform implements HW04_Ev
             int nY_px,
             int nWidth_px,
             int nHeight_px,
-            PApplet oApplet
+            HW04_Renderer oRenderer
     ) {
         
         // Construct platform object
@@ -57,8 +55,8 @@ public class HW04_ObjectPlatformH extends HW04_ObjectPlatform implements HW04_Ev
             nHeight_px,
             // Color randomly
             HW04_Color.getRandomShade("Yellow"),
-            // Provide applet
-            oApplet,
+            // Provide renderer
+            oRenderer,
             // Move horizontally
             N_MIN_SPEED_PX_PER_SEC + new Random().nextInt(N_MAX_SPEED_PX_PER_SEC - N_MIN_SPEED_PX_PER_SEC),
             0
@@ -66,6 +64,21 @@ public class HW04_ObjectPlatformH extends HW04_ObjectPlatform implements HW04_Ev
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectPlatformH Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty horizontally moving platform object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectPlatformH () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getHorizontalPlatformObjects
      *
@@ -78,27 +91,7 @@ public class HW04_ObjectPlatformH extends HW04_ObjectPlatform implements HW04_Ev
      * RETURNS:         aoObjectsRenderable -    All renderable objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectPlatformH> getHorizontalPlatformObjects () {
-        CopyOnWriteArrayList<HW04_ObjectPlatformH> aoObjectsPlatformH = new CopyOnWriteArrayList<HW04_ObjectPlatformH>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectPlatformH) {
-                    aoObjectsPlatformH.add((HW04_ObjectPlatformH) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsPlatformH;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectPlatformH.class);
     }
     
     /*********************************************************************************************************
@@ -145,27 +138,23 @@ public class HW04_ObjectPlatformH extends HW04_ObjectPlatform implements HW04_Ev
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
     @Override
     public void handleEvent (HW04_ObjectEvent oEventToHandle) {
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
-            
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
+            HW04_EventPayloadCollision oCollision;
             
             // COLLISION
-            if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION && 
-                ((HW04_ObjectCollidable) oEventArguments.get("oMovedObject")).getGUID() == this.getGUID()
-            ) {
-                this.handleCollision(
-                    (CopyOnWriteArrayList<HW04_ObjectCollidable>) oEventArguments.get("aoCollidingObjects"), 
-                    (float) oEventArguments.get("nOriginalX"),
-                    (float) oEventArguments.get("nOriginalY")
-                );
+            if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION) {
+                oCollision = (HW04_EventPayloadCollision) oEventToHandle.getPayload();
+                if (oCollision.oMovedObject.getGUID() == this.getGUID()) {
+                    this.handleCollision(
+                        oCollision.aoCollidingObjects, 
+                        oCollision.nOriginalX,
+                        oCollision.nOriginalY
+                    );
+                }
             }
 
         }
@@ -9,9 +9,7 @@
  *************************************************************************************************************/
 
 // IMPORTS
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
 
 // CLASS DEFINITION
 public class HW04_ObjectPlatformStatic extends HW04_ObjectPlatform implements HW04_EventObserver {
@@ -32,7 +30,7 @@ public class HW04_ObjectPlatformStatic extends HW04_ObjectPlatform implements HW
      *                  nY_px -             The position of the new object on the y axis (0 = top)
      *                  nWidth_px -         The width of the new object
      *                  nHeight_px -        The height of the new object
-     *                  oApplet -           A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -         What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
@@ -42,7 +40,7 @@ public class HW04_ObjectPlatformStatic extends HW04_ObjectPlatform implements HW
             int nY_px,
             int nWidth_px,
             int nHeight_px,
-            PApplet oApplet
+            HW04_Renderer oRenderer
     ) {
         
         // Construct platform object
@@ -54,8 +52,8 @@ public class HW04_ObjectPlatformStatic extends HW04_ObjectPlatform implements HW
             nHeight_px,
             // Color randomly
             HW04_Color.getRandomShade("Gray"),
-            // Provide applet
-            oApplet,
+            // Provide renderer
+            oRenderer,
             // Zero speed
             0,
             0
@@ -63,6 +61,21 @@ public class HW04_ObjectPlatformStatic extends HW04_ObjectPlatform implements HW
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectPlatformStatic Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty static platform object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectPlatformStatic () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getStaticPlatformObjects
      *
@@ -75,27 +88,7 @@ public class HW04_ObjectPlatformStatic extends HW04_ObjectPlatform implements HW
      * RETURNS:         aoObjectsRenderable -    All renderable objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectPlatformStatic> getStaticPlatformObjects () {
-        CopyOnWriteArrayList<HW04_ObjectPlatformStatic> aoObjectsPlatformStatic = new CopyOnWriteArrayList<HW04_ObjectPlatformStatic>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectPlatformStatic) {
-                    aoObjectsPlatformStatic.add((HW04_ObjectPlatformStatic) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsPlatformStatic;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectPlatformStatic.class);
     }
     
     /*********************************************************************************************************
@@ -134,27 +127,23 @@ public class HW04_ObjectPlatformStatic extends HW04_ObjectPlatform implements HW
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
     @Override
     public void handleEvent (HW04_ObjectEvent oEventToHandle) {
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
-            
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
+            HW04_EventPayloadCollision oCollision;
             
             // COLLISION
-            if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION && 
-                ((HW04_ObjectCollidable) oEventArguments.get("oMovedObject")).getGUID() == this.getGUID()
-            ) {
-                this.handleCollision(
-                    (CopyOnWriteArrayList<HW04_ObjectCollidable>) oEventArguments.get("aoCollidingObjects"), 
-                    (float) oEventArguments.get("nOriginalX"),
-                    (float) oEventArguments.get("nOriginalY")
-                );
+            if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION) {
+                oCollision = (HW04_EventPayloadCollision) oEventToHandle.getPayload();
+                if (oCollision.oMovedObject.getGUID() == this.getGUID()) {
+                    this.handleCollision(
+                        oCollision.aoCollidingObjects, 
+                        oCollision.nOriginalX,
+                        oCollision.nOriginalY
+                    );
+                }
             }
 
         }
@@ -8,9 +8,7 @@
 
 // IMPORTS
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
 
 // CLASS DEFINITION
 public class HW04_ObjectPlatformV extends HW04_ObjectPlatform implements HW04_EventObserver {
@@ -35,7 +33,7 @@ public class HW04_ObjectPlatformV extends HW04_ObjectPlatform implements HW04_Ev
      *                  nY_px -             The position of the new object on the y axis (0 = top)
      *                  nWidth_px -         The width of the new object
      *                  nHeight_px -        The height of the new object
-     *                  oApplet -           A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -         What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
@@ -45,7 +43,7 @@ public class HW04_ObjectPlatformV extends HW04_ObjectPlatform implements HW04_Ev
             int nY_px,
             int nWidth_px,
             int nHeight_px,
-            PApplet oApplet
+            HW04_Renderer oRenderer
     ) {
         
         // Construct platform object
@@ -57,8 +55,8 @@ public class HW04_ObjectPlatformV extends HW04_ObjectPlatform implements HW04_Ev
             nHeight_px,
             // Color randomly
             HW04_Color.getRandomShade("Green"),
-            // Provide applet
-            oApplet,
+            // Provide renderer
+            oRenderer,
             // Move vertically
             0,
             N_MIN_SPEED_PX_PER_SEC + new Random().nextInt(N_MAX_SPEED_PX_PER_SEC - N_MIN_SPEED_PX_PER_SEC)
@@ -66,6 +64,21 @@ public class HW04_ObjectPlatformV extends HW04_ObjectPlatform implements HW04_Ev
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectPlatformV Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty vertically moving platform object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectPlatformV () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getVerticalPlatformObjects
      *
@@ -78,27 +91,7 @@ public class HW04_ObjectPlatformV extends HW04_ObjectPlatform implements HW04_Ev
      * RETURNS:         aoObjectsRenderable -    All renderable objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectPlatformV> getVerticalPlatformObjects () {
-        CopyOnWriteArrayList<HW04_ObjectPlatformV> aoObjectsPlatformV = new CopyOnWriteArrayList<HW04_ObjectPlatformV>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectPlatformV) {
-                    aoObjectsPlatformV.add((HW04_ObjectPlatformV) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsPlatformV;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectPlatformV.class);
     }
     
     /*********************************************************************************************************
@@ -193,27 +186,23 @@ public class HW04_ObjectPlatformV extends HW04_ObjectPlatform implements HW04_Ev
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
     @Override
     public void handleEvent (HW04_ObjectEvent oEventToHandle) {
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
-            
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
+            HW04_EventPayloadCollision oCollision;
             
             // COLLISION
-            if (
-                oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION && 
-                ((HW04_ObjectCollidable) oEventArguments.get("oMovedObject")).getGUID() == this.getGUID()
-            ) {
-                this.handleCollision(
-                    (CopyOnWriteArrayList<HW04_ObjectCollidable>) oEventArguments.get("aoCollidingObjects"), 
-                    (float) oEventArguments.get("nOriginalX"),
-                    (float) oEventArguments.get("nOriginalY")
-                );
+            if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.COLLISION) {
+                oCollision = (HW04_EventPayloadCollision) oEventToHandle.getPayload();
+                if (oCollision.oMovedObject.getGUID() == this.getGUID()) {
+                    this.handleCollision(
+                        oCollision.aoCollidingObjects, 
+                        oCollision.nOriginalX,
+                        oCollision.nOriginalY
+                    );
+                }
             }
 
         }
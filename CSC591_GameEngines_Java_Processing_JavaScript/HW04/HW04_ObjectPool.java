@@ -0,0 +1,191 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ObjectPool.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Keep game objects that have left the game, so that they can be used again (POOL option, server only).
+ *                  Bullets and bubbles come and go all the time (a firefight in Space Invaders makes dozens a second),
+ *                      and without the option every one of them is a new object, left behind for the garbage collector.
+ *                  With the option, a bullet or bubble that leaves the game is released into the pool for its kind,
+ *                      and the next time one is needed, one is acquired from the pool and reset in place instead.
+ *                  An object that comes back gets a new GUID: the same index, but the next generation
+ *                      (see HW04_ObjectGame.prepareForReuse), so anything still referring to it by its old GUID
+ *                      (an update still on its way to a client, an event, a snapshot) finds nothing, as if it were a new object.
+ *                  An object also rests in the pool for a while before it can come back,
+ *                      since it may still be waiting in a client's outbound queue (to tell the client it was removed),
+ *                      or be about to handle events raised while it was in the game.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.HashMap;
+
+// CLASS DEFINITION
+public class HW04_ObjectPool {
+    
+    // Constants
+    private static final int N_MAX_OBJECTS =        256;
+    private static final int N_REST_ITERATIONS =    60;
+    
+    // One pool per kind of object
+    private static HashMap<Class<?>, HW04_ObjectPool> oPools = new HashMap<Class<?>, HW04_ObjectPool>();
+    
+    // How it went (all pools)
+    private static long nAcquired = 0;
+    private static long nMissed = 0;
+    private static long nReleased = 0;
+    private static long nDiscarded = 0;
+    
+    // Objects resting in this pool, oldest first (a ring), and when each was released (game loop time)
+    private HW04_ObjectGame[]   aoObjects;
+    private double[]            anReleasedAt;
+    private int                 nFirst;
+    private int                 nCount;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectPool Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty pool
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private HW04_ObjectPool () {
+        this.aoObjects = new HW04_ObjectGame[N_MAX_OBJECTS];
+        this.anReleasedAt = new double[N_MAX_OBJECTS];
+        this.nFirst = 0;
+        this.nCount = 0;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isPooledKind
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether an object should be kept for reuse when it leaves the game
+     *                      (only with the POOL option, only on the server, and only bullets and bubbles)
+     *
+     * ARGUMENTS:       oObject -   The object
+     *
+     * RETURNS:         bPooled -   True if the object should be kept for reuse
+     *********************************************************************************************************/
+    public static boolean isPooledKind (HW04_ObjectGame oObject) {
+        return
+            HW04_Globals.bObjectPooling == true &&
+            HW04_Globals.bClient == false && (
+                oObject instanceof HW04_ObjectBullet ||
+                oObject instanceof HW04_ObjectBubble
+            );
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        acquire
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take an object of a kind out of the pool, if one has rested long enough
+     *                  The caller must reset it and put it back in the game (see HW04_ObjectGame.rejoinGame)
+     *
+     * ARGUMENTS:       cType -     The kind of object
+     *
+     * RETURNS:         oObject -   The object (or null, in which case the caller should make a new one)
+     *********************************************************************************************************/
+    @SuppressWarnings("unchecked")
+    public static synchronized <T extends HW04_ObjectGame> T acquire (Class<T> cType) {
+        
+        T oObject = null;
+        try {
+            
+            // Declare variables
+            HW04_ObjectPool oPool;
+            
+            // Take the object that has rested longest, if it has rested long enough
+            oPool = oPools.get(cType);
+            if (
+                oPool != null &&
+                oPool.nCount > 0 &&
+                HW04_Time_Loop.getPlayInstance().getTime() - oPool.anReleasedAt[oPool.nFirst] >= N_REST_ITERATIONS
+            ) {
+                oObject = (T) oPool.aoObjects[oPool.nFirst];
+                oPool.aoObjects[oPool.nFirst] = null;
+                oPool.nFirst = (oPool.nFirst + 1) % N_MAX_OBJECTS;
+                oPool.nCount--;
+                nAcquired++;
+            }
+            else {
+                nMissed++;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        release
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Keep an object that has just left the game, for reuse
+     *                      (if the pool for its kind is full, the object is simply let go)
+     *
+     * ARGUMENTS:       oObject -   The object (already removed from the game)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static synchronized void release (HW04_ObjectGame oObject) {
+        try {
+            
+            // Declare variables
+            HW04_ObjectPool oPool;
+            
+            // Get the pool for this kind of object, making it if need be
+            oPool = oPools.get(oObject.getClass());
+            if (oPool == null) {
+                oPool = new HW04_ObjectPool();
+                oPools.put(oObject.getClass(), oPool);
+            }
+            
+            // Keep the object, unless the pool is full
+            if (oPool.nCount < N_MAX_OBJECTS) {
+                oPool.aoObjects[(oPool.nFirst + oPool.nCount) % N_MAX_OBJECTS] = oObject;
+                oPool.anReleasedAt[(oPool.nFirst + oPool.nCount) % N_MAX_OBJECTS] = HW04_Time_Loop.getPlayInstance().getTime();
+                oPool.nCount++;
+                nReleased++;
+            }
+            else {
+                nDiscarded++;
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getStatistics
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Say how pooling went
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         sStatistics -   A line of text
+     *********************************************************************************************************/
+    public static synchronized String getStatistics () {
+        return
+            "Object pool: " +
+            nAcquired + " objects reused, " +
+            nMissed + " made new (none ready), " +
+            nReleased + " released, " +
+            nDiscarded + " let go (pool full)";
+    }
+
+}
@@ -0,0 +1,358 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ObjectRegistry.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     The collection of all game objects (see HW04_ObjectGame for how objects come and go).
+ *                  Objects are looked up by GUID in an open addressing hash table keyed directly by int
+ *                      (no Integer keys to create and throw away on every lookup).
+ *                  The registry also keeps, for every class of game object, a list of the objects of that class
+ *                      (including subclasses), in GUID order.
+ *                      These lists are kept up to date as objects come and go,
+ *                      so asking for all the enemies (say) costs nothing more than handing back the list.
+ *                  A list handed out is never changed afterwards - when an object comes or goes,
+ *                      the affected lists are replaced with new ones.
+ *                      So a caller can loop over a list while objects come and go (even from other threads)
+ *                      and always see the objects as they were when it asked.
+ *                      Callers must not change the lists themselves.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// CLASS DEFINITION
+public class HW04_ObjectRegistry {
+    
+    // Constants
+    private static final int N_INITIAL_CAPACITY = 256;
+    
+    // Hash table (a slot is empty if it has no object, so any GUID may be used as a key)
+    private static int[] anGUIDs =                  new int[N_INITIAL_CAPACITY];
+    private static HW04_ObjectGame[] aoObjects =    new HW04_ObjectGame[N_INITIAL_CAPACITY];
+    private static int nCount =                     0;
+    
+    // Lists of objects by class
+    private static HashMap<Class<?>, CopyOnWriteArrayList<HW04_ObjectGame>> oObjectsByClass =
+        new HashMap<Class<?>, CopyOnWriteArrayList<HW04_ObjectGame>>();
+    
+    /*********************************************************************************************************
+     * FUNCTION:        get
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Look up a game object by its GUID
+     *
+     * ARGUMENTS:       nGUID -         GUID of desired game object
+     *
+     * RETURNS:         oObjectGame -   Game object (or null)
+     *********************************************************************************************************/
+    public static synchronized HW04_ObjectGame get (int nGUID) {
+        return aoObjects[findSlot(nGUID)];
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        add
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add a game object, unless there is already one with the same GUID
+     *
+     * ARGUMENTS:       oObjectGame -   The game object
+     *
+     * RETURNS:         bAdded -        True if the object was added
+     *********************************************************************************************************/
+    public static synchronized boolean add (HW04_ObjectGame oObjectGame) {
+        
+        // Declare variables
+        int nSlot;
+        
+        nSlot = findSlot(oObjectGame.getGUID());
+        if (aoObjects[nSlot] != null) {
+            return false;
+        }
+        else {
+            anGUIDs[nSlot] = oObjectGame.getGUID();
+            aoObjects[nSlot] = oObjectGame;
+            nCount++;
+            if (nCount * 2 > aoObjects.length) {
+                grow();
+            }
+            updateLists(null, oObjectGame);
+            return true;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        replace
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Replace the game object that has the same GUID as a new one
+     *
+     * ARGUMENTS:       oObjectGame -   The new game object
+     *
+     * RETURNS:         oOldObject -    The game object that was replaced (or null if there wasn't one)
+     *********************************************************************************************************/
+    public static synchronized HW04_ObjectGame replace (HW04_ObjectGame oObjectGame) {
+        
+        // Declare variables
+        HW04_ObjectGame oOldObject;
+        int nSlot;
+        
+        nSlot = findSlot(oObjectGame.getGUID());
+        oOldObject = aoObjects[nSlot];
+        if (oOldObject != null) {
+            aoObjects[nSlot] = oObjectGame;
+            updateLists(oOldObject, oObjectGame);
+        }
+        return oOldObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        remove
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Remove a game object by its GUID
+     *
+     * ARGUMENTS:       nGUID -             GUID of game object to remove
+     *
+     * RETURNS:         oRemovedObject -    The removed game object (or null)
+     *********************************************************************************************************/
+    public static synchronized HW04_ObjectGame remove (int nGUID) {
+        
+        // Declare variables
+        HW04_ObjectGame oRemovedObject;
+        int nSlot;
+        int nNextSlot;
+        int nHomeSlot;
+        int nMask;
+        
+        nSlot = findSlot(nGUID);
+        oRemovedObject = aoObjects[nSlot];
+        if (oRemovedObject != null) {
+            
+            /* Empty the slot, then move back any later objects in the same run of full slots
+             *  that would no longer be found (because their search would now stop at the empty slot)
+             */
+            nMask = aoObjects.length - 1;
+            aoObjects[nSlot] = null;
+            nNextSlot = (nSlot + 1) & nMask;
+            while (aoObjects[nNextSlot] != null) {
+                nHomeSlot = getHomeSlot(anGUIDs[nNextSlot]);
+                if (((nNextSlot - nHomeSlot) & nMask) >= ((nNextSlot - nSlot) & nMask)) {
+                    anGUIDs[nSlot] = anGUIDs[nNextSlot];
+                    aoObjects[nSlot] = aoObjects[nNextSlot];
+                    aoObjects[nNextSlot] = null;
+                    nSlot = nNextSlot;
+                }
+                nNextSlot = (nNextSlot + 1) & nMask;
+            }
+            nCount--;
+            updateLists(oRemovedObject, null);
+        
+        }
+        return oRemovedObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getObjectsOfType
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get all game objects of a class (including subclasses), in GUID order
+     *                  The list must not be changed (see above)
+     *
+     * ARGUMENTS:       cType -     The class
+     *
+     * RETURNS:         aoObjects - The objects
+     *********************************************************************************************************/
+    @SuppressWarnings("unchecked")
+    public static synchronized <T extends HW04_ObjectGame> CopyOnWriteArrayList<T> getObjectsOfType (Class<T> cType) {
+        
+        // Declare variables
+        CopyOnWriteArrayList<HW04_ObjectGame> aoObjectsOfType;
+        
+        aoObjectsOfType = oObjectsByClass.get(cType);
+        if (aoObjectsOfType == null) {
+            aoObjectsOfType = new CopyOnWriteArrayList<HW04_ObjectGame>();
+            oObjectsByClass.put(cType, aoObjectsOfType);
+        }
+        return (CopyOnWriteArrayList<T>) aoObjectsOfType;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        updateLists
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Replace the lists of objects by class that are affected by an object coming, going,
+     *                      or being replaced by another object (with the same GUID)
+     *
+     * ARGUMENTS:       oOldObject -    The object going (or null)
+     *                  oNewObject -    The object coming (or null)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void updateLists (HW04_ObjectGame oOldObject, HW04_ObjectGame oNewObject) {
+        
+        // Declare variables
+        Class<?> cType;
+        
+        // Every class the old object belongs to loses it
+        if (oOldObject != null) {
+            for (cType = oOldObject.getClass(); HW04_ObjectGame.class.isAssignableFrom(cType); cType = cType.getSuperclass()) {
+                oObjectsByClass.put(cType, copyList(cType, oOldObject, oNewObject));
+            }
+        }
+        
+        // Every class the new object belongs to (that the old object didn't) gains it
+        if (oNewObject != null) {
+            for (cType = oNewObject.getClass(); HW04_ObjectGame.class.isAssignableFrom(cType); cType = cType.getSuperclass()) {
+                if (oOldObject == null || cType.isInstance(oOldObject) == false) {
+                    oObjectsByClass.put(cType, copyList(cType, null, oNewObject));
+                }
+            }
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        copyList
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Make a new list of objects of a class, from the current one, in GUID order
+     *
+     * ARGUMENTS:       cType -         The class
+     *                  oOldObject -    An object to take out (or null)
+     *                  oNewObject -    An object to put in, if it belongs to the class (or null)
+     *                                      A new object with the same GUID as the old object takes its place
+     *
+     * RETURNS:         aoNewList -     The new list
+     *********************************************************************************************************/
+    private static CopyOnWriteArrayList<HW04_ObjectGame> copyList (
+        Class<?> cType,
+        HW04_ObjectGame oOldObject,
+        HW04_ObjectGame oNewObject
+    ) {
+        
+        // Declare variables
+        CopyOnWriteArrayList<HW04_ObjectGame> aoOldList;
+        HW04_ObjectGame[] aoOld;
+        HW04_ObjectGame[] aoNew;
+        int nOld;
+        int nNew;
+        
+        aoOldList = oObjectsByClass.get(cType);
+        aoOld = aoOldList == null ? new HW04_ObjectGame[0] : aoOldList.toArray(new HW04_ObjectGame[0]);
+        aoNew = new HW04_ObjectGame[aoOld.length + 1];
+        nNew = 0;
+        if (oNewObject != null && cType.isInstance(oNewObject) == false) {
+            oNewObject = null;
+        }
+        
+        // Copy, dropping the old object and slotting the new one in by GUID
+        for (nOld = 0; nOld < aoOld.length; nOld++) {
+            if (oNewObject != null && oNewObject.getGUID() < aoOld[nOld].getGUID()) {
+                aoNew[nNew++] = oNewObject;
+                oNewObject = null;
+            }
+            if (aoOld[nOld] != oOldObject) {
+                aoNew[nNew++] = aoOld[nOld];
+            }
+        }
+        if (oNewObject != null) {
+            aoNew[nNew++] = oNewObject;
+        }
+        return new CopyOnWriteArrayList<HW04_ObjectGame>(Arrays.copyOf(aoNew, nNew));
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        findSlot
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the slot of the hash table that holds the object with a GUID,
+     *                      or the empty slot where it would go
+     *
+     * ARGUMENTS:       nGUID -     The GUID
+     *
+     * RETURNS:         nSlot -     The slot
+     *********************************************************************************************************/
+    private static int findSlot (int nGUID) {
+        
+        // Declare variables
+        int nSlot;
+        
+        nSlot = getHomeSlot(nGUID);
+        while (aoObjects[nSlot] != null && anGUIDs[nSlot] != nGUID) {
+            nSlot = (nSlot + 1) & (aoObjects.length - 1);
+        }
+        return nSlot;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getHomeSlot
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find the slot of the hash table where the search for a GUID starts
+     *                  GUIDs are handed out in sequence, so mix up the bits to spread them out
+     *
+     * ARGUMENTS:       nGUID -     The GUID
+     *
+     * RETURNS:         nSlot -     The slot
+     *********************************************************************************************************/
+    private static int getHomeSlot (int nGUID) {
+        
+        // Declare variables
+        int nHash;
+        
+        nHash = nGUID * 0x9E3779B9;
+        return (nHash ^ (nHash >>> 16)) & (aoObjects.length - 1);
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        grow
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Double the size of the hash table (keeping it no more than half full keeps searches short)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void grow () {
+        
+        // Declare variables
+        int[] anOldGUIDs;
+        HW04_ObjectGame[] aoOldObjects;
+        int nSlot;
+        int i;
+        
+        anOldGUIDs = anGUIDs;
+        aoOldObjects = aoObjects;
+        anGUIDs = new int[aoOldObjects.length * 2];
+        aoObjects = new HW04_ObjectGame[aoOldObjects.length * 2];
+        for (i = 0; i < aoOldObjects.length; i++) {
+            if (aoOldObjects[i] != null) {
+                nSlot = findSlot(anOldGUIDs[i]);
+                anGUIDs[nSlot] = anOldGUIDs[i];
+                aoObjects[nSlot] = aoOldObjects[i];
+            }
+        }
+    
+    }
+
+}
@@ -4,13 +4,18 @@
  * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
  *
  * DESCRIPTION:     Define a class of object that represents a game world object that is renderable
+ *                  Renderable objects draw themselves with a renderer (see HW04_Renderer),
+ *                      which only the client has, so the server can load them without Processing.
  *************************************************************************************************************/
 
 // IMPORTS
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
-import processing.core.PFont;
 
 // CLASS DEFINITION
 public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
@@ -21,14 +26,17 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
     /* Object properties (transient)
      * https://stackoverflow.com/questions/5177013/how-does-marking-a-field-as-transient-make-it-possible-to-serialise-an-object
      */
-    private transient PApplet oApplet;
-    private transient PFont oFont = null;
+    private transient HW04_Renderer oRenderer;
     
     // Object properties (other)
-
+    
     private final static int N_FONT_PX = 12;
-    private HW04_Color oColor;
-    private boolean bHidden;
+    
+    // What Java serialization writes (these used to be fields, and are now kept with the position, see HW04_ObjectLocated)
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("oColor", HW04_Color.class),
+        new ObjectStreamField("bHidden", boolean.class)
+    };
     
     /*********************************************************************************************************
      * FUNCTION:        HW04_ObjectRenderable Constructor
@@ -45,7 +53,7 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
      *                  nHeight_px -    The height of the new object
      *                  nRadius_px -    The corner radius of the new object
      *                  oColor -        The color of the new object
-     *                  oApplet -       A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -     What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
@@ -57,16 +65,16 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
         int nHeight_px, 
         int nRadius_px, 
         HW04_Color oColor,
-        PApplet oApplet
+        HW04_Renderer oRenderer
     ) {
         
         // Construct located object
         super(nExistingGUID, nX_px, nY_px, nWidth_px, nHeight_px, nRadius_px);
             
         try {
-            this.oColor =  oColor;
-            this.oApplet = oApplet;
-            this.bHidden = false;
+            this.setColor(oColor);
+            this.oRenderer = oRenderer;
+            this.setHiddenFlag(false);
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -74,6 +82,21 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectRenderable Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty renderable object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectRenderable () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getRenderableObjects
      *
@@ -86,27 +109,7 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
      * RETURNS:         aoObjectsRenderable -    All renderable objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectRenderable> getRenderableObjects () {
-        CopyOnWriteArrayList<HW04_ObjectRenderable> aoObjectsRenderable = new CopyOnWriteArrayList<HW04_ObjectRenderable>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectRenderable) {
-                    aoObjectsRenderable.add((HW04_ObjectRenderable) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsRenderable;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectRenderable.class);
     }
 
     /*********************************************************************************************************
@@ -128,30 +131,23 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
                 
                 // Declare variables
                 HW04_Color oColorInverse;
-                
-                /* Set up font if we haven't already
-                 * Can't set this up in constructor
-                 * Almost all objects are created by the server
-                 * Server doesn't actually draw onscreen, so doesn't have the necessary PApplet
-                 */
-                if (oFont == null) {
-                    oFont = oApplet.createFont("Arial", N_FONT_PX, true);
-                    oApplet.textFont(oFont);
-                }
+                HW04_Color oColor;
                 
                 // Set the fill color
-                oApplet.fill(this.oColor.R, this.oColor.G, this.oColor.B);
+                oColor = this.getColor();
+                oRenderer.fill(oColor.R, oColor.G, oColor.B);
                 
                 // Set the default border to non-existent
-                oApplet.noStroke();
+                oRenderer.noStroke();
                 
                 /* Draw the object on the screen
                  *  (0,0) is at the TOP LEFT corner of the renderable object
                  *  (0,0) is at the TOP LEFT of the drawing window
+                 *  With the FIXED option, draw part way between the last two steps
                  */
-                oApplet.rect(
-                    this.getPositionX(), 
-                    this.getPositionY(), 
+                oRenderer.rect(
+                    this.getRenderPositionX(), 
+                    this.getRenderPositionY(),  
                     this.getWidth(), 
                     this.getHeight(), 
                     this.getRadius()
@@ -192,7 +188,41 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
      * RETURNS:         oColor - the object's color
      *********************************************************************************************************/
     public HW04_Color getColor () {
-        return this.oColor;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return HW04_Color.getColor(oChunk.anColor[this.nColumnSlot]);
+        }
+        return this.getFields().oColor;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getColorRGB
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter for the color packed into one int (see HW04_Color.getRGB),
+     *                      which an object in a store has without making a color object
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nRGB -  the object's color (0xRRGGBB), or -1 if it has none
+     *********************************************************************************************************/
+    int getColorRGB () {
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            return oChunk.anColor[this.nColumnSlot];
+        }
+        return HW04_Color.getRGB(this.getFields().oColor);
+    
     }
     
     /*********************************************************************************************************
@@ -207,7 +237,18 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
      * RETURNS:         None
      *********************************************************************************************************/
     public void setColor (HW04_Color oColor) {
-        this.oColor = oColor;
+        
+        // Declare variables
+        HW04_ColumnChunk oChunk;
+        
+        oChunk = this.oColumnChunk;
+        if (oChunk != null) {
+            oChunk.anColor[this.nColumnSlot] = HW04_Color.getRGB(oColor);
+        }
+        else {
+            this.getFields().oColor = oColor;
+        }
+    
     }
     
     /*********************************************************************************************************
@@ -222,7 +263,7 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
      * RETURNS:         bHidden -   True if the object is temporarily hidden
      *********************************************************************************************************/
     public boolean getHiddenFlag () {
-        return this.bHidden;
+        return this.getFlag(HW04_ObjectFields.N_FLAG_HIDDEN);
     }
     
     /*********************************************************************************************************
@@ -237,11 +278,29 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
      * RETURNS:         None
      *********************************************************************************************************/
     public void setHiddenFlag (boolean bHide) {
-        this.bHidden = bHide;
+        this.setFlag(HW04_ObjectFields.N_FLAG_HIDDEN, bHide);
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        getApplet
+     * FUNCTION:        prepareForReuse
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get an object that has left the game ready to come back (see HW04_ObjectGame.prepareForReuse)
+     *                      It is no longer hidden
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void prepareForReuse () {
+        super.prepareForReuse();
+        this.setHiddenFlag(false);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getRenderer
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
@@ -249,25 +308,155 @@ public abstract class HW04_ObjectRenderable extends HW04_ObjectCollidable {
      *
      * ARGUMENTS:       None
      * 
-     * RETURNS:         oApplet - the object's Processing API applet
+     * RETURNS:         oRenderer - what the object draws itself with
      *********************************************************************************************************/
-    PApplet getApplet () {
-        return this.oApplet;
+    HW04_Renderer getRenderer () {
+        return this.oRenderer;
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        setApplet
+     * FUNCTION:        setRenderer
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     Setter
      *
-     * ARGUMENTS:       oApplet - the object's Processing API applet
+     * ARGUMENTS:       oRenderer - what the object draws itself with
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    void setApplet (PApplet oApplet) {
-        this.oApplet = oApplet;
+    void setRenderer (HW04_Renderer oRenderer) {
+        this.oRenderer = oRenderer;
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        writeFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields in a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void writeFields (DataOutputStream oStream) throws IOException {
+        
+        // Declare variables
+        int nRGB;
+        
+        super.writeFields(oStream);
+        nRGB = this.getColorRGB();
+        oStream.writeBoolean(nRGB != -1);
+        if (nRGB != -1) {
+            oStream.writeByte(nRGB >> 16);
+            oStream.writeByte(nRGB >> 8);
+            oStream.writeByte(nRGB);
+        }
+        oStream.writeBoolean(this.getHiddenFlag());
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFields
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields from a fixed binary layout (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void readFields (DataInputStream oStream) throws IOException {
+        super.readFields(oStream);
+        if (oStream.readBoolean() == true) {
+            this.setColor(new HW04_Color(oStream.readUnsignedByte(), oStream.readUnsignedByte(), oStream.readUnsignedByte()));
+        }
+        this.setHiddenFlag(oStream.readBoolean());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        captureState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Record this object's replicated fields in a state object (see HW04_ObjectDelta)
+     * 
+     * ARGUMENTS:       oState -    The state object to record into
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void captureState (HW04_ObjectDelta oState) {
+        super.captureState(oState);
+        oState.setHiddenFlag(this.getHiddenFlag());
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        applyState
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Patch this object in place with whichever replicated fields a delta carries
+     * 
+     * ARGUMENTS:       oDelta -    The delta to apply
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    void applyState (HW04_ObjectDelta oDelta) {
+        super.applyState(oDelta);
+        if (oDelta.hasField(HW04_ObjectDelta.N_FIELD_HIDDEN) == true) {
+            this.setHiddenFlag(oDelta.getHiddenFlag());
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write this object's fields with Java serialization (see serialPersistentFields)
+     * 
+     * ARGUMENTS:       oStream -   The stream to write to
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void writeObject (ObjectOutputStream oStream) throws IOException {
+        
+        // Declare variables
+        ObjectOutputStream.PutField oFieldsOut;
+        
+        oFieldsOut = oStream.putFields();
+        oFieldsOut.put("oColor", this.getColor());
+        oFieldsOut.put("bHidden", this.getHiddenFlag());
+        oStream.writeFields();
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read this object's fields with Java serialization (see writeObject)
+     * 
+     * ARGUMENTS:       oStream -   The stream to read from
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void readObject (ObjectInputStream oStream) throws IOException, ClassNotFoundException {
+        
+        // Declare variables
+        ObjectInputStream.GetField oFieldsIn;
+        
+        oFieldsIn = oStream.readFields();
+        this.setColor((HW04_Color) oFieldsIn.get("oColor", null));
+        this.setHiddenFlag(oFieldsIn.get("bHidden", false));
+    
+    }
+    
 }
\ No newline at end of file
@@ -8,7 +8,6 @@
 
 // IMPORTS
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 // CLASS DEFINITION
@@ -40,6 +39,21 @@ public class HW04_ObjectSpawnPoint extends HW04_ObjectLocated {
         super(nExistingGUID, nX_px, nY_px);
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectSpawnPoint Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty spawn point object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectSpawnPoint () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        addSpawnPointToEveryStaticPlatform
      *
@@ -120,19 +134,28 @@ public class HW04_ObjectSpawnPoint extends HW04_ObjectLocated {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     Return a randomly selected spawn point
+     *                  Prefer spawn points where there is room for whatever is spawning
      *
-     * ARGUMENTS:       None
+     * ARGUMENTS:       aoObjectsToIgnore - Objects that don't take up room (such as whatever is spawning)
+     *                  nWidth_px -         Width of whatever is spawning
+     *                  nHeight_px -        Height of whatever is spawning
      * 
-     * RETURNS:         oSpawnPoint -   A randomly selected spawn point
+     * RETURNS:         oSpawnPoint -       A randomly selected spawn point
      *********************************************************************************************************/
-    public static HW04_ObjectSpawnPoint getRandomSpawnPoint () {
+    public static HW04_ObjectSpawnPoint getRandomSpawnPoint (
+        CopyOnWriteArrayList<HW04_ObjectCollidable> aoObjectsToIgnore,
+        int nWidth_px,
+        int nHeight_px
+    ) {
         
         HW04_ObjectSpawnPoint oSpawnPoint = null;
         try {
             
             // Declare variables
             CopyOnWriteArrayList<HW04_ObjectSpawnPoint> aoSpawnPoints;
+            CopyOnWriteArrayList<HW04_ObjectSpawnPoint> aoRoomySpawnPoints;
             Random oRandomizer;
+            int i;
             
             // Get randomizer
             oRandomizer = new Random();
@@ -140,18 +163,36 @@ public class HW04_ObjectSpawnPoint extends HW04_ObjectLocated {
             // Find out about all spawn points in the game
             aoSpawnPoints = getSpawnPointObjects();
             
+            // Find out which ones have room
+            aoRoomySpawnPoints = new CopyOnWriteArrayList<HW04_ObjectSpawnPoint>();
+            for (i = 0; i < aoSpawnPoints.size(); i++) {
+                if (HW04_ObjectCollidable.isSpaceOccupied(
+                    aoObjectsToIgnore,
+                    aoSpawnPoints.get(i).getPositionX(),
+                    aoSpawnPoints.get(i).getPositionX() + nWidth_px,
+                    aoSpawnPoints.get(i).getPositionY(),
+                    aoSpawnPoints.get(i).getPositionY() + nHeight_px
+                ) == false) {
+                    aoRoomySpawnPoints.add(aoSpawnPoints.get(i));
+                }
+            }
+            
             // Error checking
             if (aoSpawnPoints.size() < 1) {
                 throw new Exception("Must have at least one spawn point!");
             }
             
-            // Assign a random spawn point
+            // Assign a random spawn point (with room if there is one)
+            else if (aoRoomySpawnPoints.size() > 0) {
+                oSpawnPoint = aoRoomySpawnPoints.get(oRandomizer.nextInt(aoRoomySpawnPoints.size()));
+            }
             else {
                 oSpawnPoint = aoSpawnPoints.get(oRandomizer.nextInt(aoSpawnPoints.size()));
             }
             
             // Free
             aoSpawnPoints = null;
+            aoRoomySpawnPoints = null;
             
         }
         catch (Throwable oError) {
@@ -173,27 +214,7 @@ public class HW04_ObjectSpawnPoint extends HW04_ObjectLocated {
      * RETURNS:         aoObjectsRenderable -    All renderable objects in the game.
      *********************************************************************************************************/
     private static CopyOnWriteArrayList<HW04_ObjectSpawnPoint> getSpawnPointObjects () {
-        CopyOnWriteArrayList<HW04_ObjectSpawnPoint> aoObjectsSpawn = new CopyOnWriteArrayList<HW04_ObjectSpawnPoint>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectSpawnPoint) {
-                    aoObjectsSpawn.add((HW04_ObjectSpawnPoint) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsSpawn;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectSpawnPoint.class);
     }
     
 }
\ No newline at end of file
@@ -7,7 +7,7 @@
  *************************************************************************************************************/
 
 // IMPORTS
-import processing.core.PApplet;
+// None
 
 // CLASS DEFINITION
 public abstract class HW04_ObjectStatus extends HW04_ObjectRenderable {
@@ -38,11 +38,11 @@ public abstract class HW04_ObjectStatus extends HW04_ObjectRenderable {
      * 
      * ARGUMENTS:       nExistingGUID -     The GUID of the new object
      *                                      If -1, a new GUID will be automatically assigned
-     *                  oApplet -       A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -     What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public HW04_ObjectStatus (int nExistingGUID, PApplet oApplet) {
+    public HW04_ObjectStatus (int nExistingGUID, HW04_Renderer oRenderer) {
         
         // Construct renderable object
         super(
@@ -53,7 +53,7 @@ public abstract class HW04_ObjectStatus extends HW04_ObjectRenderable {
             N_HEIGHT_PX, 
             N_RADIUS_PX, 
             O_COLOR,
-            oApplet
+            oRenderer
         );
         
         // Keep count
@@ -61,6 +61,21 @@ public abstract class HW04_ObjectStatus extends HW04_ObjectRenderable {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectStatus Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty status object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectStatus () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getTotalHeight
      *
@@ -9,8 +9,6 @@
 // IMPORTS
 import java.util.concurrent.CopyOnWriteArrayList;
 
-import processing.core.PApplet;
-import processing.core.PConstants;
 
 // CLASS DEFINITION
 public class HW04_ObjectStatusInstructions extends HW04_ObjectStatus {
@@ -27,20 +25,35 @@ public class HW04_ObjectStatusInstructions extends HW04_ObjectStatus {
      * 
      * ARGUMENTS:       nExistingGUID -     The GUID of the new object
      *                                      If -1, a new GUID will be automatically assigned
-     *                  oApplet -           A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -         What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public HW04_ObjectStatusInstructions (int nExistingGUID, PApplet oApplet) {
+    public HW04_ObjectStatusInstructions (int nExistingGUID, HW04_Renderer oRenderer) {
         
         // Construct status object
         super(
             nExistingGUID,
-            oApplet
+            oRenderer
         );
         
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectStatusInstructions Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty instructions status object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectStatusInstructions () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        display
      *
@@ -64,9 +77,9 @@ public class HW04_ObjectStatusInstructions extends HW04_ObjectStatus {
             String nInstructionsText;
             
             // Draw the status summary box
-            this.getApplet().fill(HW04_Color.white());
-            this.getApplet().stroke(HW04_Color.black());
-            this.getApplet().rect(
+            this.getRenderer().fill(HW04_Color.white());
+            this.getRenderer().stroke(HW04_Color.black());
+            this.getRenderer().rect(
                 // X
                 this.getPositionX(), 
                 // Y
@@ -131,9 +144,9 @@ public class HW04_ObjectStatusInstructions extends HW04_ObjectStatus {
             nInstructionsText = "'Q' quit" + nInstructionsText;
             
             // Draw text
-            this.getApplet().fill(HW04_Color.black());
-            this.getApplet().textAlign(PConstants.LEFT, PConstants.TOP);
-            this.getApplet().text(
+            this.getRenderer().fill(HW04_Color.black());
+            this.getRenderer().textAlign(HW04_Renderer.N_ALIGN_LEFT, HW04_Renderer.N_ALIGN_TOP);
+            this.getRenderer().text(
                 nInstructionsText, 
                 this.getPositionX() + HW04_ObjectStatus.getStaticMargin(), 
                 this.getPositionY() + HW04_ObjectStatus.getStaticMargin()
@@ -7,10 +7,7 @@
  *************************************************************************************************************/
 
 // IMPORTS
-import java.util.Collections;
 import java.util.concurrent.CopyOnWriteArrayList;
-import processing.core.PApplet;
-import processing.core.PConstants;
 
 // CLASS DEFINITION
 public class HW04_ObjectStatusScoreboard extends HW04_ObjectStatus {
@@ -27,20 +24,35 @@ public class HW04_ObjectStatusScoreboard extends HW04_ObjectStatus {
      * 
      * ARGUMENTS:       nExistingGUID -     The GUID of the new object
      *                                      If -1, a new GUID will be automatically assigned
-     *                  oApplet -           A PApplet object (window) that we want to draw an object onto
+     *                  oRenderer -         What to draw the object with (only the client has one, see HW04_Renderer)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public HW04_ObjectStatusScoreboard (int nExistingGUID, PApplet oApplet) {
+    public HW04_ObjectStatusScoreboard (int nExistingGUID, HW04_Renderer oRenderer) {
         
         // Construct status object
         super(
             nExistingGUID,
-            oApplet
+            oRenderer
         );
         
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectStatusScoreboard Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty scoreboard status object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectStatusScoreboard () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        display
      *
@@ -67,13 +79,11 @@ public class HW04_ObjectStatusScoreboard extends HW04_ObjectStatus {
             float nCellX_px;
             int i;
             
-            // Get all character objects
-            aoObjectsCharacter = HW04_ObjectCharacter.getCharacterObjects();
-            
-            /* Sort character objects by GUID
-             * They might be out of order if many clients joined the game at nearly the same time
+            /* Get all character objects
+             * These come sorted by GUID (see HW04_ObjectRegistry),
+             *  even if many clients joined the game at nearly the same time
              */
-            Collections.sort(aoObjectsCharacter);
+            aoObjectsCharacter = HW04_ObjectCharacter.getCharacterObjects();
             
             // Draw each character's score
             for (i = 0; i < aoObjectsCharacter.size(); i++) {
@@ -81,9 +91,9 @@ public class HW04_ObjectStatusScoreboard extends HW04_ObjectStatus {
                 // Draw table cell
                 nCellWidth_px = this.getWidth() / aoObjectsCharacter.size();
                 nCellX_px = this.getPositionX() + nCellWidth_px * i;
-                this.getApplet().fill(HW04_Color.white());
-                this.getApplet().stroke(HW04_Color.black());
-                this.getApplet().rect(
+                this.getRenderer().fill(HW04_Color.white());
+                this.getRenderer().stroke(HW04_Color.black());
+                this.getRenderer().rect(
                     // X
                     nCellX_px, 
                     // Y
@@ -104,9 +114,9 @@ public class HW04_ObjectStatusScoreboard extends HW04_ObjectStatus {
                     aoObjectsCharacter.get(i).getScore();
                 
                 // Draw text
-                this.getApplet().fill(HW04_Color.black());
-                this.getApplet().textAlign(PConstants.LEFT, PConstants.TOP);
-                this.getApplet().text(
+                this.getRenderer().fill(HW04_Color.black());
+                this.getRenderer().textAlign(HW04_Renderer.N_ALIGN_LEFT, HW04_Renderer.N_ALIGN_TOP);
+                this.getRenderer().text(
                     sTextForCharacter, 
                     nCellX_px + HW04_ObjectStatus.getStaticMargin(), 
                     this.getPositionY() + HW04_ObjectStatus.getStaticMargin()
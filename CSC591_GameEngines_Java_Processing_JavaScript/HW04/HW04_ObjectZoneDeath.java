@@ -7,7 +7,6 @@
  *************************************************************************************************************/
 
 // IMPORTS
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 // CLASS DEFINITION
@@ -49,6 +48,21 @@ public class HW04_ObjectZoneDeath extends HW04_ObjectCollidable {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectZoneDeath Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty death zone object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectZoneDeath () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getDeathZoneObjects
      *
@@ -61,27 +75,7 @@ public class HW04_ObjectZoneDeath extends HW04_ObjectCollidable {
      * RETURNS:         aoObjectsDeathZone -    All death zone objects in the game.
      *********************************************************************************************************/
     public static CopyOnWriteArrayList<HW04_ObjectZoneDeath> getDeathZoneObjects () {
-        CopyOnWriteArrayList<HW04_ObjectZoneDeath> aoObjectsDeathZone = new CopyOnWriteArrayList<HW04_ObjectZoneDeath>();
-        try {
-            
-            // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame = HW04_ObjectGame.getGameObjects();
-            
-            // Get all character objects
-            for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                if (oEntry.getValue() instanceof HW04_ObjectZoneDeath) {
-                    aoObjectsDeathZone.add((HW04_ObjectZoneDeath) oEntry.getValue());
-                }
-            }
-            
-            // Free
-            oObjectsGame = null;
-            
-        }
-        catch (Throwable oError) {
-            HW04_Utility.handleError(oError);
-        }
-        return aoObjectsDeathZone;
+        return HW04_ObjectRegistry.getObjectsOfType(HW04_ObjectZoneDeath.class);
     }
     
     /*********************************************************************************************************
@@ -104,7 +98,7 @@ public class HW04_ObjectZoneDeath extends HW04_ObjectCollidable {
                 -1,
                 0,
                 HW04_Utility.getWindowSize() - 1,
-                HW04_Utility.getWindowSize(),
+                HW04_Utility.getWorldWidth(),
                 1
             );
             
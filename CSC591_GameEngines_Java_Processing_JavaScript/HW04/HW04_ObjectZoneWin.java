@@ -48,6 +48,21 @@ public class HW04_ObjectZoneWin extends HW04_ObjectCollidable {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ObjectZoneWin Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for an empty win zone object, to be filled in from a binary message (see HW04_NetworkCodec)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    protected HW04_ObjectZoneWin () {
+        // Nothing to do here, fields are filled in by readFields()
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        addWinZoneToTopOfWindow
      *
@@ -68,7 +83,7 @@ public class HW04_ObjectZoneWin extends HW04_ObjectCollidable {
                 -1,
                 0,
                 HW04_ObjectStatus.getTotalHeight(),
-                HW04_Utility.getWindowSize(),
+                HW04_Utility.getWorldWidth(),
                 1
             );
             
@@ -0,0 +1,517 @@
+/*************************************************************************************************************
+ * FILE:            HW04_OutboundQueue.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Define a queue of communicable objects waiting to be written to one client.
+ *                  Behaves like a linked blocking queue, except that:
+ *                      State updates are latest-wins, by GUID.
+ *                          If an update for a game object is still waiting to be written
+ *                          when a newer one comes along, the newer one takes its place in line.
+ *                          A whole game object replaces any waiting update for that object.
+ *                          A delta (DELTA option) is merged into any waiting delta for that object,
+ *                          so that no changed field is lost.
+ *                          So at most two updates per game object (one whole, one delta) are ever waiting.
+ *                      Everything else (events, event registrations) is never coalesced,
+ *                          and is written in the order it was queued.
+ *                      The queue is bounded.
+ *                          If it is full, it refuses to take anything more,
+ *                          and flags itself as overflowed so that the server can let the client go,
+ *                          rather than let one stalled client use up the server's memory.
+ *                      It can wake up a selector whenever something is added,
+ *                          so that an I/O thread multiplexing many sockets (see the SELECTOR option)
+ *                          learns right away that this client has something to be written to it.
+ *                          With the PACKETS option, it only does so at the end of a packet.
+ *                  How it works:
+ *                      The underlying linked blocking queue holds the order in which things are to be written.
+ *                      For a state update, it holds a placeholder (the first update queued for that slot),
+ *                          and the latest update for that slot is kept to one side, by slot.
+ *                      A placeholder whose slot has been given up is taken out of line,
+ *                          so that only updates still waiting to be written count against the bound
+ *                          (if the writer has already taken it, it is skipped instead).
+ *                  Counters for coalesced and refused objects are kept per queue, and for all queues together.
+ *                  Once the client has left, the queue is closed; it empties, and quietly refuses anything more.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.nio.channels.Selector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// CLASS DEFINITION
+public class HW04_OutboundQueue extends LinkedBlockingQueue<HW04_ObjectCommunicable> {
+    
+    // Required for serializable class
+    private static final long serialVersionUID = 1L;
+    
+    // Constants
+    public static final int N_MAX_WAITING = 4096;
+    
+    // Put in line to wake up a writer waiting on a queue that has been closed
+    private static final HW04_ObjectCommunicable O_WAKE_UP = new HW04_ObjectCommunicable();
+    
+    // Counters for all queues together
+    private static final AtomicLong oTotalCoalesced =   new AtomicLong();
+    private static final AtomicLong oTotalDropped =     new AtomicLong();
+    
+    // Private variables
+    private transient Selector                                  oSelectorToWake;
+    private ConcurrentHashMap<Integer, HW04_ObjectCommunicable> oLatestStates;
+    private ConcurrentHashMap<Integer, HW04_ObjectCommunicable> oPlacesInLine;
+    private long                                                nCoalesced;
+    private long                                                nDropped;
+    private volatile boolean                                    bOverflowed;
+    private volatile boolean                                    bClosed;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_OutboundQueue Constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Constructor for a new outbound queue
+     *
+     * ARGUMENTS:       oSelector - The selector to wake up when something is added (or null)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public HW04_OutboundQueue (Selector oSelector) {
+        super();
+        try {
+            this.oSelectorToWake = oSelector;
+            this.oLatestStates = new ConcurrentHashMap<Integer, HW04_ObjectCommunicable>();
+            this.oPlacesInLine = new ConcurrentHashMap<Integer, HW04_ObjectCommunicable>();
+            this.nCoalesced = 0;
+            this.nDropped = 0;
+            this.bOverflowed = false;
+            this.bClosed = false;
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        offer
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add an object to the queue (coalescing state updates), then wake up the selector.
+     *                  .add(), .addAll() and .put() all come through here.
+     *
+     * ARGUMENTS:       oObject -   The object to add
+     *
+     * RETURNS:         bAdded -    True if the object was added (or coalesced with one already waiting)
+     *                              False if the queue is full
+     *********************************************************************************************************/
+    @Override
+    public boolean offer (HW04_ObjectCommunicable oObject) {
+        boolean bAdded = false;
+        try {
+            
+            // Declare variables
+            Integer nSlot;
+            HW04_ObjectCommunicable oWaiting;
+            
+            synchronized (this) {
+                
+                nSlot = getStateSlot(oObject);
+                
+                // Nobody to write to any more
+                if (this.bClosed == true) {
+                    bAdded = false;
+                }
+                
+                // State update for a game object that already has an update waiting - take its place in line
+                else if (nSlot != null && this.oLatestStates.containsKey(nSlot) == true) {
+                    oWaiting = this.oLatestStates.get(nSlot);
+                    this.oLatestStates.put(nSlot, coalesce(oWaiting, oObject));
+                    this.nCoalesced++;
+                    oTotalCoalesced.incrementAndGet();
+                    this.giveUpDeltaSlot(nSlot);
+                    bAdded = true;
+                }
+                
+                // Anything else needs a new place in line, if there's room
+                else if (super.size() >= N_MAX_WAITING) {
+                    this.nDropped++;
+                    oTotalDropped.incrementAndGet();
+                    this.bOverflowed = true;
+                    bAdded = false;
+                }
+                else {
+                    
+                    // A whole game object supersedes any waiting delta for it
+                    if (nSlot != null) {
+                        this.giveUpDeltaSlot(nSlot);
+                    }
+                    
+                    // Get in line
+                    if (nSlot != null) {
+                        this.oLatestStates.put(nSlot, oObject);
+                        this.oPlacesInLine.put(nSlot, oObject);
+                    }
+                    bAdded = super.offer(oObject);
+                
+                }
+            
+            }
+            
+            // Let the selector know (about an overflow, too, so the client can be let go)
+            if (
+                this.oSelectorToWake != null && 
+                (bAdded == true || this.bOverflowed == true) && 
+                (HW04_Globals.bFramePackets == false || oObject == HW04_NetworkCodec.O_END_OF_PACKET || this.bOverflowed == true)
+            ) {
+                this.oSelectorToWake.wakeup();
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return bAdded;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        add
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add an object to the queue.
+     *                  Unlike other queues, does not throw when the queue is full
+     *                      (the queue flags itself as overflowed instead, see isOverflowed).
+     *
+     * ARGUMENTS:       oObject -   The object to add
+     *
+     * RETURNS:         bAdded -    True if the object was added
+     *********************************************************************************************************/
+    @Override
+    public boolean add (HW04_ObjectCommunicable oObject) {
+        return this.offer(oObject);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        put
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add an object to the queue (never blocks, see add)
+     *
+     * ARGUMENTS:       oObject -   The object to add
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    @Override
+    public void put (HW04_ObjectCommunicable oObject) {
+        this.offer(oObject);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        poll
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take the next object to write, without waiting
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oObject -   The next object to write (or null if there is nothing to write)
+     *********************************************************************************************************/
+    @Override
+    public HW04_ObjectCommunicable poll () {
+        
+        HW04_ObjectCommunicable oObject = null;
+        try {
+            
+            // Declare variables
+            HW04_ObjectCommunicable oInLine;
+            
+            // Skip over any places in line that were given up
+            do {
+                oInLine = super.poll();
+                oObject = (oInLine == null) ? null : this.resolve(oInLine);
+            } while (oInLine != null && oObject == null);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        take
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Take the next object to write, waiting if need be
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oObject -   The next object to write (or null if the queue has been closed)
+     *********************************************************************************************************/
+    @Override
+    public HW04_ObjectCommunicable take () throws InterruptedException {
+        
+        // Declare variables
+        HW04_ObjectCommunicable oObject;
+        
+        // Skip over any places in line that were given up
+        do {
+            oObject = this.resolve(super.take());
+        } while (oObject == null && this.bClosed == false);
+        return oObject;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        close
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Throw away everything waiting to be written, and refuse anything more
+     *                      (the client has left the game).
+     *                  A writer waiting on the queue is woken up, and gets null.
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public synchronized void close () {
+        this.bClosed = true;
+        super.clear();
+        this.oLatestStates.clear();
+        this.oPlacesInLine.clear();
+        super.offer(O_WAKE_UP);
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isOverflowed
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether the queue has ever had to refuse something because it was full
+     *                      (which means that the client is not keeping up, and should be let go)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         bOverflowed -   True if the queue has overflowed
+     *********************************************************************************************************/
+    public boolean isOverflowed () {
+        return this.bOverflowed;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getCoalescedCount
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nCoalesced -    How many state updates in this queue were replaced by newer ones before being written
+     *********************************************************************************************************/
+    public synchronized long getCoalescedCount () {
+        return this.nCoalesced;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getDroppedCount
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nDropped -  How many objects this queue refused because it was full
+     *********************************************************************************************************/
+    public synchronized long getDroppedCount () {
+        return this.nDropped;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getTotalCoalescedCount
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nTotalCoalesced -   How many state updates in all queues were replaced by newer ones
+     *********************************************************************************************************/
+    public static long getTotalCoalescedCount () {
+        return oTotalCoalesced.get();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getTotalDroppedCount
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Getter
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         nTotalDropped -     How many objects all queues refused because they were full
+     *********************************************************************************************************/
+    public static long getTotalDroppedCount () {
+        return oTotalDropped.get();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        resolve
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Turn a place in line into the object to write.
+     *                  For a state update, that is the latest update for the same slot.
+     *
+     * ARGUMENTS:       oInLine -   What was in line
+     *
+     * RETURNS:         oObject -   The object to write (or null if the place in line was given up)
+     *********************************************************************************************************/
+    private synchronized HW04_ObjectCommunicable resolve (HW04_ObjectCommunicable oInLine) {
+        
+        // Declare variables
+        Integer nSlot;
+        
+        // State updates are written as they are now, everything else as it was
+        nSlot = getStateSlot(oInLine);
+        if (oInLine == O_WAKE_UP) {
+            return null;
+        }
+        else if (nSlot == null) {
+            return oInLine;
+        }
+        else if (this.oPlacesInLine.get(nSlot) == oInLine) {
+            this.oPlacesInLine.remove(nSlot);
+            return this.oLatestStates.remove(nSlot);
+        }
+        else {
+            return null;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        giveUpDeltaSlot
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Drop any waiting delta for a game object, because a whole game object is being queued for it
+     *                      (a delta worked out before the whole object must not be applied after it).
+     *                  Its placeholder is taken out of line, so that it no longer counts against the bound.
+     *                  Caller should synchronize on the queue.
+     *
+     * ARGUMENTS:       nSlot -     The slot of the update being queued
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void giveUpDeltaSlot (int nSlot) {
+        if (nSlot > 0 && this.oLatestStates.remove(-nSlot) != null) {
+            super.remove(this.oPlacesInLine.remove(-nSlot));
+            this.nCoalesced++;
+            oTotalCoalesced.incrementAndGet();
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getStateSlot
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Figure out which slot (if any) a state update belongs in.
+     *                  Each game object has two slots, one for a whole object and one for a delta.
+     *
+     * ARGUMENTS:       oObject -   The object to write
+     *
+     * RETURNS:         nSlot -     The game object's GUID, for a whole game object
+     *                              The negative of the game object's GUID, for a delta
+     *                              Null, for anything that is not a state update
+     *********************************************************************************************************/
+    private static Integer getStateSlot (HW04_ObjectCommunicable oObject) {
+        
+        // Look past the encoding
+        if (oObject instanceof HW04_ObjectEncoded) {
+            oObject = ((HW04_ObjectEncoded) oObject).getSource();
+        }
+        
+        // Whole game object, delta, or something else
+        if (oObject instanceof HW04_ObjectGame) {
+            return ((HW04_ObjectGame) oObject).getGUID();
+        }
+        else if (oObject instanceof HW04_ObjectDelta) {
+            return -((HW04_ObjectDelta) oObject).getGUID();
+        }
+        else {
+            return null;
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        coalesce
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Combine a waiting state update with a newer one for the same slot.
+     *                  A newer whole object simply wins.
+     *                  A newer delta is merged with the waiting one,
+     *                      since the waiting one may carry fields that the newer one doesn't.
+     *
+     * ARGUMENTS:       oWaiting -  The update that is waiting to be written
+     *                  oNewer -    The newer update
+     *
+     * RETURNS:         oCombined - The update to write in their place
+     *********************************************************************************************************/
+    private static HW04_ObjectCommunicable coalesce (HW04_ObjectCommunicable oWaiting, HW04_ObjectCommunicable oNewer) {
+        
+        // Declare variables
+        HW04_ObjectDelta oMerged;
+        
+        // Whole objects - newer wins
+        if (getStateSlot(oNewer) > 0) {
+            return oNewer;
+        }
+        
+        // Deltas - merge, and encode again if need be (the encoding can no longer be shared)
+        else {
+            oMerged = getDelta(oNewer).mergeWithEarlier(getDelta(oWaiting));
+            if (oNewer instanceof HW04_ObjectEncoded) {
+                return new HW04_ObjectEncoded(oMerged);
+            }
+            else {
+                return oMerged;
+            }
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getDelta
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the delta behind a state update, looking past the encoding
+     *
+     * ARGUMENTS:       oObject -   The state update
+     *
+     * RETURNS:         oDelta -    The delta
+     *********************************************************************************************************/
+    private static HW04_ObjectDelta getDelta (HW04_ObjectCommunicable oObject) {
+        if (oObject instanceof HW04_ObjectEncoded) {
+            return (HW04_ObjectDelta) ((HW04_ObjectEncoded) oObject).getSource();
+        }
+        else {
+            return (HW04_ObjectDelta) oObject;
+        }
+    }
+
+}
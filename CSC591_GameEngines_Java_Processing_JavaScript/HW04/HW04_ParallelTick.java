@@ -0,0 +1,256 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ParallelTick.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Move many game objects at once, using every core on the server (PARALLEL option).
+ *                  Without the option, the server moves objects one at a time
+ *                      (see HW04_ObjectMoveable.updateLocationAndCheckForCollisions),
+ *                      and each object checks for collisions right after it moves,
+ *                      so whether it hits something can depend on which objects happened to move before it.
+ *                  With the option, a batch of objects is moved in phases:
+ *                      1. Work out where every object in the batch will be (in parallel),
+ *                         against a snapshot of where everything is before any of them move (see HW04_CollisionSnapshot).
+ *                      2. Move them all there (one thread, in GUID order, since this updates HW04_CollisionGrid).
+ *                      3. Check every object in the batch for collisions (in parallel),
+ *                         against a snapshot of where everything is after they have all moved.
+ *                      4. Raise a COLLISION event for each object that hit something (one thread, in GUID order).
+ *                  Work is split into fixed runs of objects by position in the batch, and each run writes only its own results,
+ *                      so the outcome is the same however many threads there are and however the work is scheduled.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// CLASS DEFINITION
+public class HW04_ParallelTick {
+    
+    // Constants
+    private static final int N_OBJECTS_PER_TASK = 32;
+    
+    // Worker threads (made when first needed)
+    private static ForkJoinPool oPool = null;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        updateLocationsAndCheckForCollisions
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Move a batch of objects and react to whatever they hit (see above)
+     *
+     * ARGUMENTS:       aoObjects -             The objects to move (in GUID order)
+     *                  abCheckForCollisions -  Whether to check each object for collisions after moving it
+     *                                          (null to check them all)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void updateLocationsAndCheckForCollisions (
+        CopyOnWriteArrayList<? extends HW04_ObjectMoveable> aoObjects,
+        boolean[] abCheckForCollisions
+    ) {
+        try {
+            
+            // Declare variables
+            final HW04_ObjectMoveable[] aoMovers;
+            final float[] anFutureX;
+            final float[] anFutureY;
+            final float[] anOriginalX;
+            final float[] anOriginalY;
+            final ArrayList<CopyOnWriteArrayList<HW04_ObjectCollidable>> aaoColliding;
+            final HW04_CollisionSnapshot oBefore;
+            final HW04_CollisionSnapshot oAfter;
+            int nCount;
+            int i;
+            
+            // Take the batch as it is now
+            aoMovers = aoObjects.toArray(new HW04_ObjectMoveable[0]);
+            nCount = aoMovers.length;
+            if (nCount == 0) {
+                return;
+            }
+            anFutureX = new float[nCount];
+            anFutureY = new float[nCount];
+            anOriginalX = new float[nCount];
+            anOriginalY = new float[nCount];
+            aaoColliding = new ArrayList<CopyOnWriteArrayList<HW04_ObjectCollidable>>();
+            for (i = 0; i < nCount; i++) {
+                aaoColliding.add(null);
+            }
+            
+            // 1. Work out where everything will be
+            oBefore = new HW04_CollisionSnapshot(HW04_ObjectCollidable.getCollidableObjects());
+            runInParallel(nCount, new Task() {
+                public void run (int nIndex) {
+                    
+                    // Declare variables
+                    HW04_ObjectMoveable oMover;
+                    float nMoveX_px;
+                    float nMoveY_px;
+                    float nFraction;
+                    int nSnapshotIndex;
+                    
+                    oMover = aoMovers[nIndex];
+                    anFutureX[nIndex] = oMover.getFuturePositionX();
+                    anFutureY[nIndex] = oMover.getFuturePositionY();
+                    nMoveX_px = anFutureX[nIndex] - oMover.getPositionX();
+                    nMoveY_px = anFutureY[nIndex] - oMover.getPositionY();
+                    
+                    // Moving fast enough to jump over something? Stop where it is first touched (as in HW04_ObjectMoveable.updateLocation).
+                    nSnapshotIndex = oBefore.getIndex(oMover);
+                    if (
+                        nSnapshotIndex >= 0 && (
+                            Math.abs(nMoveX_px) >= oMover.getWidth() ||
+                            Math.abs(nMoveY_px) >= oMover.getHeight()
+                        )
+                    ) {
+                        nFraction = oBefore.getTimeOfImpact(nSnapshotIndex, nMoveX_px, nMoveY_px);
+                        anFutureX[nIndex] = oMover.getPositionX() + nMoveX_px * nFraction;
+                        anFutureY[nIndex] = oMover.getPositionY() + nMoveY_px * nFraction;
+                    }
+                
+                }
+            });
+            
+            // 2. Move everything there
+            for (i = 0; i < nCount; i++) {
+                aoMovers[i].setPositionX(anFutureX[i]);
+                aoMovers[i].setPositionY(anFutureY[i]);
+                anOriginalX[i] = aoMovers[i].getPositionX();
+                anOriginalY[i] = aoMovers[i].getPositionY();
+            }
+            
+            // 3. Find out what everything hit
+            oAfter = new HW04_CollisionSnapshot(HW04_ObjectCollidable.getCollidableObjects());
+            runInParallel(nCount, new Task() {
+                public void run (int nIndex) {
+                    
+                    // Declare variables
+                    int nSnapshotIndex;
+                    
+                    nSnapshotIndex = oAfter.getIndex(aoMovers[nIndex]);
+                    if (
+                        nSnapshotIndex >= 0 &&
+                        (abCheckForCollisions == null || abCheckForCollisions[nIndex] == true)
+                    ) {
+                        aaoColliding.set(nIndex, oAfter.getColliding(nSnapshotIndex));
+                    }
+                
+                }
+            });
+            
+            // 4. React (in the order of the batch)
+            for (i = 0; i < nCount; i++) {
+                if (aaoColliding.get(i) != null && aaoColliding.get(i).size() > 0) {
+                    HW04_EventManager.getInstance().raiseEventCollision(
+                        aoMovers[i],
+                        aaoColliding.get(i),
+                        anOriginalX[i],
+                        anOriginalY[i]
+                    );
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        runInParallel
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Do a task once for each object in a batch, on the worker threads, and wait for it all to be done.
+     *                  Objects are handed out in fixed runs (so a small batch is done right here, on this thread).
+     *
+     * ARGUMENTS:       nCount -    How many objects are in the batch
+     *                  oTask -     What to do for each object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void runInParallel (int nCount, final Task oTask) throws Exception {
+        
+        // Declare variables
+        ArrayList<Callable<Object>> aoRuns;
+        ArrayList<Future<Object>> aoResults;
+        int nStart;
+        int i;
+        
+        // Small batch - not worth handing out
+        if (nCount <= N_OBJECTS_PER_TASK) {
+            for (i = 0; i < nCount; i++) {
+                oTask.run(i);
+            }
+            return;
+        }
+        
+        // Hand out runs of objects
+        aoRuns = new ArrayList<Callable<Object>>();
+        for (nStart = 0; nStart < nCount; nStart += N_OBJECTS_PER_TASK) {
+            final int nFirst = nStart;
+            final int nLast = Math.min(nCount, nStart + N_OBJECTS_PER_TASK);
+            aoRuns.add(new Callable<Object>() {
+                public Object call () {
+                    
+                    // Declare variables
+                    int j;
+                    
+                    for (j = nFirst; j < nLast; j++) {
+                        oTask.run(j);
+                    }
+                    return null;
+                
+                }
+            });
+        }
+        
+        // Wait for them all (and pass on any trouble)
+        aoResults = new ArrayList<Future<Object>>(getPool().invokeAll(aoRuns));
+        for (i = 0; i < aoResults.size(); i++) {
+            aoResults.get(i).get();
+        }
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getPool
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the worker threads, making them if need be
+     *                      (one per core, or as many as the PARALLEL option says)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         oPool -     The worker threads
+     *********************************************************************************************************/
+    private static synchronized ForkJoinPool getPool () {
+        if (oPool == null) {
+            if (HW04_Globals.nParallelThreads > 0) {
+                oPool = new ForkJoinPool(HW04_Globals.nParallelThreads);
+            }
+            else {
+                oPool = new ForkJoinPool();
+            }
+        }
+        return oPool;
+    }
+    
+    /*********************************************************************************************************
+     * INTERFACE:       Task
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Something to do for one object in a batch
+     *                      (it may only write results for that object, since the others may be done at the same time)
+     *********************************************************************************************************/
+    private interface Task {
+        void run (int nIndex);
+    }
+
+}
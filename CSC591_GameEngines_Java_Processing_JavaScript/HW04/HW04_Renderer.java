@@ -0,0 +1,184 @@
+/*************************************************************************************************************
+ * FILE:            HW04_Renderer.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Define an interface for whatever renderable game objects draw themselves with
+ *                      (see HW04_ObjectRenderable.display).
+ *                  Only the client draws anything, and its window (a Processing PApplet) implements this interface
+ *                      just by having the PApplet methods of the same names.
+ *                  Game objects only ever refer to this interface, never to Processing,
+ *                      so that the server can load them without Processing or AWT (see the HEADLESS option).
+ *************************************************************************************************************/
+
+// IMPORTS
+// None
+
+// INTERFACE DEFINITION
+public interface HW04_Renderer {
+    
+    // Text alignment (same values as Processing's PConstants, so they can be passed straight through)
+    public static final int N_ALIGN_CENTER =    3;
+    public static final int N_ALIGN_LEFT =      37;
+    public static final int N_ALIGN_TOP =       101;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        fill
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Set the color that shapes and text are filled with
+     *
+     * ARGUMENTS:       nGray -     A shade of gray (0 - 255)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void fill (int nGray);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        fill
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Set the color that shapes and text are filled with
+     *
+     * ARGUMENTS:       nR -    Red (0 - 255)
+     *                  nG -    Green (0 - 255)
+     *                  nB -    Blue (0 - 255)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void fill (float nR, float nG, float nB);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        stroke
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Set the color of lines and shape borders
+     *
+     * ARGUMENTS:       nGray -     A shade of gray (0 - 255)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void stroke (int nGray);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        stroke
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Set the color of lines and shape borders
+     *
+     * ARGUMENTS:       nR -    Red (0 - 255)
+     *                  nG -    Green (0 - 255)
+     *                  nB -    Blue (0 - 255)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void stroke (float nR, float nG, float nB);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        strokeWeight
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Set the width of lines and shape borders
+     *
+     * ARGUMENTS:       nWeight_px -    The width
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void strokeWeight (float nWeight_px);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        noStroke
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Draw shapes without borders
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void noStroke ();
+    
+    /*********************************************************************************************************
+     * FUNCTION:        rect
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Draw a rectangle
+     *
+     * ARGUMENTS:       nX_px -         Left
+     *                  nY_px -         Top
+     *                  nWidth_px -     Width
+     *                  nHeight_px -    Height
+     *                  nRadius_px -    Corner radius
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void rect (float nX_px, float nY_px, float nWidth_px, float nHeight_px, float nRadius_px);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        line
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Draw a line
+     *
+     * ARGUMENTS:       nX1_px -    Start, x
+     *                  nY1_px -    Start, y
+     *                  nX2_px -    End, x
+     *                  nY2_px -    End, y
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void line (float nX1_px, float nY1_px, float nX2_px, float nY2_px);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        textAlign
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Set how text is placed relative to the position it is drawn at
+     *
+     * ARGUMENTS:       nAlignX -   N_ALIGN_LEFT or N_ALIGN_CENTER
+     *                  nAlignY -   N_ALIGN_TOP or N_ALIGN_CENTER
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void textAlign (int nAlignX, int nAlignY);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        text
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Draw text
+     *
+     * ARGUMENTS:       sText -     The text
+     *                  nX_px -     Position, x
+     *                  nY_px -     Position, y
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void text (String sText, float nX_px, float nY_px);
+    
+    /*********************************************************************************************************
+     * FUNCTION:        text
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Draw a number
+     *
+     * ARGUMENTS:       nNumber -   The number
+     *                  nX_px -     Position, x
+     *                  nY_px -     Position, y
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void text (int nNumber, float nX_px, float nY_px);
+
+}
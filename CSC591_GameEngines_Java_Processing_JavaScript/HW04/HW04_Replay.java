@@ -35,7 +35,6 @@
 // IMPORTS
 import java.util.ArrayList;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 // CLASS DEFINITION
@@ -123,7 +122,7 @@ public class HW04_Replay implements HW04_EventObserver {
             String[] asTokens2;
             String sUsefulPartOfLine;
             HW04_ObjectLocated oGameObjectToMove;
-            ConcurrentHashMap<Integer, HW04_ObjectGame> aoGameObjects;
+            CopyOnWriteArrayList<HW04_ObjectGame> aoGameObjects;
             int nObjectGUID;
             int i;
             
@@ -209,7 +208,7 @@ public class HW04_Replay implements HW04_EventObserver {
                 
                 // Can finally get rid of game objects that are flagged for removal
                 aoGameObjects = HW04_ObjectGame.getGameObjects();
-                for (HW04_ObjectGame oSingleGameObject : aoGameObjects.values()){
+                for (HW04_ObjectGame oSingleGameObject : aoGameObjects){
                     if (oSingleGameObject.getRemovalFlag() == true) {
                         HW04_ObjectGame.removeObject(oSingleGameObject);
                     }
@@ -246,33 +245,33 @@ public class HW04_Replay implements HW04_EventObserver {
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
+            HW04_EventPayloadUserInput oUserInput;
+            HW04_EventPayloadReplay oReplay;
             CopyOnWriteArrayList<HW04_ObjectLocated> aoObjectsLocated;
             HW04_ObjectLocated oLocatedObject;
             int i;
             
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
-            
             // USER INPUT
             if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.USER_INPUT) {
-                if (oEventArguments.get("sKey").equals("START_RECORDING") && oEventArguments.get("bPressed").equals("TRUE")) {
+                oUserInput = (HW04_EventPayloadUserInput) oEventToHandle.getPayload();
+                if (oUserInput.sKey.equals("START_RECORDING") && oUserInput.bPressed == true) {
                     O_EVENT_MANAGER.raiseEventReplay(HW04_Replay.ReplayEventType.RECORD_START);
                 }
-                else if (oEventArguments.get("sKey").equals("STOP_RECORDING") && oEventArguments.get("bPressed").equals("TRUE")) {
+                else if (oUserInput.sKey.equals("STOP_RECORDING") && oUserInput.bPressed == true) {
                     O_EVENT_MANAGER.raiseEventReplay(HW04_Replay.ReplayEventType.RECORD_END);
                 }
-                else if (oEventArguments.get("sKey").equals("SET_REPLAY_SPEED") && oEventArguments.get("bPressed").equals("TRUE")) {
-                    O_REPLAY_LOOP.setTickSize((float) oEventArguments.get("nReplaySpeed"));
+                else if (oUserInput.sKey.equals("SET_REPLAY_SPEED") && oUserInput.bPressed == true) {
+                    O_REPLAY_LOOP.setTickSize(oUserInput.nReplaySpeed);
                 }
-                else if (oEventArguments.get("sKey").equals("START_REPLAY") && oEventArguments.get("bPressed").equals("TRUE")) {
+                else if (oUserInput.sKey.equals("START_REPLAY") && oUserInput.bPressed == true) {
                     O_EVENT_MANAGER.raiseEventReplay(HW04_Replay.ReplayEventType.REPLAY_START);
                 }
             }
             
             // REPLAY
             if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.REPLAY) {
-                if (oEventArguments.get("nReplayEventType") == HW04_Replay.ReplayEventType.RECORD_START) {
+                oReplay = (HW04_EventPayloadReplay) oEventToHandle.getPayload();
+                if (oReplay.nReplayEventType == HW04_Replay.ReplayEventType.RECORD_START) {
                     
                     // Save state
                     nCurrentState = ReplayState.RECORDING;
@@ -297,7 +296,7 @@ public class HW04_Replay implements HW04_EventObserver {
                     }
                     
                 }
-                else if (oEventArguments.get("nReplayEventType") == HW04_Replay.ReplayEventType.RECORD_END) {
+                else if (oReplay.nReplayEventType == HW04_Replay.ReplayEventType.RECORD_END) {
                     
                     // Save state
                     nCurrentState = ReplayState.WAITING_TO_REPLAY;
@@ -309,7 +308,7 @@ public class HW04_Replay implements HW04_EventObserver {
                     O_EVENT_MANAGER.raiseEventGamePause(true);
                     
                 }
-                else if (oEventArguments.get("nReplayEventType") == HW04_Replay.ReplayEventType.REPLAY_START) {
+                else if (oReplay.nReplayEventType == HW04_Replay.ReplayEventType.REPLAY_START) {
                     
                     // Save state
                     nCurrentState = ReplayState.REPLAYING;
@@ -348,7 +347,7 @@ public class HW04_Replay implements HW04_EventObserver {
                      */
                     
                 }
-                else if (oEventArguments.get("nReplayEventType") == HW04_Replay.ReplayEventType.REPLAY_END) {
+                else if (oReplay.nReplayEventType == HW04_Replay.ReplayEventType.REPLAY_END) {
                     
                     // Save state
                     nCurrentState = ReplayState.IDLE;
@@ -0,0 +1,199 @@
+/*************************************************************************************************************
+ * FILE:            HW04_Replicator.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Keep track of what each client has been told about each game object (DELTA option),
+ *                      so that the server only sends the replicated fields that have changed
+ *                      (see HW04_ObjectDelta).
+ *                  With the UDP option, also keep track of which game objects each client knows about,
+ *                      since only those can be sent as snapshots over UDP (see HW04_DatagramTransport).
+ *                  Messages to a client arrive in the order they were sent (TCP),
+ *                      so the last state sent to a client is the last state that client will have applied.
+ *                  A whole game object is still sent the first time a client hears about it.
+ *                      That object is written out some time later by another thread,
+ *                      and may have moved on in the meantime,
+ *                      so it is recorded as "fields unknown" and the next update carries every replicated field.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.util.concurrent.ConcurrentHashMap;
+
+// CLASS DEFINITION
+public class HW04_Replicator {
+    
+    // Last state sent, by client player ID, then by game object GUID
+    private static ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, HW04_ObjectDelta>> oStatesSent =
+        new ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, HW04_ObjectDelta>>();
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getUpdateForClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Figure out what to send one client about one game object, and remember that it was sent.
+     *                  Caller should hold the server's clients lock,
+     *                      so that the order in which updates are worked out for a client
+     *                      is the order in which they are queued for that client.
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *                  oObject -       The game object
+     *                  oState -        The game object's current replicated fields (see HW04_ObjectDelta.capture)
+     *
+     * RETURNS:         oUpdate -       The whole game object (if the client hasn't heard about it yet),
+     *                                  a delta (if the client has heard about it, but something changed),
+     *                                  or null (if the client is already up to date)
+     *********************************************************************************************************/
+    public static HW04_ObjectCommunicable getUpdateForClient (int nPlayerID, HW04_ObjectGame oObject, HW04_ObjectDelta oState) {
+        
+        HW04_ObjectCommunicable oUpdate = null;
+        try {
+            
+            // Declare variables
+            ConcurrentHashMap<Integer, HW04_ObjectDelta> oClientStates;
+            HW04_ObjectDelta oLastStateSent;
+            
+            // Get what this client has been told so far
+            oClientStates = getClientStates(nPlayerID);
+            oLastStateSent = oClientStates.get(oObject.getGUID());
+            
+            // Never heard of it - send the whole object
+            if (oLastStateSent == null) {
+                oUpdate = oObject;
+                oClientStates.put(oObject.getGUID(), new HW04_ObjectDelta(oObject.getGUID()));
+            }
+            
+            // Heard of it - send whatever changed
+            else {
+                oUpdate = oState.getChangesSince(oLastStateSent);
+                if (oUpdate != null) {
+                    oClientStates.put(oObject.getGUID(), oState);
+                }
+            }
+            
+            // Removed objects will never be heard of again
+            if (oObject.getRemovalFlag() == true) {
+                oClientStates.remove(oObject.getGUID());
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oUpdate;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        recordWholeObjectSent
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Remember that a whole game object was queued for a client without going through here
+     *                      (for example, when a new client is told about the game world)
+     *                  Removed objects will never be heard of again, so they are forgotten instead.
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *                  oObject -       The game object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void recordWholeObjectSent (int nPlayerID, HW04_ObjectGame oObject) {
+        try {
+            if (oObject.getRemovalFlag() == true) {
+                getClientStates(nPlayerID).remove(oObject.getGUID());
+            }
+            else {
+                getClientStates(nPlayerID).put(oObject.getGUID(), new HW04_ObjectDelta(oObject.getGUID()));
+            }
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        hasClientHeardOf
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether a client has been told about a game object (and not about its removal)
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *                  oObject -       The game object
+     *
+     * RETURNS:         bHeardOf -      True if the client knows about the game object
+     *********************************************************************************************************/
+    public static boolean hasClientHeardOf (int nPlayerID, HW04_ObjectGame oObject) {
+        
+        boolean bHeardOf = false;
+        try {
+            bHeardOf = getClientStates(nPlayerID).containsKey(oObject.getGUID());
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return bHeardOf;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        forgetObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Forget what a client was told about one game object
+     *                      (the client has been told to let go of it, see HW04_InterestManager),
+     *                      so that if the client hears about it again, it hears about the whole object
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *                  oObject -       The game object
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void forgetObject (int nPlayerID, HW04_ObjectGame oObject) {
+        try {
+            getClientStates(nPlayerID).remove(oObject.getGUID());
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        forgetClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Forget everything a client was told (the client has left the game)
+     *
+     * ARGUMENTS:       nPlayerID -     The client's player ID
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void forgetClient (int nPlayerID) {
+        try {
+            oStatesSent.remove(nPlayerID);
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getClientStates
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the states sent to one client, creating an empty collection if need be
+     *
+     * ARGUMENTS:       nPlayerID -         The client's player ID
+     *
+     * RETURNS:         oClientStates -     Last state sent, by game object GUID
+     *********************************************************************************************************/
+    private static ConcurrentHashMap<Integer, HW04_ObjectDelta> getClientStates (int nPlayerID) {
+        oStatesSent.putIfAbsent(nPlayerID, new ConcurrentHashMap<Integer, HW04_ObjectDelta>());
+        return oStatesSent.get(nPlayerID);
+    }
+
+}
@@ -236,14 +236,14 @@ function handleEventUserInput (oCharacterObject, oEventToHandle) {
 	try {
 		
 		// Get event arguments
-		var oEventArguments = oEventToHandle.getEventArguments();
+		var oEventPayload = oEventToHandle.getPayload();
 		
 		// Inputs the server acts on
 		if (oGlobalsClass.bClient == false) {
 			
 			// SPACE
-		    if (oEventArguments.get("sKey").equals("SPACE")) {
-			    if (oEventArguments.get("bPressed").equals("TRUE")) {
+		    if (oEventPayload.getKey().equals("SPACE")) {
+			    if (oEventPayload.isPressed() == true) {
 			    	oBubbleClass.shootBubble(
 			    			oArrowClass.getLatestArrow().getAngle()
 	    			);
@@ -251,24 +251,24 @@ function handleEventUserInput (oCharacterObject, oEventToHandle) {
 		    }
 		    
 		    // LEFT
-		    if (oEventArguments.get("sKey").equals("LEFT")) {
-			    if (oEventArguments.get("bPressed").equals("TRUE")) {
+		    if (oEventPayload.getKey().equals("LEFT")) {
+			    if (oEventPayload.isPressed() == true) {
 					// Rotate arrow
 			    	oArrowClass.getLatestArrow().setMovementDirection(-1);
 			    }
-			    else if (oEventArguments.get("bPressed").equals("FALSE")) {
+			    else if (oEventPayload.isPressed() == false) {
 					// Stop rotating arrow
 			    	oArrowClass.getLatestArrow().setMovementDirection(0);
 			    }
 		    }
 		    
 		    // RIGHT
-		    else if (oEventArguments.get("sKey").equals("RIGHT")) {
-			    if (oEventArguments.get("bPressed").equals("TRUE")) {
+		    else if (oEventPayload.getKey().equals("RIGHT")) {
+			    if (oEventPayload.isPressed() == true) {
 					// Rotate arrow
 			    	oArrowClass.getLatestArrow().setMovementDirection(1);
 			    }
-			    else if (oEventArguments.get("bPressed").equals("FALSE")) {
+			    else if (oEventPayload.isPressed() == false) {
 					// Stop rotating arrow
 			    	oArrowClass.getLatestArrow().setMovementDirection(0);
 			    }
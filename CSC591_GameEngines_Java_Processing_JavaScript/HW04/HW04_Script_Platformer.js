@@ -206,7 +206,7 @@ function handleEventUserInput (oCharacterObject, oEventToHandle) {
 	try {
 		
 		// Get event arguments
-		var oEventArguments = oEventToHandle.getEventArguments();
+		var oEventPayload = oEventToHandle.getPayload();
 		
 		// Inputs the server acts on (creation of new game objects)
 		if (oGlobalsClass.bClient == false) {
@@ -217,32 +217,32 @@ function handleEventUserInput (oCharacterObject, oEventToHandle) {
 		if (oGlobalsClass.bClient == true) {
 			
 			// SPACE
-		    if (oEventArguments.get("sKey").equals("SPACE")) {
-			    if (oEventArguments.get("bPressed").equals("TRUE") && oCharacterObject.getJumpAllowed() == true) {
+		    if (oEventPayload.getKey().equals("SPACE")) {
+			    if (oEventPayload.isPressed() == true && oCharacterObject.getJumpAllowed() == true) {
 			    	oCharacterObject.startJumpSequence();
 			    	oCharacterObject.setJumpAllowed(false);
 			    }
-			    else if (oEventArguments.get("bPressed").equals("FALSE")) {
+			    else if (oEventPayload.isPressed() == false) {
 			    	oCharacterObject.setJumpAllowed(true);
 			    }
 		    }
 			
 		    // LEFT
-		    else if (oEventArguments.get("sKey").equals("LEFT")) {
-			    if (oEventArguments.get("bPressed").equals("TRUE")) {
+		    else if (oEventPayload.getKey().equals("LEFT")) {
+			    if (oEventPayload.isPressed() == true) {
 			    	oCharacterObject.setHorizontalDirection(-1);
 			    }
-			    else if (oEventArguments.get("bPressed").equals("FALSE")) {
+			    else if (oEventPayload.isPressed() == false) {
 			    	oCharacterObject.setHorizontalDirection(0);
 			    }
 		    }
 		    
 		    // RIGHT
-		    else if (oEventArguments.get("sKey").equals("RIGHT")) {
-			    if (oEventArguments.get("bPressed").equals("TRUE")) {
+		    else if (oEventPayload.getKey().equals("RIGHT")) {
+			    if (oEventPayload.isPressed() == true) {
 			    	oCharacterObject.setHorizontalDirection(1);
 			    }
-			    else if (oEventArguments.get("bPressed").equals("FALSE")) {     
+			    else if (oEventPayload.isPressed() == false) {     
 			    	oCharacterObject.setHorizontalDirection(0);
 			    }
 		    }
@@ -215,15 +215,15 @@ function handleEventUserInput (oCharacterObject, oEventToHandle) {
 	try {
 		
 		// Get event arguments
-		var oEventArguments = oEventToHandle.getEventArguments();
+		var oEventPayload = oEventToHandle.getPayload();
 		
 		// Inputs the server acts on (creation of new game objects)
 		if (oGlobalsClass.bClient == false) {
 			
 			// SPACE
-		    if (oEventArguments.get("sKey").equals("SPACE")) {
+		    if (oEventPayload.getKey().equals("SPACE")) {
 			    if (
-		    		oEventArguments.get("bPressed").equals("TRUE") && 
+		    		oEventPayload.isPressed() == true && 
 		    		oGameObjectClass.getObjectByGUID(oCharacterObject.getGUID()).getShootingAllowed() == true
 	    		) {
 			    	/* Once the character fires, it must wait until the bullet hits something before firing again
@@ -249,21 +249,21 @@ function handleEventUserInput (oCharacterObject, oEventToHandle) {
 		if (oGlobalsClass.bClient == true) {
 			
 		    // LEFT
-		    if (oEventArguments.get("sKey").equals("LEFT")) {
-			    if (oEventArguments.get("bPressed").equals("TRUE")) {
+		    if (oEventPayload.getKey().equals("LEFT")) {
+			    if (oEventPayload.isPressed() == true) {
 			    	oCharacterObject.setHorizontalDirection(-1);
 			    }
-			    else if (oEventArguments.get("bPressed").equals("FALSE")) {
+			    else if (oEventPayload.isPressed() == false) {
 			    	oCharacterObject.setHorizontalDirection(0);
 			    }
 		    }
 		    
 		    // RIGHT
-		    else if (oEventArguments.get("sKey").equals("RIGHT")) {
-			    if (oEventArguments.get("bPressed").equals("TRUE")) {
+		    else if (oEventPayload.getKey().equals("RIGHT")) {
+			    if (oEventPayload.isPressed() == true) {
 			    	oCharacterObject.setHorizontalDirection(1);
 			    }
-			    else if (oEventArguments.get("bPressed").equals("FALSE")) {     
+			    else if (oEventPayload.isPressed() == false) {     
 			    	oCharacterObject.setHorizontalDirection(0);
 			    }
 		    }
@@ -9,9 +9,19 @@
  *                      In general, an effort is made to minimize the use of synchronized blocks,
  *                      and to synchronize on the correct (smallest scope) objects,
  *                      in other words to use just enough synchronization to safeguard against problems.
+ *                  Access to the collection of clients (connecting, leaving, being told about objects)
+ *                      is guarded by one lock (O_CLIENTS_LOCK) rather than by synchronizing on the server class,
+ *                      so that a virtual thread holding it can still give up its carrier thread (VIRTUAL option).
+ *                  By default, each client gets its own read thread and its own write thread.
+ *                      With the SELECTOR option, a small fixed pool of I/O threads instead multiplexes
+ *                      every client socket, so that the number of clients no longer dictates the number of threads.
+ *                  By default, the game loop is driven by Processing's draw() (see HW04_ServerWindow).
+ *                      With the HEADLESS option it is instead driven by a thread of its own,
+ *                      and the server never touches Processing or AWT, so it can run where there is no display.
  *************************************************************************************************************/
 
 // IMPORTS
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
@@ -20,26 +30,62 @@ import java.util.Random;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
-import processing.core.PApplet;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 
 // CLASS DEFINITION
-public class HW04_Server extends PApplet implements Runnable {
+public class HW04_Server implements Runnable {
     
     // Constants
     private static final HW04_EventManager                          O_EVENT_MANAGER =       HW04_EventManager.getInstance();
+    private static final int                                        N_CHANNEL_BUFFER_BYTES = 64 * 1024;
+    private static final ReentrantLock                              O_CLIENTS_LOCK =        new ReentrantLock();
+    private static final long                                       N_LOOP_SPIN_NS =        1000000;
 
     //  Object properties
-    private static ConcurrentHashMap<Integer, ObjectOutputStream>   oStreamsOut;
-    private static ConcurrentHashMap<Integer, ObjectInputStream>    oStreamsIn;
+    private static ConcurrentHashMap<Integer, OutputStream>         oStreamsOut;
+    private static ConcurrentHashMap<Integer, InputStream>          oStreamsIn;
     private static ServerSocket                                     oServerSocket;
-    private static boolean                                          bQuit;
+    private static volatile boolean                                 bQuit;
     
+    // Object properties used only with the SELECTOR option
+    private static ServerSocketChannel                              oServerSocketChannel;
+    private static Selector[]                                       aoSelectors;
+    private static ConcurrentHashMap<Integer, SocketChannel>        oChannels;
+    private static ConcurrentHashMap<Integer, ByteBuffer>           oChannelBuffersIn;
+    private static ConcurrentHashMap<Integer, ByteBuffer>           oChannelBuffersOut;
+    private static ConcurrentHashMap<Integer, ByteArrayOutputStream> oChannelPacketsOut;
+    private static ConcurrentHashMap<Integer, BlockingQueue<Integer>> oChannelsToRegister;
+    
+    // Object properties used only with the HEADLESS option
+    private static final CountDownLatch                             O_SHUT_DOWN_DONE =      new CountDownLatch(1);
+    private static long                                             nLoopTicks =            0;
+    private static long                                             nLoopLateTotal_ns =     0;
+    private static long                                             nLoopLateMax_ns =       0;
+
     private static int                                              nClients =              0;
     
     String                                                          sThreadType;
@@ -51,14 +97,22 @@ public class HW04_Server extends PApplet implements Runnable {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     A function that creates an object with a .run() method (used for threads).
-     *                  The .run() method can serve one of three functions:
-     *                      Accept -    Accept connections from new clients
-     *                      Read -      Read from a client.
-     *                      Write -     Write to a client.
+     *                  The .run() method can serve one of eight functions (see run):
+     *                      Accept -    Accept connections from new clients (one thread, unless SELECTOR option)
+     *                      Read -      Read from a client (one thread per client, unless SELECTOR option)
+     *                      Write -     Write to a client (one thread per client, unless SELECTOR option)
+     *                      Select -    Read from and write to many clients, and maybe accept new ones
+     *                                  (one thread per selector, SELECTOR option)
+     *                      Datagram -  Listen for clients saying hello over UDP (one thread, UDP option)
+     *                      Loop -      Run the game loop (one thread, HEADLESS option)
+     *                      Console -   Listen for the user asking to quit (one thread, HEADLESS option)
+     *                      Hook -      Shut down gracefully when the process is told to stop
+     *                                  (the shutdown hook's thread, HEADLESS option)
      *
-     * ARGUMENTS:       sType - "Accept", "Read", or "Write"
+     * ARGUMENTS:       sType - "Accept", "Read", "Write", "Select", "Datagram", "Loop", "Console", or "Hook"
      *                  nClientPlayerID -   The player ID of the client that the .run() method is concerned with.
      *                                      Not used in the case of "Accept".
+     *                                      In the case of "Select", this is instead the index of the selector to use.
      * 
      * RETURNS:         None
      *********************************************************************************************************/
@@ -67,22 +121,6 @@ public class HW04_Server extends PApplet implements Runnable {
         this.nThreadClientPlayerID = nClientPlayerID;
     }
     
-    /*********************************************************************************************************
-     * FUNCTION:        HW04_Server constructor
-     *
-     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
-     *
-     * DESCRIPTION:     A second constructor, this exists to accommodate the call:
-     *                  PApplet.main("HW04_Server");
-     *
-     * ARGUMENTS:       None
-     * 
-     * RETURNS:         None
-     *********************************************************************************************************/
-    public HW04_Server () {
-        // Nothing to do here, this exists to accommodate the call: PApplet.main("HW04_Server");
-    }
-    
     /*********************************************************************************************************
      * FUNCTION:        main
      *
@@ -93,7 +131,7 @@ public class HW04_Server extends PApplet implements Runnable {
      *                      Initialize collections
      *                      Create game world objects
      *                      Start thread to listen for new client connections
-     *                      Start game loop (draw function of Processing API)
+     *                      Start game loop (draw function of Processing API, or a thread of its own if HEADLESS)
      *
      * ARGUMENTS:       0 - Game Choice
      *                      0 is 2D Platformer
@@ -102,6 +140,7 @@ public class HW04_Server extends PApplet implements Runnable {
      *                      Default = 0
      *                  1 - Frame rate
      *                      Default = 60
+     *                  2+ - Engine options, in any order (see HW04_Utility.setOption)
      * 
      * RETURNS:         None
      *********************************************************************************************************/
@@ -111,10 +150,12 @@ public class HW04_Server extends PApplet implements Runnable {
             // Declare variables
             HW04_Server oServerInstanceAccept;
             HW04_Logger oLoggerInstance;
+            Thread      oLoopThread;
             int         nGameChoice;
+            int         i;
             
             // Check arguments
-            if (args.length > 2) {
+            if (args.length > 2 && HW04_Utility.parseOptions(args, 2) == false) {
                 System.out.println("\nUsage: java -classpath .:./core.jar HW04_Server [see source code for optional arguments]");
             }
             else {
@@ -128,8 +169,13 @@ public class HW04_Server extends PApplet implements Runnable {
                  *      Because anywhere in the server that raises or registers for an event
                  *      may try to use this hashmap
                  */
-                oStreamsOut =                   new ConcurrentHashMap<Integer, ObjectOutputStream>();
-                oStreamsIn =                    new ConcurrentHashMap<Integer, ObjectInputStream>();
+                oStreamsOut =                   new ConcurrentHashMap<Integer, OutputStream>();
+                oStreamsIn =                    new ConcurrentHashMap<Integer, InputStream>();
+                oChannels =                     new ConcurrentHashMap<Integer, SocketChannel>();
+                oChannelBuffersIn =             new ConcurrentHashMap<Integer, ByteBuffer>();
+                oChannelBuffersOut =            new ConcurrentHashMap<Integer, ByteBuffer>();
+                oChannelPacketsOut =            new ConcurrentHashMap<Integer, ByteArrayOutputStream>();
+                oChannelsToRegister =           new ConcurrentHashMap<Integer, BlockingQueue<Integer>>();
                 HW04_Globals.oObjectsToWrite =  new ConcurrentHashMap<Integer, BlockingQueue<HW04_ObjectCommunicable>>();
                 
                 // Save arguments
@@ -193,18 +239,68 @@ public class HW04_Server extends PApplet implements Runnable {
                 // Population of game world depends upon which game we are playing (use scripting)
                 HW04_ScriptManager.invokeFunction("populateGameWorld");
                 
-                // Create a server socket
-                oServerSocket = new ServerSocket(HW04_Utility.setPortNumber());
-
-                // Start a thread to listen for new client connections
-                oServerInstanceAccept = new HW04_Server("Accept", -1);
-                (new Thread(oServerInstanceAccept)).start();
+                /* Multiplex all client sockets over a small fixed pool of I/O threads
+                 *  Each I/O thread has its own selector, and clients are spread across them as they connect
+                 *  The first I/O thread also listens for new client connections
+                 */
+                if (HW04_Globals.bServerSelector == true) {
+                    oServerSocketChannel = ServerSocketChannel.open();
+                    oServerSocketChannel.bind(new InetSocketAddress(HW04_Utility.setPortNumber()));
+                    oServerSocketChannel.configureBlocking(false);
+                    aoSelectors = new Selector[HW04_Globals.nServerIOThreads];
+                    for (i = 0; i < aoSelectors.length; i++) {
+                        aoSelectors[i] = Selector.open();
+                        oChannelsToRegister.put(i, new LinkedBlockingQueue<Integer>());
+                    }
+                    oServerSocketChannel.register(aoSelectors[0], SelectionKey.OP_ACCEPT);
+                    for (i = 0; i < aoSelectors.length; i++) {
+                        (new Thread(new HW04_Server("Select", i))).start();
+                    }
+                }
+                
+                // One read thread and one write thread per client
+                else {
+                    
+                    // Create a server socket
+                    oServerSocket = new ServerSocket(HW04_Utility.setPortNumber());
+    
+                    // Virtual threads (VIRTUAL option) may not be available
+                    if (HW04_Globals.bVirtualThreads == true && HW04_ThreadStarter.isVirtualAvailable() == false) {
+                        System.out.println("Virtual threads need Java 21 or later - using platform threads instead");
+                    }
+                    
+                    // Start a thread to listen for new client connections
+                    oServerInstanceAccept = new HW04_Server("Accept", -1);
+                    HW04_ThreadStarter.start(oServerInstanceAccept);
+                    
+                }
+                
+                // Send snapshots over UDP too, on the same port number (UDP option)
+                if (HW04_Globals.bDatagramSnapshots == true) {
+                    HW04_DatagramTransport.openServer(HW04_Utility.getPortNumber());
+                    (new Thread(new HW04_Server("Datagram", -1))).start();
+                }
                 
-                /* Start a PApplet application and tell it to use our class
+                /* Run the game loop on a thread of its own, with no window (HEADLESS option)
+                 *  The loop thread gets top priority, since everything else waits on it
+                 *  The console thread listens for the user asking to quit
+                 *  The shutdown hook lets clients know we are going away if the process is told to stop
+                 */
+                if (HW04_Globals.bHeadless == true) {
+                    oLoopThread = new Thread(new HW04_Server("Loop", -1));
+                    oLoopThread.setPriority(Thread.MAX_PRIORITY);
+                    oLoopThread.start();
+                    (new Thread(new HW04_Server("Console", -1))).start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(new HW04_Server("Hook", -1)));
+                }
+                
+                /* Start a PApplet application and tell it to use our window class
                  * This will run settings() and setup() and then will start running draw() continuously
                  * So this comes after communication is established with the server
                  */
-                PApplet.main("HW04_Server");
+                else {
+                    HW04_ServerWindow.open();
+                }
                 
             }
             
@@ -234,7 +330,15 @@ public class HW04_Server extends PApplet implements Runnable {
             // Hello World
             System.out.println("\nWelcome to the game!");
             System.out.println("\nFrame Rate: " + HW04_Globals.nFrameRate);
-            System.out.println("\nOptions (click the window to give it focus first):");
+            if (HW04_Globals.bServerSelector == true) {
+                System.out.println("\nNetwork: " + HW04_Globals.nServerIOThreads + " I/O threads shared by all clients");
+            }
+            if (HW04_Globals.bHeadless == true) {
+                System.out.println("\nOptions (type into this console, then press Enter):");
+            }
+            else {
+                System.out.println("\nOptions (click the window to give it focus first):");
+            }
             System.out.println("\t'Q': Quit");
             
         }
@@ -249,10 +353,15 @@ public class HW04_Server extends PApplet implements Runnable {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     A function that can be run as a separate thread.
-     *                  Can serve one of three functions
+     *                  Can serve one of eight functions, depending on the thread type it was made with
      *                      Accept -    Accept connections from new clients
      *                      Read -      Read from a client.
      *                      Write -     Write to a client.
+     *                      Select -    Read from and write to many clients, and maybe accept new ones (SELECTOR option)
+     *                      Datagram -  Listen for clients saying hello over UDP (UDP option)
+     *                      Loop -      Run the game loop at the frame rate, with no window (HEADLESS option)
+     *                      Console -   Listen for the user asking to quit ('Q' + Enter, HEADLESS option)
+     *                      Hook -      Shut down gracefully when the process is told to stop (HEADLESS option)
      *
      * ARGUMENTS:       None
      * 
@@ -276,6 +385,31 @@ public class HW04_Server extends PApplet implements Runnable {
                 threadWriteToClient(this.nThreadClientPlayerID);
             }
             
+            // READ FROM AND WRITE TO MANY CLIENTS
+            else if (this.sThreadType.equals("Select")) {
+                threadSelect(this.nThreadClientPlayerID);
+            }
+            
+            // LISTEN FOR CLIENTS SAYING HELLO OVER UDP
+            else if (this.sThreadType.equals("Datagram")) {
+                threadReceiveDatagrams();
+            }
+            
+            // RUN THE GAME LOOP
+            else if (this.sThreadType.equals("Loop")) {
+                threadRunGameLoop();
+            }
+            
+            // LISTEN FOR THE USER ASKING TO QUIT
+            else if (this.sThreadType.equals("Console")) {
+                threadReadConsole();
+            }
+            
+            // SHUT DOWN BECAUSE THE PROCESS WAS TOLD TO STOP
+            else if (this.sThreadType.equals("Hook")) {
+                threadShutDownHook();
+            }
+            
             // Unknown thread operation
             else {
                 throw new Exception("Thread operation type '" + this.sThreadType + "' not recognized");
@@ -302,7 +436,6 @@ public class HW04_Server extends PApplet implements Runnable {
         try {
             
             // Declare variables
-            ConcurrentHashMap<Integer, HW04_ObjectGame> oObjectsGame;
             HW04_Server oServerInstanceRead;
             HW04_Server oServerInstanceWrite;
             Socket oSocket = null;
@@ -325,85 +458,44 @@ public class HW04_Server extends PApplet implements Runnable {
                 
                 if (bQuit != true) {
                     
-                    // Increment counter
-                    nClients++;
-                    
                     // Create a new character object for the newly connected client
-                    oNewObjectCharacter = new HW04_ObjectCharacter(
-                        -1,
-                        -1,
-                        // Give the player an x-axis location (will move to spawn point later)
-                        0, 
-                        // Give the player a y-axis location (will move to spawn point later)
-                        0,
-                        // Do not pass a window to draw in, server doesn't draw objects
-                        null
-                    );
-                    
-                    // New character setup details depend upon which game we are playing (use scripting)
-                    HW04_ScriptManager.invokeFunction("setUpNewCharacter", oNewObjectCharacter);
-                    
-                    /* Register this new object for events in which it is interested
-                     * We are interested in user input events raised on the clients,
-                     * because such an event could justify creating a new game object,
-                     * and the server being the only one to create new game objects
-                     * is what puts the "G" in "GUID"
-                     */
-                    O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.SPAWN, oNewObjectCharacter, false);
-                    O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.USER_INPUT, oNewObjectCharacter, true);
+                    oNewObjectCharacter = createCharacterForNewClient();
                     
-                    // Print to terminal that we have a new client
-                    System.out.println("Player " + oNewObjectCharacter.getPlayerID() + " has joined the game!");
-                    
-                    /* Synchronize here so that we can make sure the first thing the new client hears about is its own character
+                    /* Hold the clients lock here so that we can make sure the first thing the new client hears about is its own character
                      *  Otherwise the draw loop could pick up on the new output stream and tell the client about some moving platforms
                      */
-                    synchronized (HW04_Server.class) {
+                    O_CLIENTS_LOCK.lock();
+                    try {
                     
                         // Add this connection to our list of connections
                         nNewClientPlayerID = oNewObjectCharacter.getPlayerID();
-                        oStreamsOut.put(nNewClientPlayerID, new ObjectOutputStream(oSocket.getOutputStream()));
-                        oStreamsIn.put(nNewClientPlayerID, new ObjectInputStream(oSocket.getInputStream()));
-                        
-                        /* Move the new character object to a spawn point 
-                         * (go ahead and handle this now so rapidly connecting clients don't get in each other's way)
-                         */
-                        O_EVENT_MANAGER.raiseEventSpawn(oNewObjectCharacter);
-                        
-                        /* Explicitly raise game object change event 
-                         * so that arrow object associated with this character (if there is one) can pick it up
-                         * If not, no harm done, game object has changed so it's truthful
-                         */
-                        O_EVENT_MANAGER.raiseEventGameObjectChange(oNewObjectCharacter);
+                        HW04_DatagramTransport.expectClient(nNewClientPlayerID, oSocket.getInetAddress());
+                        oSocket.setTcpNoDelay(HW04_Globals.bFramePackets);
+                        if (HW04_Globals.bFramedMessages == true) {
+                            oStreamsOut.put(nNewClientPlayerID, new DataOutputStream(new BufferedOutputStream(oSocket.getOutputStream(), HW04_NetworkCodec.N_PACKET_BUFFER_BYTES)));
+                            oStreamsIn.put(nNewClientPlayerID, new DataInputStream(new BufferedInputStream(oSocket.getInputStream())));
+                        }
+                        else {
+                            oStreamsOut.put(nNewClientPlayerID, new ObjectOutputStream(oSocket.getOutputStream()));
+                            oStreamsIn.put(nNewClientPlayerID, new ObjectInputStream(oSocket.getInputStream()));
+                        }
                         
-                        /* Tell the client about the game world
-                         * The first object we send, the client interprets as their character object
-                         */
-                        HW04_Globals.oObjectsToWrite.put(nNewClientPlayerID, new LinkedBlockingQueue<HW04_ObjectCommunicable>());
-                        HW04_Globals.oObjectsToWrite.get(nNewClientPlayerID).add(oNewObjectCharacter);
+                        // Tell the client about the game world
+                        introduceNewClient(oNewObjectCharacter, new HW04_OutboundQueue(null));
                         
                         /* Start 2 new threads, to read from and write to our new client
                          * Do this after there is an appropriate entry in the hashmap from .put()
+                         * These are virtual threads with the VIRTUAL option
                          */
                         oServerInstanceRead = new HW04_Server("Read", nNewClientPlayerID);
-                        (new Thread(oServerInstanceRead)).start();
+                        HW04_ThreadStarter.start(oServerInstanceRead);
                         oServerInstanceWrite = new HW04_Server("Write", nNewClientPlayerID);
-                        (new Thread(oServerInstanceWrite)).start();
-                        
-                        // Now, tell the client about other game objects and about events we are interested in
-                        oObjectsGame = HW04_ObjectGame.getGameObjects();
-                        for (ConcurrentHashMap.Entry<Integer, HW04_ObjectGame> oEntry : oObjectsGame.entrySet()) {
-                            if (oEntry.getValue().getPlayerID() != nNewClientPlayerID) {
-                                HW04_Globals.oObjectsToWrite.get(nNewClientPlayerID).add(oEntry.getValue());
-                            }
-                        }
-                        oObjectsGame = null;
-                        O_EVENT_MANAGER.reregisterForEventsWithNewClient(nNewClientPlayerID);
-
-                        // Every other client needs to know about this new character object
-                        notifyClientsAboutOneObject(nNewClientPlayerID, oNewObjectCharacter);
+                        HW04_ThreadStarter.start(oServerInstanceWrite);
                         
                     }
+                    finally {
+                        O_CLIENTS_LOCK.unlock();
+                    }
 
                 }
 
@@ -424,181 +516,126 @@ public class HW04_Server extends PApplet implements Runnable {
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        threadReadFromClient
+     * FUNCTION:        createCharacterForNewClient
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     Read from a client
+     * DESCRIPTION:     Create a new character object for a newly connected client
      *
-     * ARGUMENTS:       nThreadClientPlayerID - The client's player ID
+     * ARGUMENTS:       None
      * 
-     * RETURNS:         None
+     * RETURNS:         oNewObjectCharacter -   The new character object
      *********************************************************************************************************/
-    private void threadReadFromClient (int nThreadClientPlayerID) {
+    private static HW04_ObjectCharacter createCharacterForNewClient () {
+        
+        HW04_ObjectCharacter oNewObjectCharacter = null;
         try {
             
-            // Declare variables
-            HW04_ObjectCommunicable oObjectReadFromClient;
-            boolean bClientStillExistsRead;
+            // Increment counter
+            nClients++;
             
-            // Read from this one client "forever"
-            bClientStillExistsRead = true;
-            while (bQuit != true && bClientStillExistsRead == true) {
-                
-                /* Figure out which input stream we're reading from
-                 * Input streams come and go as clients connect and disconnect
-                 * We want to get the one input stream that we were born for
-                 * If it isn't there, die a natural death
-                 */
-                if (oStreamsIn.containsKey(nThreadClientPlayerID)) {
-                    
-                    /* Wait for this client to send us an object
-                     *  https://stackoverflow.com/questions/30559373/socket-isclosed-returns-false-after-client-disconnected
-                     */
-                    oObjectReadFromClient = null;
-                    try {
-                        // Read object sent by client
-                        oObjectReadFromClient = (HW04_ObjectCommunicable) oStreamsIn.get(nThreadClientPlayerID).readObject();
-                    }
-                    catch (Throwable oError) {
-                        bClientStillExistsRead = false;
-                        handleClientDeparture(nThreadClientPlayerID);
-                    }
-                    
-                    /* ACT on what was read
-                     *  Client should write about its own character object if / when that character object changes
-                     *  Client should write about any event registration for events that it is interested in
-                     *  Client should write about any events that this client is interested in
-                     */
-                    if (bClientStillExistsRead == true && oObjectReadFromClient != null) {
-                        
-                        // Cast object to more specific type
-                        HW04_ObjectCommunicable.castObject((HW04_ObjectCommunicable) oObjectReadFromClient);
-                        
-                        // Deal with character object
-                        if (oObjectReadFromClient instanceof HW04_ObjectCharacter) {
-
-                            // Check for existence of client again, it might have changed while we were waiting
-                            if (oStreamsIn.containsKey(nThreadClientPlayerID)) {
-                                
-                                // Update our own copy of the character object
-                                HW04_ObjectGame.replaceObject((HW04_ObjectGame) oObjectReadFromClient);
-                                
-                                // Everyone else needs to know that this client updated
-                                notifyClientsAboutOneObject(nThreadClientPlayerID, (HW04_ObjectGame) oObjectReadFromClient);
-                                
-                            }
-                            else {
-                                bClientStillExistsRead = false;
-                                handleClientDeparture(nThreadClientPlayerID);
-                            }
-                            
-                        }
-                        
-                        // Deal with event registration (that is, someone else in the network is interested in our events)
-                        if (oObjectReadFromClient instanceof HW04_ObjectEventRemoteRegistration) {
-                            
-                            // Register to handle the specified event type locally
-                            O_EVENT_MANAGER.registerForEvents(
-                                // Note the event type that is of interest to someone else in the network
-                                ((HW04_ObjectEventRemoteRegistration) oObjectReadFromClient).getEventType(),
-                                // Note the event observer that will handle this interest should the event be raised locally
-                                HW04_NetworkPartnerProxy.getInstance(((HW04_ObjectEventRemoteRegistration) oObjectReadFromClient).getPlayerID()),
-                                // Do not propagate this network event registration any further in the network
-                                false
-                            );
-                            
-                        }
-                        
-                        // Deal with event (that is, we are interested in an event raised by someone else in the network)
-                        if (oObjectReadFromClient instanceof HW04_ObjectEvent) {
-                            // Raise the event locally so that it can be handled by any local interested objects
-                            O_EVENT_MANAGER.reRaiseEvent((HW04_ObjectEvent) oObjectReadFromClient);
-                        }
-                        
-                    }
-                    
-                }
-                else {
-                    bClientStillExistsRead = false;
-                    handleClientDeparture(nThreadClientPlayerID);
-                }
-                
-            }
+            // Create a new character object for the newly connected client
+            oNewObjectCharacter = new HW04_ObjectCharacter(
+                -1,
+                -1,
+                // Give the player an x-axis location (will move to spawn point later)
+                0, 
+                // Give the player a y-axis location (will move to spawn point later)
+                0,
+                // Do not pass a window to draw in, server doesn't draw objects
+                null
+            );
+            
+            // New character setup details depend upon which game we are playing (use scripting)
+            HW04_ScriptManager.invokeFunction("setUpNewCharacter", oNewObjectCharacter);
+            
+            /* Register this new object for events in which it is interested
+             * We are interested in user input events raised on the clients,
+             * because such an event could justify creating a new game object,
+             * and the server being the only one to create new game objects
+             * is what puts the "G" in "GUID"
+             */
+            O_EVENT_MANAGER.registerForEventsAbout(HW04_ObjectEvent.EventType.SPAWN, oNewObjectCharacter);
+            O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.USER_INPUT, oNewObjectCharacter, true);
+            
+            // Print to terminal that we have a new client
+            System.out.println("Player " + oNewObjectCharacter.getPlayerID() + " has joined the game!");
             
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
         }
+        return oNewObjectCharacter;
+        
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        threadWriteToClient
+     * FUNCTION:        introduceNewClient
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     Write to a client
+     * DESCRIPTION:     Tell a newly connected client about the game world,
+     *                      and tell every other client about the new client's character object.
+     *                  Caller should hold the clients lock,
+     *                      so that the first thing the new client hears about is its own character.
      *
-     * ARGUMENTS:       nThreadClientPlayerID - The client's unique player ID
+     * ARGUMENTS:       oNewObjectCharacter -   The new client's character object
+     *                  oQueue -                The (empty) queue of objects to write to the new client
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    private void threadWriteToClient (int nThreadClientPlayerID) {
+    private static void introduceNewClient (
+        HW04_ObjectCharacter oNewObjectCharacter, 
+        BlockingQueue<HW04_ObjectCommunicable> oQueue
+    ) {
         try {
             
             // Declare variables
-            boolean bClientStillExistsWrite;
-            HW04_ObjectCommunicable oObjectToWrite;
+            CopyOnWriteArrayList<HW04_ObjectGame> aoObjectsGame;
+            int nNewClientPlayerID;
+            int i;
             
-            // Write to this one client "forever"
-            bClientStillExistsWrite = true;
-            while (bQuit != true && bClientStillExistsWrite) {
-                
-                /* Figure out which output stream we're writing to
-                 * Output streams come and go as clients connect and disconnect
-                 * We want to get the one output stream that we were born for
-                 * If it isn't there, die a natural death
-                 */
-                if (oStreamsOut.containsKey(nThreadClientPlayerID)) {
-                    
-                    /* Wait for some information to write out
-                     * .poll() is the non-blocking version (returns even if queue empty)
-                     * .take() is the blocking version (waits for queue to be non-empty)
-                     */
-                    oObjectToWrite = HW04_Globals.oObjectsToWrite.get(nThreadClientPlayerID).take();
-                    
-                    /* Write all changed game objects to this client (if they haven't quit)
-                     * https://stackoverflow.com/questions/41058548/why-an-object-doesnt-change-when-i-send-it-through-writeobject-method
-                     */
-                    if (oStreamsOut.containsKey(nThreadClientPlayerID)) {
-                            
-                        try {
-
-                            // Write
-                            oStreamsOut.get(nThreadClientPlayerID).reset();
-                            oStreamsOut.get(nThreadClientPlayerID).writeObject(oObjectToWrite);
-                            oStreamsOut.get(nThreadClientPlayerID).flush();
-
-                        }
-                        catch (Throwable oError) {
-                            bClientStillExistsWrite = false;
-                            handleClientDeparture(nThreadClientPlayerID);
-                        }
-                        
-                    }
-                    else {
-                        // Make sure we don't loop again
-                        bClientStillExistsWrite = false;
-                        handleClientDeparture(nThreadClientPlayerID);
+            // Get player ID
+            nNewClientPlayerID = oNewObjectCharacter.getPlayerID();
+            
+            /* Move the new character object to a spawn point 
+             * (go ahead and handle this now so rapidly connecting clients don't get in each other's way)
+             */
+            O_EVENT_MANAGER.raiseEventSpawn(oNewObjectCharacter);
+            
+            /* Explicitly raise game object change event 
+             * so that arrow object associated with this character (if there is one) can pick it up
+             * If not, no harm done, game object has changed so it's truthful
+             */
+            O_EVENT_MANAGER.raiseEventGameObjectChange(oNewObjectCharacter);
+            
+            /* Tell the client about the game world
+             * The first object we send, the client interprets as their character object
+             */
+            HW04_Globals.oObjectsToWrite.put(nNewClientPlayerID, oQueue);
+            HW04_Globals.oObjectsToWrite.get(nNewClientPlayerID).add(oNewObjectCharacter);
+            
+            /* Now, tell the client about other game objects and about events we are interested in
+             *  With the INTEREST option, it hears about collidable objects once it is known what is near it
+             *  (see HW04_InterestManager)
+             */
+            aoObjectsGame = HW04_ObjectGame.getGameObjects();
+            for (i = 0; i < aoObjectsGame.size(); i++) {
+                if (
+                    aoObjectsGame.get(i).getPlayerID() != nNewClientPlayerID && 
+                    HW04_InterestManager.isManaged(aoObjectsGame.get(i)) == false
+                ) {
+                    HW04_Globals.oObjectsToWrite.get(nNewClientPlayerID).add(aoObjectsGame.get(i));
+                    if (HW04_Globals.bDeltaReplication == true || HW04_Globals.bDatagramSnapshots == true) {
+                        HW04_Replicator.recordWholeObjectSent(nNewClientPlayerID, aoObjectsGame.get(i));
                     }
-                    
-                }
-                else {
-                    bClientStillExistsWrite = false;
-                    handleClientDeparture(nThreadClientPlayerID);
                 }
-                
             }
+            aoObjectsGame = null;
+            O_EVENT_MANAGER.reregisterForEventsWithNewClient(nNewClientPlayerID);
+
+            // Every other client needs to know about this new character object
+            notifyClientsAboutOneObject(nNewClientPlayerID, oNewObjectCharacter);
             
         }
         catch (Throwable oError) {
@@ -607,37 +644,31 @@ public class HW04_Server extends PApplet implements Runnable {
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        notifyClientsAboutOneObject
+     * FUNCTION:        threadReceiveDatagrams
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     Notify clients of the current status of one game object
+     * DESCRIPTION:     Listen for clients saying hello over UDP (UDP option),
+     *                      so that they can be sent snapshots (see HW04_DatagramTransport)
      *
-     * ARGUMENTS:       nExcludedPlayerID -     The player ID of a client to exclude from the notification (or -1)
-     *                  oObjectToWrite -        A game object to write to clients
+     * ARGUMENTS:       None
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public static void notifyClientsAboutOneObject (int nExcludedPlayerID, HW04_ObjectGame oObjectToWrite) {
+    private void threadReceiveDatagrams () {
         try {
             
-            // Check to make sure that we actually have some clients
-            if (HW04_Globals.oObjectsToWrite.isEmpty() == false) {
-                
-                // Populate info to write
-                for (ConcurrentHashMap.Entry<Integer, BlockingQueue<HW04_ObjectCommunicable>> oEntry : HW04_Globals.oObjectsToWrite.entrySet()) {
-                    if (nExcludedPlayerID == -1 || oEntry.getKey() != nExcludedPlayerID) {
-                        /* Synchronize here so that we can make sure the first thing the new client hears about is its own character
-                         *  Otherwise the draw loop could pick up on the new output stream and tell the client about some moving platforms
-                         */
-                        synchronized (HW04_Server.class) {
-                            oEntry.getValue().add(oObjectToWrite);
-                        }
-                    }
+            // Listen "forever"
+            while (bQuit != true) {
+                try {
+                    HW04_DatagramTransport.receiveHello();
+                }
+                catch (Throwable oError) {
+                    // The server is shutting down
+                    break;
                 }
-                
             }
-            
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -645,64 +676,106 @@ public class HW04_Server extends PApplet implements Runnable {
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        notifyClientsAboutManyObjects
+     * FUNCTION:        threadRunGameLoop
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     Notify clients of the current status of multiple game objects
+     * DESCRIPTION:     Run the game loop at the frame rate, with no window (HEADLESS option).
+     *                  Each iteration is scheduled for a fixed point in time (start + n * period),
+     *                      so that small delays don't pile up and the loop doesn't drift.
+     *                  The thread sleeps until just before that point, then yields until it arrives,
+     *                      since sleeping alone can overshoot by a millisecond or more.
+     *                  An iteration that runs long doesn't cause a burst of make-up iterations,
+     *                      the loop just picks up from now (as Processing's draw() does).
      *
-     * ARGUMENTS:       nExcludedPlayerID -                 The player ID of a client to exclude from the notification (or -1)
-     *                  aHW04_Globals.oObjectsToWrite -     Game objects to write to clients
+     * ARGUMENTS:       None
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    @SuppressWarnings("unchecked")
-    public static void notifyClientsAboutManyObjects(int nExcludedPlayerID, CopyOnWriteArrayList<?> aoObjectsPlatformH) {
+    private void threadRunGameLoop () {
         try {
             
-            // Check to make sure that we actually have some clients
-            if (HW04_Globals.oObjectsToWrite.isEmpty() == false) {
+            // Declare variables
+            long nPeriod_ns;
+            long nNextIteration_ns;
+            long nWait_ns;
+            long nLate_ns;
+            
+            // Run the game loop until the user quits
+            nPeriod_ns = 1000000000L / HW04_Globals.nFrameRate;
+            nNextIteration_ns = System.nanoTime();
+            while (bQuit != true) {
                 
-                for (ConcurrentHashMap.Entry<Integer, BlockingQueue<HW04_ObjectCommunicable>> oEntry : HW04_Globals.oObjectsToWrite.entrySet()) {
-                    if (nExcludedPlayerID == -1 || oEntry.getKey() != nExcludedPlayerID) {
-                        /* Synchronize here so that we can make sure the first thing the new client hears about is its own character
-                         *  Otherwise the draw loop could pick up on the new output stream and tell the client about some moving platforms
-                         */
-                        synchronized (HW04_Server.class) {
-                            oEntry.getValue().addAll((CopyOnWriteArrayList<HW04_ObjectGame>) aoObjectsPlatformH);
-                        }
+                // Wait for the next iteration - sleep most of the way, then yield the rest
+                nWait_ns = nNextIteration_ns - System.nanoTime();
+                while (nWait_ns > 0) {
+                    if (nWait_ns > N_LOOP_SPIN_NS) {
+                        LockSupport.parkNanos(nWait_ns - N_LOOP_SPIN_NS);
+                    }
+                    else {
+                        Thread.yield();
                     }
+                    nWait_ns = nNextIteration_ns - System.nanoTime();
                 }
                 
+                // Keep track of how steadily we are ticking
+                nLate_ns = -nWait_ns;
+                nLoopTicks++;
+                nLoopLateTotal_ns += nLate_ns;
+                nLoopLateMax_ns = Math.max(nLoopLateMax_ns, nLate_ns);
+                
+                // Game loop iteration
+                performGameLoopIteration();
+                
+                // Schedule the next iteration, unless we have fallen more than one iteration behind
+                nNextIteration_ns += nPeriod_ns;
+                if (System.nanoTime() - nNextIteration_ns > nPeriod_ns) {
+                    nNextIteration_ns = System.nanoTime();
+                }
+            
             }
             
+            // The user quit
+            shutDown();
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
         }
     }
-         
+    
     /*********************************************************************************************************
-     * FUNCTION:        settings
+     * FUNCTION:        threadReadConsole
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     https://processing.org/reference/settings_.html
-     *                  The settings() method runs before the sketch has been set up, 
-     *                      so other Processing functions cannot be used at that point.
-     *                  The settings() method runs "passively" to set a few variables, 
-     *                      compared to the setup() command that call commands in the Processing API.
+     * DESCRIPTION:     Listen for the user asking to quit, in place of the window's keyPressed() (HEADLESS option)
+     *                  If there is no console (the input stream ends right away), just stop listening -
+     *                      the server can still be stopped by stopping the process (see threadShutDownHook).
      *
      * ARGUMENTS:       None
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public void settings () {
+    private void threadReadConsole () {
         try {
             
-            // Set window size
-            size(0, 0);
+            // Declare variables
+            BufferedReader oConsole;
+            String sLine;
             
+            // Listen until the user quits or the input stream ends
+            oConsole = new BufferedReader(new InputStreamReader(System.in));
+            sLine = oConsole.readLine();
+            while (bQuit != true && sLine != null) {
+                if (sLine.trim().equalsIgnoreCase("Q") == true) {
+                    requestQuit();
+                }
+                else {
+                    sLine = oConsole.readLine();
+                }
+            }
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -710,54 +783,967 @@ public class HW04_Server extends PApplet implements Runnable {
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        setup
+     * FUNCTION:        threadShutDownHook
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     https://processing.org/reference/setup_.html
-     *                  The setup() function is run once, when the program starts. 
-     *                  It's used to define initial environment properties and to 
-     *                      load media such as images and fonts as the program starts. 
-     *                  There can only be one setup() function for each program 
-     *                      and it shouldn't be called again after its initial execution.
+     * DESCRIPTION:     Shut down gracefully when the process is told to stop (HEADLESS option),
+     *                      for example with Ctrl-C, or by a container runtime.
+     *                  Ask the game loop to quit (so that clients hear about it), 
+     *                      and give it a moment to close streams and sockets before the process ends.
+     *                  This runs as a JVM shutdown hook, so it must not itself call System.exit
+     *                      (which would wait forever for this hook to finish).
      *
      * ARGUMENTS:       None
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public void setup () {
-        frameRate(HW04_Globals.nFrameRate);
+    private void threadShutDownHook () {
+        
+        // Declare constants
+        final long N_WAIT_FOR_SHUT_DOWN_MS = 2000;
+        
+        try {
+            
+            // Nothing to do if the user already quit
+            if (bQuit != true) {
+                System.out.println("Game server was told to stop");
+                requestQuit();
+                O_SHUT_DOWN_DONE.await(N_WAIT_FOR_SHUT_DOWN_MS, TimeUnit.MILLISECONDS);
+            }
+        
+        }
+        catch (Throwable oError) {
+            // No System.exit from here (see above)
+            oError.printStackTrace();
+        }
+    
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        draw
+     * FUNCTION:        threadReadFromClient
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     https://processing.org/reference/draw_.html
-     *                  
-     *                  Called directly after setup(), 
-     *                      the draw() function continuously executes the lines of code contained inside its block 
-     *                      until the program is stopped or noLoop() is called. 
-     *                      draw() is called automatically and should never be called explicitly. 
-     *                  All Processing programs update the screen at the end of draw(), never earlier.
+     * DESCRIPTION:     Read from a client
+     *
+     * ARGUMENTS:       nThreadClientPlayerID - The client's player ID
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void threadReadFromClient (int nThreadClientPlayerID) {
+        try {
+            
+            // Declare variables
+            HW04_ObjectCommunicable oObjectReadFromClient;
+            boolean bClientStillExistsRead;
+            
+            // Read from this one client "forever"
+            bClientStillExistsRead = true;
+            while (bQuit != true && bClientStillExistsRead == true) {
+                
+                /* Figure out which input stream we're reading from
+                 * Input streams come and go as clients connect and disconnect
+                 * We want to get the one input stream that we were born for
+                 * If it isn't there, die a natural death
+                 */
+                if (oStreamsIn.containsKey(nThreadClientPlayerID)) {
+                    
+                    /* Wait for this client to send us an object
+                     *  https://stackoverflow.com/questions/30559373/socket-isclosed-returns-false-after-client-disconnected
+                     */
+                    oObjectReadFromClient = null;
+                    try {
+                        // Read object sent by client
+                        oObjectReadFromClient = readFromClientStream(nThreadClientPlayerID);
+                    }
+                    catch (Throwable oError) {
+                        bClientStillExistsRead = false;
+                        handleClientDeparture(nThreadClientPlayerID);
+                    }
+                    
+                    // ACT on what was read
+                    if (bClientStillExistsRead == true && oObjectReadFromClient != null) {
+                        bClientStillExistsRead = handleObjectReadFromClient(nThreadClientPlayerID, oObjectReadFromClient);
+                    }
+                    
+                }
+                else {
+                    bClientStillExistsRead = false;
+                    handleClientDeparture(nThreadClientPlayerID);
+                }
+                
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        handleObjectReadFromClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     ACT on an object read from a client
+     *                      Client should write about its own character object if / when that character object changes
+     *                      Client should write about any event registration for events that it is interested in
+     *                      Client should write about any events that this client is interested in
+     *
+     * ARGUMENTS:       nClientPlayerID -           The client's player ID
+     *                  oObjectReadFromClient -     The object read from the client
+     * 
+     * RETURNS:         bClientStillExists -    False if we found out that the client has left the game
+     *********************************************************************************************************/
+    private boolean handleObjectReadFromClient (int nClientPlayerID, HW04_ObjectCommunicable oObjectReadFromClient) {
+        
+        boolean bClientStillExists = true;
+        try {
+            
+            // Cast object to more specific type
+            HW04_ObjectCommunicable.castObject((HW04_ObjectCommunicable) oObjectReadFromClient);
+            
+            // Deal with character object
+            if (oObjectReadFromClient instanceof HW04_ObjectCharacter) {
+
+                // Check for existence of client again, it might have changed while we were waiting
+                if (isClientConnected(nClientPlayerID) == true) {
+                    
+                    // Update our own copy of the character object
+                    HW04_ObjectGame.replaceObject((HW04_ObjectGame) oObjectReadFromClient);
+                    
+                    // Everyone else needs to know that this client updated
+                    notifyClientsAboutOneObject(nClientPlayerID, (HW04_ObjectGame) oObjectReadFromClient);
+                    
+                }
+                else {
+                    bClientStillExists = false;
+                    handleClientDeparture(nClientPlayerID);
+                }
+                
+            }
+            
+            // Deal with event registration (that is, someone else in the network is interested in our events)
+            if (oObjectReadFromClient instanceof HW04_ObjectEventRemoteRegistration) {
+                
+                // Register to handle the specified event type locally
+                O_EVENT_MANAGER.registerForEvents(
+                    // Note the event type that is of interest to someone else in the network
+                    ((HW04_ObjectEventRemoteRegistration) oObjectReadFromClient).getEventType(),
+                    // Note the event observer that will handle this interest should the event be raised locally
+                    HW04_NetworkPartnerProxy.getInstance(((HW04_ObjectEventRemoteRegistration) oObjectReadFromClient).getPlayerID()),
+                    // Do not propagate this network event registration any further in the network
+                    false
+                );
+                
+            }
+            
+            // Deal with event (that is, we are interested in an event raised by someone else in the network)
+            if (oObjectReadFromClient instanceof HW04_ObjectEvent) {
+                // Raise the event locally so that it can be handled by any local interested objects
+                O_EVENT_MANAGER.reRaiseEvent((HW04_ObjectEvent) oObjectReadFromClient);
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return bClientStillExists;
+        
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isClientConnected
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether a client is (still) connected
+     *
+     * ARGUMENTS:       nClientPlayerID -   The client's player ID
+     * 
+     * RETURNS:         True if the client is connected
+     *********************************************************************************************************/
+    private static boolean isClientConnected (int nClientPlayerID) {
+        return oStreamsIn.containsKey(nClientPlayerID) || oChannels.containsKey(nClientPlayerID);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isClientOverflowed
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether a client has fallen so far behind that its outbound queue filled up
+     *                      (see HW04_OutboundQueue).
+     *                  Such a client has already missed something it should have heard, and should be let go.
+     *
+     * ARGUMENTS:       nClientPlayerID -   The client's player ID
+     * 
+     * RETURNS:         bOverflowed -       True if the client's outbound queue has overflowed
+     *********************************************************************************************************/
+    private static boolean isClientOverflowed (int nClientPlayerID) {
+        
+        // Declare variables
+        BlockingQueue<HW04_ObjectCommunicable> oQueue;
+        
+        oQueue = HW04_Globals.oObjectsToWrite.get(nClientPlayerID);
+        return oQueue instanceof HW04_OutboundQueue && ((HW04_OutboundQueue) oQueue).isOverflowed() == true;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        threadSelect
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read from and write to every client whose socket is multiplexed over one selector.
+     *                  The first selector is also responsible for accepting connections from new clients.
+     *                  Rough flow of each iteration:
+     *                      Wait until some socket is ready or some client has something to be written to it
+     *                      Start watching any sockets newly handed to this selector
+     *                      Accept / read from ready sockets
+     *                      Write as much as each socket will take without blocking
+     *
+     * ARGUMENTS:       nSelectorIndex -    The index of the selector to use
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void threadSelect (int nSelectorIndex) {
+        try {
+            
+            // Declare variables
+            Selector oSelector;
+            Integer nPlayerIDToRegister;
+            int nClientPlayerID;
+            
+            // Get our selector
+            oSelector = aoSelectors[nSelectorIndex];
+            
+            // Serve our clients "forever"
+            while (bQuit != true) {
+                
+                /* Wait until something is ready
+                 * Queues of objects to write wake the selector up whenever something is added to them
+                 */
+                try {
+                    oSelector.select();
+                }
+                catch (Throwable oError) {
+                    // Selector closed, make super sure everyone knows we're quitting
+                    bQuit = true;
+                }
+                
+                if (bQuit != true) {
+                    
+                    // Start watching sockets of clients newly handed to this selector
+                    nPlayerIDToRegister = oChannelsToRegister.get(nSelectorIndex).poll();
+                    while (nPlayerIDToRegister != null) {
+                        if (oChannels.containsKey(nPlayerIDToRegister)) {
+                            oChannels.get(nPlayerIDToRegister).register(oSelector, SelectionKey.OP_READ, nPlayerIDToRegister);
+                        }
+                        nPlayerIDToRegister = oChannelsToRegister.get(nSelectorIndex).poll();
+                    }
+                    
+                    // Accept / read from ready sockets
+                    for (SelectionKey oReadyKey : oSelector.selectedKeys()) {
+                        if (oReadyKey.isValid() == true && oReadyKey.isAcceptable() == true) {
+                            acceptNewClientChannel();
+                        }
+                        else if (oReadyKey.isValid() == true && oReadyKey.isReadable() == true) {
+                            readFromClientChannel((int) oReadyKey.attachment());
+                        }
+                    }
+                    oSelector.selectedKeys().clear();
+                    
+                    /* Write to every client on this selector that has something waiting for it
+                     * (whether or not the socket was reported as writable, most of the time it will be)
+                     */
+                    for (SelectionKey oClientKey : oSelector.keys()) {
+                        if (oClientKey.isValid() == true && oClientKey.attachment() != null) {
+                            nClientPlayerID = (int) oClientKey.attachment();
+                            writeToClientChannel(nClientPlayerID, oClientKey);
+                        }
+                    }
+                    
+                }
+                
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        acceptNewClientChannel
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Accept a connection from a new client (SELECTOR option).
+     *                  The new client's socket is handed to one of the selectors, in turn.
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void acceptNewClientChannel () {
+        try {
+            
+            // Declare variables
+            SocketChannel oChannel;
+            HW04_ObjectCharacter oNewObjectCharacter;
+            int nNewClientPlayerID;
+            int nSelectorIndex;
+            
+            // Accept (the selector says there is a connection waiting, but it might have gone away already)
+            oChannel = oServerSocketChannel.accept();
+            if (oChannel != null) {
+                
+                // Never block on this socket
+                oChannel.configureBlocking(false);
+                
+                // We collect our own packets (PACKETS option), so don't wait around for more to send
+                oChannel.socket().setTcpNoDelay(HW04_Globals.bFramePackets);
+                
+                // Create a new character object for the newly connected client
+                oNewObjectCharacter = createCharacterForNewClient();
+                
+                /* Hold the clients lock here so that we can make sure the first thing the new client hears about is its own character
+                 *  Otherwise the draw loop could pick up on the new queue and tell the client about some moving platforms
+                 */
+                O_CLIENTS_LOCK.lock();
+                try {
+                    
+                    // Add this connection to our list of connections
+                    nNewClientPlayerID = oNewObjectCharacter.getPlayerID();
+                    nSelectorIndex = nClients % aoSelectors.length;
+                    HW04_DatagramTransport.expectClient(nNewClientPlayerID, oChannel.socket().getInetAddress());
+                    oChannels.put(nNewClientPlayerID, oChannel);
+                    oChannelBuffersIn.put(nNewClientPlayerID, ByteBuffer.allocate(N_CHANNEL_BUFFER_BYTES));
+                    oChannelPacketsOut.put(nNewClientPlayerID, new ByteArrayOutputStream());
+                    
+                    // Tell the client about the game world
+                    introduceNewClient(oNewObjectCharacter, new HW04_OutboundQueue(aoSelectors[nSelectorIndex]));
+                    
+                    // Hand the socket to a selector
+                    oChannelsToRegister.get(nSelectorIndex).add(nNewClientPlayerID);
+                    aoSelectors[nSelectorIndex].wakeup();
+                    
+                }
+                finally {
+                    O_CLIENTS_LOCK.unlock();
+                }
+                
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFromClientChannel
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read whatever a client has sent (SELECTOR option),
+     *                      and ACT on every complete frame received so far.
+     *                  Any partial frame is kept until the rest of it arrives.
+     *                  A bad frame (see HW04_NetworkCodec.isFrameLengthValid and HW04_NetworkCodec.decode)
+     *                      is treated as the client going away, just as a failed read is.
+     *
+     * ARGUMENTS:       nClientPlayerID -   The client's player ID
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void readFromClientChannel (int nClientPlayerID) {
+        try {
+            
+            // Declare variables
+            ByteBuffer oBufferIn;
+            ByteBuffer oBiggerBufferIn;
+            byte[] abMessage;
+            HW04_ObjectCommunicable oObjectReadFromClient;
+            int nBytesRead;
+            int nMessageLength;
+            boolean bClientStillExists;
+            
+            // Get what we have so far from this client
+            oBufferIn = oChannelBuffersIn.get(nClientPlayerID);
+            bClientStillExists = (oBufferIn != null);
+            
+            // Read whatever is available
+            nBytesRead = -1;
+            if (bClientStillExists == true) {
+                try {
+                    nBytesRead = oChannels.get(nClientPlayerID).read(oBufferIn);
+                }
+                catch (Throwable oError) {
+                    nBytesRead = -1;
+                }
+                if (nBytesRead < 0) {
+                    bClientStillExists = false;
+                    handleClientDeparture(nClientPlayerID);
+                }
+            }
+            
+            // ACT on every complete frame
+            if (bClientStillExists == true) {
+                oBufferIn.flip();
+                nMessageLength = -1;
+                while (
+                    bClientStillExists == true && 
+                    oBufferIn.remaining() >= HW04_NetworkCodec.N_FRAME_HEADER_BYTES
+                ) {
+                    nMessageLength = oBufferIn.getInt(oBufferIn.position());
+                    if (HW04_NetworkCodec.isFrameLengthValid(nMessageLength) == false) {
+                        bClientStillExists = false;
+                        handleClientDeparture(nClientPlayerID);
+                        break;
+                    }
+                    if (oBufferIn.remaining() < HW04_NetworkCodec.N_FRAME_HEADER_BYTES + nMessageLength) {
+                        break;
+                    }
+                    oBufferIn.getInt();
+                    abMessage = new byte[nMessageLength];
+                    oBufferIn.get(abMessage);
+                    oObjectReadFromClient = HW04_NetworkCodec.decode(abMessage);
+                    if (oObjectReadFromClient == null) {
+                        bClientStillExists = false;
+                        handleClientDeparture(nClientPlayerID);
+                        break;
+                    }
+                    bClientStillExists = handleObjectReadFromClient(nClientPlayerID, oObjectReadFromClient);
+                    nMessageLength = -1;
+                }
+                oBufferIn.compact();
+                
+                // Make room if a frame is too big for the buffer
+                if (
+                    bClientStillExists == true && 
+                    nMessageLength >= 0 &&  
+                    HW04_NetworkCodec.N_FRAME_HEADER_BYTES + nMessageLength > oBufferIn.capacity()
+                ) {
+                    oBiggerBufferIn = ByteBuffer.allocate(HW04_NetworkCodec.N_FRAME_HEADER_BYTES + nMessageLength);
+                    oBufferIn.flip();
+                    oBiggerBufferIn.put(oBufferIn);
+                    oChannelBuffersIn.put(nClientPlayerID, oBiggerBufferIn);
+                }
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeToClientChannel
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write to a client (SELECTOR option).
+     *                  Writes as many waiting objects as the socket will take without blocking.
+     *                  With the PACKETS option, frames are collected until the end of the packet,
+     *                      and the whole packet is then written at once.
+     *                  If the socket fills up, the rest of the current frame is kept,
+     *                      and the selector is asked to say when the socket is writable again.
+     *
+     * ARGUMENTS:       nClientPlayerID -   The client's player ID
+     *                  oKey -              The client's selection key
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void writeToClientChannel (int nClientPlayerID, SelectionKey oKey) {
+        try {
+            
+            // Declare variables
+            BlockingQueue<HW04_ObjectCommunicable> oQueue;
+            HW04_ObjectCommunicable oObjectToWrite;
+            ByteBuffer oBufferOut;
+            boolean bSocketFull;
+            
+            // Pick up where we left off, if the socket filled up last time
+            oQueue = HW04_Globals.oObjectsToWrite.get(nClientPlayerID);
+            oBufferOut = oChannelBuffersOut.remove(nClientPlayerID);
+            bSocketFull = false;
+            
+            // Let go of a client that is not keeping up
+            if (isClientOverflowed(nClientPlayerID) == true) {
+                handleClientDeparture(nClientPlayerID);
+                return;
+            }
+            
+            // Write until there's nothing left to write, or the socket won't take any more
+            while (oQueue != null && bSocketFull == false && isClientConnected(nClientPlayerID) == true) {
+                if (oBufferOut == null) {
+                    oObjectToWrite = oQueue.poll();
+                    if (oObjectToWrite == null) {
+                        break;
+                    }
+                    if (HW04_Globals.bFramePackets == true) {
+                        oBufferOut = collectIntoPacket(nClientPlayerID, oObjectToWrite);
+                        if (oBufferOut == null) {
+                            continue;
+                        }
+                    }
+                    else if (oObjectToWrite instanceof HW04_ObjectEncoded) {
+                        oBufferOut = ((HW04_ObjectEncoded) oObjectToWrite).getFrame();
+                    }
+                    else {
+                        oBufferOut = HW04_NetworkCodec.frame(oObjectToWrite);
+                    }
+                }
+                try {
+                    oChannels.get(nClientPlayerID).write(oBufferOut);
+                }
+                catch (Throwable oError) {
+                    handleClientDeparture(nClientPlayerID);
+                    break;
+                }
+                if (oBufferOut.hasRemaining() == true) {
+                    bSocketFull = true;
+                    oChannelBuffersOut.put(nClientPlayerID, oBufferOut);
+                }
+                else {
+                    oBufferOut = null;
+                }
+            }
+            
+            // Only ask to hear about writability when we are waiting on it
+            if (oKey.isValid() == true) {
+                oKey.interestOps(bSocketFull ? (SelectionKey.OP_READ | SelectionKey.OP_WRITE) : SelectionKey.OP_READ);
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        collectIntoPacket
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add one object to the packet being collected for a client (SELECTOR and PACKETS options)
+     *
+     * ARGUMENTS:       nClientPlayerID -   The client's player ID
+     *                  oObjectToWrite -    The object to add (or the end-of-packet marker)
+     * 
+     * RETURNS:         oPacket -           The finished packet, ready to be written to the channel
+     *                                      (or null if the packet isn't finished yet, or is empty)
+     *********************************************************************************************************/
+    private static ByteBuffer collectIntoPacket (int nClientPlayerID, HW04_ObjectCommunicable oObjectToWrite) {
+        
+        ByteBuffer oPacket = null;
+        try {
+            
+            // Declare variables
+            ByteArrayOutputStream oPacketBytes;
+            
+            // Add frame, or finish packet
+            oPacketBytes = oChannelPacketsOut.get(nClientPlayerID);
+            if (oPacketBytes != null) {
+                if (oObjectToWrite != HW04_NetworkCodec.O_END_OF_PACKET) {
+                    if (oObjectToWrite instanceof HW04_ObjectEncoded) {
+                        ((HW04_ObjectEncoded) oObjectToWrite).writeFrame(oPacketBytes);
+                    }
+                    else {
+                        oPacketBytes.write(HW04_NetworkCodec.frame(oObjectToWrite).array());
+                    }
+                }
+                else if (oPacketBytes.size() > 0) {
+                    oPacket = ByteBuffer.wrap(oPacketBytes.toByteArray());
+                    oPacketBytes.reset();
+                }
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oPacket;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        threadWriteToClient
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write to a client
+     *
+     * ARGUMENTS:       nThreadClientPlayerID - The client's unique player ID
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private void threadWriteToClient (int nThreadClientPlayerID) {
+        try {
+            
+            // Declare variables
+            boolean bClientStillExistsWrite;
+            HW04_ObjectCommunicable oObjectToWrite;
+            
+            // Write to this one client "forever"
+            bClientStillExistsWrite = true;
+            while (bQuit != true && bClientStillExistsWrite) {
+                
+                /* Figure out which output stream we're writing to
+                 * Output streams come and go as clients connect and disconnect
+                 * We want to get the one output stream that we were born for
+                 * If it isn't there, die a natural death
+                 */
+                if (oStreamsOut.containsKey(nThreadClientPlayerID)) {
+                    
+                    /* Wait for some information to write out
+                     * .poll() is the non-blocking version (returns even if queue empty)
+                     * .take() is the blocking version (waits for queue to be non-empty)
+                     */
+                    oObjectToWrite = HW04_Globals.oObjectsToWrite.get(nThreadClientPlayerID).take();
+                    
+                    /* Write all changed game objects to this client (if they haven't quit, and are keeping up)
+                     * https://stackoverflow.com/questions/41058548/why-an-object-doesnt-change-when-i-send-it-through-writeobject-method
+                     */
+                    if (oStreamsOut.containsKey(nThreadClientPlayerID) && isClientOverflowed(nThreadClientPlayerID) == false) {
+                            
+                        try {
+
+                            // Write
+                            writeToClientStream(nThreadClientPlayerID, oObjectToWrite);
+
+                        }
+                        catch (Throwable oError) {
+                            bClientStillExistsWrite = false;
+                            handleClientDeparture(nThreadClientPlayerID);
+                        }
+                        
+                    }
+                    else {
+                        // Make sure we don't loop again
+                        bClientStillExistsWrite = false;
+                        handleClientDeparture(nThreadClientPlayerID);
+                    }
+                    
+                }
+                else {
+                    bClientStillExistsWrite = false;
+                    handleClientDeparture(nThreadClientPlayerID);
+                }
+                
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        writeToClientStream
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Write one object to a client's output stream,
+     *                      as a frame (FRAMED option) or as part of one long object stream.
+     *                  An object that has already been encoded is written out as-is.
+     *                  The end-of-packet marker is not written, it just flushes the stream (PACKETS option).
+     *                  I/O problems are passed up to the caller,
+     *                      who knows whether they mean that the client has gone away.
+     *
+     * ARGUMENTS:       nClientPlayerID -   The client's player ID
+     *                  oObjectToWrite -    The object to write
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void writeToClientStream (int nClientPlayerID, HW04_ObjectCommunicable oObjectToWrite) throws IOException {
+        if (HW04_Globals.bFramedMessages == true) {
+            if (oObjectToWrite == HW04_NetworkCodec.O_END_OF_PACKET) {
+                oStreamsOut.get(nClientPlayerID).flush();
+            }
+            else if (oObjectToWrite instanceof HW04_ObjectEncoded) {
+                ((HW04_ObjectEncoded) oObjectToWrite).writeFrame((DataOutputStream) oStreamsOut.get(nClientPlayerID));
+            }
+            else {
+                HW04_NetworkCodec.writeFrame((DataOutputStream) oStreamsOut.get(nClientPlayerID), oObjectToWrite);
+            }
+        }
+        else {
+            // Reset first, so that the object's latest state is written rather than a back-reference to an old one
+            ((ObjectOutputStream) oStreamsOut.get(nClientPlayerID)).reset();
+            ((ObjectOutputStream) oStreamsOut.get(nClientPlayerID)).writeObject(oObjectToWrite);
+            ((ObjectOutputStream) oStreamsOut.get(nClientPlayerID)).flush();
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        readFromClientStream
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read one object from a client's input stream,
+     *                      as a frame (FRAMED option) or as part of one long object stream.
+     *                  I/O problems are passed up to the caller,
+     *                      who knows whether they mean that the client has gone away.
+     *
+     * ARGUMENTS:       nClientPlayerID -   The client's player ID
+     * 
+     * RETURNS:         oObjectRead -       The object read
+     *********************************************************************************************************/
+    private static HW04_ObjectCommunicable readFromClientStream (int nClientPlayerID) throws IOException, ClassNotFoundException {
+        if (HW04_Globals.bFramedMessages == true) {
+            return HW04_NetworkCodec.readFrame((DataInputStream) oStreamsIn.get(nClientPlayerID));
+        }
+        else {
+            return (HW04_ObjectCommunicable) ((ObjectInputStream) oStreamsIn.get(nClientPlayerID)).readObject();
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        notifyClientsAboutOneObject
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Notify clients of the current status of one game object.
+     *                  With the DELTA option, each client is only sent what it doesn't already know
+     *                      (see HW04_Replicator).
+     *                  With the FRAMED option, each distinct update is encoded only once,
+     *                      no matter how many clients it goes to (see encodeForBroadcast).
+     *                  With the UDP option, a client that already knows about the game object
+     *                      is sent a snapshot over UDP instead (see HW04_DatagramTransport),
+     *                      unless the object is being removed.
+     *                  With the INTEREST option, a client is only sent the game object if it is near enough
+     *                      that the client knows about it (see HW04_InterestManager).
+     *
+     * ARGUMENTS:       nExcludedPlayerID -     The player ID of a client to exclude from the notification (or -1)
+     *                  oObjectToWrite -        A game object to write to clients
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void notifyClientsAboutOneObject (int nExcludedPlayerID, HW04_ObjectGame oObjectToWrite) {
+        try {
+            
+            // Declare variables
+            HW04_ObjectDelta oState;
+            HW04_ObjectCommunicable oUpdate;
+            HW04_ObjectCommunicable oWholeObjectToWrite;
+            ConcurrentHashMap<Integer, HW04_ObjectCommunicable> oDeltasToWrite;
+            byte[] abSnapshot;
+            
+            // Check to make sure that we actually have some clients
+            if (HW04_Globals.oObjectsToWrite.isEmpty() == false) {
+                
+                // Record replicated fields once, for comparison with what each client has been told
+                oState = null;
+                if (HW04_Globals.bDeltaReplication == true) {
+                    oState = HW04_ObjectDelta.capture(oObjectToWrite);
+                }
+                
+                // Nothing encoded yet (encode on first use, then share)
+                oWholeObjectToWrite = null;
+                oDeltasToWrite = new ConcurrentHashMap<Integer, HW04_ObjectCommunicable>();
+                abSnapshot = null;
+                
+                // Populate info to write
+                for (ConcurrentHashMap.Entry<Integer, BlockingQueue<HW04_ObjectCommunicable>> oEntry : HW04_Globals.oObjectsToWrite.entrySet()) {
+                    if (nExcludedPlayerID == -1 || oEntry.getKey() != nExcludedPlayerID) {
+                        /* Hold the clients lock here so that we can make sure the first thing the new client hears about is its own character
+                         *  Otherwise the draw loop could pick up on the new output stream and tell the client about some moving platforms
+                         */
+                        O_CLIENTS_LOCK.lock();
+                        try {
+                            
+                            // Not near this client, which doesn't know about it (INTEREST option)
+                            if (HW04_InterestManager.isOfInterest(oEntry.getKey(), oObjectToWrite) == false) {
+                                oUpdate = null;
+                            }
+                            
+                            // Known object, still in the game - send a snapshot over UDP (UDP option)
+                            else if (
+                                HW04_Globals.bDatagramSnapshots == true && 
+                                oObjectToWrite.getRemovalFlag() == false && 
+                                HW04_DatagramTransport.canReachClient(oEntry.getKey()) == true && 
+                                HW04_Replicator.hasClientHeardOf(oEntry.getKey(), oObjectToWrite) == true
+                            ) {
+                                if (abSnapshot == null) {
+                                    abSnapshot = HW04_DatagramTransport.createSnapshot(oObjectToWrite);
+                                }
+                                HW04_DatagramTransport.sendSnapshot(oEntry.getKey(), abSnapshot);
+                                oUpdate = null;
+                            }
+                            
+                            // Figure out what this client needs to hear
+                            else if (oState != null) {
+                                oUpdate = HW04_Replicator.getUpdateForClient(oEntry.getKey(), oObjectToWrite, oState);
+                            }
+                            else {
+                                oUpdate = oObjectToWrite;
+                                if (HW04_Globals.bDatagramSnapshots == true) {
+                                    HW04_Replicator.recordWholeObjectSent(oEntry.getKey(), oObjectToWrite);
+                                }
+                            }
+                            
+                            /* Share one encoding among all clients that need to hear the same thing
+                             *  Deltas worked out from the same state with the same fields are identical
+                             */
+                            if (oUpdate == oObjectToWrite) {
+                                if (oWholeObjectToWrite == null) {
+                                    oWholeObjectToWrite = encodeForBroadcast(oObjectToWrite);
+                                }
+                                oUpdate = oWholeObjectToWrite;
+                            }
+                            else if (oUpdate instanceof HW04_ObjectDelta) {
+                                if (oDeltasToWrite.containsKey(((HW04_ObjectDelta) oUpdate).getFields()) == false) {
+                                    oDeltasToWrite.put(((HW04_ObjectDelta) oUpdate).getFields(), encodeForBroadcast(oUpdate));
+                                }
+                                oUpdate = oDeltasToWrite.get(((HW04_ObjectDelta) oUpdate).getFields());
+                            }
+                            
+                            // Queue it up
+                            if (oUpdate != null) {
+                                oEntry.getValue().add(oUpdate);
+                            }
+                        
+                        }
+                        finally {
+                            O_CLIENTS_LOCK.unlock();
+                        }
+                    }
+                }
+            
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        notifyClientsAboutManyObjects
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Notify clients of the current status of multiple game objects.
+     *                  With the FRAMED option, each object is encoded only once, 
+     *                      no matter how many clients it goes to (see encodeForBroadcast).
+     *
+     * ARGUMENTS:       nExcludedPlayerID -                 The player ID of a client to exclude from the notification (or -1)
+     *                  aHW04_Globals.oObjectsToWrite -     Game objects to write to clients
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void notifyClientsAboutManyObjects(int nExcludedPlayerID, CopyOnWriteArrayList<?> aoObjectsPlatformH) {
+        try {
+            
+            // Declare variables
+            CopyOnWriteArrayList<HW04_ObjectCommunicable> aoObjectsToWrite;
+
+            /* With the DELTA option, each object is worked out separately (only changed fields are sent)
+             * Likewise with the UDP option (known objects are sent as snapshots over UDP)
+             * Likewise with the INTEREST option (each client only hears about objects near it)
+             */
+            if (
+                HW04_Globals.bDeltaReplication == true || 
+                HW04_Globals.bDatagramSnapshots == true || 
+                HW04_Globals.bInterestManagement == true
+            ) {
+                for (Object oObjectToWrite : aoObjectsPlatformH) {
+                    notifyClientsAboutOneObject(nExcludedPlayerID, (HW04_ObjectGame) oObjectToWrite);
+                }
+            }
+            
+            // Check to make sure that we actually have some clients
+            else if (HW04_Globals.oObjectsToWrite.isEmpty() == false) {
+                
+                // Encode once, for all clients
+                aoObjectsToWrite = new CopyOnWriteArrayList<HW04_ObjectCommunicable>();
+                for (Object oObjectToWrite : aoObjectsPlatformH) {
+                    aoObjectsToWrite.add(encodeForBroadcast((HW04_ObjectCommunicable) oObjectToWrite));
+                }
+                
+                for (ConcurrentHashMap.Entry<Integer, BlockingQueue<HW04_ObjectCommunicable>> oEntry : HW04_Globals.oObjectsToWrite.entrySet()) {
+                    if (nExcludedPlayerID == -1 || oEntry.getKey() != nExcludedPlayerID) {
+                        /* Hold the clients lock here so that we can make sure the first thing the new client hears about is its own character
+                         *  Otherwise the draw loop could pick up on the new output stream and tell the client about some moving platforms
+                         */
+                        O_CLIENTS_LOCK.lock();
+                        try {
+                            oEntry.getValue().addAll(aoObjectsToWrite);
+                        }
+                        finally {
+                            O_CLIENTS_LOCK.unlock();
+                        }
+                    }
+                }
+                
+            }
+            
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+         
+    /*********************************************************************************************************
+     * FUNCTION:        encodeForBroadcast
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get an object ready to be put on the queues of many clients.
+     *                  With the FRAMED option, the object is encoded right now, once,
+     *                      and every client's write thread writes out the same bytes
+     *                      (so the cost of encoding does not grow with the number of clients).
+     *                  Otherwise, each write thread has to serialize the object into its own object stream,
+     *                      so the object is returned as-is.
+     *
+     * ARGUMENTS:       oObject -   The object
      * 
-     *                  There can only be one draw() function for each sketch, 
-     *                      and draw() must exist if you want the code to run continuously, 
-     *                      or to process events such as mousePressed().
-     *                  
-     *                  This draw() loop functions as our game loop.
-     *                      Detects key presses.
+     * RETURNS:         oObjectToWrite -    The object to put on every client's queue
+     *********************************************************************************************************/
+    private static HW04_ObjectCommunicable encodeForBroadcast (HW04_ObjectCommunicable oObject) {
+        
+        HW04_ObjectCommunicable oObjectToWrite = oObject;
+        try {
+            if (HW04_Globals.bFramedMessages == true) {
+                oObjectToWrite = new HW04_ObjectEncoded(oObject);
+            }
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oObjectToWrite;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        performGameLoopIteration
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     One iteration of the game loop.
+     *                  Called once per frame, either by the window's draw() (see HW04_ServerWindow),
+     *                      or by the game loop thread (HEADLESS option).
+     *                      Shuts down if the user has asked to quit.
      *                      Moves platforms.
      *                      Sends updated platform locations to all clients.
+     *                  With the FIXED option, the game is simulated in however many fixed steps are due
+     *                      (maybe none, maybe several), and everything they send goes out together.
+     *                  With the INTEREST option, each client is told about what has come near it and what has gone away.
      *
      * ARGUMENTS:       None
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public void draw () {
+    public static void performGameLoopIteration () {
         try {
             
+            // Declare variables
+            int nSteps;
+            int i;
+            
             // Detect key presses
             if (bQuit == true) {
                 shutDown();
@@ -768,22 +1754,50 @@ public class HW04_Server extends PApplet implements Runnable {
                 if (HW04_Time_Loop.getPlayInstance().isStarted() == false) {
                     HW04_Time_Loop.getPlayInstance().start();
                 }
-
-                // No action is needed if the game is paused
-                if (HW04_Time.isGamePaused() == false) {
-
-                    // What we do here depends upon which game we are playing (use scripting)
-                    HW04_ScriptManager.invokeFunction("performGameLoopIterationServer");
+                
+                // One step per iteration, or however many fixed steps are due (FIXED option)
+                nSteps = 1;
+                if (HW04_Globals.bFixedTimestep == true) {
+                    nSteps = HW04_Time_Loop.getPlayInstance().accumulateFixedSteps();
+                }
+                for (i = 0; i < nSteps; i++) {
+                    
+                    // No action is needed if the game is paused
+                    if (HW04_Time.isGamePaused() == false) {
+                        
+                        // What we do here depends upon which game we are playing (use scripting)
+                        HW04_ScriptManager.invokeFunction("performGameLoopIterationServer");
+                    
+                    }
                     
+                    // Increment loop time if needed
+                    if (HW04_Time.isGamePaused() == false) {
+                        HW04_Time_Loop.getPlayInstance().tick();
+                    }
+                
                 }
                 
-                // Increment loop time if needed
-                if (HW04_Time.isGamePaused() == false) {
-                    HW04_Time_Loop.getPlayInstance().tick();
+                // Tell each client about what has come near it and what has gone away (INTEREST option)
+                if (HW04_Globals.bInterestManagement == true) {
+                    for (ConcurrentHashMap.Entry<Integer, BlockingQueue<HW04_ObjectCommunicable>> oEntry : HW04_Globals.oObjectsToWrite.entrySet()) {
+                        O_CLIENTS_LOCK.lock();
+                        try {
+                            HW04_InterestManager.refresh(oEntry.getKey(), oEntry.getValue());
+                        }
+                        finally {
+                            O_CLIENTS_LOCK.unlock();
+                        }
+                    }
                 }
                 
-            }
+                // Send everything from this iteration to each client in one go (PACKETS option)
+                HW04_NetworkCodec.endPacket();
+                
+                // Handle the latest change to each game object from this iteration (COALESCE option)
+                O_EVENT_MANAGER.endTick();
             
+            }
+        
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
@@ -791,34 +1805,26 @@ public class HW04_Server extends PApplet implements Runnable {
     }
     
     /*********************************************************************************************************
-     * FUNCTION:        keyPressed
+     * FUNCTION:        requestQuit
      *
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
-     * DESCRIPTION:     https://processing.org/reference/keyPressed_.html
-     *                  The keyPressed() function is called once every time a key is pressed. 
-     *                  Mouse and keyboard events only work when a program has draw(). 
-     *                      Without draw(), the code is only run once and then stops listening for events.
+     * DESCRIPTION:     The user wants to quit.
+     *                  QUIT is an instant action, so let everyone know right away,
+     *                      and the game loop will shut the server down at its next iteration.
      *
      * ARGUMENTS:       None
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    public void keyPressed () {
-       
+    public static void requestQuit () {
         try {
-            
-            // QUIT is an instant action that happens on key press
-            if (key == 'q' || key == 'Q') {
-                bQuit = true;
-                O_EVENT_MANAGER.raiseEventUserInput("QUIT", true, -1);
-            }
-            
+            bQuit = true;
+            O_EVENT_MANAGER.raiseEventUserInput("QUIT", true, -1);
         }
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
         }
-        
     }
     
     /*********************************************************************************************************
@@ -830,18 +1836,20 @@ public class HW04_Server extends PApplet implements Runnable {
      *                  If the client has left the game, 
      *                      it's objects should be removed from collections immediately.
      *                  Other threads should detect this.
-     *                  Only 1 thread at a time may call this method,
+     *                  Only 1 thread at a time may run this method (it holds the clients lock),
      *                      to avoid problems with indexing into game objects array as objects are removed.
      *
      * ARGUMENTS:       nDepartedClientPlayerID - The departed client's player ID
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    private synchronized void handleClientDeparture (int nDepartedClientPlayerID) {
+    private static void handleClientDeparture (int nDepartedClientPlayerID) {
+        O_CLIENTS_LOCK.lock();
         try {
             
             // Declare variables
             HW04_ObjectGame oGameObjectToRemove;
+            BlockingQueue<HW04_ObjectCommunicable> oQueue;
             
             // Find the game object for this client
             oGameObjectToRemove = HW04_ObjectCharacter.getCharacterObjectByPlayerID(nDepartedClientPlayerID);
@@ -873,6 +1881,37 @@ public class HW04_Server extends PApplet implements Runnable {
                 // Remove client streams
                 oStreamsOut.remove(nDepartedClientPlayerID);
                 oStreamsIn.remove(nDepartedClientPlayerID);
+                
+                // Forget what this client was told (DELTA, UDP and INTEREST options)
+                HW04_Replicator.forgetClient(nDepartedClientPlayerID);
+                HW04_DatagramTransport.forgetClient(nDepartedClientPlayerID);
+                HW04_InterestManager.forgetClient(nDepartedClientPlayerID);
+                
+                // Stop queueing objects for this client, and say how its queue fared
+                oQueue = HW04_Globals.oObjectsToWrite.get(nDepartedClientPlayerID);
+                if (oQueue instanceof HW04_OutboundQueue) {
+                    System.out.println(
+                        "Player " + nDepartedClientPlayerID + " outbound queue: " + 
+                        ((HW04_OutboundQueue) oQueue).getCoalescedCount() + " updates coalesced, " + 
+                        ((HW04_OutboundQueue) oQueue).getDroppedCount() + " objects dropped" + 
+                        (((HW04_OutboundQueue) oQueue).isOverflowed() ? " (client was not keeping up)" : "")
+                    );
+                    ((HW04_OutboundQueue) oQueue).close();
+                }
+                
+                // Close and remove client socket (SELECTOR option)
+                if (oChannels.containsKey(nDepartedClientPlayerID)) {
+                    try {
+                        oChannels.get(nDepartedClientPlayerID).close();
+                    }
+                    catch (Throwable oError) {
+                        // Ignore
+                    }
+                    oChannels.remove(nDepartedClientPlayerID);
+                    oChannelBuffersIn.remove(nDepartedClientPlayerID);
+                    oChannelBuffersOut.remove(nDepartedClientPlayerID);
+                    oChannelPacketsOut.remove(nDepartedClientPlayerID);
+                }
 
                 // If this was the only paused client, resume the game
                 if (
@@ -888,6 +1927,9 @@ public class HW04_Server extends PApplet implements Runnable {
         catch (Throwable oError) {
             HW04_Utility.handleError(oError);
         }
+        finally {
+            O_CLIENTS_LOCK.unlock();
+        }
     }
     
     /*********************************************************************************************************
@@ -898,6 +1940,7 @@ public class HW04_Server extends PApplet implements Runnable {
      * DESCRIPTION:     Set a removal flag on the object
      *                  Notify all connected clients about the object (so they can see removal flag)
      *                  Remove the object from the server's collection of game objects
+     *                  Keep it for reuse, if it is a kind that is pooled (POOL option, see HW04_ObjectPool)
      *
      * ARGUMENTS:       oObjectToRemove -   The object to remove from the game
      *                  nSkipPlayerID -     The player ID of a client to NOT notify
@@ -909,7 +1952,14 @@ public class HW04_Server extends PApplet implements Runnable {
             
             oObjectToRemove.setRemovalFlag();
             notifyClientsAboutOneObject(nSkipPlayerID, oObjectToRemove);
-            HW04_ObjectGame.removeObject(oObjectToRemove);
+            
+            // Keep it for reuse (POOL option), unless it was already gone
+            if (
+                HW04_ObjectGame.removeObject(oObjectToRemove) == oObjectToRemove && 
+                HW04_ObjectPool.isPooledKind(oObjectToRemove) == true
+            ) {
+                HW04_ObjectPool.release(oObjectToRemove);
+            }
             
         }
         catch (Throwable oError) {
@@ -934,17 +1984,53 @@ public class HW04_Server extends PApplet implements Runnable {
      * 
      * RETURNS:         None
      *********************************************************************************************************/
-    private void shutDown () {
+    private static void shutDown () {
         try {
             
             // Goodbye Cruel World
             System.out.println("Game server is shutting down!\n");
             
+            // Say how the fixed steps went (FIXED option)
+            if (HW04_Globals.bFixedTimestep == true) {
+                System.out.println(HW04_Time_Loop.getPlayInstance().getFixedStatistics() + "\n");
+            }
+            
+            // Say how steadily the game loop ticked (HEADLESS option)
+            if (HW04_Globals.bHeadless == true && nLoopTicks > 0) {
+                System.out.println(String.format(
+                    "Game loop: %d iterations, started late by %.3f ms on average, %.3f ms at most\n",
+                    nLoopTicks,
+                    nLoopLateTotal_ns / 1e6 / nLoopTicks,
+                    nLoopLateMax_ns / 1e6
+                ));
+            }
+            
+            // Say how pooling went (POOL option)
+            if (HW04_Globals.bObjectPooling == true) {
+                System.out.println(HW04_ObjectPool.getStatistics() + "\n");
+            }
+            
+            // Say how interest management went (INTEREST option)
+            if (HW04_Globals.bInterestManagement == true) {
+                System.out.println(HW04_InterestManager.getStatistics() + "\n");
+            }
+            
+            // Say how coalescing went (COALESCE option)
+            if (HW04_Globals.bCoalesceEvents == true) {
+                System.out.println(HW04_EventManager.getCoalescingStatistics() + "\n");
+            }
+            
+            // Stop sending snapshots over UDP, and say how they fared (UDP option)
+            if (HW04_Globals.bDatagramSnapshots == true) {
+                System.out.println(HW04_DatagramTransport.getStatistics());
+                HW04_DatagramTransport.close();
+            }
+            
             // Close streams
-            for (ConcurrentHashMap.Entry<Integer, ObjectOutputStream> oEntry : oStreamsOut.entrySet()) {
+            for (ConcurrentHashMap.Entry<Integer, OutputStream> oEntry : oStreamsOut.entrySet()) {
                 oEntry.getValue().close();
             }
-            for (ConcurrentHashMap.Entry<Integer, ObjectInputStream> oEntry : oStreamsIn.entrySet()) {
+            for (ConcurrentHashMap.Entry<Integer, InputStream> oEntry : oStreamsIn.entrySet()) {
                 oEntry.getValue().close();
             }
             
@@ -955,6 +2041,24 @@ public class HW04_Server extends PApplet implements Runnable {
             catch (Throwable oError) {
                 // Ignore
             }
+            
+            // Close client sockets, selectors, and listening socket (SELECTOR option)
+            try {
+                for (ConcurrentHashMap.Entry<Integer, SocketChannel> oEntry : oChannels.entrySet()) {
+                    oEntry.getValue().close();
+                }
+                if (aoSelectors != null) {
+                    for (Selector oSelector : aoSelectors) {
+                        oSelector.close();
+                    }
+                }
+                if (oServerSocketChannel != null) {
+                    oServerSocketChannel.close();
+                }
+            }
+            catch (Throwable oError) {
+                // Ignore
+            }
 
         }
         catch (Throwable oError) {
@@ -962,7 +2066,7 @@ public class HW04_Server extends PApplet implements Runnable {
         }
         
         // Exit no matter what
-        this.exit();
+        O_SHUT_DOWN_DONE.countDown();
         System.exit(0);
         
     }
@@ -0,0 +1,154 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ServerWindow.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     The server's (empty) window.
+ *                  Processing's draw() drives the server's game loop, and keyPressed() lets the user quit.
+ *                  Everything else about the server is in HW04_Server,
+ *                      which doesn't use this class at all with the HEADLESS option
+ *                      (so that the server never touches Processing or AWT).
+ *************************************************************************************************************/
+
+// IMPORTS
+import processing.core.PApplet;
+
+// CLASS DEFINITION
+public class HW04_ServerWindow extends PApplet {
+    
+    /*********************************************************************************************************
+     * FUNCTION:        HW04_ServerWindow constructor
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     This exists to accommodate the call:
+     *                  PApplet.main("HW04_ServerWindow");
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public HW04_ServerWindow () {
+        // Nothing to do here, this exists to accommodate the call: PApplet.main("HW04_ServerWindow");
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        open
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Start a PApplet application and tell it to use this class
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void open () {
+        PApplet.main("HW04_ServerWindow");
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        settings
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     https://processing.org/reference/settings_.html
+     *                  The settings() method runs before the sketch has been set up,
+     *                      so other Processing functions cannot be used at that point.
+     *                  The settings() method runs "passively" to set a few variables,
+     *                      compared to the setup() command that call commands in the Processing API.
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void settings () {
+        try {
+            
+            // Set window size
+            size(0, 0);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setup
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     https://processing.org/reference/setup_.html
+     *                  The setup() function is run once, when the program starts.
+     *                  It's used to define initial environment properties and to
+     *                      load media such as images and fonts as the program starts.
+     *                  There can only be one setup() function for each program
+     *                      and it shouldn't be called again after its initial execution.
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void setup () {
+        frameRate(HW04_Globals.nFrameRate);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        draw
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     https://processing.org/reference/draw_.html
+     *
+     *                  Called directly after setup(),
+     *                      the draw() function continuously executes the lines of code contained inside its block
+     *                      until the program is stopped or noLoop() is called.
+     *                      draw() is called automatically and should never be called explicitly.
+     *                  All Processing programs update the screen at the end of draw(), never earlier.
+     *
+     *                  There can only be one draw() function for each sketch,
+     *                      and draw() must exist if you want the code to run continuously,
+     *                      or to process events such as mousePressed().
+     *
+     *                  This draw() loop functions as our game loop (see HW04_Server.performGameLoopIteration).
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void draw () {
+        HW04_Server.performGameLoopIteration();
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        keyPressed
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     https://processing.org/reference/keyPressed_.html
+     *                  The keyPressed() function is called once every time a key is pressed.
+     *                  Mouse and keyboard events only work when a program has draw().
+     *                      Without draw(), the code is only run once and then stops listening for events.
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public void keyPressed () {
+        
+        try {
+            
+            // QUIT is an instant action that happens on key press
+            if (key == 'q' || key == 'Q') {
+                HW04_Server.requestQuit();
+            }
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    
+    }
+
+}
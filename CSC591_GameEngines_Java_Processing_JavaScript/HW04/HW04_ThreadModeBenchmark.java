@@ -0,0 +1,276 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ThreadModeBenchmark.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Compare the cost of giving each client its own read thread and write thread
+ *                      as platform threads (default) and as virtual threads (VIRTUAL option).
+ *                  Each simulated client is a pair of threads that block "forever",
+ *                      just as an idle client's read thread (waiting on its socket)
+ *                      and write thread (waiting on its outbound queue) do.
+ *                  Clients are added in steps, and after each step the benchmark reports
+ *                      how long the step took, heap in use, and resident memory of the whole process
+ *                      (which is where platform thread stacks show up).
+ *                  It stops at the requested number of clients,
+ *                      or as soon as the JVM / operating system refuses to start another thread,
+ *                      which is the maximum client count for that mode on this machine.
+ *                  Virtual threads are skipped on Java older than 21 (see HW04_ThreadStarter).
+ *
+ *                  java -classpath .:./core.jar HW04_ThreadModeBenchmark [max clients] [clients per step]
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.io.File;
+import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+// CLASS DEFINITION
+public class HW04_ThreadModeBenchmark {
+    
+    // Constants
+    private static final int N_DEFAULT_MAX_CLIENTS =    10000;
+    private static final int N_DEFAULT_STEP_CLIENTS =   1000;
+    
+    /*********************************************************************************************************
+     * FUNCTION:        main
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Main method for the benchmark
+     *
+     * ARGUMENTS:       args -  Optional maximum number of clients (default 10000)
+     *                          and number of clients to add per step (default 1000)
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void main (String[] args) {
+        try {
+            
+            // Declare variables
+            int nMaxClients;
+            int nStepClients;
+            
+            // Arguments
+            nMaxClients = args.length > 0 ? Integer.parseInt(args[0]) : N_DEFAULT_MAX_CLIENTS;
+            nStepClients = args.length > 1 ? Integer.parseInt(args[1]) : N_DEFAULT_STEP_CLIENTS;
+            
+            // Compare
+            System.out.println("Java:                " + System.getProperty("java.version"));
+            System.out.println("Max clients:         " + nMaxClients + " (2 threads each)");
+            measure(false, nMaxClients, nStepClients);
+            if (HW04_ThreadStarter.isVirtualAvailable() == true) {
+                measure(true, nMaxClients, nStepClients);
+            }
+            else {
+                System.out.println("\nVirtual threads:     not available (Java 21 or later needed)");
+            }
+            
+            // Some threads may not have gone quietly
+            System.exit(0);
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        measure
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Add simulated clients in steps, reporting on each step, then let them all go
+     *
+     * ARGUMENTS:       bVirtual -      True to use virtual threads, false to use platform threads
+     *                  nMaxClients -   Stop after this many clients
+     *                  nStepClients -  Clients to add per step
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void measure (boolean bVirtual, int nMaxClients, int nStepClients) {
+        try {
+            
+            // Declare variables
+            CopyOnWriteArrayList<Thread> aoThreads;
+            CountDownLatch oRelease;
+            Runnable oIdleClientThread;
+            String sStopReason;
+            long nStart_ns;
+            int nClients;
+            int i;
+            
+            // Every thread waits for the same latch, like an idle client waiting to hear something
+            oRelease = new CountDownLatch(1);
+            oIdleClientThread = createIdleThread(oRelease);
+            aoThreads = new CopyOnWriteArrayList<Thread>();
+            
+            // Header
+            System.out.println("\n" + (bVirtual ? "Virtual" : "Platform") + " threads");
+            System.out.println(String.format("%12s %16s %16s %16s", "Clients", "Step ms", "Heap MB", "Resident MB"));
+            
+            // Add clients until we reach the maximum, or can't start another thread
+            nClients = 0;
+            sStopReason = "reached requested maximum";
+            while (nClients < nMaxClients && sStopReason.startsWith("reached") == true) {
+                nStart_ns = System.nanoTime();
+                for (i = 0; i < nStepClients && nClients < nMaxClients; i++) {
+                    try {
+                        aoThreads.add(startThread(oIdleClientThread, bVirtual));
+                        aoThreads.add(startThread(oIdleClientThread, bVirtual));
+                        nClients++;
+                    }
+                    catch (Throwable oError) {
+                        sStopReason = "could not start another thread (" + oError + ")";
+                        break;
+                    }
+                }
+                report(nClients, System.nanoTime() - nStart_ns);
+            }
+            System.out.println("Max clients:         " + nClients + " - " + sStopReason);
+            
+            // Let them all go
+            oRelease.countDown();
+            for (Thread oThread : aoThreads) {
+                oThread.join();
+            }
+            aoThreads.clear();
+            System.gc();
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        createIdleThread
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Create the body of a thread that just waits to be let go
+     *
+     * ARGUMENTS:       oRelease -  What to wait for
+     *
+     * RETURNS:         oRunnable - The thread body
+     *********************************************************************************************************/
+    private static Runnable createIdleThread (final CountDownLatch oRelease) {
+        return new Runnable() {
+            public void run () {
+                try {
+                    oRelease.await();
+                }
+                catch (InterruptedException oError) {
+                    // Let go
+                }
+            }
+        };
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        startThread
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Start one thread.
+     *                  Unlike HW04_ThreadStarter.start, a platform thread that can't be started
+     *                      is passed up to the caller rather than treated as a fatal error,
+     *                      since finding that limit is the point of the benchmark.
+     *
+     * ARGUMENTS:       oRunnable - What the thread should run
+     *                  bVirtual -  True to start a virtual thread
+     *
+     * RETURNS:         oThread -   The thread (already started)
+     *********************************************************************************************************/
+    private static Thread startThread (Runnable oRunnable, boolean bVirtual) {
+        
+        // Declare variables
+        Thread oThread;
+        
+        if (bVirtual == true) {
+            oThread = HW04_ThreadStarter.start(oRunnable, true);
+        }
+        else {
+            oThread = new Thread(oRunnable);
+            oThread.start();
+        }
+        return oThread;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        report
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Print one line of results
+     *
+     * ARGUMENTS:       nClients -      Clients so far
+     *                  nStepTime_ns -  Time spent adding the latest step of clients
+     *
+     * RETURNS:         None
+     *********************************************************************************************************/
+    private static void report (int nClients, long nStepTime_ns) {
+        try {
+            
+            // Declare variables
+            Runtime oRuntime;
+            
+            oRuntime = Runtime.getRuntime();
+            System.out.println(String.format(
+                "%12d %16.1f %16.1f %16s",
+                nClients,
+                nStepTime_ns / 1e6,
+                (oRuntime.totalMemory() - oRuntime.freeMemory()) / (1024.0 * 1024.0),
+                getResidentMemory_MB()
+            ));
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getResidentMemory_MB
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the resident memory of this process, where the operating system will say (Linux)
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         sResident_MB -  Resident memory in MB, or "n/a"
+     *********************************************************************************************************/
+    private static String getResidentMemory_MB () {
+        
+        String sResident_MB = "n/a";
+        try {
+            
+            // Declare variables
+            File oFile;
+            Scanner oScanner;
+            String sLine;
+            
+            // VmRSS:    123456 kB
+            oFile = new File("/proc/self/status");
+            if (oFile.exists() == true) {
+                oScanner = new Scanner(oFile);
+                while (oScanner.hasNextLine() == true) {
+                    sLine = oScanner.nextLine();
+                    if (sLine.startsWith("VmRSS:") == true) {
+                        sResident_MB = String.format("%.1f", Long.parseLong(sLine.replaceAll("[^0-9]", "")) / 1024.0);
+                    }
+                }
+                oScanner.close();
+            }
+        
+        }
+        catch (Throwable oError) {
+            // Not available here
+        }
+        return sResident_MB;
+    
+    }
+
+}
@@ -0,0 +1,100 @@
+/*************************************************************************************************************
+ * FILE:            HW04_ThreadStarter.java
+ *
+ * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+ *
+ * DESCRIPTION:     Start threads either as ordinary (platform) threads,
+ *                      or as virtual threads (VIRTUAL option).
+ *                  A virtual thread that blocks (on a socket read, or on a queue) gives up its carrier thread,
+ *                      so a server can afford a read thread and a write thread per client
+ *                      for many more clients than it could with platform threads.
+ *                  Virtual threads are only available in Java 21 and later.
+ *                      This class looks for them when it is first used (so that it still compiles and runs on older Java),
+ *                      and falls back to platform threads if they aren't there.
+ *                  See HW04_ThreadModeBenchmark for a comparison of the two kinds of threads.
+ *************************************************************************************************************/
+
+// IMPORTS
+import java.lang.reflect.Method;
+
+// CLASS DEFINITION
+public class HW04_ThreadStarter {
+    
+    // Virtual thread builder and its start method (null if this Java doesn't have virtual threads)
+    private static Object oVirtualThreadBuilder =   null;
+    private static Method oVirtualThreadStart =     null;
+    
+    // Look for virtual threads once
+    static {
+        try {
+            oVirtualThreadBuilder = Thread.class.getMethod("ofVirtual").invoke(null);
+            oVirtualThreadStart = Class.forName("java.lang.Thread$Builder").getMethod("start", Runnable.class);
+        }
+        catch (Throwable oError) {
+            oVirtualThreadBuilder = null;
+            oVirtualThreadStart = null;
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        isVirtualAvailable
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out whether this Java has virtual threads
+     *
+     * ARGUMENTS:       None
+     *
+     * RETURNS:         bAvailable -    True if virtual threads are available
+     *********************************************************************************************************/
+    public static boolean isVirtualAvailable () {
+        return oVirtualThreadStart != null;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        start
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Start a thread, virtual if the VIRTUAL option is on (and virtual threads are available)
+     *
+     * ARGUMENTS:       oRunnable -     What the thread should run
+     *
+     * RETURNS:         oThread -       The thread (already started)
+     *********************************************************************************************************/
+    public static Thread start (Runnable oRunnable) {
+        return start(oRunnable, HW04_Globals.bVirtualThreads);
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        start
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Start a thread, virtual or platform
+     *
+     * ARGUMENTS:       oRunnable -     What the thread should run
+     *                  bVirtual -      True to start a virtual thread (if virtual threads are available)
+     *
+     * RETURNS:         oThread -       The thread (already started)
+     *********************************************************************************************************/
+    public static Thread start (Runnable oRunnable, boolean bVirtual) {
+        
+        Thread oThread = null;
+        try {
+            if (bVirtual == true && isVirtualAvailable() == true) {
+                oThread = (Thread) oVirtualThreadStart.invoke(oVirtualThreadBuilder, oRunnable);
+            }
+            else {
+                oThread = new Thread(oRunnable);
+                oThread.start();
+            }
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return oThread;
+    
+    }
+
+}
@@ -62,9 +62,15 @@ public abstract class HW04_Time implements HW04_EventObserver, java.io.Serializa
             // Register interest in pause events, but only for one instance otherwise we get swamped
             if (nTimelineInstances == 0) {
                 
-                // Register interest in user saying they want to pause so we can handle that locally
+                /* Register interest in user saying they want to pause so we can handle that locally
+                 *  (only that, not every key the user presses or releases)
+                 */
                 if (HW04_Globals.bClient == true) {
-                    O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.USER_INPUT, this, false);
+                    O_EVENT_MANAGER.registerForEvents(HW04_ObjectEvent.EventType.USER_INPUT, this, false, new HW04_EventFilter() {
+                        public boolean accept (HW04_ObjectEvent oEventToHandle) {
+                            return ((HW04_EventPayloadUserInput) oEventToHandle.getPayload()).sKey.equals("PAUSE");
+                        }
+                    });
                 }
 
                 /* Register interest in game pause events game-wide
@@ -450,16 +456,14 @@ public abstract class HW04_Time implements HW04_EventObserver, java.io.Serializa
         try {
             
             // Declare variables
-            ConcurrentHashMap<String, Object> oEventArguments;
-            
-            // Get event arguments
-            oEventArguments = oEventToHandle.getEventArguments();
+            HW04_EventPayloadUserInput oUserInput;
             
             // USER INPUT
             if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.USER_INPUT) {
+                oUserInput = (HW04_EventPayloadUserInput) oEventToHandle.getPayload();
                 if (
-                    oEventArguments.get("sKey").equals("PAUSE") && 
-                    oEventArguments.get("bPressed").equals("TRUE")
+                    oUserInput.sKey.equals("PAUSE") && 
+                    oUserInput.bPressed == true
                 ) {
                     if (isGamePaused() == true) {
                         if (HW04_Time.getLastClientPausedPlayerID() == HW04_Globals.nPlayerID) {
@@ -477,7 +481,7 @@ public abstract class HW04_Time implements HW04_EventObserver, java.io.Serializa
              *  Because another client may raise a pause event, we're not the only one who can do that
              */
             if (oEventToHandle.getEventType() == HW04_ObjectEvent.EventType.GAME_PAUSE) {
-                if (oEventArguments.get("bPaused").equals("TRUE")) {
+                if (((HW04_EventPayloadGamePause) oEventToHandle.getPayload()).bPaused == true) {
                     pauseGame();
                     nLastClientPausedPlayerID = oEventToHandle.getPlayerID();
                 }
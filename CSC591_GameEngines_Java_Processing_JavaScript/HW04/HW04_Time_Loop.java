@@ -25,6 +25,12 @@ public class HW04_Time_Loop extends HW04_Time {
     private double nTimeGameDelta_ms =              -1;
     private float nTickSize =                       1;
     
+    // Private variables used only with the FIXED option
+    private double nTimeGameLastFrame_ms =          -1;
+    private double nAccumulator_ms =                0;
+    private double nTimeDropped_ms =                0;
+    private long nFixedSteps =                      0;
+    
     /*********************************************************************************************************
      * FUNCTION:        HW04_Time_Loop Constructor
      *
@@ -105,6 +111,8 @@ public class HW04_Time_Loop extends HW04_Time {
                 // Start the loop time
                 this.nTimeLoopCurrent = 0;
                 this.nTimeGameLastIteration_ms = HW04_Time_Game.getInstance().getTime();
+                this.nTimeGameLastFrame_ms = this.nTimeGameLastIteration_ms;
+                this.nAccumulator_ms = 0;
                 // Note that the loop time has started
                 HW04_EventManager.getInstance().raiseEventAdmin("Loop Time Started");
             }
@@ -140,6 +148,8 @@ public class HW04_Time_Loop extends HW04_Time {
                 // Reset the loop time
                 this.nTimeLoopCurrent = 0;
                 this.nTimeGameLastIteration_ms = HW04_Time_Game.getInstance().getTime();
+                this.nTimeGameLastFrame_ms = this.nTimeGameLastIteration_ms;
+                this.nAccumulator_ms = 0;
             }
             
         }
@@ -292,6 +302,7 @@ public class HW04_Time_Loop extends HW04_Time {
      * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
      *
      * DESCRIPTION:     Increment loop iterations
+     *                  With the FIXED option, each iteration (step) is always the same length of game time
      * 
      * ARGUMENTS:       None
      * 
@@ -304,9 +315,16 @@ public class HW04_Time_Loop extends HW04_Time {
         
         /* Time delta calculations
          * Very simplistic - window is just one loop iteration wide!
+         * Not needed at all with fixed steps
          */
         nGameTimeCurrent_ms = HW04_Time_Game.getInstance().getTime();
-        this.nTimeGameDelta_ms = (long) ((nGameTimeCurrent_ms - this.nTimeGameLastIteration_ms) / this.nTickSize);
+        if (HW04_Globals.bFixedTimestep == true) {
+            this.nTimeGameDelta_ms = getFixedStep() / this.nTickSize;
+            this.nFixedSteps++;
+        }
+        else {
+            this.nTimeGameDelta_ms = (long) ((nGameTimeCurrent_ms - this.nTimeGameLastIteration_ms) / this.nTickSize);
+        }
         this.nTimeGameLastIteration_ms = nGameTimeCurrent_ms;
         
         // Tick
@@ -314,6 +332,109 @@ public class HW04_Time_Loop extends HW04_Time {
         
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        getFixedStep
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the length of one fixed step (FIXED option)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nStep_ms -  Game time simulated by one step
+     *********************************************************************************************************/
+    public static double getFixedStep () {
+        return 1000.0 / HW04_Globals.nFixedStepRate;
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        accumulateFixedSteps
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Find out how many fixed steps to simulate this frame (FIXED option).
+     *                  The game time that has passed since the last frame goes into an accumulator,
+     *                      and each step takes one step's worth back out,
+     *                      so over time the simulation keeps up with game time exactly,
+     *                      however the frames happen to line up with the steps.
+     *                  If the simulation has fallen so far behind that catching up would take more than
+     *                      the maximum number of steps (FIXED_MAX option), it only takes that many,
+     *                      and the rest of the backlog is dropped (the game runs slow rather than spiralling).
+     *                  Caller should call tick() once per step.
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nSteps -    How many steps to simulate (may be 0)
+     *********************************************************************************************************/
+    public int accumulateFixedSteps () {
+        
+        int nSteps = 0;
+        try {
+            
+            // Declare variables
+            double nGameTimeCurrent_ms;
+            double nStep_ms;
+            
+            // Add the game time since the last frame
+            nGameTimeCurrent_ms = HW04_Time_Game.getInstance().getTime();
+            nStep_ms = getFixedStep();
+            this.nAccumulator_ms += nGameTimeCurrent_ms - this.nTimeGameLastFrame_ms;
+            this.nTimeGameLastFrame_ms = nGameTimeCurrent_ms;
+            
+            // Take out as many steps as are due, up to the limit
+            nSteps = (int) Math.floor(this.nAccumulator_ms / nStep_ms);
+            if (nSteps > HW04_Globals.nFixedMaxSteps) {
+                this.nTimeDropped_ms += (nSteps - HW04_Globals.nFixedMaxSteps) * nStep_ms;
+                nSteps = HW04_Globals.nFixedMaxSteps;
+            }
+            this.nAccumulator_ms -= Math.floor(this.nAccumulator_ms / nStep_ms) * nStep_ms;
+        
+        }
+        catch (Throwable oError) {
+            HW04_Utility.handleError(oError);
+        }
+        return nSteps;
+    
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getInterpolation
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get how far game time has got towards the next fixed step (FIXED option),
+     *                      so that rendering can show objects part way between their last two positions
+     *                      (see HW04_ObjectLocated.getRenderPositionX)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nAlpha -    0 (at the last step) to 1 (at the next step)
+     *********************************************************************************************************/
+    public double getInterpolation () {
+        return Math.min(1, Math.max(0, this.nAccumulator_ms / getFixedStep()));
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getFixedStatistics
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Describe how the fixed steps went (FIXED option)
+     * 
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         sStatistics -   Steps simulated, and game time dropped because of the catch-up limit
+     *********************************************************************************************************/
+    public String getFixedStatistics () {
+        return String.format(
+            "Fixed timestep: %d steps of %.3f ms, %.1f ms of game time dropped (catch-up limit %d steps)",
+            this.nFixedSteps,
+            getFixedStep(),
+            this.nTimeDropped_ms,
+            HW04_Globals.nFixedMaxSteps
+        );
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getTimeDelta
      *
@@ -326,6 +447,7 @@ public class HW04_Time_Loop extends HW04_Time {
      * RETURNS:         nTimeDelta_ms - Calculated value for how long the last game loop iteration took.
      *                                  This is used to keep client and server objects moving at the correct speeds
      *                                  event when client and server frame rates differ.
+     *                                  With the FIXED option, this is always one step.
      *********************************************************************************************************/
     public double getTimeDelta() {
         double nTimeDelta_ms = -1;
@@ -32,6 +32,22 @@ public class HW04_Utility {
         return N_WINDOW_SIZE_PX;
     }
     
+    /*********************************************************************************************************
+     * FUNCTION:        getWorldWidth
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Get the width of the game world that both the client(s) and server should use
+     *                      (as wide as the window, unless the WORLD option makes it wider)
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         nWorldWidth_px -    The width of the game world, in pixels
+     *********************************************************************************************************/
+    public static int getWorldWidth () {
+        return N_WINDOW_SIZE_PX * HW04_Globals.nWorldWidthWindows;
+    }
+    
     /*********************************************************************************************************
      * FUNCTION:        getPortNumber
      *
@@ -114,9 +130,13 @@ public class HW04_Utility {
             oRandomizer = new Random();
             nPortNumber = 5100 + oRandomizer.nextInt(300);
             
-            // Write port number to file
+            /* Write port number to file
+             * Follow it with any options that change what goes over the wire,
+             * so that the client talks to the server in the same way
+             */
             oFileWriter = new FileWriter(oFile);
             oFileWriter.write(String.valueOf(nPortNumber));
+            oFileWriter.write(getNetworkOptions());
             oFileWriter.close();
             
         }
@@ -127,6 +147,308 @@ public class HW04_Utility {
         
     }
 
+    /*********************************************************************************************************
+     * FUNCTION:        loadNetworkOptions
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Read the options that the server wrote to file after the port number (see setPortNumber),
+     *                      and apply them here so that the client talks to the server in the same way.
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         None
+     *********************************************************************************************************/
+    public static void loadNetworkOptions () {
+        try {
+            
+            // Declare variables
+            File oFile;
+            Scanner oScanner;
+            
+            // Get port file
+            oFile = new File("port.txt");
+            
+            // Skip the port number, then apply every option that follows it
+            if (oFile.exists() == true) {
+                oScanner = new Scanner(oFile);
+                if (oScanner.hasNextInt() == true) {
+                    oScanner.nextInt();
+                }
+                while (oScanner.hasNext() == true) {
+                    if (setOption(oScanner.next()) == false) {
+                        throw new Exception("Server wrote an option to 'port.txt' that the client does not recognize");
+                    }
+                }
+                oScanner.close();
+            }
+            
+        }
+        catch (Throwable oError) {
+            handleError(oError);
+        }
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        getNetworkOptions
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Describe the options in effect that change what goes over the wire,
+     *                      or that client and server must agree on (the fixed step, so that physics match).
+     *                  Options that only change how the server runs internally are not included.
+     *                  The size of the game world is included too (the client has to know where it can scroll to).
+     *
+     * ARGUMENTS:       None
+     * 
+     * RETURNS:         sOptions -  Space-separated options (each preceded by a space), or empty string
+     *********************************************************************************************************/
+    public static String getNetworkOptions () {
+        
+        String sOptions = "";
+        try {
+            
+            if (HW04_Globals.bFramedMessages == true) {
+                sOptions += " FRAMED";
+            }
+            if (HW04_Globals.bBinaryMessages == true) {
+                sOptions += " BINARY";
+            }
+            if (HW04_Globals.bFramePackets == true) {
+                sOptions += " PACKETS";
+            }
+            if (HW04_Globals.bDatagramSnapshots == true) {
+                sOptions += " UDP";
+            }
+            if (HW04_Globals.bFixedTimestep == true) {
+                sOptions += " FIXED=" + HW04_Globals.nFixedStepRate;
+            }
+            if (HW04_Globals.nWorldWidthWindows > 1) {
+                sOptions += " WORLD=" + HW04_Globals.nWorldWidthWindows;
+            }
+            
+        }
+        catch (Throwable oError) {
+            handleError(oError);
+        }
+        return sOptions;
+        
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        parseOptions
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Parse optional engine arguments (which may be given in any order) 
+     *                      that follow the positional arguments on the command line.
+     *
+     * ARGUMENTS:       asArgs -            Command line arguments
+     *                  nFirstOption -      Index of the first command line argument that is an engine option
+     * 
+     * RETURNS:         bValid -    True if every option was recognized
+     *********************************************************************************************************/
+    public static boolean parseOptions (String[] asArgs, int nFirstOption) {
+        
+        boolean bValid = true;
+        try {
+            
+            // Declare variables
+            int i;
+            
+            // Apply each option in turn
+            for (i = nFirstOption; i < asArgs.length; i++) {
+                if (setOption(asArgs[i]) == false) {
+                    System.out.println("\nOption '" + asArgs[i] + "' not recognized");
+                    bValid = false;
+                }
+            }
+            
+        }
+        catch (Throwable oError) {
+            handleError(oError);
+        }
+        return bValid;
+        
+    }
+    
+    /*********************************************************************************************************
+     * FUNCTION:        setOption
+     *
+     * AUTHOR:          attiffan    Aurora T. Tiffany-Davis
+     *
+     * DESCRIPTION:     Apply one engine option.
+     *                  Options are given as NAME or NAME=VALUE.
+     *                      FRAMED -        Send each message as a length-prefixed frame
+     *                                      instead of as part of one long object stream
+     *                      BINARY -        Encode each message in a compact binary format
+     *                                      instead of with Java serialization.
+     *                                      Implies FRAMED.
+     *                      SELECTOR[=n] -  (Server) Multiplex all client sockets over n I/O threads (default 2)
+     *                                      instead of using a read thread and a write thread per client.
+     *                                      Implies FRAMED.
+     *                      DELTA -         (Server) Only send clients the replicated fields of a game object
+     *                                      that have changed since they last heard about it.
+     *                      PACKETS -       Collect everything sent during one game loop iteration into one packet,
+     *                                      flushed once (with Nagle's algorithm turned off).
+     *                                      Implies FRAMED.
+     *                      UDP -           Send snapshots of game objects that clients already know about over UDP
+     *                                      (see HW04_DatagramTransport).
+     *                      UDP_LOSS=n -    (Server) Pretend to lose n% of UDP snapshots. Implies UDP.
+     *                      UDP_JITTER=n -  (Server) Pretend to hold each UDP snapshot back by 0 - n ms. Implies UDP.
+     *                      VIRTUAL -       (Server) Run the accept thread and each client's read and write threads
+     *                                      as virtual threads (Java 21 and later, see HW04_ThreadStarter).
+     *                      HEADLESS -      (Server) No window - run the game loop on a thread of its own
+     *                                      instead of with Processing's draw(), and quit on 'Q' + Enter.
+     *                      FIXED[=n] -     Simulate in fixed steps of 1/n seconds (default 60 per second),
+     *                                      however long each frame takes, and render between the last two steps
+     *                                      (see HW04_Time_Loop.accumulateFixedSteps).
+     *                      FIXED_MAX=n -   Simulate at most n steps in one frame to catch up (default 5). Implies FIXED.
+     *                      PARALLEL[=n] -  (Server) Move platforms, enemies, bullets and shooter bubbles on n worker threads
+     *                                      (default one per core), checking for collisions against a snapshot
+     *                                      (see HW04_ParallelTick).
+     *                      COLUMNS -       (Server) Keep the position, speed, size, color and flags
+     *                                      of bullets, enemies and bubbles in one array per value,
+     *                                      leaving each object only a handle to its slot,
+     *                                      and move bullets a column at a time (see HW04_ColumnStore).
+     *                      POOL -          (Server) Reuse bullets and bubbles that have left the game,
+     *                                      each time with a new generation of its GUID (see HW04_ObjectPool).
+     *                      WORLD=n -       Make the game world n windows wide (2D Platformer),
+     *                                      with each client's view following its character.
+     *                      INTEREST[=n] -  (Server) Only tell each client about collidable game objects
+     *                                      within n pixels of its character (default one window),
+     *                                      as they come and go (see HW04_InterestManager).
+     *                      SHARDS[=n] -    Handle events on n threads (default one per core) instead of one,
+     *                                      keeping events about the same game object or player on the same thread
+     *                                      (see HW04_EventManager).
+     *                      LANES -         Queue events in one lock-free lane per priority level
+     *                                      instead of in a PriorityBlockingQueue (see HW04_EventLanes).
+     *                      EVENT_POOL -    Reuse events (and their typed arguments) once they have been handled
+     *                                      instead of making new ones (see HW04_EventPool).
+     *                      COALESCE -      Raise at most one game object change event per game object
+     *                                      per game loop iteration, the latest (see HW04_EventManager.endTick).
+     *
+     * ARGUMENTS:       sOption -   The option
+     * 
+     * RETURNS:         bRecognized -   True if the option was recognized
+     *********************************************************************************************************/
+    private static boolean setOption (String sOption) {
+        
+        boolean bRecognized = true;
+        try {
+            
+            // Declare variables
+            String sName;
+            String sValue;
+            
+            // Split the option into name and (optional) value
+            if (sOption.contains("=") == true) {
+                sName =     sOption.substring(0, sOption.indexOf("=")).toUpperCase();
+                sValue =    sOption.substring(sOption.indexOf("=") + 1);
+            }
+            else {
+                sName =     sOption.toUpperCase();
+                sValue =    null;
+            }
+            
+            // Apply the option
+            switch (sName) {
+                case "FRAMED":
+                    HW04_Globals.bFramedMessages = true;
+                    break;
+                case "BINARY":
+                    HW04_Globals.bBinaryMessages = true;
+                    HW04_Globals.bFramedMessages = true;
+                    break;
+                case "SELECTOR":
+                    HW04_Globals.bServerSelector = true;
+                    HW04_Globals.bFramedMessages = true;
+                    if (sValue != null) {
+                        HW04_Globals.nServerIOThreads = Math.max(1, Integer.parseInt(sValue));
+                    }
+                    break;
+                case "DELTA":
+                    HW04_Globals.bDeltaReplication = true;
+                    break;
+                case "PACKETS":
+                    HW04_Globals.bFramePackets = true;
+                    HW04_Globals.bFramedMessages = true;
+                    break;
+                case "UDP":
+                    HW04_Globals.bDatagramSnapshots = true;
+                    break;
+                case "UDP_LOSS":
+                    HW04_Globals.bDatagramSnapshots = true;
+                    HW04_Globals.nDatagramLossPercent = Math.max(0, Math.min(100, Integer.parseInt(sValue)));
+                    break;
+                case "UDP_JITTER":
+                    HW04_Globals.bDatagramSnapshots = true;
+                    HW04_Globals.nDatagramJitter_ms = Math.max(0, Integer.parseInt(sValue));
+                    break;
+                case "VIRTUAL":
+                    HW04_Globals.bVirtualThreads = true;
+                    break;
+                case "HEADLESS":
+                    HW04_Globals.bHeadless = true;
+                    break;
+                case "FIXED":
+                    HW04_Globals.bFixedTimestep = true;
+                    if (sValue != null) {
+                        HW04_Globals.nFixedStepRate = Math.max(1, Integer.parseInt(sValue));
+                    }
+                    break;
+                case "FIXED_MAX":
+                    HW04_Globals.bFixedTimestep = true;
+                    HW04_Globals.nFixedMaxSteps = Math.max(1, Integer.parseInt(sValue));
+                    break;
+                case "PARALLEL":
+                    HW04_Globals.bParallelTick = true;
+                    if (sValue != null) {
+                        HW04_Globals.nParallelThreads = Math.max(1, Integer.parseInt(sValue));
+                    }
+                    break;
+                case "COLUMNS":
+                    HW04_Globals.bColumnStorage = true;
+                    break;
+                case "POOL":
+                    HW04_Globals.bObjectPooling = true;
+                    break;
+                case "WORLD":
+                    HW04_Globals.nWorldWidthWindows = Math.max(1, Integer.parseInt(sValue));
+                    break;
+                case "INTEREST":
+                    HW04_Globals.bInterestManagement = true;
+                    if (sValue != null) {
+                        HW04_Globals.nInterestRadius_px = Math.max(1, Integer.parseInt(sValue));
+                    }
+                    break;
+                case "SHARDS":
+                    HW04_Globals.bShardedEvents = true;
+                    if (sValue != null) {
+                        HW04_Globals.nEventShards = Math.max(1, Integer.parseInt(sValue));
+                    }
+                    break;
+                case "LANES":
+                    HW04_Globals.bEventLanes = true;
+                    break;
+                case "EVENT_POOL":
+                    HW04_Globals.bEventPooling = true;
+                    break;
+                case "COALESCE":
+                    HW04_Globals.bCoalesceEvents = true;
+                    break;
+                default:
+                    bRecognized = false;
+            }
+            
+        }
+        catch (Throwable oError) {
+            handleError(oError);
+        }
+        return bRecognized;
+        
+    }
+
     /*********************************************************************************************************
      * FUNCTION:        handleError
      *